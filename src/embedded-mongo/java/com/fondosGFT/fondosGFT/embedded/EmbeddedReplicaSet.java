@@ -0,0 +1,70 @@
+package com.fondosGFT.fondosGFT.embedded;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.flapdoodle.embed.mongo.commands.MongodArguments;
+import de.flapdoodle.embed.mongo.config.Storage;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import de.flapdoodle.reverse.transitions.Start;
+import org.bson.Document;
+
+import java.util.List;
+
+/**
+ * Embedded single-node MongoDB replica set, the smallest topology that supports multi-document transactions.
+ * The {@code mongod} binary is downloaded on first use and cached by flapdoodle.
+ * It is shared by the benchmarks and the load test, whose Maven profiles both add {@code src/embedded-mongo/java}.
+ */
+public final class EmbeddedReplicaSet implements AutoCloseable {
+
+    private static final String REPLICA_SET = "rs0";
+    private static final long PRIMARY_TIMEOUT_MS = 30_000;
+
+    private final TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private final String connectionString;
+
+    /**
+     * Starts the server and waits until it is the writable primary of its replica set.
+     */
+    public EmbeddedReplicaSet() {
+        mongod = Mongod.instance()
+                .withMongodArguments(Start.to(MongodArguments.class).initializedWith(MongodArguments.defaults()
+                        .withUseNoJournal(false)
+                        .withReplication(Storage.of(REPLICA_SET, 0))))
+                .start(Version.Main.V7_0);
+        String address = "localhost:" + mongod.current().getServerAddress().getPort();
+        connectionString = "mongodb://" + address + "/?directConnection=true";
+
+        try (MongoClient client = MongoClients.create(connectionString)) {
+            client.getDatabase("admin").runCommand(new Document("replSetInitiate", new Document("_id", REPLICA_SET)
+                    .append("members", List.of(new Document("_id", 0).append("host", address)))));
+            long deadline = System.currentTimeMillis() + PRIMARY_TIMEOUT_MS;
+            while (!Boolean.TRUE.equals(client.getDatabase("admin").runCommand(new Document("hello", 1)).getBoolean("isWritablePrimary"))) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("The embedded replica set did not elect a primary");
+                }
+                Thread.sleep(100);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while starting the embedded replica set", e);
+        }
+    }
+
+    /**
+     * Returns the connection string of the server.
+     *
+     * @return The connection string.
+     */
+    public String connectionString() {
+        return connectionString;
+    }
+
+    @Override
+    public void close() {
+        mongod.close();
+    }
+}
@@ -0,0 +1,148 @@
+package com.fondosGFT.fondosGFT.benchmark;
+
+import com.fondosGFT.fondosGFT.model.client.Client;
+import com.fondosGFT.fondosGFT.model.nav.NavBucket;
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoDatabase;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link MongoTemplate} answering the conditional balance updates of the transaction hot path from an
+ * {@link InMemoryRepository} of clients instead of MongoDB.
+ * <p>
+ * Only {@link #findAndModify(Query, UpdateDefinition, FindAndModifyOptions, Class)} on {@link Client} is
+ * supported, for the filter and update shapes built by {@code TransactionService}: a match on {@code id},
+ * an optional {@code $expr} comparing the balance with {@code $gte}, and a pipeline update setting
+ * {@code currentBalance} with {@code $add} or {@code $subtract}. {@link #find(Query, Class)} on {@link NavBucket}
+ * finds no NAV history, so the latest price cache prices every fund at its stored unit price. Every other
+ * operation fails, since the database factory behind the template has no database.
+ * </p>
+ */
+public class InMemoryMongoTemplate extends MongoTemplate {
+
+    private final InMemoryRepository<Client> clients;
+
+    /**
+     * Constructs a new InMemoryMongoTemplate.
+     *
+     * @param clients The clients the balance updates are applied to.
+     */
+    public InMemoryMongoTemplate(InMemoryRepository<Client> clients) {
+        super(new NoDatabaseFactory());
+        this.clients = clients;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T findAndModify(Query query, UpdateDefinition update, FindAndModifyOptions options, Class<T> entityClass) {
+        if (entityClass != Client.class) {
+            throw new UnsupportedOperationException("Not supported by the in-memory fake: findAndModify on " + entityClass);
+        }
+        Document filter = query.getQueryObject();
+        BigDecimal minimum = filter.containsKey("$and") ? operand(((AggregationExpression) filter.getList("$and", Document.class)
+                .get(0).get("$expr")).toDocument(Aggregation.DEFAULT_CONTEXT), "$gte") : null;
+        Document balance = ((AggregationUpdate) update).toPipeline(Aggregation.DEFAULT_CONTEXT).get(0)
+                .get("$set", Document.class).get("currentBalance", Document.class);
+        BigDecimal delta = balance.containsKey("$add") ? operand(balance, "$add") : operand(balance, "$subtract").negate();
+
+        synchronized (clients) {
+            Client client = clients.get(filter.getString("id"));
+            if (client == null) {
+                return null;
+            }
+            if (minimum != null && client.getCurrentBalance().compareTo(minimum) < 0) {
+                return null;
+            }
+            Client before = snapshot(client);
+            client.setCurrentBalance(client.getCurrentBalance().add(delta));
+            return (T) (options.isReturnNew() ? snapshot(client) : before);
+        }
+    }
+
+    @Override
+    public <T> List<T> find(Query query, Class<T> entityClass) {
+        if (entityClass != NavBucket.class) {
+            throw new UnsupportedOperationException("Not supported by the in-memory fake: find on " + entityClass);
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Reads the amount of a balance expression such as {@code {$gte: [{$toDecimal: "$currentBalance"}, amount]}}.
+     *
+     * @param expression The rendered expression.
+     * @param operator   The operator of the expression.
+     * @return The amount the balance is compared with or changed by.
+     */
+    private static BigDecimal operand(Document expression, String operator) {
+        return ((Decimal128) expression.getList(operator, Object.class).get(1)).bigDecimalValue();
+    }
+
+    /**
+     * Copies the client fields read by the transaction hot path, as a document read from MongoDB would.
+     *
+     * @param client The stored client.
+     * @return The copy.
+     */
+    private static Client snapshot(Client client) {
+        Client copy = new Client();
+        copy.setId(client.getId());
+        copy.setFirstName(client.getFirstName());
+        copy.setLastName(client.getLastName());
+        copy.setCity(client.getCity());
+        copy.setCurrentBalance(client.getCurrentBalance());
+        copy.setNotificationPreference(client.getNotificationPreference());
+        copy.setEmail(client.getEmail());
+        copy.setPhoneNumber(client.getPhoneNumber());
+        return copy;
+    }
+
+    /**
+     * Database factory without a database, so the template can be built without a MongoDB client.
+     */
+    private static final class NoDatabaseFactory implements MongoDatabaseFactory {
+
+        private final MongoExceptionTranslator exceptionTranslator = new MongoExceptionTranslator();
+
+        @Override
+        public MongoDatabase getMongoDatabase() {
+            throw new UnsupportedOperationException("The in-memory fake has no database.");
+        }
+
+        @Override
+        public MongoDatabase getMongoDatabase(String dbName) {
+            throw new UnsupportedOperationException("The in-memory fake has no database.");
+        }
+
+        @Override
+        public PersistenceExceptionTranslator getExceptionTranslator() {
+            return exceptionTranslator;
+        }
+
+        @Override
+        public ClientSession getSession(ClientSessionOptions options) {
+            throw new UnsupportedOperationException("The in-memory fake has no sessions.");
+        }
+
+        @Override
+        public MongoDatabaseFactory withSession(ClientSession session) {
+            throw new UnsupportedOperationException("The in-memory fake has no sessions.");
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.fondosGFT.fondosGFT.benchmark;
+
+import org.bson.types.ObjectId;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * In-memory fake of a Spring Data repository, used by the benchmarks in place of MongoDB.
+ * It implements the CRUD methods the services call on the hot path ({@code save}, {@code insert},
+ * {@code delete}, {@code findById}, {@code findAll} and {@code count}); any other repository method
+ * throws {@link UnsupportedOperationException}, so a benchmark never silently measures a no-op.
+ * <p>
+ * A <em>sink</em> only assigns IDs to the documents written to it and does not keep them, so write-only
+ * collections such as transactions do not grow without bound during a long measurement.
+ * </p>
+ *
+ * @param <T> The entity type stored by the repository.
+ */
+public final class InMemoryRepository<T> implements InvocationHandler {
+
+    private final Map<String, T> documents = new ConcurrentHashMap<>();
+    private final Function<T, String> idOf;
+    private final BiConsumer<T, String> idSetter;
+    private final boolean sink;
+
+    /**
+     * Constructs a new InMemoryRepository.
+     *
+     * @param idOf     Reads the ID of an entity.
+     * @param idSetter Assigns a generated ID to an entity saved without one.
+     * @param sink     Whether written documents are discarded instead of stored.
+     */
+    private InMemoryRepository(Function<T, String> idOf, BiConsumer<T, String> idSetter, boolean sink) {
+        this.idOf = idOf;
+        this.idSetter = idSetter;
+        this.sink = sink;
+    }
+
+    /**
+     * Creates a fake that stores the documents written to it.
+     *
+     * @param idOf     Reads the ID of an entity.
+     * @param idSetter Assigns a generated ID to an entity saved without one.
+     * @param <T>      The entity type.
+     * @return The fake.
+     */
+    public static <T> InMemoryRepository<T> storing(Function<T, String> idOf, BiConsumer<T, String> idSetter) {
+        return new InMemoryRepository<>(idOf, idSetter, false);
+    }
+
+    /**
+     * Creates a fake that assigns IDs to the documents written to it and discards them.
+     *
+     * @param idOf     Reads the ID of an entity.
+     * @param idSetter Assigns a generated ID to an entity saved without one.
+     * @param <T>      The entity type.
+     * @return The fake.
+     */
+    public static <T> InMemoryRepository<T> sink(Function<T, String> idOf, BiConsumer<T, String> idSetter) {
+        return new InMemoryRepository<>(idOf, idSetter, true);
+    }
+
+    /**
+     * Creates a proxy implementing a repository interface on top of this fake.
+     *
+     * @param repositoryType The repository interface.
+     * @param <R>            The repository type.
+     * @return The repository.
+     */
+    public <R> R as(Class<R> repositoryType) {
+        return repositoryType.cast(Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType}, this));
+    }
+
+    /**
+     * Stores a document directly, bypassing the sink setting.
+     *
+     * @param document The document to store.
+     */
+    public void put(T document) {
+        documents.put(idOf.apply(document), document);
+    }
+
+    /**
+     * Retrieves a stored document.
+     *
+     * @param id The ID of the document.
+     * @return The document, or {@code null} if none is stored with that ID.
+     */
+    public T get(String id) {
+        return documents.get(id);
+    }
+
+    /**
+     * Removes every stored document.
+     */
+    public void clear() {
+        documents.clear();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "save", "insert" -> {
+                if (args[0] instanceof Iterable<?> entities) {
+                    entities.forEach(entity -> write((T) entity));
+                } else {
+                    write((T) args[0]);
+                }
+                return args[0];
+            }
+            case "delete" -> {
+                documents.remove(idOf.apply((T) args[0]));
+                return null;
+            }
+            case "findById" -> {
+                return Optional.ofNullable(documents.get((String) args[0]));
+            }
+            case "findAll" -> {
+                return new ArrayList<>(documents.values());
+            }
+            case "count" -> {
+                return (long) documents.size();
+            }
+            case "toString" -> {
+                return "InMemoryRepository" + documents.keySet();
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(proxy);
+            }
+            case "equals" -> {
+                return proxy == args[0];
+            }
+            default -> throw new UnsupportedOperationException("Not supported by the in-memory fake: " + method);
+        }
+    }
+
+    /**
+     * Assigns an ID to a document if needed and stores it, unless this fake is a sink.
+     *
+     * @param document The document written.
+     */
+    private void write(T document) {
+        if (idOf.apply(document) == null) {
+            idSetter.accept(document, new ObjectId().toHexString());
+        }
+        if (!sink) {
+            put(document);
+        }
+    }
+}
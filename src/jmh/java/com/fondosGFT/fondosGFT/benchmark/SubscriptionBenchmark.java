@@ -0,0 +1,132 @@
+package com.fondosGFT.fondosGFT.benchmark;
+
+import com.fondosGFT.fondosGFT.model.client.Client;
+import com.fondosGFT.fondosGFT.model.fund.Fund;
+import com.fondosGFT.fondosGFT.model.fund.FundStatsShard;
+import com.fondosGFT.fondosGFT.model.investment.Investment;
+import com.fondosGFT.fondosGFT.model.notification.NotificationOutbox;
+import com.fondosGFT.fondosGFT.model.transaction.Transaction;
+import com.fondosGFT.fondosGFT.repository.client.ClientRepository;
+import com.fondosGFT.fondosGFT.repository.fund.FundRepository;
+import com.fondosGFT.fondosGFT.repository.fund.FundStatsShardRepository;
+import com.fondosGFT.fondosGFT.repository.investment.InvestmentRepository;
+import com.fondosGFT.fondosGFT.repository.notification.NotificationOutboxRepository;
+import com.fondosGFT.fondosGFT.repository.transaction.TransactionRepository;
+import com.fondosGFT.fondosGFT.service.fund.FundCatalog;
+import com.fondosGFT.fondosGFT.service.fund.FundStatsService;
+import com.fondosGFT.fondosGFT.service.nav.LatestPriceCache;
+import com.fondosGFT.fondosGFT.service.notification.NotificationOutboxService;
+import com.fondosGFT.fondosGFT.service.retry.ContentionRetryPolicy;
+import com.fondosGFT.fondosGFT.service.transaction.ClientLaneExecutor;
+import com.fondosGFT.fondosGFT.service.transaction.MongoTransactionRunner;
+import com.fondosGFT.fondosGFT.service.transaction.TransactionService;
+import com.fondosGFT.fondosGFT.util.enums.NotificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmark of {@link TransactionService#subscribeFund(String, String, BigDecimal)} without
+ * the network: the repositories and the {@link org.springframework.data.mongodb.core.MongoTemplate} are
+ * in-memory fakes, and the fund catalog, fund totals and notification outbox are the real services
+ * running on top of them. It therefore measures the Java cost of a subscription: validation, UUID
+ * generation, unit and balance arithmetic, building the update documents, the notification message and
+ * the outbox entry, and recording the operation timer.
+ * <p>
+ * The service is called directly, not through a Spring proxy, so {@code @CacheEvict} is not part of the
+ * measurement, and it runs in the default {@code atomic} transaction mode; {@link TransactionModeBenchmark}
+ * compares the transaction modes against a real MongoDB. Each call subscribes the next client of a pool to
+ * the next fund, and the balances are large enough never to run out.
+ * </p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubscriptionBenchmark {
+
+    private static final int CLIENTS = 1024;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000000000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("300000.00");
+
+    private final InMemoryRepository<Client> clients = InMemoryRepository.storing(Client::getId, Client::setId);
+    private TransactionService transactionService;
+    private String[] clientIds;
+    private String[] fundIds;
+    private int next;
+
+    /**
+     * Wires the transaction service to the in-memory fakes and creates the funds and clients.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryRepository<Fund> funds = InMemoryRepository.storing(Fund::getId, Fund::setId);
+        funds.put(new Fund("1", "FPV_BTG_PACTUAL_RECAUDADORA", "FPV", new BigDecimal("75000.00")));
+        funds.put(new Fund("2", "FPV_BTG_PACTUAL_ECOPETROL", "FPV", new BigDecimal("125000.00")));
+        funds.put(new Fund("3", "DEUDAPRIVADA", "FIC", new BigDecimal("50000.00")));
+        funds.put(new Fund("4", "FDO-ACCIONES", "FIC", new BigDecimal("250000.00")));
+        funds.put(new Fund("5", "FPV_BTG_PACTUAL_DINAMICA", "FPV", new BigDecimal("100000.00")));
+        fundIds = new String[]{"1", "2", "3", "4", "5"};
+
+        clientIds = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            Client client = new Client();
+            client.setId("client-" + i);
+            client.setFirstName("Client");
+            client.setLastName(String.valueOf(i));
+            client.setCity("Bogota");
+            client.setCurrentBalance(INITIAL_BALANCE);
+            client.setNotificationPreference(i % 2 == 0 ? NotificationType.EMAIL : NotificationType.SMS);
+            client.setEmail("client" + i + "@example.com");
+            client.setPhoneNumber("+5730000" + String.format("%05d", i));
+            clients.put(client);
+            clientIds[i] = client.getId();
+        }
+
+        InMemoryMongoTemplate mongoTemplate = new InMemoryMongoTemplate(clients);
+        FundCatalog fundCatalog = new FundCatalog(funds.as(FundRepository.class));
+        FundStatsService fundStatsService = new FundStatsService(
+                InMemoryRepository.<FundStatsShard>sink(FundStatsShard::getId, FundStatsShard::setId).as(FundStatsShardRepository.class),
+                mongoTemplate, 8, true);
+        NotificationOutboxService outboxService = new NotificationOutboxService(
+                InMemoryRepository.<NotificationOutbox>sink(NotificationOutbox::getId, NotificationOutbox::setId).as(NotificationOutboxRepository.class));
+        transactionService = new TransactionService(
+                clients.as(ClientRepository.class),
+                InMemoryRepository.<Investment>sink(Investment::getId, Investment::setId).as(InvestmentRepository.class),
+                fundCatalog,
+                fundStatsService,
+                new LatestPriceCache(mongoTemplate, fundCatalog),
+                InMemoryRepository.<Transaction>sink(Transaction::getId, Transaction::setId).as(TransactionRepository.class),
+                outboxService,
+                mongoTemplate,
+                new SimpleMeterRegistry(),
+                new MongoTransactionRunner(Optional.empty(), new ContentionRetryPolicy(new SimpleMeterRegistry(), 1, 0, 0)),
+                new ClientLaneExecutor(new SimpleMeterRegistry(), false, 1, 1, 1));
+    }
+
+    /**
+     * Subscribes the next client of the pool to the next fund.
+     *
+     * @return The subscription transaction, consumed by JMH.
+     */
+    @Benchmark
+    public Transaction subscribeFund() {
+        int call = next++;
+        return transactionService.subscribeFund(clientIds[call % CLIENTS], fundIds[call % fundIds.length], AMOUNT);
+    }
+}
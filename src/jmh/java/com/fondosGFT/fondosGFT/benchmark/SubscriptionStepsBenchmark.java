@@ -0,0 +1,189 @@
+package com.fondosGFT.fondosGFT.benchmark;
+
+import com.fondosGFT.fondosGFT.mapper.transaction.TransactionMapper;
+import com.fondosGFT.fondosGFT.mapper.transaction.TransactionMapperImpl;
+import com.fondosGFT.fondosGFT.model.fund.Fund;
+import com.fondosGFT.fondosGFT.model.investment.Investment;
+import com.fondosGFT.fondosGFT.model.transaction.Transaction;
+import com.fondosGFT.fondosGFT.model.transaction.dto.TransactionResponseDTO;
+import com.fondosGFT.fondosGFT.util.enums.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the individual steps of a subscription, to locate the cost measured by {@link SubscriptionBenchmark}.
+ * Where a step has an alternative implementation, both are measured side by side:
+ * <ul>
+ * <li>the linear scan of a client's embedded {@code activeInvestments} used before investments moved to their
+ * own collection, against a keyed lookup of the position;</li>
+ * <li>{@code String.format} against plain concatenation for the notification message;</li>
+ * <li>the generated {@link TransactionMapper} against {@link BeanUtils#copyProperties(Object, Object)}.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubscriptionStepsBenchmark {
+
+    /**
+     * Number of active investments held by the client.
+     */
+    @Param({"1", "5", "50"})
+    public int positions;
+
+    private final TransactionMapper transactionMapper = new TransactionMapperImpl();
+    private Fund fund;
+    private BigDecimal amount;
+    private BigDecimal balance;
+    private List<Investment> activeInvestments;
+    private Map<String, Investment> positionsByKey;
+    private String missingFundId;
+    private Transaction transaction;
+
+    /**
+     * Creates the fund, the client's positions and a completed transaction.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        fund = new Fund("1", "FPV_BTG_PACTUAL_RECAUDADORA", "FPV", new BigDecimal("75000.00"));
+        fund.setUnitPrice(new BigDecimal("1.234567"));
+        amount = new BigDecimal("300000.00");
+        balance = new BigDecimal("500000.00");
+
+        activeInvestments = new ArrayList<>(positions);
+        positionsByKey = new HashMap<>();
+        for (int i = 0; i < positions; i++) {
+            Investment investment = new Investment("client-1", "fund-" + i, "Fund " + i, amount, amount,
+                    LocalDateTime.now(), UUID.randomUUID().toString());
+            activeInvestments.add(investment);
+            positionsByKey.put(investment.getClientId() + ":" + investment.getFundId(), investment);
+        }
+        missingFundId = "fund-" + positions;
+
+        transaction = new Transaction("id-1", UUID.randomUUID().toString(), "client-1", fund.getId(), fund.getName(),
+                TransactionType.SUSCRIPTION, amount, LocalDateTime.now(), balance, balance.subtract(amount), "COMPLETED", null);
+    }
+
+    /**
+     * Validates the amount against the fund's minimum and the client's balance.
+     *
+     * @return Whether the subscription is valid.
+     */
+    @Benchmark
+    public boolean validation() {
+        return amount.compareTo(fund.getMinimumSubscriptionAmount()) >= 0 && balance.compareTo(amount) >= 0;
+    }
+
+    /**
+     * Checks for an existing position by scanning the client's investments, as the embedded
+     * {@code activeInvestments} list required. A new subscription scans the whole list.
+     *
+     * @return Whether the client already holds a position in the fund.
+     */
+    @Benchmark
+    public boolean activeInvestmentsLinearScan() {
+        return activeInvestments.stream().anyMatch(investment -> investment.getFundId().equals(missingFundId));
+    }
+
+    /**
+     * Checks for an existing position with a keyed lookup, as the unique {@code (clientId, fundId)} index does.
+     *
+     * @return Whether the client already holds a position in the fund.
+     */
+    @Benchmark
+    public boolean positionKeyedLookup() {
+        return positionsByKey.containsKey("client-1:" + missingFundId);
+    }
+
+    /**
+     * Builds the subscription confirmation as {@code TransactionService} does.
+     *
+     * @return The message.
+     */
+    @Benchmark
+    public String notificationMessageFormat() {
+        return String.format(
+                "Dear %s %s, your subscription to fund %s has been successful for an amount of COP %.2f. " +
+                        "Your new available balance is COP %.2f.",
+                "Client", "1", fund.getName(), amount, balance.subtract(amount));
+    }
+
+    /**
+     * Builds the same message with string concatenation and {@link BigDecimal} rounding.
+     *
+     * @return The message.
+     */
+    @Benchmark
+    public String notificationMessageConcatenation() {
+        return "Dear " + "Client" + " " + "1" + ", your subscription to fund " + fund.getName()
+                + " has been successful for an amount of COP " + amount.setScale(2, RoundingMode.HALF_UP).toPlainString()
+                + ". Your new available balance is COP " + balance.subtract(amount).setScale(2, RoundingMode.HALF_UP).toPlainString() + ".";
+    }
+
+    /**
+     * Computes the units bought and the new balance.
+     *
+     * @return The new balance.
+     */
+    @Benchmark
+    public BigDecimal bigDecimalArithmetic() {
+        BigDecimal units = amount.divide(fund.getUnitPrice(), Investment.UNITS_SCALE, RoundingMode.HALF_EVEN);
+        return balance.subtract(units.multiply(fund.getUnitPrice()).setScale(2, RoundingMode.HALF_EVEN));
+    }
+
+    /**
+     * Generates a business transaction ID.
+     *
+     * @return The ID.
+     */
+    @Benchmark
+    public String uuidGeneration() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Maps the transaction to its response DTO with the generated mapper.
+     *
+     * @return The DTO.
+     */
+    @Benchmark
+    public TransactionResponseDTO dtoMappingGenerated() {
+        return transactionMapper.toResponseDTO(transaction);
+    }
+
+    /**
+     * Maps the transaction to its response DTO by reflection, as the controllers did before.
+     *
+     * @return The DTO.
+     */
+    @Benchmark
+    public TransactionResponseDTO dtoMappingReflective() {
+        TransactionResponseDTO dto = new TransactionResponseDTO();
+        BeanUtils.copyProperties(transaction, dto);
+        return dto;
+    }
+}
@@ -0,0 +1,203 @@
+package com.fondosGFT.fondosGFT.benchmark;
+
+import com.fondosGFT.fondosGFT.embedded.EmbeddedReplicaSet;
+import com.fondosGFT.fondosGFT.model.client.Client;
+import com.fondosGFT.fondosGFT.model.fund.Fund;
+import com.fondosGFT.fondosGFT.model.fund.FundStatsShard;
+import com.fondosGFT.fondosGFT.model.investment.Investment;
+import com.fondosGFT.fondosGFT.model.notification.NotificationOutbox;
+import com.fondosGFT.fondosGFT.model.transaction.Transaction;
+import com.fondosGFT.fondosGFT.repository.client.ClientRepository;
+import com.fondosGFT.fondosGFT.repository.fund.FundRepository;
+import com.fondosGFT.fondosGFT.repository.fund.FundStatsShardRepository;
+import com.fondosGFT.fondosGFT.repository.investment.InvestmentRepository;
+import com.fondosGFT.fondosGFT.repository.notification.NotificationOutboxRepository;
+import com.fondosGFT.fondosGFT.repository.transaction.TransactionRepository;
+import com.fondosGFT.fondosGFT.service.fund.FundCatalog;
+import com.fondosGFT.fondosGFT.service.fund.FundStatsService;
+import com.fondosGFT.fondosGFT.service.nav.LatestPriceCache;
+import com.fondosGFT.fondosGFT.service.notification.NotificationOutboxService;
+import com.fondosGFT.fondosGFT.service.retry.ContentionRetryPolicy;
+import com.fondosGFT.fondosGFT.service.transaction.ClientLaneExecutor;
+import com.fondosGFT.fondosGFT.service.transaction.MongoTransactionRunner;
+import com.fondosGFT.fondosGFT.service.transaction.TransactionService;
+import com.fondosGFT.fondosGFT.util.enums.NotificationType;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the throughput of the two transaction modes of the {@link TransactionService} against a real MongoDB:
+ * {@code atomic}, where each write is a single-document atomic operation, and {@code multi-document}, where a
+ * subscription or cancellation runs in one MongoDB transaction with transient-error retry.
+ * <p>
+ * The service runs on repositories and a {@link MongoTemplate} connected to an embedded single-node replica set,
+ * so every measured operation pays the real round trips, and in {@code multi-document} mode the transaction
+ * commit. Each call subscribes a client to a fund and cancels the subscription again. The benchmark threads work
+ * on disjoint clients, as separate customers would, so the transactions do not conflict with each other; the
+ * retries counted by the {@link ContentionRetryPolicy} are printed at the end of each trial.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class TransactionModeBenchmark {
+
+    private static final int MAX_THREADS = 64;
+    private static final int CLIENTS_PER_THREAD = 64;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000000000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("300000.00");
+    private static final String DATABASE = "fondos_benchmark";
+
+    /**
+     * Transaction mode of the service, as in {@code fondos.transactions.mode}.
+     */
+    @Param({"atomic", "multi-document"})
+    public String mode;
+
+    private final AtomicInteger threads = new AtomicInteger();
+    private EmbeddedReplicaSet replicaSet;
+    private MongoClient mongoClient;
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionService transactionService;
+    private String[] fundIds;
+
+    /**
+     * Starts MongoDB, creates the collections, funds and clients, and wires the service in the selected mode.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        replicaSet = new EmbeddedReplicaSet();
+        mongoClient = MongoClients.create(replicaSet.connectionString());
+        SimpleMongoClientDatabaseFactory databaseFactory = new SimpleMongoClientDatabaseFactory(mongoClient, DATABASE);
+        MongoTemplate mongoTemplate = new MongoTemplate(databaseFactory);
+        mongoTemplate.getDb().drop();
+
+        // Transactions cannot create collections implicitly on every server version, so create them upfront
+        for (Class<?> collection : List.of(Client.class, Fund.class, Investment.class, Transaction.class,
+                NotificationOutbox.class, FundStatsShard.class)) {
+            mongoTemplate.createCollection(collection);
+        }
+        mongoTemplate.indexOps(Investment.class).ensureIndex(new Index()
+                .on("clientId", Sort.Direction.ASC).on("fundId", Sort.Direction.ASC).unique());
+
+        MongoRepositoryFactory repositories = new MongoRepositoryFactory(mongoTemplate);
+        FundRepository fundRepository = repositories.getRepository(FundRepository.class);
+        fundRepository.saveAll(List.of(
+                new Fund("1", "FPV_BTG_PACTUAL_RECAUDADORA", "FPV", new BigDecimal("75000.00")),
+                new Fund("2", "FPV_BTG_PACTUAL_ECOPETROL", "FPV", new BigDecimal("125000.00")),
+                new Fund("3", "DEUDAPRIVADA", "FIC", new BigDecimal("50000.00")),
+                new Fund("4", "FDO-ACCIONES", "FIC", new BigDecimal("250000.00"))));
+        fundIds = new String[]{"1", "2", "3", "4"};
+
+        ClientRepository clientRepository = repositories.getRepository(ClientRepository.class);
+        List<Client> clients = new ArrayList<>(MAX_THREADS * CLIENTS_PER_THREAD);
+        for (int i = 0; i < MAX_THREADS * CLIENTS_PER_THREAD; i++) {
+            Client client = new Client("client-" + i, "Client", String.valueOf(i), "Bogota",
+                    NotificationType.EMAIL, "+5730000" + String.format("%05d", i), "client" + i + "@example.com");
+            client.setCurrentBalance(INITIAL_BALANCE);
+            clients.add(client);
+        }
+        clientRepository.insert(clients);
+
+        meterRegistry = new SimpleMeterRegistry();
+        Optional<MongoTransactionManager> transactionManager = "multi-document".equals(mode)
+                ? Optional.of(new MongoTransactionManager(databaseFactory))
+                : Optional.empty();
+        FundCatalog fundCatalog = new FundCatalog(fundRepository);
+        fundCatalog.refresh();
+        transactionService = new TransactionService(
+                clientRepository,
+                repositories.getRepository(InvestmentRepository.class),
+                fundCatalog,
+                new FundStatsService(repositories.getRepository(FundStatsShardRepository.class), mongoTemplate, 8, true),
+                new LatestPriceCache(mongoTemplate, fundCatalog),
+                repositories.getRepository(TransactionRepository.class),
+                new NotificationOutboxService(repositories.getRepository(NotificationOutboxRepository.class)),
+                mongoTemplate,
+                meterRegistry,
+                new MongoTransactionRunner(transactionManager, new ContentionRetryPolicy(meterRegistry, 5, 5, 200)),
+                new ClientLaneExecutor(meterRegistry, false, 1, 1, 1));
+    }
+
+    /**
+     * Prints the transaction retries and stops MongoDB.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n%s mode: %.0f transaction retries%n", mode,
+                meterRegistry.find(ContentionRetryPolicy.RETRIES_COUNTER).counters().stream().mapToDouble(Counter::count).sum());
+        mongoClient.close();
+        replicaSet.close();
+    }
+
+    /**
+     * The clients of one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class ClientSlice {
+
+        private int thread;
+        private int next;
+
+        /**
+         * Assigns the thread its slice of the clients.
+         *
+         * @param benchmark The shared benchmark state.
+         */
+        @Setup(Level.Trial)
+        public void setUp(TransactionModeBenchmark benchmark) {
+            thread = benchmark.threads.getAndIncrement() % MAX_THREADS;
+        }
+
+        private String nextClientId() {
+            return "client-" + (thread + MAX_THREADS * (next++ % CLIENTS_PER_THREAD));
+        }
+    }
+
+    /**
+     * Subscribes the next client of the thread to a fund and cancels the subscription.
+     *
+     * @param slice The clients of the current thread.
+     * @return The cancellation transaction, consumed by JMH.
+     */
+    @Benchmark
+    public Transaction subscribeAndCancel(ClientSlice slice) {
+        String clientId = slice.nextClientId();
+        String fundId = fundIds[slice.next % fundIds.length];
+        transactionService.subscribeFund(clientId, fundId, AMOUNT);
+        return transactionService.cancelFund(clientId, fundId);
+    }
+}
@@ -0,0 +1,85 @@
+package com.fondosGFT.fondosGFT.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Records the latencies of one operation for one virtual user.
+ * Each virtual user owns its recorders, so recording needs no synchronization; the recorders of all
+ * users are {@link #merge(LatencyRecorder) merged} once the run is over and the percentiles are read from
+ * the sorted samples, so they are exact rather than estimated from buckets.
+ */
+class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private long errors;
+
+    /**
+     * Records a completed request.
+     *
+     * @param nanos   The request latency in nanoseconds.
+     * @param success Whether the response was successful (2xx).
+     */
+    void record(long nanos, boolean success) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    /**
+     * Adds the samples of another recorder to this one.
+     *
+     * @param other The recorder to merge.
+     */
+    void merge(LatencyRecorder other) {
+        if (count + other.count > samples.length) {
+            samples = Arrays.copyOf(samples, count + other.count);
+        }
+        System.arraycopy(other.samples, 0, samples, count, other.count);
+        count += other.count;
+        errors += other.errors;
+    }
+
+    /**
+     * Sorts the samples, which {@link #percentile(double)} requires.
+     */
+    void sort() {
+        Arrays.sort(samples, 0, count);
+    }
+
+    /**
+     * Returns a percentile of the sorted samples, by the nearest-rank method.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The latency in nanoseconds, or 0 if nothing was recorded.
+     */
+    long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return samples[Math.max(0, Math.min(count, rank) - 1)];
+    }
+
+    /**
+     * Returns the number of recorded requests.
+     *
+     * @return The number of requests.
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * Returns the number of unsuccessful requests.
+     *
+     * @return The number of errors.
+     */
+    long errors() {
+        return errors;
+    }
+}
@@ -0,0 +1,353 @@
+package com.fondosGFT.fondosGFT.loadtest;
+
+import com.fondosGFT.fondosGFT.loadtest.LoadTestConfiguration.StubMailSender;
+import com.fondosGFT.fondosGFT.loadtest.LoadTestConfiguration.StubSnsTemplate;
+import com.fondosGFT.fondosGFT.loadtest.LoadTestSettings.Operation;
+import com.fondosGFT.fondosGFT.model.client.Client;
+import com.fondosGFT.fondosGFT.model.fund.Fund;
+import com.fondosGFT.fondosGFT.repository.client.ClientRepository;
+import com.fondosGFT.fondosGFT.service.fund.FundCatalog;
+import com.fondosGFT.fondosGFT.util.enums.NotificationType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates the load of a load-test run over HTTP and reports the results.
+ * <p>
+ * It seeds {@link LoadTestSettings#getAccounts()} clients with a balance that never runs out and shares them
+ * out between the virtual users, so no two users touch the same account. Each user keeps track of the
+ * positions it holds: cancellations are sent for held positions and subscriptions for free ones, so the
+ * business validations pass and the measured requests follow the successful path. A cancellation drawn
+ * while the user holds nothing is sent as a subscription instead.
+ * </p>
+ * <p>
+ * Requests completed during the warm-up are not recorded. Non-2xx responses are recorded as errors and
+ * their latency is kept. Throughput and the p50/p99/p99.9 latencies of each operation are printed and
+ * written to {@code loadtest-<timestamp>.txt} in {@link LoadTestSettings#getReportDir()}.
+ * </p>
+ */
+@Slf4j
+@Component
+@Profile("loadtest")
+public class LoadDriver {
+
+    private static final BigDecimal SEED_BALANCE = new BigDecimal("1000000000000000.00");
+    private static final int SEED_BATCH_SIZE = 1000;
+    private static final String JSON = "application/json";
+
+    private final LoadTestSettings settings;
+    private final ClientRepository clientRepository;
+    private final FundCatalog fundCatalog;
+    private final StubMailSender mailSender;
+    private final StubSnsTemplate snsTemplate;
+    private final Environment environment;
+
+    /**
+     * Constructs a new LoadDriver.
+     *
+     * @param settings         The load-test options.
+     * @param clientRepository The repository used to seed the accounts.
+     * @param fundCatalog      The catalog of the funds to subscribe to.
+     * @param mailSender       The stub mail sender, for the notification counts.
+     * @param snsTemplate      The stub SNS template, for the notification counts.
+     * @param environment      The environment holding the port the server was started on.
+     */
+    @Autowired
+    public LoadDriver(LoadTestSettings settings, ClientRepository clientRepository, FundCatalog fundCatalog,
+                      StubMailSender mailSender, StubSnsTemplate snsTemplate, Environment environment) {
+        this.settings = settings;
+        this.clientRepository = clientRepository;
+        this.fundCatalog = fundCatalog;
+        this.mailSender = mailSender;
+        this.snsTemplate = snsTemplate;
+        this.environment = environment;
+    }
+
+    /**
+     * Seeds the accounts, runs the virtual users until the end of the measured period and reports the results.
+     */
+    public void run() {
+        List<String> accounts = seedAccounts();
+        List<String> fundIds = fundCatalog.findAll().stream()
+                .filter(fund -> settings.getAmount().compareTo(fund.getMinimumSubscriptionAmount()) >= 0)
+                .map(Fund::getId)
+                .toList();
+        if (fundIds.isEmpty()) {
+            throw new IllegalStateException("No fund accepts a subscription of " + settings.getAmount() + ".");
+        }
+
+        String baseUrl = "http://localhost:" + environment.getRequiredProperty("local.server.port") + "/api";
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long measureStart = System.nanoTime() + settings.getWarmup().toNanos();
+        long measureEnd = measureStart + settings.getDuration().toNanos();
+        log.warn("Running {} virtual users over {} accounts and {} funds: {} warm-up, {} measured, mix {}",
+                settings.getUsers(), accounts.size(), fundIds.size(), settings.getWarmup(), settings.getDuration(), settings.getMix());
+
+        List<Future<Map<Operation, LatencyRecorder>>> users = new ArrayList<>(settings.getUsers());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < settings.getUsers(); user++) {
+                List<String> ownAccounts = new ArrayList<>();
+                for (int i = user; i < accounts.size(); i += settings.getUsers()) {
+                    ownAccounts.add(accounts.get(i));
+                }
+                VirtualUser virtualUser = new VirtualUser(httpClient, baseUrl, ownAccounts, fundIds, measureStart, measureEnd);
+                users.add(executor.submit(virtualUser::run));
+            }
+        }
+
+        Map<Operation, LatencyRecorder> totals = new EnumMap<>(Operation.class);
+        for (Future<Map<Operation, LatencyRecorder>> user : users) {
+            user.resultNow().forEach((operation, recorder) ->
+                    totals.computeIfAbsent(operation, key -> new LatencyRecorder()).merge(recorder));
+        }
+        report(totals);
+    }
+
+    /**
+     * Inserts the load-test accounts into the embedded database, which every run starts empty.
+     *
+     * @return The IDs of the accounts.
+     */
+    private List<String> seedAccounts() {
+        List<String> ids = new ArrayList<>(settings.getAccounts());
+        List<Client> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < settings.getAccounts(); i++) {
+            Client client = new Client("loadtest-" + i, "Load", "Test " + i, "Bogota",
+                    i % 2 == 0 ? NotificationType.EMAIL : NotificationType.SMS,
+                    "+5730000" + String.format("%05d", i), "loadtest" + i + "@example.com");
+            client.setCurrentBalance(SEED_BALANCE);
+            batch.add(client);
+            ids.add(client.getId());
+            if (batch.size() == SEED_BATCH_SIZE) {
+                clientRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        clientRepository.saveAll(batch);
+        return ids;
+    }
+
+    /**
+     * Prints the per-operation results and writes them to the report directory.
+     *
+     * @param totals The merged recorders of every operation.
+     */
+    private void report(Map<Operation, LatencyRecorder> totals) {
+        double seconds = settings.getDuration().toMillis() / 1000.0;
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "Load test: %d users, %d accounts, %s measured, mix %s%n",
+                settings.getUsers(), settings.getAccounts(), settings.getDuration(), settings.getMix()));
+        report.append(String.format(Locale.ROOT, "%-10s %10s %8s %10s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        totals.forEach((operation, recorder) -> {
+            recorder.sort();
+            report.append(String.format(Locale.ROOT, "%-10s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.name().toLowerCase(Locale.ROOT), recorder.count(), recorder.errors(),
+                    recorder.count() / seconds, millis(recorder.percentile(50)), millis(recorder.percentile(99)),
+                    millis(recorder.percentile(99.9)), millis(recorder.percentile(100))));
+        });
+        report.append(String.format(Locale.ROOT, "Notifications delivered to the stubs: %d emails, %d SMS%n",
+                mailSender.getSent(), snsTemplate.getSent()));
+
+        System.out.print(report);
+        try {
+            Files.createDirectories(settings.getReportDir());
+            Path file = settings.getReportDir().resolve(
+                    "loadtest-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".txt");
+            Files.writeString(file, report);
+            log.warn("Load-test report written to {}", file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the load-test report", e);
+        }
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds.
+     *
+     * @param nanos The duration in nanoseconds.
+     * @return The duration in milliseconds.
+     */
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * One simulated user, sending one request at a time over its own accounts.
+     */
+    private class VirtualUser {
+
+        private final HttpClient httpClient;
+        private final String baseUrl;
+        private final List<String> accounts;
+        private final List<String> fundIds;
+        private final long measureStart;
+        private final long measureEnd;
+        private final List<String> held = new ArrayList<>();
+        private final Set<String> heldKeys = new HashSet<>();
+        private final Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+        private final Operation[] operations;
+        private final int[] cumulativeWeights;
+
+        VirtualUser(HttpClient httpClient, String baseUrl, List<String> accounts, List<String> fundIds,
+                    long measureStart, long measureEnd) {
+            this.httpClient = httpClient;
+            this.baseUrl = baseUrl;
+            this.accounts = accounts;
+            this.fundIds = fundIds;
+            this.measureStart = measureStart;
+            this.measureEnd = measureEnd;
+            this.operations = settings.getMix().keySet().toArray(Operation[]::new);
+            this.cumulativeWeights = new int[operations.length];
+            int total = 0;
+            for (int i = 0; i < operations.length; i++) {
+                total += settings.getMix().get(operations[i]);
+                cumulativeWeights[i] = total;
+            }
+        }
+
+        /**
+         * Sends requests until the end of the measured period.
+         *
+         * @return The recorders of this user, by operation.
+         */
+        Map<Operation, LatencyRecorder> run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < measureEnd) {
+                Operation operation = nextOperation(random);
+                String account = accounts.get(random.nextInt(accounts.size()));
+                HttpRequest request;
+                String position = null;
+                switch (operation) {
+                    case SUBSCRIBE -> {
+                        position = freePosition(random);
+                        if (position == null) {
+                            continue;
+                        }
+                        request = post("/transactions/subscribe", "{\"clientId\":\"" + clientOf(position)
+                                + "\",\"fundId\":\"" + fundOf(position) + "\",\"amount\":" + settings.getAmount().toPlainString() + "}");
+                    }
+                    case CANCEL -> {
+                        position = held.get(random.nextInt(held.size()));
+                        request = post("/transactions/cancel", "{\"clientId\":\"" + clientOf(position)
+                                + "\",\"fundId\":\"" + fundOf(position) + "\"}");
+                    }
+                    case HISTORY -> request = get("/transactions/history/" + account + "?limit=20");
+                    default -> request = get("/clients/" + account);
+                }
+
+                long start = System.nanoTime();
+                boolean success = send(request);
+                long end = System.nanoTime();
+                if (start >= measureStart && end <= measureEnd) {
+                    recorders.computeIfAbsent(operation, key -> new LatencyRecorder()).record(end - start, success);
+                }
+                if (success && operation == Operation.SUBSCRIBE) {
+                    held.add(position);
+                    heldKeys.add(position);
+                } else if (success && operation == Operation.CANCEL) {
+                    held.remove(position);
+                    heldKeys.remove(position);
+                }
+            }
+            return recorders;
+        }
+
+        /**
+         * Draws the next operation from the mix. A cancellation is replaced by a subscription when nothing is held.
+         *
+         * @param random The random source.
+         * @return The operation.
+         */
+        private Operation nextOperation(ThreadLocalRandom random) {
+            int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            int index = 0;
+            while (draw >= cumulativeWeights[index]) {
+                index++;
+            }
+            Operation operation = operations[index];
+            return operation == Operation.CANCEL && held.isEmpty() ? Operation.SUBSCRIBE : operation;
+        }
+
+        /**
+         * Picks a random position this user does not hold.
+         *
+         * @param random The random source.
+         * @return The position as {@code clientId:fundId}, or {@code null} if every position is held.
+         */
+        private String freePosition(ThreadLocalRandom random) {
+            if (heldKeys.size() == accounts.size() * fundIds.size()) {
+                return null;
+            }
+            String position;
+            do {
+                position = accounts.get(random.nextInt(accounts.size())) + ":" + fundIds.get(random.nextInt(fundIds.size()));
+            } while (heldKeys.contains(position));
+            return position;
+        }
+
+        private String clientOf(String position) {
+            return position.substring(0, position.indexOf(':'));
+        }
+
+        private String fundOf(String position) {
+            return position.substring(position.indexOf(':') + 1);
+        }
+
+        private HttpRequest post(String path, String body) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", JSON)
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Accept", JSON).GET().build();
+        }
+
+        /**
+         * Sends a request and reads the whole response.
+         *
+         * @param request The request.
+         * @return Whether the response status was 2xx; a connection failure counts as an error.
+         */
+        private boolean send(HttpRequest request) {
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                return response.statusCode() / 100 == 2;
+            } catch (IOException e) {
+                log.debug("Request {} failed: {}", request.uri(), e.getMessage());
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
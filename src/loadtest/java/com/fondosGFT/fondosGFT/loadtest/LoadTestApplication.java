@@ -0,0 +1,54 @@
+package com.fondosGFT.fondosGFT.loadtest;
+
+import com.fondosGFT.fondosGFT.FondosGftApplication;
+import com.fondosGFT.fondosGFT.embedded.EmbeddedReplicaSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Entry point of the load-test mode.
+ * It starts an embedded MongoDB single-node replica set, boots the complete application against it with the
+ * {@code loadtest} profile (which replaces SES and SNS with in-process stubs, see {@link LoadTestConfiguration}),
+ * runs the {@link LoadDriver} over HTTP and shuts everything down.
+ * <p>
+ * Every {@code --loadtest.*} option is read from the command line; see {@link LoadTestSettings} for the defaults.
+ * Any other {@code --key=value} argument is passed on to the application, for example
+ * {@code --fondos.funds.stats.buffered=true} or {@code --fondos.transactions.mode=multi-document}; the replica set
+ * supports both transaction modes.
+ * </p>
+ */
+@Slf4j
+public class LoadTestApplication {
+
+    /**
+     * Runs the load test.
+     *
+     * @param args Load-test options and application properties, as {@code --key=value} arguments.
+     */
+    public static void main(String[] args) {
+        try (EmbeddedReplicaSet replicaSet = new EmbeddedReplicaSet()) {
+            String mongoUri = replicaSet.connectionString().replace("/?", "/fondos_loadtest?");
+            log.warn("Embedded MongoDB started at {}", mongoUri);
+
+            // Command-line arguments take precedence over application.properties
+            String[] applicationArgs = Stream.concat(Stream.of(
+                            "--spring.data.mongodb.uri=" + mongoUri,
+                            "--spring.data.mongodb.database=fondos_loadtest",
+                            "--server.port=0"),
+                    Arrays.stream(args)).toArray(String[]::new);
+
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(FondosGftApplication.class)
+                    .profiles("loadtest")
+                    .run(applicationArgs);
+            try {
+                context.getBean(LoadDriver.class).run();
+            } finally {
+                context.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.fondosGFT.fondosGFT.loadtest;
+
+import io.awspring.cloud.ses.SimpleEmailServiceMailSender;
+import io.awspring.cloud.sns.core.SnsTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.messaging.Message;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+import software.amazon.awssdk.services.ses.SesClient;
+import software.amazon.awssdk.services.sns.SnsClient;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Beans replacing the external dependencies of the application in load-test mode.
+ * <ul>
+ * <li>{@link SimpleEmailServiceMailSender} and {@link SnsTemplate} are replaced by {@code @Primary} stubs that
+ * count the messages and wait for a configurable simulated latency instead of calling AWS.</li>
+ * <li>The {@code /api/**} endpoints are opened by a filter chain ordered before the application's own,
+ * since the load generator has no credentials.</li>
+ * </ul>
+ * {@code @Profile("loadtest")} keeps these beans out of every other mode.
+ */
+@Configuration
+@Profile("loadtest")
+public class LoadTestConfiguration {
+
+    /**
+     * Provides the stub mail sender used instead of AWS SES.
+     *
+     * @param latency The simulated duration of each send.
+     * @return The stub mail sender.
+     */
+    @Bean
+    @Primary
+    public StubMailSender stubMailSender(@Value("${loadtest.aws.latency:0ms}") Duration latency) {
+        return new StubMailSender(latency);
+    }
+
+    /**
+     * Provides the stub SNS template used instead of AWS SNS.
+     *
+     * @param latency The simulated duration of each send.
+     * @return The stub SNS template.
+     */
+    @Bean
+    @Primary
+    public StubSnsTemplate stubSnsTemplate(@Value("${loadtest.aws.latency:0ms}") Duration latency) {
+        return new StubSnsTemplate(latency);
+    }
+
+    /**
+     * Lets the load generator call the API without credentials.
+     *
+     * @param http The HttpSecurity object provided by Spring Security.
+     * @return The filter chain applied to {@code /api/**}.
+     * @throws Exception If an error occurs during the security configuration.
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public SecurityFilterChain loadTestSecurityFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher("/api/**")
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(authorize -> authorize.anyRequest().permitAll())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+        return http.build();
+    }
+
+    /**
+     * Creates an AWS client whose every call fails, for the stubs' superclass constructors.
+     * The stubs override every method the application calls, so the client is never used.
+     *
+     * @param clientType The client interface.
+     * @param <C>        The client type.
+     * @return The client.
+     */
+    private static <C> C unusableClient(Class<C> clientType) {
+        return clientType.cast(Proxy.newProxyInstance(clientType.getClassLoader(), new Class<?>[]{clientType},
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException("AWS is stubbed in load-test mode: " + method.getName());
+                }));
+    }
+
+    /**
+     * Waits for the simulated latency of an AWS call.
+     *
+     * @param latency The simulated latency.
+     */
+    private static void simulateLatency(Duration latency) {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Mail sender that counts the emails instead of sending them through AWS SES.
+     */
+    public static class StubMailSender extends SimpleEmailServiceMailSender {
+
+        private final Duration latency;
+        private final LongAdder sent = new LongAdder();
+
+        /**
+         * Constructs a new StubMailSender.
+         *
+         * @param latency The simulated duration of each send.
+         */
+        public StubMailSender(Duration latency) {
+            super(unusableClient(SesClient.class));
+            this.latency = latency;
+        }
+
+        @Override
+        public void send(SimpleMailMessage simpleMessage) {
+            simulateLatency(latency);
+            sent.increment();
+        }
+
+        @Override
+        public void send(SimpleMailMessage... simpleMessages) {
+            for (SimpleMailMessage simpleMessage : simpleMessages) {
+                send(simpleMessage);
+            }
+        }
+
+        /**
+         * Returns the number of emails "sent".
+         *
+         * @return The number of emails.
+         */
+        public long getSent() {
+            return sent.sum();
+        }
+    }
+
+    /**
+     * SNS template that counts the SMS messages instead of publishing them through AWS SNS.
+     */
+    public static class StubSnsTemplate extends SnsTemplate {
+
+        private final Duration latency;
+        private final LongAdder sent = new LongAdder();
+
+        /**
+         * Constructs a new StubSnsTemplate.
+         *
+         * @param latency The simulated duration of each send.
+         */
+        public StubSnsTemplate(Duration latency) {
+            super(unusableClient(SnsClient.class));
+            this.latency = latency;
+        }
+
+        @Override
+        public void send(String destination, Message<?> message) {
+            simulateLatency(latency);
+            sent.increment();
+        }
+
+        /**
+         * Returns the number of SMS messages "sent".
+         *
+         * @return The number of messages.
+         */
+        public long getSent() {
+            return sent.sum();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.fondosGFT.fondosGFT.loadtest;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Options of a load-test run, read from {@code --loadtest.*} command-line arguments.
+ * <ul>
+ * <li>{@code loadtest.users}: number of concurrent virtual users, each running on its own virtual thread.</li>
+ * <li>{@code loadtest.accounts}: number of client accounts seeded and shared out between the users.</li>
+ * <li>{@code loadtest.duration} / {@code loadtest.warmup}: measured time and the unmeasured time before it.</li>
+ * <li>{@code loadtest.mix}: relative weights of the operations, for example
+ * {@code subscribe=30,cancel=20,history=30,client=20}. Omitted operations are not run.</li>
+ * <li>{@code loadtest.amount}: amount of each subscription; it must cover every fund's minimum.</li>
+ * <li>{@code loadtest.report-dir}: directory where the report is written.</li>
+ * </ul>
+ */
+@Getter
+@Component
+@Profile("loadtest")
+public class LoadTestSettings {
+
+    private final int users;
+    private final int accounts;
+    private final Duration duration;
+    private final Duration warmup;
+    private final Map<Operation, Integer> mix;
+    private final BigDecimal amount;
+    private final Path reportDir;
+
+    /**
+     * Constructs the settings, validating them before any load is generated.
+     *
+     * @param users     Number of concurrent virtual users.
+     * @param accounts  Number of client accounts.
+     * @param duration  Measured duration.
+     * @param warmup    Warm-up duration.
+     * @param mix       Operation weights, as {@code operation=weight} pairs.
+     * @param amount    Amount of each subscription.
+     * @param reportDir Directory of the report.
+     */
+    @Autowired
+    public LoadTestSettings(
+            @Value("${loadtest.users:64}") int users,
+            @Value("${loadtest.accounts:1000}") int accounts,
+            @Value("${loadtest.duration:60s}") Duration duration,
+            @Value("${loadtest.warmup:10s}") Duration warmup,
+            @Value("${loadtest.mix:subscribe=30,cancel=20,history=30,client=20}") String mix,
+            @Value("${loadtest.amount:300000}") BigDecimal amount,
+            @Value("${loadtest.report-dir:benchmarks/results}") Path reportDir) {
+        if (users < 1 || accounts < users) {
+            throw new IllegalArgumentException("loadtest.users must be positive and loadtest.accounts at least loadtest.users.");
+        }
+        this.users = users;
+        this.accounts = accounts;
+        this.duration = duration;
+        this.warmup = warmup;
+        this.mix = parseMix(mix);
+        this.amount = amount;
+        this.reportDir = reportDir;
+    }
+
+    /**
+     * Parses the operation weights.
+     *
+     * @param mix The weights, as comma-separated {@code operation=weight} pairs.
+     * @return The weight of each operation present.
+     */
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid loadtest.mix entry '" + entry + "', expected operation=weight.");
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix must give a positive weight to at least one operation.");
+        }
+        return Collections.unmodifiableMap(weights);
+    }
+
+    /**
+     * The operations a virtual user can perform.
+     */
+    public enum Operation {
+        /** {@code POST /api/transactions/subscribe} */
+        SUBSCRIBE,
+        /** {@code POST /api/transactions/cancel} */
+        CANCEL,
+        /** {@code GET /api/transactions/history/{clientId}} */
+        HISTORY,
+        /** {@code GET /api/clients/{clientId}} */
+        CLIENT
+    }
+}
@@ -0,0 +1,67 @@
+package com.fondosGFT.fondosGFT.config.mongo;
+
+import com.fondosGFT.fondosGFT.model.client.Client;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * One-off migration that gives every client stored before {@link Client} became versioned a {@code version}
+ * of 0. Spring Data treats a versioned entity without a version as new, so saving a client read from a legacy
+ * document would otherwise attempt an insert and fail on its duplicate ID.
+ * <p>
+ * Completion is recorded in the "migrations" collection so later startups skip it entirely.
+ * </p>
+ */
+@Component
+@Slf4j
+@Order(4)
+public class ClientVersionMigration implements MongoStartupTask {
+
+    /**
+     * Identifier of this migration in the "migrations" collection.
+     */
+    static final String MIGRATION_ID = "clients-version";
+
+    private static final String MIGRATIONS_COLLECTION = "migrations";
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    /**
+     * Constructs a new ClientVersionMigration.
+     *
+     * @param mongoTemplate The MongoTemplate used to update the clients and record the migration.
+     * @param enabled       Whether the migration may run at startup.
+     */
+    @Autowired
+    public ClientVersionMigration(MongoTemplate mongoTemplate,
+                                  @Value("${fondos.migrations.client-version.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Runs the migration before the application accepts requests, unless it was already applied.
+     */
+    @Override
+    public void run() {
+        if (!enabled || mongoTemplate.getCollection(MIGRATIONS_COLLECTION).countDocuments(new Document("_id", MIGRATION_ID)) > 0) {
+            return;
+        }
+
+        long updated = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Client.class)).updateMany(
+                new Document("version", new Document("$exists", false)),
+                new Document("$set", new Document("version", 0L))).getModifiedCount();
+
+        mongoTemplate.getCollection(MIGRATIONS_COLLECTION).insertOne(new Document("_id", MIGRATION_ID)
+                .append("appliedAt", LocalDateTime.now()));
+        log.info("Version initialized on {} clients", updated);
+    }
+}
@@ -0,0 +1,74 @@
+package com.fondosGFT.fondosGFT.config.mongo;
+
+import com.fondosGFT.fondosGFT.service.fund.FundStatsService;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * One-off migration that seeds the per-fund totals from the investments that existed before the
+ * totals were maintained incrementally. It runs after the {@link InvestmentCollectionMigration},
+ * so investments formerly embedded in clients are counted as well. The totals are written to the
+ * striped "fund_stats_shards" collection; the unsharded "fund_stats" collection is no longer read.
+ * <p>
+ * The rebuild replaces the stored totals, so it runs from the {@link MongoStartupTasks} before the application
+ * accepts requests: a subscription processed during the rebuild would otherwise be counted by neither the
+ * aggregation nor the totals that replace it.
+ * </p>
+ * <p>
+ * Completion is recorded in the "migrations" collection so later startups skip it entirely.
+ * </p>
+ */
+@Component
+@Slf4j
+@Order(3)
+public class FundStatsBackfill implements MongoStartupTask {
+
+    /**
+     * Identifier of this migration in the "migrations" collection.
+     */
+    static final String MIGRATION_ID = "fund-stats-shards-backfill";
+
+    private static final String MIGRATIONS_COLLECTION = "migrations";
+
+    private final MongoTemplate mongoTemplate;
+    private final FundStatsService fundStatsService;
+    private final boolean enabled;
+
+    /**
+     * Constructs a new FundStatsBackfill.
+     *
+     * @param mongoTemplate    The MongoTemplate used to record the migration.
+     * @param fundStatsService The service that rebuilds the fund totals.
+     * @param enabled          Whether the migration may run at startup.
+     */
+    @Autowired
+    public FundStatsBackfill(MongoTemplate mongoTemplate, FundStatsService fundStatsService,
+                             @Value("${fondos.migrations.fund-stats-backfill.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.fundStatsService = fundStatsService;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Runs the migration before the application accepts requests, unless it was already applied.
+     */
+    @Override
+    public void run() {
+        if (!enabled || mongoTemplate.getCollection(MIGRATIONS_COLLECTION).countDocuments(new Document("_id", MIGRATION_ID)) > 0) {
+            return;
+        }
+
+        int funds = fundStatsService.rebuild();
+
+        mongoTemplate.getCollection(MIGRATIONS_COLLECTION).insertOne(new Document("_id", MIGRATION_ID)
+                .append("appliedAt", LocalDateTime.now()));
+        log.info("Fund totals seeded for {} funds", funds);
+    }
+}
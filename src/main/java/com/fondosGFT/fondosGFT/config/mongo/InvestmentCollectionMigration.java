@@ -0,0 +1,124 @@
+package com.fondosGFT.fondosGFT.config.mongo;
+
+import com.fondosGFT.fondosGFT.model.client.Client;
+import com.fondosGFT.fondosGFT.model.investment.Investment;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-off migration that moves the investments embedded in client documents into the
+ * "investments" collection. Investments used to live in the {@code activeInvestments} array of
+ * each client, which grew with every position and was rewritten on every save.
+ * <p>
+ * Clients still holding embedded investments are read from a cursor, their investments are inserted
+ * with one unordered bulk insert per client, and the embedded arrays are removed at the end.
+ * Positions already moved by an interrupted earlier run are rejected by the unique
+ * {@code (clientId, fundId)} index and skipped, so the migration can safely be run again. The index is
+ * created by the {@link MongoIndexBootstrapper}, which runs first; the migration refuses to copy anything
+ * while it is missing.
+ * Completion is recorded in the "migrations" collection so later startups skip it entirely.
+ * </p>
+ */
+@Component
+@Slf4j
+@Order(2)
+public class InvestmentCollectionMigration implements MongoStartupTask {
+
+    /**
+     * Identifier of this migration in the "migrations" collection.
+     */
+    static final String MIGRATION_ID = "investments-collection";
+
+    private static final String MIGRATIONS_COLLECTION = "migrations";
+    private static final String EMBEDDED_FIELD = "activeInvestments";
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    /**
+     * Constructs a new InvestmentCollectionMigration.
+     *
+     * @param mongoTemplate The MongoTemplate used to read clients and write investments.
+     * @param enabled       Whether the migration may run at startup.
+     */
+    @Autowired
+    public InvestmentCollectionMigration(MongoTemplate mongoTemplate,
+                                         @Value("${fondos.migrations.investments-collection.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Runs the migration before the application accepts requests, unless it was already applied.
+     *
+     * @throws IllegalStateException if the unique {@code (clientId, fundId)} index does not exist.
+     */
+    @Override
+    public void run() {
+        if (!enabled || mongoTemplate.getCollection(MIGRATIONS_COLLECTION).countDocuments(new Document("_id", MIGRATION_ID)) > 0) {
+            return;
+        }
+        boolean uniquePositions = mongoTemplate.indexOps(Investment.class).getIndexInfo().stream()
+                .anyMatch(index -> MongoIndexBootstrapper.INVESTMENT_POSITION_INDEX.equals(index.getName()) && index.isUnique());
+        if (!uniquePositions) {
+            throw new IllegalStateException("The unique index " + MongoIndexBootstrapper.INVESTMENT_POSITION_INDEX
+                    + " is missing, so investments cannot be moved without risking duplicates.");
+        }
+
+        MongoCollection<Document> clients = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Client.class));
+        long moved = 0;
+        try (MongoCursor<Document> cursor = clients.find(new Document(EMBEDDED_FIELD + ".0", new Document("$exists", true)))
+                .projection(new Document(EMBEDDED_FIELD, 1))
+                .iterator()) {
+            while (cursor.hasNext()) {
+                moved += moveInvestments(cursor.next());
+            }
+        }
+        UpdateResult result = clients.updateMany(new Document(EMBEDDED_FIELD, new Document("$exists", true)),
+                new Document("$unset", new Document(EMBEDDED_FIELD, "")));
+
+        mongoTemplate.getCollection(MIGRATIONS_COLLECTION).insertOne(new Document("_id", MIGRATION_ID)
+                .append("appliedAt", LocalDateTime.now()));
+        log.info("Embedded investments moved to their own collection: {} investments from {} clients", moved, result.getModifiedCount());
+    }
+
+    /**
+     * Inserts the embedded investments of one client into the "investments" collection.
+     *
+     * @param client The raw client document, projected to its {@code _id} and embedded investments.
+     * @return The number of investments inserted.
+     */
+    private int moveInvestments(Document client) {
+        List<Investment> investments = new ArrayList<>();
+        for (Document embedded : client.getList(EMBEDDED_FIELD, Document.class)) {
+            Investment investment = mongoTemplate.getConverter().read(Investment.class, embedded);
+            investment.setId(null);
+            investment.setClientId(String.valueOf(client.get("_id")));
+            investments.add(investment);
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Investment.class).insert(investments).execute();
+            return investments.size();
+        } catch (BulkOperationException e) {
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY_ERROR)) {
+                throw e;
+            }
+            return investments.size() - e.getErrors().size();
+        }
+    }
+}
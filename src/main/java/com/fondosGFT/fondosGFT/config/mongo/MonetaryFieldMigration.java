@@ -0,0 +1,133 @@
+package com.fondosGFT.fondosGFT.config.mongo;
+
+import com.fondosGFT.fondosGFT.model.client.Client;
+import com.fondosGFT.fondosGFT.model.fund.Fund;
+import com.fondosGFT.fondosGFT.model.transaction.Transaction;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-off migration that rewrites monetary fields stored as strings or doubles into {@code Decimal128}.
+ * Before the monetary fields were mapped with {@code targetType = DECIMAL128}, Spring Data wrote
+ * {@link java.math.BigDecimal} values as strings, so range queries on balances compared them
+ * lexically and could not use a numeric index; documents written by hand or by other tools may hold doubles.
+ * <p>
+ * Each collection is converted server-side with a single pipeline update that only matches
+ * documents still holding string or double amounts, which are rounded to cents. Completion is recorded in the "migrations" collection
+ * so later startups skip the migration entirely. The indexes backing the balance range queries
+ * are managed by the {@link MongoIndexBootstrapper}. It runs before the {@link InvestmentCollectionMigration},
+ * which moves the embedded investments it converts into their own collection.
+ * </p>
+ */
+@Component
+@Slf4j
+@Order(1)
+public class MonetaryFieldMigration implements MongoStartupTask {
+
+    /**
+     * Identifier of this migration in the "migrations" collection.
+     */
+    static final String MIGRATION_ID = "monetary-fields-decimal128";
+
+    private static final String MIGRATIONS_COLLECTION = "migrations";
+
+    /**
+     * Decimal places of the converted amounts.
+     */
+    private static final int AMOUNT_SCALE = 2;
+
+    /**
+     * BSON types of the amounts still to be converted.
+     */
+    private static final List<String> UNCONVERTED_TYPES = List.of("string", "double");
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    /**
+     * Constructs a new MonetaryFieldMigration.
+     *
+     * @param mongoTemplate The MongoTemplate used to run the pipeline updates.
+     * @param enabled       Whether the migration may run at startup.
+     */
+    @Autowired
+    public MonetaryFieldMigration(MongoTemplate mongoTemplate,
+                                  @Value("${fondos.migrations.monetary-decimal128.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Runs the migration before the application accepts requests, unless it was already applied.
+     */
+    @Override
+    public void run() {
+        if (!enabled || mongoTemplate.getCollection(MIGRATIONS_COLLECTION).countDocuments(new Document("_id", MIGRATION_ID)) > 0) {
+            return;
+        }
+
+        long clients = convert(mongoTemplate.getCollectionName(Client.class),
+                List.of("currentBalance"), List.of("initialAmountInvested", "currentAmount"));
+        long transactions = convert(mongoTemplate.getCollectionName(Transaction.class),
+                List.of("amount", "clientBalanceBefore", "clientBalanceAfter"), List.of());
+        long funds = convert(mongoTemplate.getCollectionName(Fund.class),
+                List.of("minimumSubscriptionAmount"), List.of());
+
+        mongoTemplate.getCollection(MIGRATIONS_COLLECTION).insertOne(new Document("_id", MIGRATION_ID)
+                .append("appliedAt", LocalDateTime.now()));
+        log.info("Monetary fields migrated to Decimal128: {} clients, {} transactions, {} funds", clients, transactions, funds);
+    }
+
+    /**
+     * Converts string and double amounts to {@code Decimal128} with {@value #AMOUNT_SCALE} decimal places in one collection.
+     *
+     * @param collection        The name of the collection to migrate.
+     * @param fields            Top-level monetary fields.
+     * @param investmentFields  Monetary fields of the elements of the embedded {@code activeInvestments} array.
+     * @return The number of documents modified.
+     */
+    private long convert(String collection, List<String> fields, List<String> investmentFields) {
+        List<Document> unconvertedMatches = new ArrayList<>();
+        Document set = new Document();
+        for (String field : fields) {
+            unconvertedMatches.add(new Document(field, new Document("$type", UNCONVERTED_TYPES)));
+            set.append(field, toAmount("$" + field));
+        }
+        if (!investmentFields.isEmpty()) {
+            Document convertedInvestment = new Document();
+            for (String field : investmentFields) {
+                unconvertedMatches.add(new Document("activeInvestments." + field, new Document("$type", UNCONVERTED_TYPES)));
+                convertedInvestment.append(field, toAmount("$$inv." + field));
+            }
+            set.append("activeInvestments", new Document("$map", new Document()
+                    .append("input", new Document("$ifNull", List.of("$activeInvestments", List.of())))
+                    .append("as", "inv")
+                    .append("in", new Document("$mergeObjects", List.of("$$inv", convertedInvestment)))));
+        }
+
+        UpdateResult result = mongoTemplate.getCollection(collection)
+                .updateMany(new Document("$or", unconvertedMatches), List.of(new Document("$set", set)));
+        return result.getModifiedCount();
+    }
+
+    /**
+     * Builds the expression converting an amount to {@code Decimal128} with {@value #AMOUNT_SCALE} decimal places.
+     * {@code $round} on a decimal keeps exactly the requested places, so {@code "150000"} becomes {@code 150000.00}.
+     *
+     * @param path The path of the amount, such as {@code $currentBalance}.
+     * @return The aggregation expression.
+     */
+    private static Document toAmount(String path) {
+        return new Document("$round", List.of(new Document("$toDecimal", path), AMOUNT_SCALE));
+    }
+}
@@ -0,0 +1,257 @@
+package com.fondosGFT.fondosGFT.config.mongo;
+
+import com.fondosGFT.fondosGFT.util.RequestTimings;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MongoDB driver {@link CommandListener} reporting every command the application sends.
+ * <ul>
+ * <li>Each command's latency is recorded in {@value #COMMANDS_TIMER}, tagged by {@code command},
+ * {@code collection} and {@code outcome}, with a percentile histogram.</li>
+ * <li>Commands slower than {@code fondos.mongo.slow-command-threshold-ms} are logged with their filter shape:
+ * the filter with every value replaced by {@code ?}, so queries can be matched to indexes without logging
+ * client data. A threshold of 0 disables the log.</li>
+ * <li>Commands sent while serving an HTTP request are counted for the {@link MongoRoundTripFilter} and added to
+ * the {@code mongo} stage of its {@link RequestTimings}.</li>
+ * </ul>
+ * The synchronous driver notifies the listener on the thread that sent the command, which is what lets the
+ * round trips be attributed to the request being served by that thread.
+ */
+@Component
+@Slf4j
+public class MongoCommandMonitor implements CommandListener {
+
+    /**
+     * Timer of the MongoDB commands.
+     */
+    public static final String COMMANDS_TIMER = "fondos.mongo.commands";
+
+    /**
+     * Collection tag of commands that do not target a collection.
+     */
+    private static final String NO_COLLECTION = "none";
+
+    /**
+     * Commands that carry their target collection in a {@code collection} field rather than under the command name.
+     */
+    private static final Set<String> COLLECTION_FIELD_COMMANDS = Set.of("getMore");
+
+    /**
+     * The HTTP request being served by the current thread, if any.
+     */
+    private static final ThreadLocal<RequestStats> CURRENT_REQUEST = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+    private final Map<Integer, StartedCommand> startedCommands = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new MongoCommandMonitor.
+     *
+     * @param meterRegistry   The registry the command timers are published to.
+     * @param slowThresholdMs The duration above which a command is logged as slow, in milliseconds.
+     */
+    @Autowired
+    public MongoCommandMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${fondos.mongo.slow-command-threshold-ms:100}") long slowThresholdMs) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+    }
+
+    /**
+     * Starts counting the commands sent by the current thread for an HTTP request.
+     *
+     * @param request A description of the request, used in the slow-command log.
+     */
+    public static void beginRequest(String request) {
+        CURRENT_REQUEST.set(new RequestStats(request));
+    }
+
+    /**
+     * Stops counting the commands of the current thread's HTTP request.
+     *
+     * @return The number of commands sent since {@link #beginRequest(String)}.
+     */
+    public static int endRequest() {
+        RequestStats stats = CURRENT_REQUEST.get();
+        CURRENT_REQUEST.remove();
+        return stats == null ? 0 : stats.roundTrips;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonDocument command = event.getCommand();
+        String commandName = event.getCommandName();
+        String filterShape = slowThresholdNanos > 0 ? filterShape(commandName, command) : null;
+        startedCommands.put(event.getRequestId(), new StartedCommand(collectionOf(commandName, command), filterShape));
+
+        RequestStats request = CURRENT_REQUEST.get();
+        if (request != null) {
+            request.roundTrips++;
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        completed(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), "success");
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        completed(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), "failure");
+    }
+
+    /**
+     * Records a completed command and logs it if it was slow.
+     *
+     * @param requestId   The driver's ID of the command.
+     * @param commandName The command name.
+     * @param nanos       The command latency.
+     * @param outcome     {@code success} or {@code failure}.
+     */
+    private void completed(int requestId, String commandName, long nanos, String outcome) {
+        StartedCommand started = startedCommands.remove(requestId);
+        String collection = started == null ? NO_COLLECTION : started.collection();
+        Timer.builder(COMMANDS_TIMER)
+                .description("Duration of the MongoDB commands sent by the application")
+                .tag("command", commandName)
+                .tag("collection", collection)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        RequestTimings.record("mongo", nanos);
+
+        if (slowThresholdNanos > 0 && nanos >= slowThresholdNanos) {
+            RequestStats request = CURRENT_REQUEST.get();
+            log.warn("Slow MongoDB command: {} on {} took {} ms ({}){}, filter {}",
+                    commandName, collection, TimeUnit.NANOSECONDS.toMillis(nanos), outcome,
+                    request == null ? "" : " during " + request.request,
+                    started == null || started.filterShape() == null ? "-" : started.filterShape());
+        }
+    }
+
+    /**
+     * Returns the collection a command targets.
+     *
+     * @param commandName The command name.
+     * @param command     The command document.
+     * @return The collection name, or {@value #NO_COLLECTION}.
+     */
+    private static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue collection = COLLECTION_FIELD_COMMANDS.contains(commandName)
+                ? command.get("collection")
+                : command.get(commandName);
+        return collection != null && collection.isString() ? collection.asString().getValue() : NO_COLLECTION;
+    }
+
+    /**
+     * Returns the shape of a command's filter.
+     *
+     * @param commandName The command name.
+     * @param command     The command document.
+     * @return The filter shape, or {@code null} if the command has no filter.
+     */
+    private static String filterShape(String commandName, BsonDocument command) {
+        BsonValue filter = switch (commandName) {
+            case "find" -> command.get("filter");
+            case "count", "distinct", "findAndModify" -> command.get("query");
+            case "aggregate" -> command.get("pipeline");
+            case "update" -> firstStatementField(command, "updates", "q");
+            case "delete" -> firstStatementField(command, "deletes", "q");
+            default -> null;
+        };
+        return filter == null ? null : shape(filter);
+    }
+
+    /**
+     * Returns a field of the first statement of a bulk write command.
+     *
+     * @param command    The command document.
+     * @param statements The field holding the statements.
+     * @param field      The field of the statement to return.
+     * @return The field value, or {@code null} if there is none.
+     */
+    private static BsonValue firstStatementField(BsonDocument command, String statements, String field) {
+        BsonValue values = command.get(statements);
+        if (values == null || !values.isArray() || values.asArray().isEmpty() || !values.asArray().get(0).isDocument()) {
+            return null;
+        }
+        return values.asArray().get(0).asDocument().get(field);
+    }
+
+    /**
+     * Renders a value with every literal replaced by {@code ?}, keeping field names and operators.
+     * Arrays of documents, such as the branches of {@code $or}, keep their elements' shapes.
+     *
+     * @param value The value.
+     * @return The shape.
+     */
+    private static String shape(BsonValue value) {
+        if (value.isDocument()) {
+            StringBuilder shape = new StringBuilder("{");
+            for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                if (shape.length() > 1) {
+                    shape.append(", ");
+                }
+                shape.append(entry.getKey()).append(": ").append(shape(entry.getValue()));
+            }
+            return shape.append('}').toString();
+        }
+        if (value.isArray()) {
+            BsonArray array = value.asArray();
+            if (!array.isEmpty() && array.get(0).isDocument()) {
+                StringBuilder shape = new StringBuilder("[");
+                for (BsonValue element : array) {
+                    if (shape.length() > 1) {
+                        shape.append(", ");
+                    }
+                    shape.append(shape(element));
+                }
+                return shape.append(']').toString();
+            }
+            return "[?]";
+        }
+        return "?";
+    }
+
+    /**
+     * What is kept of a command between its start and its completion.
+     *
+     * @param collection  The collection the command targets.
+     * @param filterShape The shape of its filter, or {@code null}.
+     */
+    private record StartedCommand(String collection, String filterShape) {
+    }
+
+    /**
+     * The commands counted for one HTTP request. Only the thread serving the request touches it.
+     */
+    private static final class RequestStats {
+
+        private final String request;
+        private int roundTrips;
+
+        private RequestStats(String request) {
+            this.request = request;
+        }
+    }
+}
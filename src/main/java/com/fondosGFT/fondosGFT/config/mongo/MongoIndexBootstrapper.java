@@ -0,0 +1,238 @@
+package com.fondosGFT.fondosGFT.config.mongo;
+
+import com.fondosGFT.fondosGFT.model.client.Client;
+import com.fondosGFT.fondosGFT.model.fund.FundStatsShard;
+import com.fondosGFT.fondosGFT.model.idempotency.IdempotencyRecord;
+import com.fondosGFT.fondosGFT.model.investment.Investment;
+import com.fondosGFT.fondosGFT.model.nav.NavBucket;
+import com.fondosGFT.fondosGFT.model.notification.NotificationOutbox;
+import com.fondosGFT.fondosGFT.model.transaction.Transaction;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Creates and checks every MongoDB index required by the application's query shapes.
+ * None of the {@code @Document} classes declare indexes and Spring Data's automatic index
+ * creation is disabled, so this component is the single place where indexes are defined.
+ * <p>
+ * Indexes are ensured when the application starts, before the startup migrations, which rely on them.
+ * A failure (for instance duplicate emails preventing the unique index) is logged and remembered instead
+ * of aborting startup, except for the unique indexes that writes rely on to reject duplicates, such as
+ * {@value #INVESTMENT_POSITION_INDEX}: without them duplicate data would be accepted silently, so startup
+ * fails instead. {@link #report()} compares the required indexes with the ones present on the server and
+ * with {@code $indexStats}, and is exposed through the {@link MongoIndexEndpoint} actuator endpoint.
+ * </p>
+ */
+@Component
+@Slf4j
+@Order(0)
+public class MongoIndexBootstrapper implements MongoStartupTask {
+
+    /**
+     * Unique index allowing a single active investment per client and fund. Subscriptions and the
+     * {@link InvestmentCollectionMigration} detect duplicate positions through its duplicate-key errors.
+     */
+    static final String INVESTMENT_POSITION_INDEX = "clientId_fundId_unique";
+
+    private final MongoTemplate mongoTemplate;
+    private final Map<Class<?>, List<IndexDefinition>> requiredIndexes = new LinkedHashMap<>();
+    private final Set<String> constraintIndexes = new HashSet<>();
+    private final Map<String, String> failures = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new MongoIndexBootstrapper and declares the required indexes.
+     *
+     * @param mongoTemplate         The MongoTemplate used to create and inspect indexes.
+     * @param idempotencyTtlHours   How long idempotency keys are kept before the TTL index removes them.
+     */
+    @Autowired
+    public MongoIndexBootstrapper(MongoTemplate mongoTemplate,
+                                  @Value("${fondos.idempotency.ttl-hours:24}") long idempotencyTtlHours) {
+        this.mongoTemplate = mongoTemplate;
+
+        // ClientRepository.findByEmail; partial so clients without an email do not collide
+        require(Client.class, new Index()
+                .on("email", Sort.Direction.ASC)
+                .unique()
+                .partial(PartialIndexFilter.of(Criteria.where("email").type(2)))
+                .named("email_unique"));
+        // ClientRepository.findByNotificationPreference
+        require(Client.class, new Index()
+                .on("notificationPreference", Sort.Direction.ASC)
+                .named("notificationPreference"));
+        // ClientRepository.findByCurrentBalanceGreaterThanEqual
+        require(Client.class, new Index()
+                .on("currentBalance", Sort.Direction.ASC)
+                .named("currentBalance"));
+        // One active position per client and fund; also serves InvestmentRepository.findByClientId(In)
+        requireConstraint(Investment.class, new Index()
+                .on("clientId", Sort.Direction.ASC)
+                .on("fundId", Sort.Direction.ASC)
+                .unique()
+                .named(INVESTMENT_POSITION_INDEX));
+        // InvestmentRepository.findByFundId (clients in a fund)
+        require(Investment.class, new Index()
+                .on("fundId", Sort.Direction.ASC)
+                .named("fundId"));
+        // InvestmentRepository.findByInitialAmountInvestedGreaterThan
+        require(Investment.class, new Index()
+                .on("initialAmountInvested", Sort.Direction.ASC)
+                .named("initialAmountInvested"));
+        // FundStatsShardRepository.findByFundId (merging a fund's totals)
+        require(FundStatsShard.class, new Index()
+                .on("fundId", Sort.Direction.ASC)
+                .named("fundId"));
+        // NavService.getHistory (range reads of a fund's monthly NAV buckets)
+        require(NavBucket.class, new Index()
+                .on("fundId", Sort.Direction.ASC)
+                .on("month", Sort.Direction.ASC)
+                .named("fundId_month"));
+        // TransactionRepository.findByClientIdOrderByDateDesc and the keyset-paginated history
+        require(Transaction.class, new Index()
+                .on("clientId", Sort.Direction.ASC)
+                .on("date", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("clientId_date_id"));
+        // NotificationDispatcher polling for claimable entries
+        require(NotificationOutbox.class, new Index()
+                .on("status", Sort.Direction.ASC)
+                .on("availableAt", Sort.Direction.ASC)
+                .named("status_availableAt"));
+        // Expiry of idempotency keys
+        require(IdempotencyRecord.class, new Index()
+                .on("createdAt", Sort.Direction.ASC)
+                .expire(Duration.ofHours(idempotencyTtlHours))
+                .named("createdAt_ttl"));
+    }
+
+    /**
+     * Ensures every required index exists before the application accepts requests.
+     *
+     * @throws IllegalStateException if an index that writes rely on to reject duplicates could not be created.
+     */
+    @Override
+    public void run() {
+        requiredIndexes.forEach((entityClass, indexes) -> {
+            for (IndexDefinition index : indexes) {
+                String key = mongoTemplate.getCollectionName(entityClass) + "." + indexName(index);
+                try {
+                    mongoTemplate.indexOps(entityClass).ensureIndex(index);
+                    failures.remove(key);
+                } catch (RuntimeException e) {
+                    log.error("Could not create index {}: {}", key, e.getMessage());
+                    failures.put(key, e.getMessage());
+                }
+            }
+        });
+        log.info("MongoDB indexes ensured ({} failures)", failures.size());
+
+        List<String> failedConstraints = failures.keySet().stream()
+                .filter(constraintIndexes::contains)
+                .sorted()
+                .collect(Collectors.toList());
+        if (!failedConstraints.isEmpty()) {
+            throw new IllegalStateException("Could not create the unique indexes " + failedConstraints
+                    + ", which are required to reject duplicate data. Resolve the duplicates and restart.");
+        }
+    }
+
+    /**
+     * Builds a report of the indexes of every managed collection.
+     * For each collection it lists the required indexes that are missing, the indexes that
+     * could not be created, and the indexes with no recorded use since the server started.
+     *
+     * @return A map from collection name to its index report.
+     */
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        requiredIndexes.forEach((entityClass, indexes) -> {
+            String collection = mongoTemplate.getCollectionName(entityClass);
+            Set<String> existing = mongoTemplate.indexOps(entityClass).getIndexInfo().stream()
+                    .map(IndexInfo::getName)
+                    .collect(Collectors.toSet());
+            List<String> required = indexes.stream().map(this::indexName).collect(Collectors.toList());
+
+            Map<String, Object> collectionReport = new LinkedHashMap<>();
+            collectionReport.put("required", required);
+            collectionReport.put("missing", required.stream().filter(name -> !existing.contains(name)).collect(Collectors.toList()));
+            collectionReport.put("failed", failures.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(collection + "."))
+                    .collect(Collectors.toMap(entry -> entry.getKey().substring(collection.length() + 1), Map.Entry::getValue)));
+            collectionReport.put("unused", unusedIndexes(collection));
+            report.put(collection, collectionReport);
+        });
+        return report;
+    }
+
+    /**
+     * Lists the indexes of a collection that {@code $indexStats} reports as never used since
+     * the server started. The mandatory {@code _id_} index is ignored.
+     *
+     * @param collection The name of the collection.
+     * @return The names of the unused indexes.
+     */
+    private List<String> unusedIndexes(String collection) {
+        List<String> unused = new ArrayList<>();
+        for (Document stats : mongoTemplate.getCollection(collection).aggregate(List.of(new Document("$indexStats", new Document())))) {
+            Document accesses = stats.get("accesses", Document.class);
+            long ops = accesses == null ? 0 : ((Number) accesses.get("ops")).longValue();
+            String name = stats.getString("name");
+            if (ops == 0 && !"_id_".equals(name)) {
+                unused.add(name);
+            }
+        }
+        return unused;
+    }
+
+    /**
+     * Registers an index required by the given entity's collection.
+     *
+     * @param entityClass The {@code @Document} class whose collection needs the index.
+     * @param index       The index definition. It must be explicitly named.
+     */
+    private void require(Class<?> entityClass, IndexDefinition index) {
+        requiredIndexes.computeIfAbsent(entityClass, key -> new ArrayList<>()).add(index);
+    }
+
+    /**
+     * Registers a unique index that writes rely on to reject duplicates. Startup fails if it cannot be created.
+     *
+     * @param entityClass The {@code @Document} class whose collection needs the index.
+     * @param index       The index definition. It must be explicitly named.
+     */
+    private void requireConstraint(Class<?> entityClass, IndexDefinition index) {
+        require(entityClass, index);
+        constraintIndexes.add(mongoTemplate.getCollectionName(entityClass) + "." + indexName(index));
+    }
+
+    /**
+     * Returns the explicit name of an index definition.
+     *
+     * @param index The index definition.
+     * @return The index name.
+     */
+    private String indexName(IndexDefinition index) {
+        return index.getIndexOptions().getString("name");
+    }
+}
@@ -0,0 +1,39 @@
+package com.fondosGFT.fondosGFT.config.mongo;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing the state of the MongoDB indexes managed by the {@link MongoIndexBootstrapper}.
+ * Available at {@code /actuator/mongoindexes} when included in {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@Endpoint(id = "mongoindexes")
+public class MongoIndexEndpoint {
+
+    private final MongoIndexBootstrapper indexBootstrapper;
+
+    /**
+     * Constructs a new MongoIndexEndpoint.
+     *
+     * @param indexBootstrapper The component that owns the index definitions.
+     */
+    @Autowired
+    public MongoIndexEndpoint(MongoIndexBootstrapper indexBootstrapper) {
+        this.indexBootstrapper = indexBootstrapper;
+    }
+
+    /**
+     * Reports missing, failed and unused indexes for every managed collection.
+     *
+     * @return A map from collection name to its index report.
+     */
+    @ReadOperation
+    public Map<String, Object> indexes() {
+        return indexBootstrapper.report();
+    }
+}
@@ -0,0 +1,42 @@
+package com.fondosGFT.fondosGFT.config.mongo;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Configuration of the MongoDB command monitoring: it registers the {@link MongoCommandMonitor} on the
+ * MongoDB client built by Spring Boot and the {@link MongoRoundTripFilter} on every HTTP request.
+ */
+@Configuration
+public class MongoMonitoringConfig {
+
+    /**
+     * Adds the {@link MongoCommandMonitor} to the MongoDB client settings.
+     *
+     * @param commandMonitor The command listener to register.
+     * @return The customizer applied by Spring Boot when it builds the MongoDB client.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandMonitorCustomizer(MongoCommandMonitor commandMonitor) {
+        return settings -> settings.addCommandListener(commandMonitor);
+    }
+
+    /**
+     * Registers the {@link MongoRoundTripFilter} right after the first filter, the {@code ServerTimingFilter} when it is
+     * enabled, and ahead of the security filters.
+     *
+     * @param meterRegistry The registry the round-trip counts are published to.
+     * @return The filter registration.
+     */
+    @Bean
+    public FilterRegistrationBean<MongoRoundTripFilter> mongoRoundTripFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<MongoRoundTripFilter> registration =
+                new FilterRegistrationBean<>(new MongoRoundTripFilter(meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,62 @@
+package com.fondosGFT.fondosGFT.config.mongo;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Servlet filter counting the MongoDB round trips made while serving each HTTP request.
+ * The count reported by the {@link MongoCommandMonitor} is recorded in {@value #ROUND_TRIPS_SUMMARY},
+ * tagged by HTTP {@code method} and {@code uri} template, so endpoints whose number of queries grows with the
+ * data stand out. It is registered by {@link MongoMonitoringConfig} ahead of the security filters, so their
+ * round trips are counted too.
+ */
+@Slf4j
+public class MongoRoundTripFilter extends OncePerRequestFilter {
+
+    /**
+     * Distribution of the MongoDB round trips per HTTP request.
+     */
+    public static final String ROUND_TRIPS_SUMMARY = "fondos.mongo.request.round-trips";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructs a new MongoRoundTripFilter.
+     *
+     * @param meterRegistry The registry the round-trip counts are published to.
+     */
+    public MongoRoundTripFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        MongoCommandMonitor.beginRequest(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int roundTrips = MongoCommandMonitor.endRequest();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "unmatched";
+            DistributionSummary.builder(ROUND_TRIPS_SUMMARY)
+                    .description("MongoDB commands sent while serving an HTTP request")
+                    .baseUnit("commands")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(roundTrips);
+            log.debug("{} {} made {} MongoDB round trips", request.getMethod(), uri, roundTrips);
+        }
+    }
+}
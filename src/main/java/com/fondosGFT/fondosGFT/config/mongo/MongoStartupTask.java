@@ -0,0 +1,17 @@
+package com.fondosGFT.fondosGFT.config.mongo;
+
+/**
+ * A step that prepares the database when the application starts, such as creating indexes or migrating data.
+ * <p>
+ * Tasks are run one after another by the {@link MongoStartupTasks} lifecycle, in their {@code @Order}, before the
+ * embedded web server starts. A task can therefore rewrite data that requests would otherwise update concurrently,
+ * and a task that throws aborts startup.
+ * </p>
+ */
+public interface MongoStartupTask {
+
+    /**
+     * Runs the task.
+     */
+    void run();
+}
@@ -0,0 +1,87 @@
+package com.fondosGFT.fondosGFT.config.mongo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the {@link MongoStartupTask}s before the application accepts requests.
+ * <p>
+ * {@code ApplicationRunner}s only run once the embedded web server is already serving traffic, so a migration
+ * run from one races with the requests it is rewriting data for; the {@link FundStatsBackfill}, for instance,
+ * would discard the fund totals updated by subscriptions processed while it rebuilds them. This lifecycle runs
+ * in a phase before the web server's, so the tasks complete, in their {@code @Order}, before the server starts.
+ * Scheduled jobs only start once the context is refreshed, after every lifecycle, so they do not run concurrently
+ * with the tasks either.
+ * </p>
+ * <p>
+ * {@code @Component} indicates that this class is a Spring component.
+ * {@code @Slf4j} provides a logger instance named 'log' for logging messages.
+ * </p>
+ */
+@Component
+@Slf4j
+public class MongoStartupTasks implements SmartLifecycle {
+
+    /**
+     * The lifecycle phase of the tasks, before the phase in which the embedded web server starts
+     * ({@code SmartLifecycle.DEFAULT_PHASE - 2048}).
+     */
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final ObjectProvider<MongoStartupTask> tasks;
+    private volatile boolean running;
+
+    /**
+     * Constructs a new MongoStartupTasks.
+     *
+     * @param tasks The startup tasks, resolved in their {@code @Order}.
+     */
+    @Autowired
+    public MongoStartupTasks(ObjectProvider<MongoStartupTask> tasks) {
+        this.tasks = tasks;
+    }
+
+    /**
+     * Runs every startup task in order. An exception thrown by a task aborts startup.
+     */
+    @Override
+    public void start() {
+        tasks.orderedStream().forEach(task -> {
+            long start = System.nanoTime();
+            task.run();
+            log.info("Startup task {} completed in {} ms", task.getClass().getSimpleName(), (System.nanoTime() - start) / 1_000_000);
+        });
+        running = true;
+    }
+
+    /**
+     * Marks the tasks as stopped. Tasks run to completion in {@link #start()}, so there is nothing to stop.
+     */
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Indicates whether the tasks have been run.
+     *
+     * @return {@code true} once every task has completed.
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the phase in which the tasks run, before the embedded web server starts.
+     *
+     * @return The phase.
+     */
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -0,0 +1,79 @@
+package com.fondosGFT.fondosGFT.config.mongo;
+
+import com.mongodb.MongoException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+/**
+ * Configuration of the multi-document transaction mode, enabled by
+ * {@code fondos.transactions.mode=multi-document}.
+ * <p>
+ * In this mode each subscription and cancellation runs in a MongoDB transaction, so the investment, the client
+ * balance, the ledger entry and the outbox entry are committed or discarded together. Transactions require
+ * MongoDB to run as a replica set or sharded cluster. In the default {@code atomic} mode no transaction manager
+ * is defined and every write is a single-document atomic operation, with compensating writes on failure.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "fondos.transactions.mode", havingValue = "multi-document")
+public class MongoTransactionConfig {
+
+    /**
+     * Provides the transaction manager used by {@code MongoTransactionRunner}.
+     *
+     * @param databaseFactory     The factory whose sessions the transactions are bound to.
+     * @param commitRetries       The number of additional commit attempts after an unknown commit result.
+     * @param commitRetryBackoffMs The pause between commit attempts, in milliseconds.
+     * @return The transaction manager.
+     */
+    @Bean
+    public MongoTransactionManager mongoTransactionManager(
+            MongoDatabaseFactory databaseFactory,
+            @Value("${fondos.transactions.commit-retries:3}") int commitRetries,
+            @Value("${fondos.transactions.retry-backoff-ms:10}") long commitRetryBackoffMs) {
+        return new CommitRetryingMongoTransactionManager(databaseFactory, commitRetries, commitRetryBackoffMs);
+    }
+
+    /**
+     * {@link MongoTransactionManager} retrying the commit when its result is unknown.
+     * <p>
+     * A commit labelled {@code UnknownTransactionCommitResult}, for example after a network error or a primary
+     * step-down, may or may not have been applied. Commits are idempotent, so retrying only the commit is safe,
+     * whereas running the transaction again could apply it twice. Transactions labelled
+     * {@code TransientTransactionError} are retried as a whole by {@code MongoTransactionRunner}.
+     * </p>
+     */
+    @Slf4j
+    static class CommitRetryingMongoTransactionManager extends MongoTransactionManager {
+
+        private final int commitRetries;
+        private final long backoffMs;
+
+        CommitRetryingMongoTransactionManager(MongoDatabaseFactory databaseFactory, int commitRetries, long backoffMs) {
+            super(databaseFactory);
+            this.commitRetries = commitRetries;
+            this.backoffMs = backoffMs;
+        }
+
+        @Override
+        protected void doCommit(MongoTransactionObject transactionObject) throws Exception {
+            for (int retry = 0; ; retry++) {
+                try {
+                    transactionObject.commitTransaction();
+                    return;
+                } catch (MongoException e) {
+                    if (retry >= commitRetries || !e.hasErrorLabel(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL)) {
+                        throw e;
+                    }
+                    log.warn("Unknown transaction commit result, retrying the commit ({} of {}): {}", retry + 1, commitRetries, e.getMessage());
+                    Thread.sleep(backoffMs);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.fondosGFT.fondosGFT.config.web;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration of the requests Spring MVC completes asynchronously, which are the streamed history exports.
+ * <p>
+ * An export holds a thread and a MongoDB cursor for as long as the client keeps reading, so it runs on its own
+ * bounded pool rather than the shared application executor, and under an explicit timeout rather than the
+ * container default. An export that runs past the timeout is cancelled and its cursor closed; an export
+ * arriving while every thread and queue slot is taken is refused with {@code 503 Service Unavailable}.
+ * </p>
+ */
+@Configuration
+public class AsyncRequestConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor exportTaskExecutor;
+    private final long timeoutMs;
+
+    /**
+     * Constructs a new AsyncRequestConfig.
+     *
+     * @param threads       The number of exports streamed at the same time.
+     * @param queueCapacity The number of exports waiting for a thread before new ones are refused.
+     * @param timeoutMs     The time an export may take, from the request to the last line, in milliseconds.
+     */
+    public AsyncRequestConfig(
+            @Value("${fondos.transactions.export.threads:4}") int threads,
+            @Value("${fondos.transactions.export.queue-capacity:16}") int queueCapacity,
+            @Value("${fondos.transactions.export.timeout-ms:600000}") long timeoutMs) {
+        this.exportTaskExecutor = new ThreadPoolTaskExecutor();
+        this.exportTaskExecutor.setThreadNamePrefix("history-export-");
+        this.exportTaskExecutor.setCorePoolSize(threads);
+        this.exportTaskExecutor.setMaxPoolSize(threads);
+        this.exportTaskExecutor.setQueueCapacity(queueCapacity);
+        this.exportTaskExecutor.setWaitForTasksToCompleteOnShutdown(false);
+        this.exportTaskExecutor.initialize();
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Stops the export pool, cancelling the exports still streaming.
+     * The pool is not a bean, so it does not replace the application executor Spring Boot would otherwise create.
+     */
+    @PreDestroy
+    public void shutdown() {
+        exportTaskExecutor.shutdown();
+    }
+
+    /**
+     * Runs asynchronous requests on the export pool, under the export timeout.
+     *
+     * @param configurer The Spring MVC asynchronous request settings.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(exportTaskExecutor);
+        configurer.setDefaultTimeout(timeoutMs);
+    }
+}
@@ -0,0 +1,102 @@
+package com.fondosGFT.fondosGFT.config.web;
+
+import com.fondosGFT.fondosGFT.util.RequestTimings;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of the {@code Server-Timing} response header, enabled by {@code fondos.server-timing.enabled}.
+ * <p>
+ * Each response then reports where its time went, so load tools can attribute tail latency without access to
+ * the server logs:
+ * <ul>
+ * <li>{@code total}: the whole request, as seen by the first filter;</li>
+ * <li>{@code filters}: the filters before the handler, mostly Spring Security;</li>
+ * <li>{@code controller} and {@code serialization}: the handler method and the writing of its body;</li>
+ * <li>{@code tx-*}: the {@code TransactionService} operations and their stages;</li>
+ * <li>{@code repo}: the Spring Data repository calls;</li>
+ * <li>{@code mongo}: the MongoDB commands, including those sent through {@code MongoTemplate};</li>
+ * <li>{@code notify}: SES and SNS calls made on the request thread.</li>
+ * </ul>
+ * The header exposes internals of the service, so it is meant for test and staging deployments.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "fondos.server-timing.enabled", havingValue = "true")
+public class ServerTimingConfig implements WebMvcConfigurer {
+
+    /**
+     * Registers the {@link ServerTimingFilter} before every other filter, so {@code total} covers them all.
+     *
+     * @return The filter registration.
+     */
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter() {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(new ServerTimingFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Adds every Spring Data repository call to the {@code repo} stage of the current request.
+     * It is static so the post-processor is created before the repositories it customizes.
+     *
+     * @return The bean post-processor registering the invocation listener on every repository factory.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryTimingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(invocation ->
+                            RequestTimings.record("repo", invocation.getDuration(TimeUnit.NANOSECONDS))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Marks the start and end of the handler invocation of each request, and stops buffering the responses of
+     * handlers that stream their body.
+     *
+     * @param registry The registry of Spring MVC interceptors.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+                    throws IOException {
+                RequestTimings timings = RequestTimings.current();
+                if (timings != null) {
+                    timings.handlerStarted();
+                }
+                ServerTimingFilter.handlerSelected(response, handler);
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+                RequestTimings timings = RequestTimings.current();
+                if (timings != null) {
+                    timings.handlerCompleted();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,172 @@
+package com.fondosGFT.fondosGFT.config.web;
+
+import com.fondosGFT.fondosGFT.util.RequestTimings;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Servlet filter binding a {@link RequestTimings} recorder to each request and returning it as a
+ * {@code Server-Timing} header.
+ * <p>
+ * The header must be sent before the body, but the serialization of the body is one of the stages it reports,
+ * so the response body is buffered until the request completes. Handlers that stream their body, whose whole
+ * point is not to hold it in memory, are therefore excluded: once {@link #handlerSelected} sees such a handler,
+ * the response is written straight through and sent without the header. A response ended with
+ * {@code sendError}, such as a rejection by the security filters, gets the header before the error is sent.
+ * </p>
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    /**
+     * Name of the response header.
+     */
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    /**
+     * Stops buffering the response if the selected handler streams its body, such as the history export.
+     * Called once the handler of the request is known, before it runs.
+     *
+     * @param response The response, as seen by the handler.
+     * @param handler  The selected handler.
+     * @throws IOException if the body buffered so far cannot be written.
+     */
+    public static void handlerSelected(HttpServletResponse response, Object handler) throws IOException {
+        TimedResponse timedResponse = WebUtils.getNativeResponse(response, TimedResponse.class);
+        if (timedResponse != null && handler instanceof HandlerMethod method && streamsBody(method)) {
+            timedResponse.stopBuffering();
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        TimedResponse timedResponse = new TimedResponse(response, RequestTimings.begin());
+        try {
+            filterChain.doFilter(request, timedResponse);
+        } finally {
+            RequestTimings.end();
+            timedResponse.writeTimings();
+            timedResponse.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Tells whether a handler method writes its body asynchronously, as a stream.
+     *
+     * @param method The handler method.
+     * @return {@code true} if it returns a {@link StreamingResponseBody} or a {@link ResponseBodyEmitter},
+     * directly or in a {@link ResponseEntity}.
+     */
+    private static boolean streamsBody(HandlerMethod method) {
+        ResolvableType returnType = ResolvableType.forMethodParameter(method.getReturnType());
+        Class<?> body = ResponseEntity.class.isAssignableFrom(returnType.toClass())
+                ? returnType.getGeneric(0).toClass()
+                : returnType.toClass();
+        return StreamingResponseBody.class.isAssignableFrom(body) || ResponseBodyEmitter.class.isAssignableFrom(body);
+    }
+
+    /**
+     * Response buffered until the request completes, so the {@code Server-Timing} header can still be added,
+     * unless its handler streams the body.
+     */
+    private static final class TimedResponse extends ContentCachingResponseWrapper {
+
+        private final RequestTimings timings;
+        private boolean streaming;
+        private boolean timed;
+
+        /**
+         * Constructs a new TimedResponse.
+         *
+         * @param response The response being wrapped.
+         * @param timings  The recorder of the request.
+         */
+        private TimedResponse(HttpServletResponse response, RequestTimings timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        /**
+         * Writes the body buffered so far and passes the rest of the response straight through.
+         *
+         * @throws IOException if the buffered body cannot be written.
+         */
+        private void stopBuffering() throws IOException {
+            copyBodyToResponse(false);
+            streaming = true;
+        }
+
+        /**
+         * Sets the {@code Server-Timing} header, once, unless the response is streamed or already committed.
+         */
+        private void writeTimings() {
+            if (!timed && !streaming && !isCommitted()) {
+                setHeader(SERVER_TIMING_HEADER, timings.toHeader());
+            }
+            timed = true;
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeTimings();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeTimings();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return streaming ? getResponse().getOutputStream() : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return streaming ? getResponse().getWriter() : super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (streaming) {
+                getResponse().flushBuffer();
+            } else {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            if (streaming) {
+                getResponse().setContentLength(len);
+            } else {
+                super.setContentLength(len);
+            }
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (streaming) {
+                getResponse().setContentLengthLong(len);
+            } else {
+                super.setContentLengthLong(len);
+            }
+        }
+    }
+}
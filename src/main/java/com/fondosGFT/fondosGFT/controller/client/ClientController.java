@@ -1,16 +1,17 @@
 package com.fondosGFT.fondosGFT.controller.client;
+import com.fondosGFT.fondosGFT.mapper.client.ClientMapper;
 import com.fondosGFT.fondosGFT.model.client.Client;
 import com.fondosGFT.fondosGFT.model.client.dto.ClientRequestDTO;
 import com.fondosGFT.fondosGFT.model.client.dto.ClientResponseDTO;
-import com.fondosGFT.fondosGFT.model.investment.dto.InvestmentResponseDTO;
+import com.fondosGFT.fondosGFT.model.portfolio.dto.PortfolioResponseDTO;
 import com.fondosGFT.fondosGFT.service.client.ClientService;
+import com.fondosGFT.fondosGFT.service.portfolio.PortfolioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,13 +19,12 @@ import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * REST Controller for managing client-related operations.
  * This class handles incoming HTTP requests for clients, processes them,
- * and delegates business logic to the {@link ClientService}.
- * It maps DTOs (Data Transfer Objects) for request and response serialization.
+ * and delegates business logic to the {@link ClientService}, and portfolio valuations to the {@link PortfolioService}.
+ * It maps DTOs (Data Transfer Objects) for request and response serialization with the generated {@link ClientMapper}.
  *
  * {@code @RestController} is a convenience annotation that combines {@code @Controller} and {@code @ResponseBody},
  * meaning every method returns a domain object instead of a view, and it's suitable for building RESTful web services.
@@ -35,6 +35,8 @@ import java.util.stream.Collectors;
 public class ClientController {
 
     private final ClientService clientService;
+    private final PortfolioService portfolioService;
+    private final ClientMapper clientMapper;
 
     /**
      * Constructs a new ClientController with the specified ClientService.
@@ -42,10 +44,14 @@ public class ClientController {
      *
      * @param clientService The service layer component responsible for client business logic.
      * It's automatically injected by Spring.
+     * @param portfolioService The service valuing the clients' positions at the latest fund prices.
+     * @param clientMapper The mapper converting clients to and from their DTOs.
      */
     @Autowired
-    public ClientController(ClientService clientService) {
+    public ClientController(ClientService clientService, PortfolioService portfolioService, ClientMapper clientMapper) {
         this.clientService = clientService;
+        this.portfolioService = portfolioService;
+        this.clientMapper = clientMapper;
     }
 
     /**
@@ -70,18 +76,11 @@ public class ClientController {
     })
     @PostMapping
     public ResponseEntity<ClientResponseDTO> createClient(@Valid @RequestBody ClientRequestDTO clientRequestDTO) {
-        Client client = new Client();
-        BeanUtils.copyProperties(clientRequestDTO, client);
-        client.setFirstName(clientRequestDTO.getFirstName()); // Assuming your Client entity has setFirstName
-        client.setLastName(clientRequestDTO.getLastName());
-        client.setCity(clientRequestDTO.getCity());
-        client.setNotificationPreference(clientRequestDTO.getNotificationPreference());
-        client.setEmail(clientRequestDTO.getEmail());
-        client.setPhoneNumber(clientRequestDTO.getPhoneNumber());
+        Client client = clientMapper.toEntity(clientRequestDTO);
 
         Client savedClient = clientService.createCliente(client); // Corrected method name: createClient instead of createCliente
 
-        ClientResponseDTO responseDTO = mapClientToClientResponseDTO(savedClient);
+        ClientResponseDTO responseDTO = clientMapper.toResponseDTO(savedClient);
         return new ResponseEntity<>(responseDTO, HttpStatus.CREATED);
     }
 
@@ -109,7 +108,31 @@ public class ClientController {
     @GetMapping("/{clientId}")
     public ResponseEntity<ClientResponseDTO> getClientById(@PathVariable String clientId) {
         return clientService.getClienteById(clientId) // Corrected method name: getClientById instead of getClienteById
-                .map(this::mapClientToClientResponseDTO)
+                .map(clientMapper::toResponseDTO)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Retrieves a client's portfolio valued at the latest fund prices.
+     * Unlike the stored {@code currentAmount} of each investment, which is only updated by revaluation runs,
+     * the valuation uses the most recent NAV of every fund.
+     *
+     * @param clientId The unique ID of the client, extracted from the URL path.
+     * @return A {@link ResponseEntity} containing the {@link PortfolioResponseDTO} with the total market value,
+     * the profit and loss of each position and the allocation percentages, with an HTTP status of {@code 200 OK}.
+     * Returns {@code 404 Not Found} if no client with the given ID exists.
+     */
+    @Operation(summary = "Get client portfolio", description = "Values a client's positions at the latest fund prices.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Portfolio valued",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PortfolioResponseDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Client not found")
+    })
+    @GetMapping("/{clientId}/portfolio")
+    public ResponseEntity<PortfolioResponseDTO> getClientPortfolio(@PathVariable String clientId) {
+        return portfolioService.getPortfolio(clientId)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -127,37 +150,7 @@ public class ClientController {
                     schema = @Schema(implementation = ClientResponseDTO.class)))
     @GetMapping
     public ResponseEntity<List<ClientResponseDTO>> getAllClients() {
-        List<ClientResponseDTO> clients = clientService.getAllClientes().stream()
-                .map(this::mapClientToClientResponseDTO)
-                .collect(Collectors.toList());
+        List<ClientResponseDTO> clients = clientMapper.toResponseDTOs(clientService.getAllClientes());
         return ResponseEntity.ok(clients);
     }
-
-    /**
-     * Helper method to map a {@link Client} entity object to a {@link ClientResponseDTO}.
-     * This method is used internally by the controller to transform domain models
-     * into DTOs suitable for API responses, ensuring only necessary and relevant
-     * data is exposed.
-     *
-     * @param client The {@link Client} entity object to be mapped.
-     * @return A {@link ClientResponseDTO} populated with data from the provided client entity.
-     */
-    private ClientResponseDTO mapClientToClientResponseDTO(Client client) {
-        ClientResponseDTO dto = new ClientResponseDTO();
-        BeanUtils.copyProperties(client, dto); // Copies matching fields by name
-
-        // Map active investments if available
-        if (client.getActiveInvestments() != null) {
-            dto.setActiveInvestments(client.getActiveInvestments().stream()
-                    .map(inv -> new InvestmentResponseDTO(
-                            inv.getFundId(),
-                            inv.getFundName(),
-                            inv.getInitialAmountInvested(),
-                            inv.getCurrentAmount(),
-                            inv.getSubscriptionDate(),
-                            inv.getTransactionId()))
-                    .collect(Collectors.toList()));
-        }
-        return dto;
-    }
-}
\ No newline at end of file
+}
@@ -1,26 +1,47 @@
 package com.fondosGFT.fondosGFT.controller.fund;
 
+import com.fondosGFT.fondosGFT.mapper.fund.FundMapper;
+import com.fondosGFT.fondosGFT.model.error.ErrorResponse;
 import com.fondosGFT.fondosGFT.model.fund.Fund;
+import com.fondosGFT.fondosGFT.model.fund.FundStats;
 import com.fondosGFT.fondosGFT.model.fund.dto.FundResponseDTO;
+import com.fondosGFT.fondosGFT.model.fund.dto.FundStatsResponseDTO;
+import com.fondosGFT.fondosGFT.model.nav.dto.NavHistoryDTO;
+import com.fondosGFT.fondosGFT.model.nav.dto.NavPointRequestDTO;
+import com.fondosGFT.fondosGFT.model.revaluation.dto.RevaluationRequestDTO;
 import com.fondosGFT.fondosGFT.service.fund.FundService;
+import com.fondosGFT.fondosGFT.service.fund.FundStatsService;
+import com.fondosGFT.fondosGFT.service.nav.NavService;
+import com.fondosGFT.fondosGFT.service.revaluation.RevaluationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * REST Controller for managing investment fund information.
  * This class provides API endpoints to retrieve details about available funds.
- * It delegates the actual data fetching to the {@link FundService}.
+ * It delegates the actual data fetching to the {@link FundService}, and the fund-level
+ * totals to the {@link FundStatsService} and the NAV history to the {@link NavService}. Revaluations of the investments are triggered through the
+ * {@link RevaluationService}.
  *
  * {@code @RestController} indicates that this class is a controller where every method returns a domain object
  * instead of a view, making it suitable for building RESTful web services.
@@ -34,17 +55,30 @@ import java.util.stream.Collectors;
 public class FundController {
 
     private final FundService fundService;
+    private final FundStatsService fundStatsService;
+    private final RevaluationService revaluationService;
+    private final NavService navService;
+    private final FundMapper fundMapper;
 
     /**
-     * Constructs a new FundController with the specified FundService.
-     * Spring's dependency injection automatically provides the FundService instance.
+     * Constructs a new FundController with the specified services.
+     * Spring's dependency injection automatically provides the service instances.
      *
      * @param fundService The service layer component responsible for fund-related business logic and data retrieval.
      * It's automatically injected by Spring.
+     * @param fundStatsService The service maintaining the per-fund totals.
+     * @param revaluationService The engine revaluing the investments at new fund unit prices.
+     * @param navService The service storing the funds' NAV history.
+     * @param fundMapper The generated mapper converting funds to their response DTOs.
      */
     @Autowired
-    public FundController(FundService fundService) {
+    public FundController(FundService fundService, FundStatsService fundStatsService,
+                          RevaluationService revaluationService, NavService navService, FundMapper fundMapper) {
         this.fundService = fundService;
+        this.fundStatsService = fundStatsService;
+        this.revaluationService = revaluationService;
+        this.navService = navService;
+        this.fundMapper = fundMapper;
     }
 
     /**
@@ -64,15 +98,128 @@ public class FundController {
                     schema = @Schema(implementation = FundResponseDTO.class)))
     @GetMapping
     public ResponseEntity<List<FundResponseDTO>> getAllFunds() {
-        List<Fund> funds = fundService.getAllFunds();
-        // Map Fund entities to FundResponseDTOs for the API response.
-        List<FundResponseDTO> fundDTOs = funds.stream()
-                .map(fund -> new FundResponseDTO( // Assuming FundResponseDTO has a constructor for these fields
-                        fund.getId(),
-                        fund.getName(),
-                        fund.getProductType(),
-                        fund.getMinimumSubscriptionAmount()))
-                .collect(Collectors.toList());
+        List<FundResponseDTO> fundDTOs = fundMapper.toResponseDTOs(fundService.getAllFunds());
         return ResponseEntity.ok(fundDTOs);
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the aggregate figures of every fund: assets under management and number of active investors.
+     * The figures are maintained incrementally, so this reads one small document per fund.
+     *
+     * @return A {@link ResponseEntity} containing a {@link List} of {@link FundStatsResponseDTO}s,
+     * one per available fund, with an HTTP status of {@code 200 OK}.
+     */
+    @Operation(summary = "Get the aggregate figures of all funds", description = "Retrieves the assets under management and number of active investors of every fund.")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved the fund figures",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = FundStatsResponseDTO.class)))
+    @GetMapping("/stats")
+    public ResponseEntity<List<FundStatsResponseDTO>> getAllFundStats() {
+        Map<String, FundStats> totals = fundStatsService.getAllFundStats();
+        List<FundStatsResponseDTO> stats = fundService.getAllFunds().stream()
+                .map(fund -> mapToFundStatsResponseDTO(fund, totals.getOrDefault(fund.getId(),
+                        new FundStats(fund.getId(), BigDecimal.ZERO, 0, null))))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Retrieves the aggregate figures of a single fund: assets under management and number of active investors.
+     *
+     * @param fundId The unique ID of the fund.
+     * @return A {@link ResponseEntity} containing the fund's {@link FundStatsResponseDTO},
+     * with an HTTP status of {@code 200 OK}.
+     */
+    @Operation(summary = "Get the aggregate figures of a fund", description = "Retrieves the assets under management and number of active investors of a fund.")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved the fund figures",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = FundStatsResponseDTO.class)))
+    @GetMapping("/{fundId}/stats")
+    public ResponseEntity<FundStatsResponseDTO> getFundStats(@PathVariable String fundId) {
+        Fund fund = fundService.getFondoById(fundId);
+        return ResponseEntity.ok(mapToFundStatsResponseDTO(fund, fundStatsService.getFundStats(fundId)));
+    }
+
+    /**
+     * Retrieves the NAV history of a fund between two days.
+     * Long ranges are down-sampled to the last NAV of equally sized intervals, so the response holds
+     * at most {@code maxPoints} points.
+     *
+     * @param fundId    The unique ID of the fund.
+     * @param from      The first day of the range, inclusive (ISO format, e.g. 2024-01-31).
+     * @param to        The last day of the range, inclusive (ISO format).
+     * @param maxPoints The largest number of points to return. Defaults to 500.
+     * @return A {@link ResponseEntity} containing the fund's {@link NavHistoryDTO},
+     * with an HTTP status of {@code 200 OK}.
+     */
+    @Operation(summary = "Get the NAV history of a fund", description = "Retrieves the daily NAV of a fund between two dates, down-sampled for long ranges.")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved the NAV history",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = NavHistoryDTO.class)))
+    @GetMapping("/{fundId}/nav")
+    public ResponseEntity<NavHistoryDTO> getNavHistory(
+            @PathVariable String fundId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "500") int maxPoints) {
+        return ResponseEntity.ok(navService.getHistory(fundId, from, to, maxPoints));
+    }
+
+    /**
+     * Records the NAV of a fund on a given day, replacing any value already recorded for that day.
+     * Recording a NAV does not revalue the investments; see {@link #revalue(RevaluationRequestDTO)}.
+     *
+     * @param fundId     The unique ID of the fund.
+     * @param requestDTO The {@link NavPointRequestDTO} holding the day and its NAV.
+     * @return A {@link ResponseEntity} with an HTTP status of {@code 204 No Content}.
+     *
+     * {@code @PreAuthorize("hasRole('ADMIN')")} restricts price loads to back-office administrators.
+     */
+    @Operation(summary = "Record the NAV of a fund", description = "Stores the NAV of a fund for a day. Requires 'ADMIN' role.")
+    @ApiResponse(responseCode = "204", description = "NAV recorded")
+    @PostMapping("/{fundId}/nav")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> recordNav(@PathVariable String fundId, @RequestBody NavPointRequestDTO requestDTO) {
+        navService.record(fundId, requestDTO.getDate(), requestDTO.getNav());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Starts revaluing every investment in the given funds at their new unit prices (mark-to-market).
+     * The revaluation runs in the background and the request returns as soon as it has started; its progress
+     * and outcome can be followed through the {@code fondos.revaluation.*} metrics.
+     *
+     * @param requestDTO The {@link RevaluationRequestDTO} holding the new unit price of each fund.
+     * @return A {@link ResponseEntity} with an HTTP status of {@code 202 Accepted}.
+     *
+     * {@code @PreAuthorize("hasRole('ADMIN')")} restricts revaluations to back-office administrators.
+     */
+    @Operation(summary = "Revalue investments at new fund unit prices",
+            description = "Starts recomputing the current amount of every investment in the given funds. Requires 'ADMIN' role.")
+    @ApiResponse(responseCode = "202", description = "Revaluation started; progress is published under fondos.revaluation.*")
+    @ApiResponse(responseCode = "400", description = "Invalid prices, unknown fund, or a revaluation is already running",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorResponse.class)))
+    @PostMapping("/revaluation")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> revalue(@RequestBody RevaluationRequestDTO requestDTO) {
+        revaluationService.submit(requestDTO.getUnitPrices());
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Helper method to map a fund and its totals to a {@link FundStatsResponseDTO}.
+     *
+     * @param fund  The {@link Fund} the totals belong to.
+     * @param stats The fund's {@link FundStats}.
+     * @return A {@link FundStatsResponseDTO} populated with the fund's figures.
+     */
+    private FundStatsResponseDTO mapToFundStatsResponseDTO(Fund fund, FundStats stats) {
+        return new FundStatsResponseDTO(
+                fund.getId(),
+                fund.getName(),
+                stats.getAssetsUnderManagement(),
+                stats.getActiveInvestors(),
+                stats.getLastUpdated());
+    }
+}
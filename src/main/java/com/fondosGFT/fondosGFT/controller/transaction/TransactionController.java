@@ -1,10 +1,15 @@
 package com.fondosGFT.fondosGFT.controller.transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fondosGFT.fondosGFT.mapper.transaction.TransactionMapper;
 import com.fondosGFT.fondosGFT.model.error.ErrorResponse;
 import com.fondosGFT.fondosGFT.model.suscription.dto.CancellationRequestDTO;
 import com.fondosGFT.fondosGFT.model.suscription.dto.SubscriptionRequestDTO;
 import com.fondosGFT.fondosGFT.model.transaction.Transaction;
+import com.fondosGFT.fondosGFT.model.transaction.dto.TransactionHistoryPageDTO;
 import com.fondosGFT.fondosGFT.model.transaction.dto.TransactionResponseDTO;
+import com.fondosGFT.fondosGFT.service.idempotency.IdempotencyService;
 import com.fondosGFT.fondosGFT.service.transaction.TransactionService;
+import com.fondosGFT.fondosGFT.util.TransactionCursor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -13,15 +18,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.security.Principal;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * REST Controller for managing financial transactions related to investment funds.
@@ -35,14 +45,34 @@ import java.util.stream.Collectors;
  * {@code @Slf4j} is a Lombok annotation that automatically provides a SLF4J Logger instance named `log`.
  * {@code @Tag} is an OpenAPI (Swagger) annotation used to group and describe related operations
  * in the generated API documentation.
+ * {@code @Validated} enables the validation of constraints on method parameters, such as the elements of a batch.
  */
 @RestController
+@Validated
 @RequestMapping("/api/transactions")
 @Slf4j
 @Tag(name = "Transaction Management", description = "Operations for fund subscriptions, cancellations, and transaction history") // Tag for transaction endpoints
 public class TransactionController {
 
+    /**
+     * Name of the optional request header that makes subscribe and cancel requests idempotent.
+     */
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * Upper bound for the number of transactions returned on a single history page.
+     */
+    private static final int MAX_HISTORY_PAGE_SIZE = 500;
+
+    /**
+     * Media type of the newline-delimited JSON history export.
+     */
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
     private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final TransactionMapper transactionMapper;
 
     /**
      * Constructs a new TransactionController instance.
@@ -51,10 +81,18 @@ public class TransactionController {
      *
      * @param transactionService The service layer component responsible for handling all
      * transaction-related business logic and data operations.
+     * @param idempotencyService The service that makes subscribe and cancel requests carrying an
+     * {@code Idempotency-Key} header safe to retry.
+     * @param objectMapper The Jackson mapper used to serialize each line of the history export.
+     * @param transactionMapper The generated mapper converting transactions to their response DTOs.
      */
     @Autowired
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, IdempotencyService idempotencyService,
+                                 ObjectMapper objectMapper, TransactionMapper transactionMapper) {
         this.transactionService = transactionService;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.transactionMapper = transactionMapper;
     }
 
     /**
@@ -66,6 +104,9 @@ public class TransactionController {
      *
      * @param requestDTO The {@link SubscriptionRequestDTO} containing the client ID, fund ID,
      * and the amount to subscribe. This object is validated using {@code @Valid}.
+     * @param idempotencyKey Optional {@code Idempotency-Key} header. When present, a retried request
+     * with the same key returns the stored response instead of subscribing again.
+     * @param principal The authenticated caller, which scopes the idempotency key.
      * @return A {@link ResponseEntity} containing a {@link TransactionResponseDTO} representing
      * the newly created subscription transaction, along with an HTTP status of {@code 201 Created}.
      * @apiNote
@@ -89,16 +130,57 @@ public class TransactionController {
     })
     @PostMapping("/subscribe")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<TransactionResponseDTO> subscribeFund(@Valid @RequestBody SubscriptionRequestDTO requestDTO) {
-       Transaction transaction = transactionService.subscribeFund(
-                requestDTO.getClientId(),
-                requestDTO.getFundId(),
-                requestDTO.getAmount()
-        );
-        TransactionResponseDTO responseDTO = mapTransactionToTransactionResponseDTO(transaction);
+    public ResponseEntity<TransactionResponseDTO> subscribeFund(
+            @Valid @RequestBody SubscriptionRequestDTO requestDTO,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            Principal principal) {
+        Supplier<TransactionResponseDTO> subscription = () -> transactionMapper.toResponseDTO(
+                transactionService.subscribeFund(
+                        requestDTO.getClientId(),
+                        requestDTO.getFundId(),
+                        requestDTO.getAmount()
+                ));
+        TransactionResponseDTO responseDTO = idempotencyKey == null
+                ? subscription.get()
+                : idempotencyService.execute("subscribe", idempotencyScope(principal, requestDTO.getClientId()), idempotencyKey,
+                        requestDTO.getClientId() + "|" + requestDTO.getFundId() + "|" + requestDTO.getAmount(), subscription);
         return new ResponseEntity<>(responseDTO, HttpStatus.CREATED);
     }
 
+    /**
+     * Handles a batch of fund subscriptions submitted by the back office.
+     * The whole list is validated against a single prefetch of the clients and funds involved
+     * and written with unordered bulk operations, instead of one request per subscription.
+     * Access is restricted to authenticated users with the 'ADMIN' role.
+     *
+     * @param requestDTOs The list of {@link SubscriptionRequestDTO}s to apply, in submission order.
+     * Each element is validated using {@code @Valid}, and a malformed element fails the whole batch.
+     * @return A {@link ResponseEntity} containing one {@link TransactionResponseDTO} per request, in the same order,
+     * along with an HTTP status of {@code 200 OK}. Rejected items carry the status "REJECTED" and an error message.
+     * @apiNote
+     * {@code @PostMapping("/subscribe/batch")} maps HTTP POST requests to this specific path.
+     * {@code @PreAuthorize("hasRole('ADMIN')")} enforces role-based access control.
+     */
+    @Operation(summary = "Subscribe to funds in batch",
+            description = "Applies a list of fund subscriptions with bulk writes and returns a result for each item. Requires 'ADMIN' role.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed; each item reports its own status",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TransactionResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "The batch exceeds the maximum allowed size or contains a malformed item",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Authentication required"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - User does not have the required role")
+    })
+    @PostMapping("/subscribe/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<TransactionResponseDTO>> subscribeFunds(
+            @Valid @RequestBody List<@Valid SubscriptionRequestDTO> requestDTOs) {
+        List<TransactionResponseDTO> responseDTOs = transactionMapper.toResponseDTOs(transactionService.subscribeFunds(requestDTOs));
+        return ResponseEntity.ok(responseDTOs);
+    }
+
     /**
      * Handles a request to cancel a client's fund subscription.
      * This endpoint processes the cancellation details provided in the request body
@@ -108,6 +190,9 @@ public class TransactionController {
      * @param requestDTO The {@link CancellationRequestDTO} containing the client ID
      * and the fund ID for the subscription to be cancelled.
      * This object is validated using {@code @Valid}.
+     * @param idempotencyKey Optional {@code Idempotency-Key} header. When present, a retried request
+     * with the same key returns the stored response instead of cancelling again.
+     * @param principal The authenticated caller, which scopes the idempotency key.
      * @return A {@link ResponseEntity} containing a {@link TransactionResponseDTO} representing
      * the cancellation transaction, along with an HTTP status of {@code 200 OK}.
      * @apiNote
@@ -131,21 +216,28 @@ public class TransactionController {
     })
     @PostMapping("/cancel")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<TransactionResponseDTO> cancelFund(@Valid @RequestBody CancellationRequestDTO requestDTO) {
+    public ResponseEntity<TransactionResponseDTO> cancelFund(
+            @Valid @RequestBody CancellationRequestDTO requestDTO,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            Principal principal) {
         // The RuntimeException will now be caught by GlobalExceptionHandler
-        // Note: The package path for 'com.pruebagft.gestionFondosGFT.model.transaction.Transaction' might be incorrect
-        // if your main package is 'com.fondosGFT.fondosGFT'. Please verify your Transaction model's package.
-        Transaction transaction = transactionService.cancelFund(
-                requestDTO.getClientId(),
-                requestDTO.getFundId()
-        );
-        TransactionResponseDTO responseDTO = mapTransactionToTransactionResponseDTO(transaction);
+        Supplier<TransactionResponseDTO> cancellation = () -> transactionMapper.toResponseDTO(
+                transactionService.cancelFund(
+                        requestDTO.getClientId(),
+                        requestDTO.getFundId()
+                ));
+        TransactionResponseDTO responseDTO = idempotencyKey == null
+                ? cancellation.get()
+                : idempotencyService.execute("cancel", idempotencyScope(principal, requestDTO.getClientId()), idempotencyKey,
+                        requestDTO.getClientId() + "|" + requestDTO.getFundId(), cancellation);
         return ResponseEntity.ok(responseDTO);
     }
 
     /**
-     * Retrieves the transaction history for a specific client.
-     * This endpoint fetches all subscription and cancellation records associated with a given client ID.
+     * Retrieves one page of the transaction history for a specific client.
+     * This endpoint returns the client's subscription and cancellation records from the most recent
+     * to the oldest, using keyset pagination: the {@code nextCursor} of a page is passed back as the
+     * {@code cursor} parameter to fetch the following one.
      * Access control is applied based on the authenticated user's role:
      * <ul>
      * <li>An 'ADMIN' user can retrieve the transaction history for any client.</li>
@@ -155,8 +247,10 @@ public class TransactionController {
      *
      * @param clientId The unique identifier of the client whose transaction history is requested.
      * This ID is extracted from the URL path.
-     * @return A {@link ResponseEntity} containing a {@link List} of {@link TransactionResponseDTO}s
-     * representing the client's transaction history, along with an HTTP status of {@code 200 OK}.
+     * @param cursor The opaque cursor returned by the previous page, or absent for the first page.
+     * @param limit The maximum number of transactions on the page, capped at {@value #MAX_HISTORY_PAGE_SIZE}.
+     * @return A {@link ResponseEntity} containing a {@link TransactionHistoryPageDTO} with the page's
+     * transactions and the cursor of the next page, along with an HTTP status of {@code 200 OK}.
      * @apiNote
      * {@code @Operation} provides summary and description for OpenAPI documentation.
      * {@code @ApiResponses} documents various possible HTTP responses including success,
@@ -166,42 +260,88 @@ public class TransactionController {
      * provides complex role-based and data-based access control.
      */
     @Operation(summary = "Get client transaction history",
-            description = "Retrieves a list of all transactions (subscriptions and cancellations) for a specific client. Access is restricted by role.")
+            description = "Retrieves a page of transactions (subscriptions and cancellations) for a specific client, most recent first. Access is restricted by role.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Transaction history retrieved successfully",
+            @ApiResponse(responseCode = "200", description = "Transaction history page retrieved successfully",
                     content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = TransactionResponseDTO.class))),
+                            schema = @Schema(implementation = TransactionHistoryPageDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))),
             @ApiResponse(responseCode = "401", description = "Unauthorized - Authentication required"),
             @ApiResponse(responseCode = "403", description = "Forbidden - User does not have the required role or is not authorized for this client ID"),
             @ApiResponse(responseCode = "404", description = "Client not found (if implemented in service)")
     })
     @GetMapping("/history/{clientId}")
     @PreAuthorize("hasRole('ADMIN') or (hasRole('USER') and #clientId == authentication.name)")
-    public ResponseEntity<List<TransactionResponseDTO>> getClientTransactionHistory(@PathVariable String clientId) {
-        // Note: The package path for 'com.pruebagft.gestionFondosGFT.model.transaction.Transaction' might be incorrect
-        // if your main package is 'com.fondosGFT.fondosGFT'. Please verify your Transaction model's package.
-        List<Transaction> transactions = transactionService.getTransactionsHistory(clientId);
-        List<TransactionResponseDTO> responseDTOs = transactions.stream()
-                .map(this::mapTransactionToTransactionResponseDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(responseDTOs);
+    public ResponseEntity<TransactionHistoryPageDTO> getClientTransactionHistory(
+            @PathVariable String clientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        List<Transaction> transactions = transactionService.getTransactionsHistoryPage(
+                clientId, cursor == null ? null : TransactionCursor.decode(cursor), pageSize);
+
+        boolean hasMore = transactions.size() > pageSize;
+        List<Transaction> page = hasMore ? transactions.subList(0, pageSize) : transactions;
+        List<TransactionResponseDTO> responseDTOs = transactionMapper.toResponseDTOs(page);
+        String nextCursor = hasMore ? TransactionCursor.encode(page.get(page.size() - 1)) : null;
+        return ResponseEntity.ok(new TransactionHistoryPageDTO(responseDTOs, nextCursor));
+    }
+
+    /**
+     * Exports the complete transaction history of a specific client as newline-delimited JSON.
+     * Transactions are read from a MongoDB cursor and written to the response one line at a time,
+     * so memory use stays constant regardless of the size of the history.
+     * The export runs on the dedicated pool of {@code AsyncRequestConfig}, and stops reading the cursor once the
+     * export timeout has cancelled it.
+     * Access control is the same as for the paginated history.
+     *
+     * @param clientId The unique identifier of the client whose transaction history is exported.
+     * @return A {@link ResponseEntity} whose {@link StreamingResponseBody} writes one
+     * {@link TransactionResponseDTO} per line, most recent first, with an HTTP status of {@code 200 OK}.
+     * @apiNote
+     * {@code @GetMapping("/history/{clientId}/export")} maps HTTP GET requests to this specific path.
+     * {@code @PreAuthorize("hasRole('ADMIN') or (hasRole('USER') and #clientId == authentication.name)")}
+     * provides role-based and data-based access control.
+     */
+    @Operation(summary = "Export client transaction history",
+            description = "Streams every transaction of a specific client as newline-delimited JSON (application/x-ndjson), most recent first. Access is restricted by role.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transaction history streamed successfully",
+                    content = @Content(mediaType = NDJSON_MEDIA_TYPE,
+                            schema = @Schema(implementation = TransactionResponseDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Authentication required"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - User does not have the required role or is not authorized for this client ID"),
+            @ApiResponse(responseCode = "503", description = "Too many exports in progress, or the export did not start in time",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping(value = "/history/{clientId}/export", produces = NDJSON_MEDIA_TYPE)
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('USER') and #clientId == authentication.name)")
+    public ResponseEntity<StreamingResponseBody> exportClientTransactionHistory(@PathVariable String clientId) {
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<Transaction> transactions = transactionService.streamTransactionsHistory(clientId)) {
+                Iterator<Transaction> iterator = transactions.iterator();
+                while (!Thread.currentThread().isInterrupted() && iterator.hasNext()) {
+                    outputStream.write(objectMapper.writeValueAsBytes(transactionMapper.toResponseDTO(iterator.next())));
+                    outputStream.write('\n');
+                }
+            }
+            outputStream.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))
+                .body(body);
     }
 
     /**
-     * Helper method to map a {@code com.pruebagft.gestionFondosGFT.model.transaction.Transaction} entity object
-     * to a {@link TransactionResponseDTO}.
-     * This method is used internally within the controller to transform the domain model
-     * (the entity) into a Data Transfer Object (DTO) that is exposed via the API.
-     * This ensures that only relevant and formatted data is sent in the API response.
+     * Builds the scope of an idempotency key: the authenticated caller and the client the request acts on.
      *
-     * @param transaction The {@code com.pruebagft.gestionFondosGFT.model.transaction.Transaction} entity object
-     * to be mapped.
-     * @return A {@link TransactionResponseDTO} populated with data copied from the provided transaction entity.
-     * It returns a new DTO instance.
+     * @param principal The authenticated caller, or {@code null} if the request is anonymous.
+     * @param clientId  The client the request acts on.
+     * @return The scope.
      */
-    private TransactionResponseDTO mapTransactionToTransactionResponseDTO(Transaction transaction) {
-        TransactionResponseDTO dto = new TransactionResponseDTO();
-        BeanUtils.copyProperties(transaction, dto); // Copies matching fields by name
-        return dto;
+    private static String idempotencyScope(Principal principal, String clientId) {
+        return (principal == null ? "anonymous" : principal.getName()) + "/" + clientId;
     }
-}
\ No newline at end of file
+}
@@ -2,13 +2,17 @@ package com.fondosGFT.fondosGFT.exception;
 
 import com.fondosGFT.fondosGFT.model.error.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest; // Import HttpServletRequest
+import jakarta.validation.ConstraintViolationException; // For @Validated method parameter errors
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException; // For @Valid errors
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
 import java.time.LocalDateTime;
 import java.util.stream.Collectors;
@@ -44,6 +48,77 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles validation exceptions for constraints on method parameters of {@code @Validated} controllers,
+     * such as the elements of a batch. Returns HTTP 400 Bad Request.
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<ErrorResponse> handleConstraintViolationException(
+            ConstraintViolationException ex, HttpServletRequest request) {
+
+        String errors = ex.getConstraintViolations()
+                .stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+
+        log.warn("Validation error: {}", errors);
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                HttpStatus.BAD_REQUEST.getReasonPhrase(),
+                "Validation failed: " + errors,
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles operations refused because too many operations are already waiting, such as a full client lane.
+     * Returns HTTP 503 Service Unavailable with a {@code Retry-After} header, since the request can be retried as is.
+     */
+    @ExceptionHandler(PendingOperationsLimitException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<ErrorResponse> handlePendingOperationsLimitException(
+            PendingOperationsLimitException ex, HttpServletRequest request) {
+
+        log.warn("Operation refused on {}: {}", request.getRequestURI(), ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    /**
+     * Handles asynchronous requests, such as history exports, refused by a full pool or cancelled by their timeout.
+     * Returns HTTP 503 Service Unavailable rather than the 400 of business errors, since the request itself is valid.
+     */
+    @ExceptionHandler({TaskRejectedException.class, AsyncRequestTimeoutException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<ErrorResponse> handleAsyncRequestUnavailable(
+            RuntimeException ex, HttpServletRequest request) {
+
+        log.warn("Asynchronous request on {} not completed: {}", request.getRequestURI(), ex.getClass().getSimpleName());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(),
+                "The request could not be completed in time, please retry later",
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     /**
      * Handles RuntimeException, which are general business logic errors.
      * Returns HTTP 400 Bad Request for business logic failures (e.g., insufficient balance, fund not found).
@@ -0,0 +1,36 @@
+package com.fondosGFT.fondosGFT.exception;
+
+/**
+ * Thrown when an operation is refused because too many operations are already waiting to run, such as a full
+ * client lane. The request did not start and can be retried as is once the backlog has drained, so the
+ * {@link GlobalExceptionHandler} answers it with {@code 503 Service Unavailable} and a {@code Retry-After} header
+ * instead of the {@code 400 Bad Request} of business errors.
+ */
+public class PendingOperationsLimitException extends RuntimeException {
+
+    /**
+     * The number of seconds the caller is advised to wait before retrying.
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new PendingOperationsLimitException.
+     *
+     * @param message           The detail message.
+     * @param retryAfterSeconds The number of seconds the caller is advised to wait before retrying.
+     * @param cause             The rejection that caused it.
+     */
+    public PendingOperationsLimitException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Returns the number of seconds the caller is advised to wait before retrying.
+     *
+     * @return The delay, in seconds.
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
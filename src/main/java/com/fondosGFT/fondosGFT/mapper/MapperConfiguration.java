@@ -0,0 +1,18 @@
+package com.fondosGFT.fondosGFT.mapper;
+
+import org.mapstruct.MapperConfig;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Shared configuration of the MapStruct mappers converting entities to and from DTOs.
+ * The mapping code is generated at compile time as plain getter and setter calls, so mapping an element
+ * costs no reflection or property-descriptor lookups.
+ * <p>
+ * {@code componentModel = "spring"} makes every generated mapper a Spring bean that can be injected
+ * into controllers and services. {@code unmappedTargetPolicy = ReportingPolicy.ERROR} fails the build
+ * when a DTO gains a property the mapper does not fill, instead of silently leaving it empty.
+ * </p>
+ */
+@MapperConfig(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface MapperConfiguration {
+}
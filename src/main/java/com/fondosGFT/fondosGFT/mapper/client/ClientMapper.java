@@ -0,0 +1,59 @@
+package com.fondosGFT.fondosGFT.mapper.client;
+
+import com.fondosGFT.fondosGFT.mapper.MapperConfiguration;
+import com.fondosGFT.fondosGFT.mapper.investment.InvestmentMapper;
+import com.fondosGFT.fondosGFT.model.client.Client;
+import com.fondosGFT.fondosGFT.model.client.dto.ClientDTO;
+import com.fondosGFT.fondosGFT.model.client.dto.ClientRequestDTO;
+import com.fondosGFT.fondosGFT.model.client.dto.ClientResponseDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+/**
+ * MapStruct mapper converting {@link Client} entities to and from their DTOs.
+ * The clients' investments are mapped with the {@link InvestmentMapper}.
+ * The implementation is generated at compile time.
+ */
+@Mapper(config = MapperConfiguration.class, uses = InvestmentMapper.class)
+public interface ClientMapper {
+
+    /**
+     * Maps a client, with its active investments, to the DTO exposed in API responses.
+     *
+     * @param client The {@link Client} to map.
+     * @return The {@link ClientResponseDTO}, or {@code null} if the client is {@code null}.
+     */
+    ClientResponseDTO toResponseDTO(Client client);
+
+    /**
+     * Maps a list of clients to the DTOs exposed in API responses.
+     *
+     * @param clients The clients to map.
+     * @return The {@link ClientResponseDTO}s, in the same order.
+     */
+    List<ClientResponseDTO> toResponseDTOs(List<Client> clients);
+
+    /**
+     * Maps a client, with its active investments, to its general-purpose DTO.
+     *
+     * @param client The {@link Client} to map.
+     * @return The {@link ClientDTO}, or {@code null} if the client is {@code null}.
+     */
+    ClientDTO toDTO(Client client);
+
+    /**
+     * Creates a new client from the data of a creation request.
+     * The ID, balance and investments are not part of the request: they are assigned by the {@code ClientService}.
+     * The version is left unset, so the client is saved as a new document.
+     *
+     * @param requestDTO The {@link ClientRequestDTO} holding the client's data.
+     * @return A new, unsaved {@link Client}.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "currentBalance", ignore = true)
+    @Mapping(target = "activeInvestments", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Client toEntity(ClientRequestDTO requestDTO);
+}
@@ -0,0 +1,32 @@
+package com.fondosGFT.fondosGFT.mapper.fund;
+
+import com.fondosGFT.fondosGFT.mapper.MapperConfiguration;
+import com.fondosGFT.fondosGFT.model.fund.Fund;
+import com.fondosGFT.fondosGFT.model.fund.dto.FundResponseDTO;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+/**
+ * MapStruct mapper converting {@link Fund} entities to their DTOs.
+ * The implementation is generated at compile time.
+ */
+@Mapper(config = MapperConfiguration.class)
+public interface FundMapper {
+
+    /**
+     * Maps a fund to the DTO exposed in API responses.
+     *
+     * @param fund The {@link Fund} to map.
+     * @return The {@link FundResponseDTO}, or {@code null} if the fund is {@code null}.
+     */
+    FundResponseDTO toResponseDTO(Fund fund);
+
+    /**
+     * Maps a list of funds to the DTOs exposed in API responses.
+     *
+     * @param funds The funds to map.
+     * @return The {@link FundResponseDTO}s, in the same order.
+     */
+    List<FundResponseDTO> toResponseDTOs(List<Fund> funds);
+}
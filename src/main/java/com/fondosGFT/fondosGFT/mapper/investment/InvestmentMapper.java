@@ -0,0 +1,41 @@
+package com.fondosGFT.fondosGFT.mapper.investment;
+
+import com.fondosGFT.fondosGFT.mapper.MapperConfiguration;
+import com.fondosGFT.fondosGFT.model.investment.Investment;
+import com.fondosGFT.fondosGFT.model.investment.dto.InvestmentDTO;
+import com.fondosGFT.fondosGFT.model.investment.dto.InvestmentResponseDTO;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+/**
+ * MapStruct mapper converting {@link Investment} entities to their DTOs.
+ * The implementation is generated at compile time.
+ */
+@Mapper(config = MapperConfiguration.class)
+public interface InvestmentMapper {
+
+    /**
+     * Maps an investment to the DTO exposed in API responses.
+     *
+     * @param investment The {@link Investment} to map.
+     * @return The {@link InvestmentResponseDTO}, or {@code null} if the investment is {@code null}.
+     */
+    InvestmentResponseDTO toResponseDTO(Investment investment);
+
+    /**
+     * Maps a list of investments to the DTOs exposed in API responses.
+     *
+     * @param investments The investments to map.
+     * @return The {@link InvestmentResponseDTO}s, in the same order.
+     */
+    List<InvestmentResponseDTO> toResponseDTOs(List<Investment> investments);
+
+    /**
+     * Maps an investment to its general-purpose DTO.
+     *
+     * @param investment The {@link Investment} to map.
+     * @return The {@link InvestmentDTO}, or {@code null} if the investment is {@code null}.
+     */
+    InvestmentDTO toDTO(Investment investment);
+}
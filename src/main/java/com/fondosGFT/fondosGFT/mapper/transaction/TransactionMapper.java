@@ -0,0 +1,42 @@
+package com.fondosGFT.fondosGFT.mapper.transaction;
+
+import com.fondosGFT.fondosGFT.mapper.MapperConfiguration;
+import com.fondosGFT.fondosGFT.model.transaction.Transaction;
+import com.fondosGFT.fondosGFT.model.transaction.dto.TransactionDTO;
+import com.fondosGFT.fondosGFT.model.transaction.dto.TransactionResponseDTO;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+/**
+ * MapStruct mapper converting {@link Transaction} entities to their DTOs.
+ * It is called once per element of history pages and exports, so the generated implementation copies
+ * the fields with direct accessor calls. The implementation is generated at compile time.
+ */
+@Mapper(config = MapperConfiguration.class)
+public interface TransactionMapper {
+
+    /**
+     * Maps a transaction to the DTO exposed in API responses.
+     *
+     * @param transaction The {@link Transaction} to map.
+     * @return The {@link TransactionResponseDTO}, or {@code null} if the transaction is {@code null}.
+     */
+    TransactionResponseDTO toResponseDTO(Transaction transaction);
+
+    /**
+     * Maps a list of transactions to the DTOs exposed in API responses.
+     *
+     * @param transactions The transactions to map.
+     * @return The {@link TransactionResponseDTO}s, in the same order.
+     */
+    List<TransactionResponseDTO> toResponseDTOs(List<Transaction> transactions);
+
+    /**
+     * Maps a transaction to its general-purpose DTO.
+     *
+     * @param transaction The {@link Transaction} to map.
+     * @return The {@link TransactionDTO}, or {@code null} if the transaction is {@code null}.
+     */
+    TransactionDTO toDTO(Transaction transaction);
+}
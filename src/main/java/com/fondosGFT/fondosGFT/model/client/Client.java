@@ -6,7 +6,11 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -58,8 +62,10 @@ public class Client {
 
     /**
      * The client's current aggregated balance across all their accounts or funds.
-     * This field uses {@link BigDecimal} for precise monetary calculations.
+     * This field uses {@link BigDecimal} for precise monetary calculations and is stored as
+     * {@code Decimal128} so it can be updated atomically with {@code $inc} and compared numerically.
      */
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal currentBalance;
 
     /**
@@ -74,7 +80,12 @@ public class Client {
      * Each investment is represented by an {@link Investment} object.
      * This list is initialized as an empty {@link ArrayList} when a client is created
      * using the specific constructor for new clients.
+     * <p>
+     * Investments are stored in their own "investments" collection, so this list is not persisted
+     * with the client; {@code ClientService} fills it in when clients are read for display.
+     * </p>
      */
+    @Transient
     private List<Investment> activeInvestments;
 
     /**
@@ -87,6 +98,16 @@ public class Client {
      */
     private String email;
 
+    /**
+     * The version of the client document, used for optimistic locking.
+     * {@code @Version} makes Spring Data increment it on every save, and reject the save of a copy read before a
+     * concurrent write with an {@code OptimisticLockingFailureException}, instead of silently overwriting that write.
+     * {@code MongoTemplate} also increments it on {@code updateFirst}, {@code updateMulti} and {@code findAndModify},
+     * but not on {@code BulkOperations} updates, which must increment it themselves.
+     */
+    @Version
+    private Long version;
+
     /**
      * Custom constructor for creating a new Client instance with essential details.
      * This constructor initializes the {@code currentBalance} to a default of "500000.00"
@@ -5,6 +5,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 
@@ -29,6 +31,11 @@ import java.math.BigDecimal;
 @Document(collection = "funds")
 public class Fund {
 
+    /**
+     * The price of one unit of a fund that has never been revalued.
+     */
+    public static final BigDecimal INITIAL_UNIT_PRICE = BigDecimal.ONE;
+
     /**
      * The unique identifier for the fund.
      * {@code @Id} marks this field as the primary key for the MongoDB document.
@@ -46,6 +53,30 @@ public class Fund {
     /**
      * The minimum amount required for a single subscription to this fund.
      * This field uses {@link BigDecimal} for precise monetary calculations.
+     * It is stored as {@code Decimal128} so it is compared numerically in queries and indexes.
      */
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal minimumSubscriptionAmount;
-}
\ No newline at end of file
+    /**
+     * The price of one unit of the fund as of its last revaluation, or {@code null} if the fund was never
+     * revalued, in which case a unit is worth {@link #INITIAL_UNIT_PRICE}. Subscriptions buy units at this price.
+     * It is stored as {@code Decimal128} so it is compared numerically in queries and indexes.
+     */
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal unitPrice;
+
+    /**
+     * Custom constructor for creating a fund that has not been revalued yet.
+     *
+     * @param id                        The unique identifier for the fund.
+     * @param name                      The official name of the fund.
+     * @param productType               The type of product the fund represents.
+     * @param minimumSubscriptionAmount The minimum amount required for a single subscription.
+     */
+    public Fund(String id, String name, String productType, BigDecimal minimumSubscriptionAmount) {
+        this.id = id;
+        this.name = name;
+        this.productType = productType;
+        this.minimumSubscriptionAmount = minimumSubscriptionAmount;
+    }
+}
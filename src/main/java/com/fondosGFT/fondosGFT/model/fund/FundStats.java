@@ -0,0 +1,47 @@
+package com.fondosGFT.fondosGFT.model.fund;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Represents the running totals of a fund: its assets under management and number of active investors.
+ * The totals are stored as several {@link FundStatsShard} documents, maintained incrementally with
+ * {@code $inc} by every subscription and cancellation, and are merged into this object on read,
+ * so fund-level figures never have to be summed over all investments.
+ * <p>
+ * Lombok annotations are used to reduce boilerplate code:
+ * <ul>
+ * <li>{@code @Data}: Generates getters, setters, {@code equals()}, {@code hashCode()}, and {@code toString()} methods.</li>
+ * <li>{@code @NoArgsConstructor}: Creates a no-argument constructor, useful for object instantiation by frameworks.</li>
+ * <li>{@code @AllArgsConstructor}: Generates a constructor with arguments for all fields.</li>
+ * </ul>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FundStats {
+
+    /**
+     * The ID of the fund these totals belong to.
+     */
+    private String fundId;
+
+    /**
+     * The assets under management: the sum of the amounts invested by the fund's active investments.
+     */
+    private BigDecimal assetsUnderManagement;
+
+    /**
+     * The number of active investments in the fund, that is, the number of subscribed clients.
+     */
+    private long activeInvestors;
+
+    /**
+     * The date and time the stored totals were last changed.
+     */
+    private LocalDateTime lastUpdated;
+}
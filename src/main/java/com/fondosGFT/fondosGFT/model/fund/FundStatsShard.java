@@ -0,0 +1,68 @@
+package com.fondosGFT.fondosGFT.model.fund;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Represents one stripe of a fund's running totals, stored in the "fund_stats_shards" collection in MongoDB.
+ * Each fund's totals are spread over a fixed number of shards and every update increments a randomly chosen
+ * one, so subscriptions to a popular fund do not all contend on the same document. The totals of a fund
+ * are the sum of its shards.
+ * <p>
+ * Lombok annotations are used to reduce boilerplate code:
+ * <ul>
+ * <li>{@code @Data}: Generates getters, setters, {@code equals()}, {@code hashCode()}, and {@code toString()} methods.</li>
+ * <li>{@code @NoArgsConstructor}: Creates a no-argument constructor, useful for object instantiation by frameworks.</li>
+ * <li>{@code @AllArgsConstructor}: Generates a constructor with arguments for all fields.</li>
+ * </ul>
+ * {@code @Document(collection = "fund_stats_shards")} indicates that this class is a MongoDB document
+ * and specifies the name of the collection where the shards will be stored.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "fund_stats_shards")
+public class FundStatsShard {
+
+    /**
+     * The unique identifier of the shard, {@code fundId:shard}.
+     * {@code @Id} marks this field as the primary key for the MongoDB document.
+     */
+    @Id
+    private String id;
+
+    /**
+     * The ID of the fund this shard belongs to.
+     */
+    private String fundId;
+
+    /**
+     * The index of this shard among the fund's shards.
+     */
+    private int shard;
+
+    /**
+     * This shard's part of the fund's assets under management.
+     * It is stored as {@code Decimal128} so it can be updated atomically with {@code $inc}.
+     */
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal assetsUnderManagement;
+
+    /**
+     * This shard's part of the fund's number of active investors.
+     */
+    private long activeInvestors;
+
+    /**
+     * The date and time of the last update applied to this shard.
+     */
+    private LocalDateTime lastUpdated;
+}
@@ -0,0 +1,47 @@
+package com.fondosGFT.fondosGFT.model.fund.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object (DTO) for sending the aggregate figures of an investment fund as part of an API response.
+ * <p>
+ * Lombok annotations are utilized to reduce boilerplate code:
+ * <ul>
+ * <li>{@code @Data}: Automatically generates getters, setters, {@code equals()},
+ * {@code hashCode()}, and {@code toString()} methods for all fields.</li>
+ * <li>{@code @NoArgsConstructor}: Creates a constructor with no arguments, useful for
+ * object instantiation during deserialization.</li>
+ * <li>{@code @AllArgsConstructor}: Generates a constructor with arguments for all fields,
+ * providing a convenient way to initialize all properties upon object creation.</li>
+ * </ul>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FundStatsResponseDTO {
+    /**
+     * The unique identifier of the fund.
+     */
+    private String fundId;
+    /**
+     * The official name of the investment fund.
+     */
+    private String fundName;
+    /**
+     * The assets under management: the sum of the amounts invested by the fund's active investments.
+     */
+    private BigDecimal assetsUnderManagement;
+    /**
+     * The number of clients with an active investment in the fund.
+     */
+    private long activeInvestors;
+    /**
+     * The date and time the figures were last changed, or {@code null} if the fund never had an investment.
+     */
+    private LocalDateTime lastUpdated;
+}
@@ -0,0 +1,81 @@
+package com.fondosGFT.fondosGFT.model.idempotency;
+
+import com.fondosGFT.fondosGFT.model.transaction.dto.TransactionResponseDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a stored idempotency key in the "idempotency_keys" collection in MongoDB.
+ * A record is created when a request carrying an {@code Idempotency-Key} header starts,
+ * and completed with the response that was returned, so that a replay of the same request
+ * gets the stored response instead of executing the operation again.
+ * <p>
+ * Lombok annotations are used to reduce boilerplate code:
+ * <ul>
+ * <li>{@code @Data}: Generates getters, setters, {@code equals()}, {@code hashCode()}, and {@code toString()} methods.</li>
+ * <li>{@code @NoArgsConstructor}: Creates a no-argument constructor, useful for object instantiation by frameworks.</li>
+ * <li>{@code @AllArgsConstructor}: Generates a constructor with arguments for all fields.</li>
+ * </ul>
+ * {@code @Document(collection = "idempotency_keys")} indicates that this class is a MongoDB document.
+ * Records are evicted by a TTL index on {@code createdAt}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    /**
+     * Status of a record whose operation is still running.
+     */
+    public static final String STATUS_IN_PROGRESS = "IN_PROGRESS";
+    /**
+     * Status of a record whose operation completed and whose response is stored.
+     */
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    /**
+     * The scoped key, made of the operation name, the caller and the client-supplied idempotency key.
+     * {@code @Id} marks this field as the primary key, which makes concurrent claims of the same key mutually exclusive.
+     */
+    @Id
+    private String id;
+
+    /**
+     * A fingerprint of the request payload, used to reject a key reused for a different request.
+     */
+    private String requestFingerprint;
+
+    /**
+     * The status of the record (e.g., "IN_PROGRESS", "COMPLETED").
+     */
+    private String status;
+
+    /**
+     * The response returned by the original request, or {@code null} while it is in progress.
+     */
+    private TransactionResponseDTO response;
+
+    /**
+     * The date and time when the key was first seen. The TTL index expires records relative to this field.
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * The date and time when the request currently processing the key claimed it. A claim older than the
+     * lease can be taken over by a retry, as the request holding it is presumed dead. It also identifies the
+     * claim, so a request whose claim was taken over can no longer complete or release the record.
+     */
+    private LocalDateTime claimedAt;
+
+    /**
+     * The date and time when the request holding the claim last renewed it, or {@code null} if it has not yet.
+     * The request renews its claim while it runs, so the lease only expires once it has stopped doing so.
+     */
+    private LocalDateTime renewedAt;
+}
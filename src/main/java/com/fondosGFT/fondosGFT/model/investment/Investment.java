@@ -3,15 +3,19 @@ package com.fondosGFT.fondosGFT.model.investment;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
  * Represents an individual investment made by a client in a specific fund.
- * This class serves as an embedded document within the `Client` entity
- * (or could be a standalone document if required by design). It captures
- * the essential details of a single investment holding.
+ * Each investment is stored as its own small document in the "investments" collection,
+ * where a unique index on {@code (clientId, fundId)} guarantees at most one active position
+ * per client and fund. It captures the essential details of a single investment holding.
  * <p>
  * Lombok annotations are used to reduce boilerplate code:
  * <ul>
@@ -22,11 +26,27 @@ import java.time.LocalDateTime;
  * <li>{@code @AllArgsConstructor}: Generates a **constructor with arguments for all fields**,
  * providing a convenient way to initialize all properties upon creation.</li>
  * </ul>
+ * {@code @Document(collection = "investments")} maps this class to the "investments" collection.
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Document(collection = "investments")
 public class Investment {
+    /**
+     * Number of decimal places kept for {@link #units}.
+     */
+    public static final int UNITS_SCALE = 8;
+    /**
+     * The unique identifier of the investment document.
+     * {@code @Id} marks this field as the primary key for the MongoDB document.
+     */
+    @Id
+    private String id;
+    /**
+     * The unique identifier of the client holding this investment.
+     */
+    private String clientId;
     /**
      * The unique identifier of the fund to which this investment belongs.
      * This links the investment to its associated fund details.
@@ -39,14 +59,31 @@ public class Investment {
     /**
      * The **initial amount** of money invested in this fund at the time of subscription.
      * This field uses {@link BigDecimal} for precise financial calculations.
+     * It is stored as {@code Decimal128} so it is compared numerically in queries and indexes.
      */
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal initialAmountInvested;
     /**
      * The **current market value** of this investment. This amount can fluctuate
      * based on the fund's performance and is updated over time.
      * This field uses {@link BigDecimal} for precise financial calculations.
+     * It is stored as {@code Decimal128} so it is compared numerically in queries and indexes.
      */
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal currentAmount;
+    /**
+     * The number of fund units held, bought at the fund's unit price on the subscription date.
+     * Investments created before units were tracked have no units; they hold as many units as the
+     * amount invested, since funds start at a unit price of one.
+     * It is stored as {@code Decimal128} so it is compared numerically in queries and indexes.
+     */
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal units;
+    /**
+     * The date and time of the last revaluation of {@link #currentAmount}, or {@code null} if the investment
+     * was never revalued.
+     */
+    private LocalDateTime lastValuationDate;
     /**
      * The **date and time** when the investment subscription was officially made.
      * This uses {@link LocalDateTime} to capture the exact point in time.
@@ -57,4 +94,27 @@ public class Investment {
      * This links the investment to its creating transaction record.
      */
     private String transactionId;
-}
\ No newline at end of file
+
+    /**
+     * Custom constructor for creating a new investment held by a client.
+     * The document ID is assigned by MongoDB when the investment is inserted.
+     *
+     * @param clientId              The ID of the client holding the investment.
+     * @param fundId                The ID of the fund invested in.
+     * @param fundName              The name of the fund invested in.
+     * @param initialAmountInvested The amount invested at subscription time.
+     * @param currentAmount         The current value of the investment.
+     * @param subscriptionDate      The date and time of the subscription.
+     * @param transactionId         The business ID of the originating transaction.
+     */
+    public Investment(String clientId, String fundId, String fundName, BigDecimal initialAmountInvested,
+                      BigDecimal currentAmount, LocalDateTime subscriptionDate, String transactionId) {
+        this.clientId = clientId;
+        this.fundId = fundId;
+        this.fundName = fundName;
+        this.initialAmountInvested = initialAmountInvested;
+        this.currentAmount = currentAmount;
+        this.subscriptionDate = subscriptionDate;
+        this.transactionId = transactionId;
+    }
+}
@@ -0,0 +1,68 @@
+package com.fondosGFT.fondosGFT.model.nav;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+
+/**
+ * Represents one month of a fund's daily net asset value (NAV) history, stored in the "nav_buckets"
+ * collection in MongoDB. Instead of one document per price, each bucket holds a fixed array with one
+ * slot per day of the month, so a multi-year range is read as a few dozen small documents and decoded
+ * straight into primitive arrays.
+ * <p>
+ * The NAV of day {@code d} is stored in slot {@code d - 1} as a whole number of
+ * 10^-{@value #NAV_SCALE} units; a slot holding zero has no price. Writing a price sets its slot,
+ * so recording the same day twice simply overwrites it.
+ * </p>
+ * <p>
+ * Lombok annotations are used to reduce boilerplate code:
+ * <ul>
+ * <li>{@code @Data}: Generates getters, setters, {@code equals()}, {@code hashCode()}, and {@code toString()} methods.</li>
+ * <li>{@code @NoArgsConstructor}: Creates a no-argument constructor, useful for object instantiation by frameworks.</li>
+ * <li>{@code @AllArgsConstructor}: Generates a constructor with arguments for all fields.</li>
+ * </ul>
+ * {@code @Document(collection = "nav_buckets")} indicates that this class is a MongoDB document
+ * and specifies the name of the collection where the buckets will be stored.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "nav_buckets")
+public class NavBucket {
+
+    /**
+     * Number of daily slots in a bucket.
+     */
+    public static final int SLOTS = 31;
+
+    /**
+     * Number of decimal places of the stored NAV values.
+     */
+    public static final int NAV_SCALE = 6;
+
+    /**
+     * The unique identifier of the bucket, {@code fundId:yyyy-MM}.
+     * {@code @Id} marks this field as the primary key for the MongoDB document.
+     */
+    @Id
+    private String id;
+
+    /**
+     * The ID of the fund the prices belong to.
+     */
+    private String fundId;
+
+    /**
+     * The first day of the month covered by the bucket.
+     */
+    private LocalDate month;
+
+    /**
+     * The daily NAV values of the month in units of 10^-{@value #NAV_SCALE}, indexed by day of month minus one.
+     */
+    private long[] navUnits;
+}
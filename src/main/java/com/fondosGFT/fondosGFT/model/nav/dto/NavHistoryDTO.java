@@ -0,0 +1,52 @@
+package com.fondosGFT.fondosGFT.model.nav.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for sending a fund's NAV history as part of an API response.
+ * The series is sent as two parallel arrays instead of a list of objects to keep long ranges small on the wire.
+ * <p>
+ * Lombok annotations are utilized to reduce boilerplate code:
+ * <ul>
+ * <li>{@code @Data}: Automatically generates getters, setters, {@code equals()},
+ * {@code hashCode()}, and {@code toString()} methods for all fields.</li>
+ * <li>{@code @NoArgsConstructor}: Creates a constructor with no arguments, useful for
+ * object instantiation during deserialization.</li>
+ * <li>{@code @AllArgsConstructor}: Generates a constructor with arguments for all fields.</li>
+ * </ul>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NavHistoryDTO {
+    /**
+     * The unique identifier of the fund.
+     */
+    private String fundId;
+    /**
+     * The first day of the requested range.
+     */
+    private LocalDate from;
+    /**
+     * The last day of the requested range.
+     */
+    private LocalDate to;
+    /**
+     * Whether the series was down-sampled. When it was, each point is the last NAV of its interval.
+     */
+    private boolean downsampled;
+    /**
+     * The dates of the points, in ascending order.
+     */
+    private List<LocalDate> dates;
+    /**
+     * The NAV of each point, aligned with {@link #dates}.
+     */
+    private List<BigDecimal> navs;
+}
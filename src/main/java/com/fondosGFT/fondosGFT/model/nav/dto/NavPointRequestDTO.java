@@ -0,0 +1,34 @@
+package com.fondosGFT.fondosGFT.model.nav.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object (DTO) used for recording the NAV of a fund on a given day.
+ * <p>
+ * Lombok annotations are used to reduce boilerplate code:
+ * <ul>
+ * <li>{@code @Data}: Automatically generates getters, setters, {@code equals()},
+ * {@code hashCode()}, and {@code toString()} methods for all fields.</li>
+ * <li>{@code @NoArgsConstructor}: Creates a no-argument constructor, useful for
+ * object instantiation during deserialization.</li>
+ * <li>{@code @AllArgsConstructor}: Generates a constructor with arguments for all fields.</li>
+ * </ul>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NavPointRequestDTO {
+    /**
+     * The day the NAV applies to.
+     */
+    private LocalDate date;
+    /**
+     * The net asset value per unit of the fund on that day.
+     */
+    private BigDecimal nav;
+}
@@ -0,0 +1,109 @@
+package com.fondosGFT.fondosGFT.model.notification;
+
+import com.pruebagft.gestionFondosGFT.util.enums.NotificationType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a pending notification stored in the "notification_outbox" collection in MongoDB.
+ * Outbox entries are written in the same step as the {@code Transaction} that triggers them
+ * and are delivered later by a background dispatcher, so AWS SES/SNS latency never adds to
+ * the latency of the request that produced the notification.
+ * <p>
+ * Lombok annotations are used to reduce boilerplate code:
+ * <ul>
+ * <li>{@code @Data}: Generates getters, setters, {@code equals()}, {@code hashCode()}, and {@code toString()} methods.</li>
+ * <li>{@code @NoArgsConstructor}: Creates a no-argument constructor, useful for object instantiation by frameworks.</li>
+ * <li>{@code @AllArgsConstructor}: Generates a constructor with arguments for all fields.</li>
+ * </ul>
+ * {@code @Document(collection = "notification_outbox")} indicates that this class is a MongoDB document
+ * and specifies the name of the collection where outbox entries will be stored.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "notification_outbox")
+public class NotificationOutbox {
+
+    /**
+     * Status of an entry waiting to be delivered.
+     */
+    public static final String STATUS_PENDING = "PENDING";
+    /**
+     * Status of an entry claimed by a dispatcher and currently being delivered.
+     */
+    public static final String STATUS_SENDING = "SENDING";
+    /**
+     * Status of an entry that was delivered successfully.
+     */
+    public static final String STATUS_SENT = "SENT";
+    /**
+     * Status of an entry that exhausted its delivery attempts.
+     */
+    public static final String STATUS_FAILED = "FAILED";
+
+    /**
+     * The unique identifier for the outbox entry.
+     * {@code @Id} marks this field as the primary key for the MongoDB document.
+     */
+    @Id
+    private String id;
+
+    /**
+     * The business transaction ID of the {@code Transaction} that produced this notification.
+     */
+    private String transactionId;
+
+    /**
+     * The recipient of the notification: an email address or a phone number.
+     */
+    private String addressee;
+
+    /**
+     * The subject line of the notification, used only for email.
+     */
+    private String subject;
+
+    /**
+     * The body of the notification message.
+     */
+    private String message;
+
+    /**
+     * The channel through which the notification is delivered.
+     * @see NotificationType
+     */
+    private NotificationType type;
+
+    /**
+     * The delivery status of the entry (e.g., "PENDING", "SENDING", "SENT", "FAILED").
+     */
+    private String status;
+
+    /**
+     * The number of delivery attempts made so far.
+     */
+    private int attempts;
+
+    /**
+     * The date and time when the entry was written.
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * The earliest date and time at which the entry may be claimed by a dispatcher.
+     * While an entry is being delivered this acts as its lease expiry, so entries
+     * left behind by a crashed dispatcher become eligible again.
+     */
+    private LocalDateTime availableAt;
+
+    /**
+     * A description of the last delivery error, or {@code null} if none occurred.
+     */
+    private String errorMessage;
+}
@@ -0,0 +1,61 @@
+package com.fondosGFT.fondosGFT.model.portfolio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object (DTO) representing one position of a client's portfolio valued at the latest fund price.
+ * <p>
+ * Lombok annotations are utilized to reduce boilerplate code:
+ * <ul>
+ * <li>{@code @Data}: Automatically generates getters, setters, {@code equals()},
+ * {@code hashCode()}, and {@code toString()} methods for all fields.</li>
+ * <li>{@code @NoArgsConstructor}: Creates a constructor with no arguments, useful for
+ * object instantiation during deserialization.</li>
+ * <li>{@code @AllArgsConstructor}: Generates a constructor with arguments for all fields.</li>
+ * </ul>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioPositionDTO {
+    /**
+     * The unique identifier of the fund.
+     */
+    private String fundId;
+    /**
+     * The name of the fund.
+     */
+    private String fundName;
+    /**
+     * The number of fund units held.
+     */
+    private BigDecimal units;
+    /**
+     * The latest unit price of the fund.
+     */
+    private BigDecimal unitPrice;
+    /**
+     * The amount originally invested.
+     */
+    private BigDecimal investedAmount;
+    /**
+     * The value of the position at the latest unit price.
+     */
+    private BigDecimal marketValue;
+    /**
+     * The profit or loss of the position: market value minus invested amount.
+     */
+    private BigDecimal profitAndLoss;
+    /**
+     * The profit or loss as a percentage of the invested amount.
+     */
+    private BigDecimal profitAndLossPercentage;
+    /**
+     * The share of the portfolio's market value held in this position, as a percentage.
+     */
+    private BigDecimal allocationPercentage;
+}
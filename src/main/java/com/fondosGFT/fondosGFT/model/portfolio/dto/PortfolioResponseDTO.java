@@ -0,0 +1,50 @@
+package com.fondosGFT.fondosGFT.model.portfolio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for sending a client's portfolio valued at the latest fund prices as part of an API response.
+ * <p>
+ * Lombok annotations are utilized to reduce boilerplate code:
+ * <ul>
+ * <li>{@code @Data}: Automatically generates getters, setters, {@code equals()},
+ * {@code hashCode()}, and {@code toString()} methods for all fields.</li>
+ * <li>{@code @NoArgsConstructor}: Creates a constructor with no arguments, useful for
+ * object instantiation during deserialization.</li>
+ * <li>{@code @AllArgsConstructor}: Generates a constructor with arguments for all fields.</li>
+ * </ul>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioResponseDTO {
+    /**
+     * The unique identifier of the client.
+     */
+    private String clientId;
+    /**
+     * The client's uninvested balance.
+     */
+    private BigDecimal cashBalance;
+    /**
+     * The total amount invested in the client's positions.
+     */
+    private BigDecimal totalInvested;
+    /**
+     * The total value of the client's positions at the latest unit prices.
+     */
+    private BigDecimal totalMarketValue;
+    /**
+     * The total profit or loss of the client's positions.
+     */
+    private BigDecimal totalProfitAndLoss;
+    /**
+     * The client's positions, valued at the latest unit prices.
+     */
+    private List<PortfolioPositionDTO> positions;
+}
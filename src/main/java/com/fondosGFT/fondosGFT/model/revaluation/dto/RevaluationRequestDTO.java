@@ -0,0 +1,32 @@
+package com.fondosGFT.fondosGFT.model.revaluation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Data Transfer Object (DTO) used for requesting a mark-to-market revaluation of the investments.
+ * <p>
+ * Lombok annotations are used to reduce boilerplate code:
+ * <ul>
+ * <li>{@code @Data}: Automatically generates getters, setters, {@code equals()},
+ * {@code hashCode()}, and {@code toString()} methods for all fields.</li>
+ * <li>{@code @NoArgsConstructor}: Creates a no-argument constructor, useful for
+ * object instantiation during deserialization.</li>
+ * <li>{@code @AllArgsConstructor}: Generates a constructor with arguments for all fields.</li>
+ * </ul>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevaluationRequestDTO {
+
+    /**
+     * The new unit price of each fund to revalue, keyed by fund ID.
+     * Investments in funds that are not listed keep their current value.
+     */
+    private Map<String, BigDecimal> unitPrices;
+}
@@ -0,0 +1,55 @@
+package com.fondosGFT.fondosGFT.model.revaluation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object (DTO) describing the outcome of a mark-to-market revaluation run.
+ * <p>
+ * Lombok annotations are used to reduce boilerplate code:
+ * <ul>
+ * <li>{@code @Data}: Automatically generates getters, setters, {@code equals()},
+ * {@code hashCode()}, and {@code toString()} methods for all fields.</li>
+ * <li>{@code @NoArgsConstructor}: Creates a no-argument constructor, useful for
+ * object instantiation during deserialization.</li>
+ * <li>{@code @AllArgsConstructor}: Generates a constructor with arguments for all fields.</li>
+ * </ul>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevaluationResultDTO {
+
+    /**
+     * The valuation date written to every revalued investment.
+     */
+    private LocalDateTime valuationDate;
+
+    /**
+     * The number of funds whose investments were revalued.
+     */
+    private int funds;
+
+    /**
+     * The number of partitions the investments were split into.
+     */
+    private int partitions;
+
+    /**
+     * The number of investments revalued.
+     */
+    private long positions;
+
+    /**
+     * The wall-clock duration of the run, in milliseconds.
+     */
+    private long durationMs;
+
+    /**
+     * The average number of investments revalued per second.
+     */
+    private double positionsPerSecond;
+}
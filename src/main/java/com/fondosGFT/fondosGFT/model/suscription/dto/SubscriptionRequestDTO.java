@@ -1,6 +1,8 @@
 package com.fondosGFT.fondosGFT.model.suscription.dto;
 
-
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -23,6 +25,10 @@ import java.math.BigDecimal;
  * <li>{@code @AllArgsConstructor}: Generates a **constructor with arguments for all fields**,
  * providing a convenient way to initialize all properties upon creation.</li>
  * </ul>
+ * <p>
+ * The Jakarta Bean Validation constraints reject a malformed request with {@code 400 Bad Request} before it
+ * reaches the service; the fund's minimum amount is checked by the service itself.
+ * </p>
  */
 @Data
 @NoArgsConstructor
@@ -33,12 +39,14 @@ public class SubscriptionRequestDTO {
      * The unique identifier of the client initiating the subscription.
      * This ensures the investment is associated with the correct client account.
      */
+    @NotBlank
     private String clientId;
 
     /**
      * The unique identifier of the fund to which the client wishes to subscribe.
      * This specifies the target investment product.
      */
+    @NotBlank
     private String fundId;
 
     /**
@@ -46,5 +54,7 @@ public class SubscriptionRequestDTO {
      * This field uses {@link BigDecimal} for precise monetary calculations, ensuring accuracy
      * with financial values.
      */
+    @NotNull
+    @Positive
     private BigDecimal amount;
 }
\ No newline at end of file
@@ -6,6 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -72,7 +74,9 @@ public class Transaction {
     /**
      * The **monetary amount** associated with this transaction.
      * This field uses {@link BigDecimal} for precise financial calculations, ensuring accuracy.
+     * It is stored as {@code Decimal128} so it is compared numerically in queries and indexes.
      */
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal amount;
 
     /**
@@ -85,14 +89,18 @@ public class Transaction {
      * The **client's balance immediately before** this transaction was processed.
      * This provides a snapshot of the client's funds prior to the operation.
      * This field uses {@link BigDecimal} for precise financial calculations.
+     * It is stored as {@code Decimal128} so it is compared numerically in queries and indexes.
      */
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal clientBalanceBefore;
 
     /**
      * The **client's balance immediately after** this transaction was processed.
      * This reflects the client's updated funds post-operation.
      * This field uses {@link BigDecimal} for precise financial calculations.
+     * It is stored as {@code Decimal128} so it is compared numerically in queries and indexes.
      */
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal clientBalanceAfter;
 
     /**
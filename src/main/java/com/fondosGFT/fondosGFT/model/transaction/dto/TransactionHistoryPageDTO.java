@@ -0,0 +1,35 @@
+package com.fondosGFT.fondosGFT.model.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing one page of a client's transaction history.
+ * Pages are ordered from the most recent transaction to the oldest one. The {@code nextCursor}
+ * is passed back as the {@code cursor} query parameter to fetch the following page.
+ * <p>
+ * Lombok annotations are used to reduce boilerplate code:
+ * <ul>
+ * <li>{@code @Data}: Automatically generates getters, setters, {@code equals()},
+ * {@code hashCode()}, and {@code toString()} methods for all fields.</li>
+ * <li>{@code @NoArgsConstructor}: Creates a no-argument constructor.</li>
+ * <li>{@code @AllArgsConstructor}: Generates a constructor with arguments for all fields.</li>
+ * </ul>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionHistoryPageDTO {
+    /**
+     * The transactions on this page, most recent first.
+     */
+    private List<TransactionResponseDTO> items;
+
+    /**
+     * The opaque cursor of the next page, or {@code null} if this is the last page.
+     */
+    private String nextCursor;
+}
@@ -1,6 +1,6 @@
 package com.fondosGFT.fondosGFT.model.transaction.dto;
 
-import com.pruebagft.gestionFondosGFT.util.enums.TransactionType;
+import com.fondosGFT.fondosGFT.util.enums.TransactionType;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
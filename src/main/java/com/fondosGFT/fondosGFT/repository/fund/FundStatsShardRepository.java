@@ -0,0 +1,23 @@
+package com.fondosGFT.fondosGFT.repository.fund;
+
+import com.fondosGFT.fondosGFT.model.fund.FundStatsShard;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for reading {@link FundStatsShard} documents.
+ * The documents are only written through the atomic updates of {@code FundStatsService}.
+ */
+@Repository
+public interface FundStatsShardRepository extends MongoRepository<FundStatsShard, String> {
+
+    /**
+     * Retrieves every shard of a fund's totals.
+     *
+     * @param fundId The ID of the fund.
+     * @return A {@link List} of the fund's {@link FundStatsShard}s.
+     */
+    List<FundStatsShard> findByFundId(String fundId);
+}
@@ -2,6 +2,71 @@ package com.fondosGFT.fondosGFT.repository.investment;
 
 import com.fondosGFT.fondosGFT.model.investment.Investment;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for managing {@link Investment} entities in MongoDB.
+ * Extends {@link MongoRepository} to provide standard CRUD operations
+ * and pagination functionalities.
+ * <p>
+ * Every query below is derived from the method name and served by one of the indexes on the
+ * "investments" collection declared in {@code MongoIndexBootstrapper}.
+ * </p>
+ */
+@Repository
 public interface InvestmentRepository extends MongoRepository<Investment, String> {
+
+    /**
+     * Retrieves the active investments held by a client.
+     *
+     * @param clientId The ID of the client.
+     * @return A {@link List} of the client's {@link Investment}s.
+     */
+    List<Investment> findByClientId(String clientId);
+
+    /**
+     * Retrieves the active investments held by any of the given clients.
+     *
+     * @param clientIds The IDs of the clients.
+     * @return A {@link List} of the {@link Investment}s held by those clients.
+     */
+    List<Investment> findByClientIdIn(Collection<String> clientIds);
+
+    /**
+     * Retrieves a client's active investment in a specific fund.
+     *
+     * @param clientId The ID of the client.
+     * @param fundId   The ID of the fund.
+     * @return An {@link Optional} containing the {@link Investment} if found, or empty if not.
+     */
+    Optional<Investment> findByClientIdAndFundId(String clientId, String fundId);
+
+    /**
+     * Retrieves every active investment in a specific fund.
+     *
+     * @param fundId The ID of the fund.
+     * @return A {@link List} of the {@link Investment}s in the fund.
+     */
+    List<Investment> findByFundId(String fundId);
+
+    /**
+     * Retrieves the investments whose initial amount invested is greater than the given value.
+     * The amount is converted to {@code Decimal128} like the stored field, so the comparison is numeric.
+     *
+     * @param amount The minimum initial investment amount to filter by.
+     * @return A {@link List} of the {@link Investment}s matching the criteria.
+     */
+    List<Investment> findByInitialAmountInvestedGreaterThan(BigDecimal amount);
+
+    /**
+     * Deletes every investment held by a client.
+     *
+     * @param clientId The ID of the client.
+     */
+    void deleteByClientId(String clientId);
 }
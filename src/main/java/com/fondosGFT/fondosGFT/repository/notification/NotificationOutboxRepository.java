@@ -0,0 +1,16 @@
+package com.fondosGFT.fondosGFT.repository.notification;
+
+import com.fondosGFT.fondosGFT.model.notification.NotificationOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends MongoRepository<NotificationOutbox, String> {
+
+    List<NotificationOutbox> findByStatusInAndAvailableAtLessThanEqualOrderByAvailableAtAsc(Collection<String> statuses, LocalDateTime availableAt, Pageable pageable);
+}
@@ -1,9 +1,21 @@
 package com.fondosGFT.fondosGFT.service.client;
 import com.fondosGFT.fondosGFT.model.client.Client;
+import com.fondosGFT.fondosGFT.model.investment.Investment;
 import com.fondosGFT.fondosGFT.repository.client.ClientRepository;
+import com.fondosGFT.fondosGFT.repository.investment.InvestmentRepository;
+import com.fondosGFT.fondosGFT.service.retry.ContentionRetryPolicy;
 import com.pruebagft.gestionFondosGFT.util.enums.NotificationType;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -11,12 +23,20 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Service class responsible for managing client-related business logic.
  * This class interacts with the {@link ClientRepository} to perform CRUD operations
- * and other client-specific functionalities.
+ * and other client-specific functionalities. Active investments live in their own collection
+ * and are attached to the clients returned by the read methods through the {@link InvestmentRepository}.
+ * <p>
+ * Lookups by ID are served from the bounded "clients" cache, which every write in this class
+ * updates or evicts. Size, TTL and hit/miss/eviction metrics are provided by the Caffeine cache
+ * manager and exposed through actuator.
+ * </p>
  * <p>
  * {@code @Service} indicates that this class is a Spring service component,
  * eligible for Spring's component scanning and dependency injection.
@@ -25,17 +45,33 @@ import java.util.Optional;
 @Service
 public class ClientService {
 
+    /**
+     * Name of the cache holding clients by ID. Also evicted by {@code TransactionService}
+     * whenever a subscription or cancellation changes a client.
+     */
+    public static final String CLIENTS_CACHE = "clients";
+
     private final ClientRepository clientRepository;
+    private final InvestmentRepository investmentRepository;
+    private final ContentionRetryPolicy retryPolicy;
+    private final MongoTemplate mongoTemplate;
 
     /**
-     * Constructs a new ClientService with the specified ClientRepository.
-     * Spring's dependency injection automatically provides the ClientRepository instance.
+     * Constructs a new ClientService with the specified repositories.
+     * Spring's dependency injection automatically provides the repository instances.
      *
-     * @param clienteRepository The repository for accessing and managing client data in the database.
+     * @param clienteRepository    The repository for accessing and managing client data in the database.
+     * @param investmentRepository The repository for the clients' active investments.
+     * @param retryPolicy          The policy retrying updates that conflicted with a concurrent write.
+     * @param mongoTemplate        The template applying the field-level profile updates.
      */
     @Autowired
-    public ClientService(ClientRepository clienteRepository) {
+    public ClientService(ClientRepository clienteRepository, InvestmentRepository investmentRepository,
+                         ContentionRetryPolicy retryPolicy, MongoTemplate mongoTemplate) {
         this.clientRepository = clienteRepository;
+        this.investmentRepository = investmentRepository;
+        this.retryPolicy = retryPolicy;
+        this.mongoTemplate = mongoTemplate;
     }
 
     /**
@@ -44,17 +80,20 @@ public class ClientService {
      * @return A {@link List} of {@link Client} objects representing all registered clients.
      */
     public List<Client> getAllClientes() {
-        return clientRepository.findAll();
+        return withInvestments(clientRepository.findAll());
     }
 
     /**
-     * Retrieves a client by their unique identifier.
+     * Retrieves a client by their unique identifier, together with its active investments.
      *
      * @param id The unique ID of the client to retrieve.
      * @return An {@link Optional} containing the {@link Client} if found, or an empty {@link Optional} if not.
      */
+    @Cacheable(cacheNames = CLIENTS_CACHE, key = "#id", unless = "#result == null")
     public Optional<Client> getClienteById(String id) {
-        return clientRepository.findById(id);
+        Optional<Client> client = clientRepository.findById(id);
+        client.ifPresent(found -> found.setActiveInvestments(investmentRepository.findByClientId(id)));
+        return client;
     }
 
     /**
@@ -65,6 +104,7 @@ public class ClientService {
      * @param client The {@link Client} object containing the data for the new client.
      * @return The saved {@link Client} object, including any database-generated ID.
      */
+    @CachePut(cacheNames = CLIENTS_CACHE, key = "#result.id")
     public Client createCliente(Client client) {
         // Ensure the initial balance is set if not provided in the client object
         if (client.getCurrentBalance() == null) {
@@ -95,25 +135,75 @@ public class ClientService {
     /**
      * Updates an existing client's information in the database.
      * The client object must contain the ID of an existing client.
+     * <p>
+     * Only the profile fields given in {@code cliente} (names, city, notification preference, phone number and
+     * email) are written, with a single {@code $set}: the balance is owned by {@code TransactionService} and the
+     * stored document is never saved back in full. The update is conditioned on the version of the client read
+     * just before, so if a subscription or cancellation changed the client in between, the update is retried
+     * on the new version by the {@link ContentionRetryPolicy}.
+     * </p>
      *
      * @param cliente The {@link Client} object with updated information.
      * @return The updated {@link Client} object after saving to the database.
+     * @throws RuntimeException if no client exists with the given ID.
      */
+    @CachePut(cacheNames = CLIENTS_CACHE, key = "#result.id")
     public Client updateCliente(Client cliente) {
-        // Assuming client.getId() is populated for an update
-        return clientRepository.save(cliente);
+        return retryPolicy.execute("client-update", cliente.getId(), ContentionRetryPolicy::versionConflict, () -> {
+            Client stored = clientRepository.findById(cliente.getId())
+                    .orElseThrow(() -> new RuntimeException("Client not found with ID: " + cliente.getId()));
+            // MongoTemplate increments the version of the client along with the profile fields
+            Client updated = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("id").is(stored.getId()).and("version").is(stored.getVersion())),
+                    profileUpdate(cliente), FindAndModifyOptions.options().returnNew(true), Client.class);
+            if (updated == null) {
+                throw new OptimisticLockingFailureException("Client " + stored.getId() + " changed while its profile was being updated");
+            }
+            return updated;
+        });
+    }
+
+    /**
+     * Builds the update setting the non-null profile fields of a client.
+     *
+     * @param cliente The {@link Client} object with updated information.
+     * @return The {@link Update} setting the given profile fields.
+     */
+    private Update profileUpdate(Client cliente) {
+        Update update = new Update();
+        if (cliente.getFirstName() != null) {
+            update.set("firstName", cliente.getFirstName());
+        }
+        if (cliente.getLastName() != null) {
+            update.set("lastName", cliente.getLastName());
+        }
+        if (cliente.getCity() != null) {
+            update.set("city", cliente.getCity());
+        }
+        if (cliente.getNotificationPreference() != null) {
+            update.set("notificationPreference", cliente.getNotificationPreference());
+        }
+        if (cliente.getPhoneNumber() != null) {
+            update.set("phoneNumber", cliente.getPhoneNumber());
+        }
+        if (cliente.getEmail() != null) {
+            update.set("email", cliente.getEmail());
+        }
+        return update;
     }
 
     /**
-     * Deletes a client from the database by their unique identifier.
+     * Deletes a client and its active investments from the database by their unique identifier.
      *
      * @param id The unique ID of the client to delete.
      * @return {@code true} if the client was found and successfully deleted, {@code false} otherwise.
      */
+    @CacheEvict(cacheNames = CLIENTS_CACHE, key = "#id")
     public boolean deleteClient(String id) {
         Optional<Client> clientOptional = clientRepository.findById(id);
         if (clientOptional.isPresent()) {
             clientRepository.deleteById(id);
+            investmentRepository.deleteByClientId(id);
             return true; // Client found and deleted
         }
         return false; // Client not found
@@ -142,11 +232,39 @@ public class ClientService {
 
     /**
      * Retrieves a list of clients who have at least one active investment in the specified fund.
+     * The investments are found through the {@code fundId} index of the "investments" collection
+     * and their clients are then fetched by ID in a single query.
      *
      * @param fundId The unique ID of the fund.
      * @return A {@link List} of {@link Client} objects with active investments in the given fund.
      */
     public List<Client> getClientsInFund(String fundId) {
-        return clientRepository.findByActiveInvestments_FundId(fundId);
+        List<String> clientIds = investmentRepository.findByFundId(fundId).stream()
+                .map(Investment::getClientId)
+                .distinct()
+                .collect(Collectors.toList());
+        if (clientIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return withInvestments(clientRepository.findAllById(clientIds));
+    }
+
+    /**
+     * Attaches their active investments to a list of clients, reading the investments of all of
+     * them with a single query.
+     *
+     * @param clients The clients to complete.
+     * @return The same clients, each with its active investments set.
+     */
+    private List<Client> withInvestments(List<Client> clients) {
+        if (clients.isEmpty()) {
+            return clients;
+        }
+        Map<String, List<Investment>> investmentsByClient = investmentRepository
+                .findByClientIdIn(clients.stream().map(Client::getId).collect(Collectors.toList())).stream()
+                .collect(Collectors.groupingBy(Investment::getClientId));
+        clients.forEach(client -> client.setActiveInvestments(
+                new ArrayList<>(investmentsByClient.getOrDefault(client.getId(), Collections.emptyList()))));
+        return clients;
     }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.fondosGFT.fondosGFT.service.fund;
+
+import com.fondosGFT.fondosGFT.model.fund.Fund;
+import com.fondosGFT.fondosGFT.repository.fund.FundRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory, read-through cache of the fund catalog.
+ * The "funds" collection almost never changes after {@link FundService#initializeFunds()}, so the
+ * whole catalog is kept as an immutable snapshot that is swapped atomically on refresh. Lookups on
+ * the subscription hot path therefore cost no MongoDB round trip.
+ * <p>
+ * The snapshot is loaded on first use, reloaded after writes made through {@link FundService},
+ * and reloaded periodically to pick up changes made outside the application. A lookup for a fund
+ * missing from the snapshot falls through to the repository once and adds the fund if found.
+ * Cached {@link Fund} instances are shared and must be treated as read-only.
+ * </p>
+ */
+@Component
+@Slf4j
+public class FundCatalog {
+
+    private final FundRepository fundRepository;
+    private volatile Map<String, Fund> snapshot;
+
+    /**
+     * Constructs a new FundCatalog backed by the given repository.
+     *
+     * @param fundRepository The repository from which the catalog is loaded.
+     */
+    @Autowired
+    public FundCatalog(FundRepository fundRepository) {
+        this.fundRepository = fundRepository;
+    }
+
+    /**
+     * Retrieves a fund by its unique identifier, reading through to the repository on a miss.
+     *
+     * @param id The unique ID of the fund.
+     * @return An {@link Optional} containing the {@link Fund} if it exists, or empty if not.
+     */
+    public Optional<Fund> findById(String id) {
+        Fund fund = funds().get(id);
+        if (fund != null) {
+            return Optional.of(fund);
+        }
+        Optional<Fund> loaded = fundRepository.findById(id);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    /**
+     * Returns whether a fund is in the current snapshot, without reading through to the repository.
+     * Suited to labelling metrics with caller-supplied IDs, where a miss must not cost a MongoDB round trip.
+     *
+     * @param id The unique ID of the fund.
+     * @return {@code true} if the snapshot holds the fund.
+     */
+    public boolean contains(String id) {
+        return id != null && funds().containsKey(id);
+    }
+
+    /**
+     * Retrieves every fund in the catalog.
+     *
+     * @return An unmodifiable {@link List} of all cached {@link Fund}s.
+     */
+    public List<Fund> findAll() {
+        return Collections.unmodifiableList(new ArrayList<>(funds().values()));
+    }
+
+    /**
+     * Adds or replaces a single fund in the snapshot after it has been written to the database.
+     *
+     * @param fund The saved {@link Fund}.
+     */
+    public synchronized void put(Fund fund) {
+        Map<String, Fund> updated = new LinkedHashMap<>(funds());
+        updated.put(fund.getId(), fund);
+        snapshot = Collections.unmodifiableMap(updated);
+    }
+
+    /**
+     * Reloads the whole catalog from the database and swaps in the new snapshot.
+     * Runs on the configured interval, and can be called directly after bulk writes.
+     */
+    @Scheduled(fixedDelayString = "${fondos.funds.catalog.refresh-interval-ms:300000}",
+            initialDelayString = "${fondos.funds.catalog.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        Map<String, Fund> loaded = new LinkedHashMap<>();
+        fundRepository.findAll().forEach(fund -> loaded.put(fund.getId(), fund));
+        snapshot = Collections.unmodifiableMap(loaded);
+        log.debug("Fund catalog refreshed with {} funds", loaded.size());
+    }
+
+    /**
+     * Returns the current snapshot, loading it on first use.
+     *
+     * @return The current immutable map of funds by ID.
+     */
+    private Map<String, Fund> funds() {
+        Map<String, Fund> current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+}
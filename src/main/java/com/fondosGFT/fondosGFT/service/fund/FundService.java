@@ -11,7 +11,8 @@ import java.util.List;
 /**
  * Service class responsible for managing investment fund-related business logic.
  * This class interacts with the {@link FundRepository} to perform operations
- * such as retrieving fund information and initializing sample data.
+ * such as retrieving fund information and initializing sample data. Reads are served
+ * from the {@link FundCatalog} cache.
  * <p>
  * {@code @Service} indicates that this class is a Spring service component,
  * eligible for Spring's component scanning and dependency injection.
@@ -21,16 +22,19 @@ import java.util.List;
 public class FundService {
 
     private final FundRepository fondoRepository;
+    private final FundCatalog fundCatalog;
 
     /**
      * Constructs a new FundService with the specified FundRepository.
      * Spring's dependency injection automatically provides the FundRepository instance.
      *
      * @param fondoRepository The repository for accessing and managing fund data in the database.
+     * @param fundCatalog     The in-memory fund catalog that serves all fund reads.
      */
     @Autowired
-    public FundService(FundRepository fondoRepository) {
+    public FundService(FundRepository fondoRepository, FundCatalog fundCatalog) {
         this.fondoRepository = fondoRepository;
+        this.fundCatalog = fundCatalog;
     }
 
     /**
@@ -48,17 +52,19 @@ public class FundService {
             Fund fondo4 = new Fund("4", "Fondo BTG Global", "FIC", new BigDecimal("300000.00")); // $300,000
 
             fondoRepository.saveAll(List.of(fondo1, fondo2, fondo3, fondo4));
+            fundCatalog.refresh();
             System.out.println("Initial funds loaded.");
         }
     }
 
     /**
      * Retrieves a list of all investment funds available in the database.
+     * The list is served from the in-memory {@link FundCatalog}.
      *
      * @return A {@link List} of {@link Fund} objects representing all available funds.
      */
     public List<Fund> getAllFunds() {
-        return fondoRepository.findAll();
+        return fundCatalog.findAll();
     }
 
     /**
@@ -70,7 +76,7 @@ public class FundService {
      * (Note: Consider implementing a more specific custom exception for production use.)
      */
     public Fund getFondoById(String id) {
-        return fondoRepository.findById(id)
+        return fundCatalog.findById(id)
                 .orElseThrow(() -> new RuntimeException("Fondo no encontrado con ID: " + id)); // Implement a custom exception later
     }
 }
\ No newline at end of file
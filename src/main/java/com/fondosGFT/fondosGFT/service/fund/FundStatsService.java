@@ -0,0 +1,343 @@
+package com.fondosGFT.fondosGFT.service.fund;
+
+import com.fondosGFT.fondosGFT.model.fund.FundStats;
+import com.fondosGFT.fondosGFT.model.fund.FundStatsShard;
+import com.fondosGFT.fondosGFT.model.investment.Investment;
+import com.fondosGFT.fondosGFT.repository.fund.FundStatsShardRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service class that maintains the per-fund {@link FundStats} totals.
+ * <p>
+ * The totals of each fund are striped over {@code shards} {@link FundStatsShard} documents. Every update
+ * increments a randomly chosen shard with a single upserting {@code $inc}, so concurrent subscriptions to
+ * the same fund spread their writes instead of serializing on one document, and reads merge the shards of
+ * a fund with one indexed query.
+ * </p>
+ * <p>
+ * Buffering is disabled by default, so every update is written before the subscription or cancellation
+ * returns and the totals stay exact. When {@code fondos.funds.stats.buffered} is enabled, updates are first
+ * accumulated in process in per-fund {@link LongAdder}s and flushed to the shards on a fixed delay, and on
+ * shutdown, with one bulk write, so the request threads never wait on the counters. Reads on the same instance
+ * add the deltas not flushed yet, but other instances see them only after the flush. The totals then drift
+ * from the investments whenever a process dies before flushing, or keeps failing to flush until it stops:
+ * those deltas are lost. {@link #rebuild()} recomputes exact totals from the investments; to run it, delete the
+ * {@code fund-stats-shards-backfill} entry of the "migrations" collection and restart the application, so the
+ * {@code FundStatsBackfill} runs again before requests are accepted.
+ * </p>
+ * <p>
+ * {@code @Service} indicates that this class is a Spring service component.
+ * {@code @Slf4j} provides a logger instance named 'log' for logging messages.
+ * </p>
+ */
+@Service
+@Slf4j
+public class FundStatsService {
+
+    /**
+     * Decimal places kept for amounts accumulated in process, which are counted in units of 10^-4.
+     */
+    private static final int BUFFERED_AMOUNT_SCALE = 4;
+
+    private final FundStatsShardRepository shardRepository;
+    private final MongoTemplate mongoTemplate;
+    private final int shards;
+    private final boolean buffered;
+    private final ConcurrentMap<String, PendingDelta> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new FundStatsService.
+     *
+     * @param shardRepository The repository for reading the fund totals shards.
+     * @param mongoTemplate   The MongoTemplate used for the atomic updates and the rebuild aggregation.
+     * @param shards          The number of shards each fund's totals are striped over.
+     * @param buffered        Whether updates are accumulated in process and flushed periodically, at the cost of
+     *                        losing the deltas not flushed when the process dies.
+     */
+    @Autowired
+    public FundStatsService(FundStatsShardRepository shardRepository,
+                            MongoTemplate mongoTemplate,
+                            @Value("${fondos.funds.stats.shards:8}") int shards,
+                            @Value("${fondos.funds.stats.buffered:false}") boolean buffered) {
+        this.shardRepository = shardRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.shards = shards;
+        this.buffered = buffered;
+    }
+
+    /**
+     * Adds a new investment to the totals of its fund.
+     *
+     * @param fundId The ID of the subscribed fund.
+     * @param amount The subscribed amount.
+     */
+    public void recordSubscription(String fundId, BigDecimal amount) {
+        record(fundId, amount, 1);
+    }
+
+    /**
+     * Removes a cancelled investment from the totals of its fund.
+     *
+     * @param fundId The ID of the fund whose investment was cancelled.
+     * @param amount The amount that had been invested.
+     */
+    public void recordCancellation(String fundId, BigDecimal amount) {
+        record(fundId, amount.negate(), -1);
+    }
+
+    /**
+     * Adds the investments created by a batch subscription to the totals of their funds.
+     * When updates are not buffered, they are written with one unordered bulk write holding a single
+     * upsert per fund.
+     *
+     * @param investments The investments created by the batch.
+     */
+    public void recordSubscriptions(List<Investment> investments) {
+        if (investments.isEmpty()) {
+            return;
+        }
+        if (buffered) {
+            investments.forEach(investment -> record(investment.getFundId(), investment.getInitialAmountInvested(), 1));
+            return;
+        }
+        Map<String, BigDecimal> amounts = new LinkedHashMap<>();
+        Map<String, Long> investors = new LinkedHashMap<>();
+        for (Investment investment : investments) {
+            amounts.merge(investment.getFundId(), investment.getInitialAmountInvested(), BigDecimal::add);
+            investors.merge(investment.getFundId(), 1L, Long::sum);
+        }
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FundStatsShard.class);
+        amounts.forEach((fundId, amount) -> {
+            int shard = nextShard();
+            updates.upsert(byShard(fundId, shard), delta(fundId, shard, amount, investors.get(fundId)));
+        });
+        updates.execute();
+    }
+
+    /**
+     * Writes the deltas accumulated in process to the shards, with one bulk write holding
+     * a single upsert per fund. If the write fails, the deltas are put back for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${fondos.funds.stats.flush-interval-ms:1000}")
+    @PreDestroy
+    public void flush() {
+        Map<String, long[]> drained = new LinkedHashMap<>();
+        pending.forEach((fundId, delta) -> {
+            long units = delta.amountUnits.sumThenReset();
+            long investors = delta.investors.sumThenReset();
+            if (units != 0 || investors != 0) {
+                drained.put(fundId, new long[]{units, investors});
+            }
+        });
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FundStatsShard.class);
+        drained.forEach((fundId, delta) -> {
+            int shard = nextShard();
+            updates.upsert(byShard(fundId, shard), delta(fundId, shard, BigDecimal.valueOf(delta[0], BUFFERED_AMOUNT_SCALE), delta[1]));
+        });
+        try {
+            updates.execute();
+            log.debug("Flushed fund totals for {} funds", drained.size());
+        } catch (RuntimeException e) {
+            log.error("Could not flush fund totals for {} funds, they will be retried: {}", drained.size(), e.getMessage());
+            drained.forEach((fundId, delta) -> {
+                PendingDelta pendingDelta = pending.computeIfAbsent(fundId, key -> new PendingDelta());
+                pendingDelta.amountUnits.add(delta[0]);
+                pendingDelta.investors.add(delta[1]);
+            });
+        }
+    }
+
+    /**
+     * Retrieves the totals of a fund by merging its shards and the deltas not flushed yet.
+     *
+     * @param fundId The ID of the fund.
+     * @return The fund's {@link FundStats}, with zero totals if the fund never had an investment.
+     */
+    public FundStats getFundStats(String fundId) {
+        FundStats stats = new FundStats(fundId, BigDecimal.ZERO, 0, null);
+        shardRepository.findByFundId(fundId).forEach(shard -> merge(stats, shard));
+        addPending(stats);
+        return stats;
+    }
+
+    /**
+     * Retrieves the totals of every fund that has had investments, reading all shards with a single query.
+     *
+     * @return The {@link FundStats} of those funds, keyed by fund ID.
+     */
+    public Map<String, FundStats> getAllFundStats() {
+        Map<String, FundStats> stats = new LinkedHashMap<>();
+        shardRepository.findAll().forEach(shard -> merge(
+                stats.computeIfAbsent(shard.getFundId(), fundId -> new FundStats(fundId, BigDecimal.ZERO, 0, null)), shard));
+        pending.keySet().forEach(fundId -> stats.computeIfAbsent(fundId, key -> new FundStats(key, BigDecimal.ZERO, 0, null)));
+        stats.values().forEach(this::addPending);
+        return stats;
+    }
+
+    /**
+     * Recomputes the totals of every fund from the "investments" collection and replaces the stored ones,
+     * discarding any buffered delta. This is a full scan, meant to seed the totals once or to repair them
+     * while no subscriptions are being processed, not to serve reads: deltas recorded while it runs are lost.
+     * The {@code FundStatsBackfill} therefore runs it before the application accepts requests.
+     *
+     * @return The number of funds with active investments.
+     */
+    public int rebuild() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("fundId")
+                        .sum("initialAmountInvested").as("assetsUnderManagement")
+                        .count().as("activeInvestors"),
+                // The group key comes back in "_id"; FundStats has no @Id, so it is exposed as "fundId".
+                Aggregation.project("assetsUnderManagement", "activeInvestors").and("fundId").previousOperation());
+        List<FundStats> totals = mongoTemplate.aggregate(aggregation, Investment.class, FundStats.class).getMappedResults();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<FundStatsShard> firstShards = new ArrayList<>();
+        for (FundStats stats : totals) {
+            firstShards.add(new FundStatsShard(shardId(stats.getFundId(), 0), stats.getFundId(), 0,
+                    stats.getAssetsUnderManagement(), stats.getActiveInvestors(), now));
+        }
+        pending.clear();
+        mongoTemplate.remove(new Query(), FundStatsShard.class);
+        if (!firstShards.isEmpty()) {
+            mongoTemplate.insertAll(firstShards);
+        }
+        log.info("Fund totals rebuilt for {} funds", totals.size());
+        return totals.size();
+    }
+
+    /**
+     * Applies a change to a fund's totals, either to the in-process accumulator or directly to a random shard.
+     *
+     * @param fundId    The ID of the fund.
+     * @param amount    The change in assets under management.
+     * @param investors The change in the number of active investors.
+     */
+    private void record(String fundId, BigDecimal amount, long investors) {
+        if (!buffered) {
+            int shard = nextShard();
+            mongoTemplate.upsert(byShard(fundId, shard), delta(fundId, shard, amount, investors), FundStatsShard.class);
+            return;
+        }
+        PendingDelta delta = pending.computeIfAbsent(fundId, key -> new PendingDelta());
+        delta.amountUnits.add(amount.setScale(BUFFERED_AMOUNT_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact());
+        delta.investors.add(investors);
+    }
+
+    /**
+     * Adds one shard to the totals being merged.
+     *
+     * @param stats The totals of the shard's fund.
+     * @param shard The shard to add.
+     */
+    private void merge(FundStats stats, FundStatsShard shard) {
+        if (shard.getAssetsUnderManagement() != null) {
+            stats.setAssetsUnderManagement(stats.getAssetsUnderManagement().add(shard.getAssetsUnderManagement()));
+        }
+        stats.setActiveInvestors(stats.getActiveInvestors() + shard.getActiveInvestors());
+        if (stats.getLastUpdated() == null || (shard.getLastUpdated() != null && shard.getLastUpdated().isAfter(stats.getLastUpdated()))) {
+            stats.setLastUpdated(shard.getLastUpdated());
+        }
+    }
+
+    /**
+     * Adds the deltas of a fund that have not been flushed yet to its merged totals.
+     *
+     * @param stats The merged totals of the fund.
+     */
+    private void addPending(FundStats stats) {
+        PendingDelta delta = pending.get(stats.getFundId());
+        if (delta != null) {
+            stats.setAssetsUnderManagement(stats.getAssetsUnderManagement()
+                    .add(BigDecimal.valueOf(delta.amountUnits.sum(), BUFFERED_AMOUNT_SCALE)));
+            stats.setActiveInvestors(stats.getActiveInvestors() + delta.investors.sum());
+        }
+    }
+
+    /**
+     * Picks the shard that receives the next update, uniformly at random.
+     *
+     * @return The index of the shard.
+     */
+    private int nextShard() {
+        return ThreadLocalRandom.current().nextInt(shards);
+    }
+
+    /**
+     * Builds the query selecting one shard of a fund's totals.
+     *
+     * @param fundId The ID of the fund.
+     * @param shard  The index of the shard.
+     * @return The {@link Query} matching the shard.
+     */
+    private Query byShard(String fundId, int shard) {
+        return new Query(Criteria.where("id").is(shardId(fundId, shard)));
+    }
+
+    /**
+     * Builds the ID of a shard.
+     *
+     * @param fundId The ID of the fund.
+     * @param shard  The index of the shard.
+     * @return The shard ID.
+     */
+    private static String shardId(String fundId, int shard) {
+        return fundId + ":" + shard;
+    }
+
+    /**
+     * Builds the atomic update applying a change to one shard of a fund's totals.
+     * The fund ID and shard index are only written when the upsert creates the shard.
+     *
+     * @param fundId    The ID of the fund.
+     * @param shard     The index of the shard.
+     * @param amount    The change in assets under management.
+     * @param investors The change in the number of active investors.
+     * @return The {@link Update} incrementing the shard.
+     */
+    private Update delta(String fundId, int shard, BigDecimal amount, long investors) {
+        return new Update()
+                .setOnInsert("fundId", fundId)
+                .setOnInsert("shard", shard)
+                .inc("assetsUnderManagement", new Decimal128(amount))
+                .inc("activeInvestors", investors)
+                .set("lastUpdated", LocalDateTime.now());
+    }
+
+    /**
+     * Changes to a fund's totals accumulated in process since the last flush.
+     * Amounts are counted in units of 10^-{@value #BUFFERED_AMOUNT_SCALE}.
+     */
+    private static final class PendingDelta {
+        private final LongAdder amountUnits = new LongAdder();
+        private final LongAdder investors = new LongAdder();
+    }
+}
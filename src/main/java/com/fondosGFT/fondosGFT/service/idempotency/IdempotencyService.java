@@ -0,0 +1,235 @@
+package com.fondosGFT.fondosGFT.service.idempotency;
+
+import com.fondosGFT.fondosGFT.model.idempotency.IdempotencyRecord;
+import com.fondosGFT.fondosGFT.model.transaction.dto.TransactionResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Service class responsible for making subscribe and cancel requests idempotent.
+ * Completed responses are kept in a bounded in-memory cache in front of the TTL-indexed
+ * "idempotency_keys" collection, so a replayed request is answered from memory in the common
+ * case and from a single primary-key lookup otherwise, without touching clients or transactions.
+ * <p>
+ * Keys are scoped by operation and by caller, so two callers that happen to send the same key never
+ * receive each other's responses. A key being processed is held by a claim leased for
+ * {@code fondos.idempotency.lease-seconds}, which the request holding it renews every third of the lease
+ * for as long as the operation runs. A retry is refused while the claim is renewed, however long the
+ * operation takes; if the instance holding it dies before storing the response, the renewals stop and a
+ * retry takes the claim over once the lease has expired, instead of being refused until the key expires.
+ * </p>
+ * <p>
+ * {@code @Service} indicates that this class is a Spring service component.
+ * {@code @Slf4j} provides a logger instance named 'log' for logging messages.
+ * </p>
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, IdempotencyRecord> completedRecords;
+    private final Duration lease;
+    private final ScheduledExecutorService leaseRenewals;
+
+    /**
+     * Constructs a new IdempotencyService.
+     *
+     * @param mongoTemplate The MongoTemplate used to claim, complete and release keys.
+     * @param ttlHours      How long a key is remembered after it is first seen.
+     * @param cacheMaxSize  The maximum number of completed responses kept in memory.
+     * @param leaseSeconds  How long a claim that is no longer renewed blocks other requests with the same key
+     *                      before it can be taken over.
+     */
+    @Autowired
+    public IdempotencyService(
+            MongoTemplate mongoTemplate,
+            @Value("${fondos.idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${fondos.idempotency.cache-max-size:10000}") long cacheMaxSize,
+            @Value("${fondos.idempotency.lease-seconds:60}") long leaseSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.completedRecords = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofHours(ttlHours))
+                .build();
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.leaseRenewals = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-lease-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Executes an operation at most once per idempotency key and caller.
+     * The first request claims the key, runs the operation and stores its response. Replays of the
+     * same request return the stored response. If the operation fails the key is released so the
+     * client can retry it. The claim is renewed while the operation runs, and a claim left behind by
+     * a request that never completed can be taken over once its lease has expired. A request whose claim
+     * was taken over while its operation ran returns its response without storing it.
+     *
+     * @param operation          The name of the operation, used to scope the key (e.g., "subscribe").
+     * @param scope              The caller the key belongs to, such as the authenticated principal and client.
+     * @param idempotencyKey     The client-supplied idempotency key.
+     * @param requestFingerprint A fingerprint of the request payload.
+     * @param action             The operation to run when the key is seen for the first time.
+     * @return The response of the original execution of the operation.
+     * @throws RuntimeException if the key was used for a different request, or if the original
+     * request with this key is still being processed.
+     */
+    public TransactionResponseDTO execute(String operation, String scope, String idempotencyKey, String requestFingerprint,
+                                          Supplier<TransactionResponseDTO> action) {
+        String id = operation + ":" + scope + ":" + idempotencyKey;
+
+        IdempotencyRecord cached = completedRecords.getIfPresent(id);
+        if (cached != null) {
+            return replay(cached, requestFingerprint);
+        }
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        IdempotencyRecord claim = new IdempotencyRecord(id, requestFingerprint, IdempotencyRecord.STATUS_IN_PROGRESS, null, now, now, null);
+        try {
+            mongoTemplate.insert(claim);
+        } catch (DuplicateKeyException e) {
+            IdempotencyRecord existing = mongoTemplate.findById(id, IdempotencyRecord.class);
+            if (existing == null) {
+                throw new RuntimeException("The request with Idempotency-Key " + idempotencyKey + " could not be processed. Please retry.");
+            }
+            if (IdempotencyRecord.STATUS_COMPLETED.equals(existing.getStatus())) {
+                completedRecords.put(id, existing);
+                return replay(existing, requestFingerprint);
+            }
+            if (!existing.getRequestFingerprint().equals(requestFingerprint)) {
+                throw new RuntimeException("The Idempotency-Key was already used for a different request.");
+            }
+            claim = takeOver(existing, now);
+            if (claim == null) {
+                throw new RuntimeException("A request with Idempotency-Key " + idempotencyKey + " is already being processed.");
+            }
+        }
+
+        Query ownClaim = new Query(Criteria.where("id").is(id)
+                .and("status").is(IdempotencyRecord.STATUS_IN_PROGRESS)
+                .and("claimedAt").is(claim.getClaimedAt()));
+        long renewalMillis = Math.max(1, lease.toMillis() / 3);
+        ScheduledFuture<?> renewal = leaseRenewals.scheduleAtFixedRate(() -> renew(ownClaim),
+                renewalMillis, renewalMillis, TimeUnit.MILLISECONDS);
+        TransactionResponseDTO response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            renewal.cancel(false);
+            mongoTemplate.remove(ownClaim, IdempotencyRecord.class);
+            throw e;
+        }
+        renewal.cancel(false);
+
+        UpdateResult completion = mongoTemplate.updateFirst(ownClaim,
+                new Update().set("status", IdempotencyRecord.STATUS_COMPLETED).set("response", response),
+                IdempotencyRecord.class);
+        if (completion.getMatchedCount() == 0) {
+            // The claim was taken over after missed renewals: the stored record now belongs to the other request
+            log.warn("The idempotency claim {} was taken over while its operation ran; the response is not stored", id);
+            return response;
+        }
+        claim.setStatus(IdempotencyRecord.STATUS_COMPLETED);
+        claim.setResponse(response);
+        completedRecords.put(id, claim);
+        return response;
+    }
+
+    /**
+     * Renews the lease of a claim held by a running operation. A failed renewal is only logged: the next one
+     * may succeed, and the lease is long enough to miss a couple of them.
+     *
+     * @param ownClaim The query matching the claim held by the operation.
+     */
+    private void renew(Query ownClaim) {
+        try {
+            mongoTemplate.updateFirst(ownClaim,
+                    new Update().set("renewedAt", LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS)), IdempotencyRecord.class);
+        } catch (RuntimeException e) {
+            log.warn("Could not renew the idempotency claim {}: {}", ownClaim.getQueryObject().get("id"), e.getMessage());
+        }
+    }
+
+    /**
+     * Takes over the claim of a request that stopped renewing it within the lease.
+     * The claim is taken with a conditional {@code findAndModify} on its previous {@code claimedAt} and
+     * {@code renewedAt}, so only one of several concurrent retries obtains it, and none does if the request
+     * holding it renewed it in the meantime.
+     *
+     * @param existing The in-progress record found for the key.
+     * @param now      The current time, which becomes the new {@code claimedAt}.
+     * @return The claimed record, or {@code null} if the lease has not expired or another request took it first.
+     */
+    private IdempotencyRecord takeOver(IdempotencyRecord existing, LocalDateTime now) {
+        // Records written before claims carried a timestamp are leased from their creation
+        LocalDateTime claimedAt = existing.getClaimedAt() != null ? existing.getClaimedAt() : existing.getCreatedAt();
+        LocalDateTime leasedAt = existing.getRenewedAt() != null ? existing.getRenewedAt() : claimedAt;
+        if (leasedAt != null && leasedAt.isAfter(now.minus(lease))) {
+            return null;
+        }
+        Criteria expiredClaim = Criteria.where("id").is(existing.getId())
+                .and("status").is(IdempotencyRecord.STATUS_IN_PROGRESS);
+        expiredClaim = existing.getClaimedAt() == null
+                ? expiredClaim.and("claimedAt").exists(false)
+                : expiredClaim.and("claimedAt").is(existing.getClaimedAt());
+        expiredClaim = existing.getRenewedAt() == null
+                ? expiredClaim.and("renewedAt").exists(false)
+                : expiredClaim.and("renewedAt").is(existing.getRenewedAt());
+        IdempotencyRecord claimed = mongoTemplate.findAndModify(new Query(expiredClaim),
+                new Update().set("claimedAt", now).unset("renewedAt"),
+                FindAndModifyOptions.options().returnNew(true), IdempotencyRecord.class);
+        if (claimed != null) {
+            log.warn("Taking over the expired claim of idempotency key {}, claimed at {} and last leased at {}",
+                    existing.getId(), claimedAt, leasedAt);
+        }
+        return claimed;
+    }
+
+    /**
+     * Stops renewing claims when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        leaseRenewals.shutdownNow();
+    }
+
+    /**
+     * Returns the stored response of a completed record after checking the request matches.
+     *
+     * @param record             The completed {@link IdempotencyRecord}.
+     * @param requestFingerprint The fingerprint of the replayed request.
+     * @return The stored {@link TransactionResponseDTO}.
+     * @throws RuntimeException if the key was originally used for a different request.
+     */
+    private TransactionResponseDTO replay(IdempotencyRecord record, String requestFingerprint) {
+        if (!record.getRequestFingerprint().equals(requestFingerprint)) {
+            throw new RuntimeException("The Idempotency-Key was already used for a different request.");
+        }
+        log.info("Replaying stored response for idempotency key {}", record.getId());
+        return record.getResponse();
+    }
+}
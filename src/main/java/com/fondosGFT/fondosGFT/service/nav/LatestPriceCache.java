@@ -0,0 +1,154 @@
+package com.fondosGFT.fondosGFT.service.nav;
+
+import com.fondosGFT.fondosGFT.model.fund.Fund;
+import com.fondosGFT.fondosGFT.model.nav.NavBucket;
+import com.fondosGFT.fondosGFT.service.fund.FundCatalog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory cache of the latest known unit price of every fund.
+ * Portfolio valuations read prices from here, so valuing a client's positions costs no MongoDB round trip per fund.
+ * Subscriptions buy their units at the same price, so a new position is valued at what was paid for it.
+ * <p>
+ * The latest price of a fund is the most recent NAV in its history, or, for funds without NAV history,
+ * the unit price stored on the fund ({@link Fund#INITIAL_UNIT_PRICE} if none). Prices recorded through
+ * {@link NavService} are written through to the cache, and the whole cache is reloaded periodically to
+ * pick up prices recorded by other instances. Like {@link FundCatalog}, the cache is an immutable
+ * snapshot swapped atomically on every change.
+ * </p>
+ */
+@Component
+@Slf4j
+public class LatestPriceCache {
+
+    private final MongoTemplate mongoTemplate;
+    private final FundCatalog fundCatalog;
+    private volatile Map<String, LatestPrice> snapshot;
+
+    /**
+     * Constructs a new LatestPriceCache.
+     *
+     * @param mongoTemplate The MongoTemplate used to read the latest NAV bucket of each fund.
+     * @param fundCatalog   The catalog of funds whose prices are cached.
+     */
+    @Autowired
+    public LatestPriceCache(MongoTemplate mongoTemplate, FundCatalog fundCatalog) {
+        this.mongoTemplate = mongoTemplate;
+        this.fundCatalog = fundCatalog;
+    }
+
+    /**
+     * Retrieves the latest known unit price of a fund.
+     *
+     * @param fundId The ID of the fund.
+     * @return The latest price, or {@link Fund#INITIAL_UNIT_PRICE} if the fund is unknown.
+     */
+    public BigDecimal getPrice(String fundId) {
+        LatestPrice latest = prices().get(fundId);
+        return latest != null ? latest.price : Fund.INITIAL_UNIT_PRICE;
+    }
+
+    /**
+     * Records a newly stored NAV. It replaces the cached price unless the cache already holds a more recent one.
+     *
+     * @param fundId The ID of the fund.
+     * @param date   The day the NAV applies to.
+     * @param price  The NAV per unit.
+     */
+    public synchronized void update(String fundId, LocalDate date, BigDecimal price) {
+        Map<String, LatestPrice> current = prices();
+        LatestPrice cached = current.get(fundId);
+        if (cached != null && cached.date != null && cached.date.isAfter(date)) {
+            return;
+        }
+        Map<String, LatestPrice> updated = new HashMap<>(current);
+        updated.put(fundId, new LatestPrice(date, price));
+        snapshot = Collections.unmodifiableMap(updated);
+    }
+
+    /**
+     * Reloads the latest price of every fund in the catalog from its most recent NAV bucket.
+     * Runs on the configured interval.
+     */
+    @Scheduled(fixedDelayString = "${fondos.funds.prices.refresh-interval-ms:60000}",
+            initialDelayString = "${fondos.funds.prices.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        Map<String, LatestPrice> loaded = new HashMap<>();
+        for (Fund fund : fundCatalog.findAll()) {
+            LatestPrice latest = latestNav(fund.getId());
+            if (latest == null) {
+                latest = new LatestPrice(null, fund.getUnitPrice() != null ? fund.getUnitPrice() : Fund.INITIAL_UNIT_PRICE);
+            }
+            loaded.put(fund.getId(), latest);
+        }
+        snapshot = Collections.unmodifiableMap(loaded);
+        log.debug("Latest price cache refreshed with {} funds", loaded.size());
+    }
+
+    /**
+     * Reads the most recent NAV recorded for a fund.
+     *
+     * @param fundId The ID of the fund.
+     * @return The latest NAV, or {@code null} if the fund has no NAV history.
+     */
+    private LatestPrice latestNav(String fundId) {
+        Query query = new Query(Criteria.where("fundId").is(fundId))
+                .with(Sort.by(Sort.Direction.DESC, "month"))
+                .limit(2);
+        for (NavBucket bucket : mongoTemplate.find(query, NavBucket.class)) {
+            long[] slots = bucket.getNavUnits();
+            for (int slot = slots.length - 1; slot >= 0; slot--) {
+                if (slots[slot] != 0) {
+                    return new LatestPrice(bucket.getMonth().plusDays(slot), BigDecimal.valueOf(slots[slot], NavBucket.NAV_SCALE));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the current snapshot, loading it on first use.
+     *
+     * @return The current immutable map of latest prices by fund ID.
+     */
+    private Map<String, LatestPrice> prices() {
+        Map<String, LatestPrice> current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    /**
+     * A cached price and the day it applies to.
+     */
+    private static final class LatestPrice {
+        private final LocalDate date;
+        private final BigDecimal price;
+
+        /**
+         * Constructs a new LatestPrice.
+         *
+         * @param date  The day of the NAV, or {@code null} if the price comes from the fund itself.
+         * @param price The unit price.
+         */
+        private LatestPrice(LocalDate date, BigDecimal price) {
+            this.date = date;
+            this.price = price;
+        }
+    }
+}
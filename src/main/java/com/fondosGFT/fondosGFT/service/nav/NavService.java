@@ -0,0 +1,160 @@
+package com.fondosGFT.fondosGFT.service.nav;
+
+import com.fondosGFT.fondosGFT.model.nav.NavBucket;
+import com.fondosGFT.fondosGFT.model.nav.dto.NavHistoryDTO;
+import com.fondosGFT.fondosGFT.service.fund.FundCatalog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Service storing and reading the daily NAV history of the funds.
+ * <p>
+ * The history is kept in {@link NavBucket}s, one document per fund and month holding a fixed array of
+ * daily values, so recording a price is an idempotent update of one array slot and reading a range
+ * touches one document per month. Ranges longer than the requested number of points are down-sampled
+ * to the last NAV of equally sized intervals, which keeps a multi-year series small on the wire while
+ * preserving the most recent price of every interval.
+ * </p>
+ */
+@Service
+public class NavService {
+
+    private static final DateTimeFormatter BUCKET_MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private final MongoTemplate mongoTemplate;
+    private final FundCatalog fundCatalog;
+    private final LatestPriceCache latestPriceCache;
+    private final int maxPointsLimit;
+
+    /**
+     * Constructs a new NavService.
+     *
+     * @param mongoTemplate    The MongoTemplate used to read and update the NAV buckets.
+     * @param fundCatalog      The in-memory catalog used to check that funds exist.
+     * @param latestPriceCache The in-memory cache of latest prices that recorded NAVs are written through to.
+     * @param maxPointsLimit   The largest number of points a single history response may hold.
+     */
+    @Autowired
+    public NavService(MongoTemplate mongoTemplate,
+                      FundCatalog fundCatalog,
+                      LatestPriceCache latestPriceCache,
+                      @Value("${fondos.funds.nav.max-points:1000}") int maxPointsLimit) {
+        this.mongoTemplate = mongoTemplate;
+        this.fundCatalog = fundCatalog;
+        this.latestPriceCache = latestPriceCache;
+        this.maxPointsLimit = maxPointsLimit;
+    }
+
+    /**
+     * Records the NAV of a fund on a given day, replacing any value already recorded for that day,
+     * and passes it on to the {@link LatestPriceCache}.
+     *
+     * @param fundId The ID of the fund.
+     * @param date   The day the NAV applies to.
+     * @param nav    The NAV per unit. It is rounded to {@value NavBucket#NAV_SCALE} decimal places.
+     * @throws RuntimeException if the fund does not exist, or the date or NAV is missing or the NAV is not positive.
+     */
+    public void record(String fundId, LocalDate date, BigDecimal nav) {
+        fundCatalog.findById(fundId).orElseThrow(() -> new RuntimeException("Fund not found with ID: " + fundId));
+        if (date == null) {
+            throw new RuntimeException("The NAV date is required.");
+        }
+        if (nav == null || nav.signum() <= 0) {
+            throw new RuntimeException("The NAV of fund " + fundId + " must be positive.");
+        }
+        long units = nav.setScale(NavBucket.NAV_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+
+        LocalDate month = date.withDayOfMonth(1);
+        Query bucket = new Query(Criteria.where("id").is(bucketId(fundId, month)));
+        // The array has to exist before one of its slots can be set: creating it and setting the slot
+        // in the same update would be rejected as a conflict on the "navUnits" path.
+        mongoTemplate.upsert(bucket, new Update()
+                .setOnInsert("fundId", fundId)
+                .setOnInsert("month", month)
+                .setOnInsert("navUnits", Collections.nCopies(NavBucket.SLOTS, 0L)), NavBucket.class);
+        mongoTemplate.updateFirst(bucket, new Update().set("navUnits." + (date.getDayOfMonth() - 1), units), NavBucket.class);
+        latestPriceCache.update(fundId, date, BigDecimal.valueOf(units, NavBucket.NAV_SCALE));
+    }
+
+    /**
+     * Retrieves the NAV history of a fund between two days, down-sampled to at most {@code maxPoints} points.
+     *
+     * @param fundId    The ID of the fund.
+     * @param from      The first day of the range, inclusive.
+     * @param to        The last day of the range, inclusive.
+     * @param maxPoints The largest number of points to return. It is capped by {@code fondos.funds.nav.max-points}.
+     * @return A {@link NavHistoryDTO} with the points of the range in ascending date order.
+     * @throws RuntimeException if the fund does not exist, the range is missing or inverted, or {@code maxPoints} is not positive.
+     */
+    public NavHistoryDTO getHistory(String fundId, LocalDate from, LocalDate to, int maxPoints) {
+        fundCatalog.findById(fundId).orElseThrow(() -> new RuntimeException("Fund not found with ID: " + fundId));
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new RuntimeException("A valid date range is required.");
+        }
+        if (maxPoints <= 0) {
+            throw new RuntimeException("The number of points must be positive.");
+        }
+        int limit = Math.min(maxPoints, maxPointsLimit);
+
+        Query query = new Query(Criteria.where("fundId").is(fundId)
+                .and("month").gte(from.withDayOfMonth(1)).lte(to.withDayOfMonth(1)))
+                .with(Sort.by(Sort.Direction.ASC, "month"));
+        List<NavBucket> buckets = mongoTemplate.find(query, NavBucket.class);
+
+        int capacity = buckets.size() * NavBucket.SLOTS;
+        long[] days = new long[capacity];
+        long[] values = new long[capacity];
+        int count = 0;
+        long firstDay = from.toEpochDay();
+        long lastDay = to.toEpochDay();
+        for (NavBucket bucket : buckets) {
+            long[] slots = bucket.getNavUnits();
+            long monthStart = bucket.getMonth().toEpochDay();
+            int length = Math.min(slots.length, bucket.getMonth().lengthOfMonth());
+            for (int slot = 0; slot < length; slot++) {
+                long day = monthStart + slot;
+                if (slots[slot] != 0 && day >= firstDay && day <= lastDay) {
+                    days[count] = day;
+                    values[count] = slots[slot];
+                    count++;
+                }
+            }
+        }
+
+        int points = Math.min(count, limit);
+        List<LocalDate> dates = new ArrayList<>(points);
+        List<BigDecimal> navs = new ArrayList<>(points);
+        for (int point = 0; point < points; point++) {
+            // The last observation of each of the "points" equally sized intervals.
+            int index = (int) (((long) (point + 1) * count) / points) - 1;
+            dates.add(LocalDate.ofEpochDay(days[index]));
+            navs.add(BigDecimal.valueOf(values[index], NavBucket.NAV_SCALE));
+        }
+        return new NavHistoryDTO(fundId, from, to, count > points, dates, navs);
+    }
+
+    /**
+     * Builds the ID of the bucket holding a fund's prices for a month.
+     *
+     * @param fundId The ID of the fund.
+     * @param month  The first day of the month.
+     * @return The bucket ID, {@code fundId:yyyy-MM}.
+     */
+    private static String bucketId(String fundId, LocalDate month) {
+        return fundId + ":" + month.format(BUCKET_MONTH);
+    }
+}
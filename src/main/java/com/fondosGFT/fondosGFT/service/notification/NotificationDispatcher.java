@@ -0,0 +1,161 @@
+package com.fondosGFT.fondosGFT.service.notification;
+
+import com.fondosGFT.fondosGFT.model.notification.NotificationOutbox;
+import com.fondosGFT.fondosGFT.repository.notification.NotificationOutboxRepository;
+import com.fondosGFT.fondosGFT.util.NotificationRequest;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background component that drains the notification outbox.
+ * On every poll it claims a batch of eligible entries and delivers them through the
+ * {@link NotificationService} on a dedicated pool, so the number of concurrent AWS SES/SNS
+ * calls is bounded independently of the request threads.
+ * <p>
+ * Entries are claimed with a conditional {@code findAndModify}, which makes it safe to run
+ * the dispatcher on several application instances at once. Failed deliveries are retried
+ * with a linear backoff until {@code maxAttempts} is reached.
+ * </p>
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationService notificationService;
+    private final MongoTemplate mongoTemplate;
+    private final ExecutorService deliveryExecutor;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long leaseSeconds;
+
+    /**
+     * Constructs a new NotificationDispatcher.
+     *
+     * @param outboxRepository    The repository for reading outbox entries.
+     * @param notificationService The service that performs the actual SES/SNS delivery.
+     * @param mongoTemplate       The MongoTemplate used to claim and complete entries atomically.
+     * @param batchSize           The maximum number of entries claimed per poll.
+     * @param concurrency         The maximum number of deliveries running at the same time.
+     * @param maxAttempts         The number of attempts after which an entry is marked as failed.
+     * @param leaseSeconds        How long a claimed entry stays invisible to other dispatchers.
+     */
+    @Autowired
+    public NotificationDispatcher(
+            NotificationOutboxRepository outboxRepository,
+            NotificationService notificationService,
+            MongoTemplate mongoTemplate,
+            @Value("${fondos.notifications.outbox.batch-size:50}") int batchSize,
+            @Value("${fondos.notifications.outbox.concurrency:4}") int concurrency,
+            @Value("${fondos.notifications.outbox.max-attempts:5}") int maxAttempts,
+            @Value("${fondos.notifications.outbox.lease-seconds:60}") long leaseSeconds) {
+        this.outboxRepository = outboxRepository;
+        this.notificationService = notificationService;
+        this.mongoTemplate = mongoTemplate;
+        this.deliveryExecutor = Executors.newFixedThreadPool(concurrency);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    /**
+     * Claims and delivers one batch of outbox entries.
+     * The next poll starts only after the current batch has completed.
+     */
+    @Scheduled(fixedDelayString = "${fondos.notifications.outbox.poll-interval-ms:1000}")
+    public void dispatchPending() {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> candidates = outboxRepository.findByStatusInAndAvailableAtLessThanEqualOrderByAvailableAtAsc(
+                List.of(NotificationOutbox.STATUS_PENDING, NotificationOutbox.STATUS_SENDING), now, PageRequest.of(0, batchSize));
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>();
+        for (NotificationOutbox candidate : candidates) {
+            NotificationOutbox claimed = claim(candidate.getId(), now);
+            if (claimed != null) {
+                deliveries.add(CompletableFuture.runAsync(() -> deliver(claimed), deliveryExecutor));
+            }
+        }
+        CompletableFuture.allOf(deliveries.toArray(new CompletableFuture[0])).join();
+        log.debug("Dispatched {} outbox notifications", deliveries.size());
+    }
+
+    /**
+     * Atomically claims an outbox entry, extending its lease and counting the attempt.
+     *
+     * @param id  The ID of the entry to claim.
+     * @param now The current time used for the eligibility check.
+     * @return The claimed entry, or {@code null} if another dispatcher claimed it first.
+     */
+    private NotificationOutbox claim(String id, LocalDateTime now) {
+        Query query = new Query(Criteria.where("id").is(id)
+                .and("status").in(NotificationOutbox.STATUS_PENDING, NotificationOutbox.STATUS_SENDING)
+                .and("availableAt").lte(now));
+        Update update = new Update()
+                .set("status", NotificationOutbox.STATUS_SENDING)
+                .set("availableAt", now.plusSeconds(leaseSeconds))
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), NotificationOutbox.class);
+    }
+
+    /**
+     * Delivers a claimed entry and records the outcome.
+     *
+     * @param entry The claimed {@link NotificationOutbox} entry.
+     */
+    private void deliver(NotificationOutbox entry) {
+        NotificationRequest request = NotificationRequest.builder()
+                .addressee(entry.getAddressee())
+                .subject(entry.getSubject())
+                .message(entry.getMessage())
+                .type(entry.getType())
+                .build();
+
+        Update update = new Update();
+        if (notificationService.deliver(request)) {
+            update.set("status", NotificationOutbox.STATUS_SENT).unset("errorMessage");
+        } else if (entry.getAttempts() >= maxAttempts) {
+            log.error("Giving up on notification {} for {} after {} attempts", entry.getId(), entry.getAddressee(), entry.getAttempts());
+            update.set("status", NotificationOutbox.STATUS_FAILED)
+                    .set("errorMessage", "Delivery failed after " + entry.getAttempts() + " attempts");
+        } else {
+            update.set("status", NotificationOutbox.STATUS_PENDING)
+                    .set("availableAt", LocalDateTime.now().plusSeconds((long) entry.getAttempts() * leaseSeconds))
+                    .set("errorMessage", "Delivery attempt " + entry.getAttempts() + " failed");
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(entry.getId())), update, NotificationOutbox.class);
+    }
+
+    /**
+     * Stops the delivery pool, giving in-flight deliveries a short grace period to finish.
+     *
+     * @throws InterruptedException if interrupted while waiting for the pool to terminate.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        deliveryExecutor.shutdown();
+        if (!deliveryExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+            deliveryExecutor.shutdownNow();
+        }
+    }
+}
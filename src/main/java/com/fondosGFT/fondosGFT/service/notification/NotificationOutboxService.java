@@ -0,0 +1,93 @@
+package com.fondosGFT.fondosGFT.service.notification;
+
+import com.fondosGFT.fondosGFT.model.notification.NotificationOutbox;
+import com.fondosGFT.fondosGFT.repository.notification.NotificationOutboxRepository;
+import com.fondosGFT.fondosGFT.util.NotificationRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Service class responsible for writing notifications to the transactional outbox.
+ * Callers record the notification next to the ledger write and return immediately;
+ * delivery through AWS SES/SNS is performed later by the {@link NotificationDispatcher}.
+ * <p>
+ * {@code @Service} indicates that this class is a Spring service component.
+ * {@code @Slf4j} provides a logger instance named 'log' for logging messages.
+ * </p>
+ */
+@Service
+@Slf4j
+public class NotificationOutboxService {
+
+    private final NotificationOutboxRepository outboxRepository;
+
+    /**
+     * Constructs a new NotificationOutboxService with the required repository.
+     * Spring's dependency injection automatically provides these instances.
+     *
+     * @param outboxRepository The repository for managing outbox entries.
+     */
+    @Autowired
+    public NotificationOutboxService(NotificationOutboxRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    /**
+     * Records a notification in the outbox so it is delivered asynchronously.
+     *
+     * @param request       The {@link NotificationRequest} to deliver. Its addressee must already be resolved.
+     * @param transactionId The business transaction ID of the operation that produced the notification.
+     * @return The saved {@link NotificationOutbox} entry.
+     */
+    public NotificationOutbox enqueue(NotificationRequest request, String transactionId) {
+        NotificationOutbox saved = outboxRepository.save(toOutboxEntry(request, transactionId, LocalDateTime.now()));
+        log.debug("Notification queued for {} (TransactionID={})", request.getAddressee(), transactionId);
+        return saved;
+    }
+
+    /**
+     * Records several notifications in the outbox with a single insert.
+     *
+     * @param requestsByTransactionId The {@link NotificationRequest}s to deliver, keyed by the business
+     * transaction ID of the operation that produced each one.
+     */
+    public void enqueueAll(Map<String, NotificationRequest> requestsByTransactionId) {
+        if (requestsByTransactionId.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> entries = requestsByTransactionId.entrySet().stream()
+                .map(entry -> toOutboxEntry(entry.getValue(), entry.getKey(), now))
+                .collect(Collectors.toList());
+        outboxRepository.insert(entries);
+        log.debug("{} notifications queued", entries.size());
+    }
+
+    /**
+     * Builds a pending outbox entry for a notification request.
+     *
+     * @param request       The {@link NotificationRequest} to deliver.
+     * @param transactionId The business transaction ID of the operation that produced the notification.
+     * @param now           The creation time, which is also the time the entry becomes claimable.
+     * @return A new, unsaved {@link NotificationOutbox} entry.
+     */
+    private NotificationOutbox toOutboxEntry(NotificationRequest request, String transactionId, LocalDateTime now) {
+        NotificationOutbox entry = new NotificationOutbox();
+        entry.setTransactionId(transactionId);
+        entry.setAddressee(request.getAddressee());
+        entry.setSubject(request.getSubject());
+        entry.setMessage(request.getMessage());
+        entry.setType(request.getType());
+        entry.setStatus(NotificationOutbox.STATUS_PENDING);
+        entry.setAttempts(0);
+        entry.setCreatedAt(now);
+        entry.setAvailableAt(now);
+        return entry;
+    }
+}
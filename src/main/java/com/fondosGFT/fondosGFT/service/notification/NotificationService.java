@@ -1,9 +1,12 @@
 package com.fondosGFT.fondosGFT.service.notification;
 
 import com.fondosGFT.fondosGFT.util.NotificationRequest;
+import com.fondosGFT.fondosGFT.util.RequestTimings;
 import com.pruebagft.gestionFondosGFT.util.enums.NotificationType;
 import io.awspring.cloud.ses.SimpleEmailServiceMailSender;
 import io.awspring.cloud.sns.core.SnsTemplate;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,6 +20,11 @@ import org.springframework.stereotype.Service;
  * This service integrates with AWS SES for email and AWS SNS for SMS, allowing the application
  * to send messages based on client preferences.
  * <p>
+ * Every SES and SNS call is timed in {@value #DELIVERY_TIMER}, tagged by {@code channel} ({@code email} or
+ * {@code sms}) and {@code outcome} ({@code success} or {@code failure}), with a percentile histogram, and
+ * added to the {@code notify} stage of the current {@link RequestTimings} when sent on a request thread.
+ * </p>
+ * <p>
  * {@code @Service} indicates that this class is a Spring service component,
  * eligible for Spring's component scanning and dependency injection.
  * {@code @Slf4j} provides a logger instance named 'log' for logging messages.
@@ -28,6 +36,12 @@ public class NotificationService {
 
     private final SimpleEmailServiceMailSender mailSender;
     private final SnsTemplate snsTemplate;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Timer of the SES and SNS calls.
+     */
+    public static final String DELIVERY_TIMER = "fondos.notifications.delivery";
 
     /**
      * The email address used as the sender for SES notifications, configured via application properties.
@@ -41,11 +55,13 @@ public class NotificationService {
      *
      * @param mailSender The mail sender for sending emails, typically configured for AWS SES.
      * @param snsTemplate The SNS template for sending SMS messages, configured for AWS SNS.
+     * @param meterRegistry The registry the delivery timers are published to.
      */
     @Autowired
-    public NotificationService(SimpleEmailServiceMailSender mailSender, SnsTemplate snsTemplate) {
+    public NotificationService(SimpleEmailServiceMailSender mailSender, SnsTemplate snsTemplate, MeterRegistry meterRegistry) {
         this.mailSender = mailSender;
         this.snsTemplate = snsTemplate;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -57,18 +73,33 @@ public class NotificationService {
      * including its type, addressee, subject, and message.
      */
     public void sendNotification(NotificationRequest request) {
+        deliver(request);
+    }
+
+    /**
+     * Sends a notification and reports whether it was delivered.
+     * This is used by the {@link NotificationDispatcher} to decide whether an outbox entry
+     * must be retried. Requests without an addressee or with a type that requires no
+     * notification are considered delivered, since retrying them can never succeed.
+     *
+     * @param request The {@link NotificationRequest} containing details about the notification.
+     * @return {@code true} if the notification was sent or nothing had to be sent,
+     * {@code false} if the underlying SES/SNS call failed.
+     */
+    public boolean deliver(NotificationRequest request) {
         // Add a general check for the recipient
         if (request.getAddressee() == null || request.getAddressee().trim().isEmpty()) {
             log.warn("Cannot send notification for type {} because the addressee is empty or null.", request.getType());
-            return; // Exit the method if there's no recipient
+            return true; // Exit the method if there's no recipient
         }
 
         if (request.getType() == NotificationType.EMAIL) {
-            sendEmail(request);
+            return sendEmail(request);
         } else if (request.getType() == NotificationType.SMS) {
-            sendSms(request);
+            return sendSms(request);
         } else {
             log.info("No notification required for type: {}", request.getType());
+            return true;
         }
     }
 
@@ -78,8 +109,10 @@ public class NotificationService {
      *
      * @param request The {@link NotificationRequest} containing email-specific details
      * like the recipient's email address, subject, and message body.
+     * @return {@code true} if the email was accepted by SES, {@code false} otherwise.
      */
-    private void sendEmail(NotificationRequest request) {
+    private boolean sendEmail(NotificationRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
             SimpleMailMessage mailMessage = new SimpleMailMessage();
             mailMessage.setFrom(sesFromAddress);
@@ -88,10 +121,13 @@ public class NotificationService {
             mailMessage.setText(request.getMessage());
 
             mailSender.send(mailMessage);
+            RequestTimings.record("notify", sample.stop(deliveryTimer("email", "success")));
             log.info("Email sent to: {} with subject: {}", request.getAddressee(), request.getSubject());
+            return true;
         } catch (Exception e) {
+            RequestTimings.record("notify", sample.stop(deliveryTimer("email", "failure")));
             log.error("Error sending email to {}: {}", request.getAddressee(), e.getMessage());
-            // Here you could throw a custom exception or handle the error
+            return false;
         }
     }
 
@@ -101,16 +137,38 @@ public class NotificationService {
      *
      * @param request The {@link NotificationRequest} containing SMS-specific details
      * like the recipient's phone number and the message body.
+     * @return {@code true} if the SMS was accepted by SNS, {@code false} otherwise.
      */
-    private void sendSms(NotificationRequest request) {
+    private boolean sendSms(NotificationRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
             Message<String> snsMessage = MessageBuilder.withPayload(request.getMessage()).build();
             snsTemplate.send(request.getAddressee(), snsMessage);
+            RequestTimings.record("notify", sample.stop(deliveryTimer("sms", "success")));
 
             log.info("SMS sent to: {}", request.getAddressee());
+            return true;
         } catch (Exception e) {
+            RequestTimings.record("notify", sample.stop(deliveryTimer("sms", "failure")));
             log.error("Error sending SMS to {}: {}", request.getAddressee(), e.getMessage());
-            // Here you could throw a custom exception or handle the error
+            return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the delivery timer of a channel and outcome.
+     *
+     * @param channel The notification channel, {@code email} or {@code sms}.
+     * @param outcome {@code success} or {@code failure}.
+     * @return The timer.
+     */
+    private Timer deliveryTimer(String channel, String outcome) {
+        return Timer.builder(DELIVERY_TIMER)
+                .description("Duration of the SES and SNS notification calls")
+                .tag("channel", channel)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99, 0.999)
+                .register(meterRegistry);
+    }
+}
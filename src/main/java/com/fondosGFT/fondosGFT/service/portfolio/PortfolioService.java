@@ -0,0 +1,136 @@
+package com.fondosGFT.fondosGFT.service.portfolio;
+
+import com.fondosGFT.fondosGFT.model.client.Client;
+import com.fondosGFT.fondosGFT.model.fund.Fund;
+import com.fondosGFT.fondosGFT.model.investment.Investment;
+import com.fondosGFT.fondosGFT.model.portfolio.dto.PortfolioPositionDTO;
+import com.fondosGFT.fondosGFT.model.portfolio.dto.PortfolioResponseDTO;
+import com.fondosGFT.fondosGFT.service.client.ClientService;
+import com.fondosGFT.fondosGFT.service.nav.LatestPriceCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service valuing a client's positions at the latest fund prices.
+ * The client and its investments come from {@link ClientService}, which serves them from the clients cache,
+ * and the prices from the {@link LatestPriceCache}, so a valuation costs at most one client read and no
+ * database lookup per fund.
+ */
+@Service
+public class PortfolioService {
+
+    /**
+     * Decimal places of the monetary amounts of a valuation.
+     */
+    private static final int AMOUNT_SCALE = 2;
+
+    /**
+     * Decimal places of the percentages of a valuation.
+     */
+    private static final int PERCENTAGE_SCALE = 2;
+
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+    private final ClientService clientService;
+    private final LatestPriceCache latestPriceCache;
+
+    /**
+     * Constructs a new PortfolioService.
+     *
+     * @param clientService    The service providing the client and its investments.
+     * @param latestPriceCache The in-memory cache of the latest fund prices.
+     */
+    @Autowired
+    public PortfolioService(ClientService clientService, LatestPriceCache latestPriceCache) {
+        this.clientService = clientService;
+        this.latestPriceCache = latestPriceCache;
+    }
+
+    /**
+     * Values a client's portfolio at the latest fund prices.
+     * Each position reports its market value, its profit or loss against the amount invested and its
+     * share of the total market value of the positions; the cash balance is reported separately.
+     *
+     * @param clientId The unique ID of the client.
+     * @return An {@link Optional} containing the {@link PortfolioResponseDTO}, or empty if the client does not exist.
+     */
+    public Optional<PortfolioResponseDTO> getPortfolio(String clientId) {
+        return clientService.getClienteById(clientId).map(this::valuePortfolio);
+    }
+
+    /**
+     * Values every position of a client and computes the portfolio totals and allocations.
+     *
+     * @param client The client, with its active investments.
+     * @return The valued portfolio.
+     */
+    private PortfolioResponseDTO valuePortfolio(Client client) {
+        List<Investment> investments = client.getActiveInvestments() != null ? client.getActiveInvestments() : List.of();
+        List<PortfolioPositionDTO> positions = new ArrayList<>(investments.size());
+        BigDecimal totalInvested = BigDecimal.ZERO;
+        BigDecimal totalMarketValue = BigDecimal.ZERO;
+        for (Investment investment : investments) {
+            PortfolioPositionDTO position = valuePosition(investment);
+            positions.add(position);
+            totalInvested = totalInvested.add(position.getInvestedAmount());
+            totalMarketValue = totalMarketValue.add(position.getMarketValue());
+        }
+        for (PortfolioPositionDTO position : positions) {
+            position.setAllocationPercentage(percentage(position.getMarketValue(), totalMarketValue));
+        }
+        return new PortfolioResponseDTO(
+                client.getId(),
+                client.getCurrentBalance(),
+                totalInvested,
+                totalMarketValue,
+                totalMarketValue.subtract(totalInvested),
+                positions);
+    }
+
+    /**
+     * Values a single investment at the latest price of its fund.
+     * Investments without units hold as many units as the amount invested, bought at the initial unit price.
+     *
+     * @param investment The investment to value.
+     * @return The valued position, without its allocation percentage.
+     */
+    private PortfolioPositionDTO valuePosition(Investment investment) {
+        BigDecimal invested = investment.getInitialAmountInvested();
+        BigDecimal units = investment.getUnits() != null
+                ? investment.getUnits()
+                : invested.divide(Fund.INITIAL_UNIT_PRICE, Investment.UNITS_SCALE, RoundingMode.HALF_EVEN);
+        BigDecimal unitPrice = latestPriceCache.getPrice(investment.getFundId());
+        BigDecimal marketValue = units.multiply(unitPrice).setScale(AMOUNT_SCALE, RoundingMode.HALF_EVEN);
+        BigDecimal profitAndLoss = marketValue.subtract(invested);
+        return new PortfolioPositionDTO(
+                investment.getFundId(),
+                investment.getFundName(),
+                units,
+                unitPrice,
+                invested,
+                marketValue,
+                profitAndLoss,
+                percentage(profitAndLoss, invested),
+                null);
+    }
+
+    /**
+     * Expresses an amount as a percentage of a total.
+     *
+     * @param amount The amount.
+     * @param total  The total.
+     * @return The percentage, or zero if the total is zero.
+     */
+    private static BigDecimal percentage(BigDecimal amount, BigDecimal total) {
+        if (total.signum() == 0) {
+            return BigDecimal.ZERO.setScale(PERCENTAGE_SCALE);
+        }
+        return amount.multiply(ONE_HUNDRED).divide(total, PERCENTAGE_SCALE, RoundingMode.HALF_EVEN);
+    }
+}
@@ -0,0 +1,162 @@
+package com.fondosGFT.fondosGFT.service.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded retry policy for work that lost a race with a concurrent write to the same client, such as a save
+ * rejected by the client's {@code @Version} check or a MongoDB transaction aborted by a write conflict.
+ * <p>
+ * The work is run again up to {@code fondos.contention.max-attempts} times in total. Before each retry the
+ * thread sleeps for a random time between 0 and {@code base-backoff-ms * 2^(retry - 1)}, capped at
+ * {@code max-backoff-ms} ("full jitter"), so requests that collided once do not collide again in lockstep.
+ * Nothing is locked: requests for different clients never wait for each other.
+ * </p>
+ * <p>
+ * Every retry is counted in {@value #RETRIES_COUNTER} and every exhausted retry budget in
+ * {@value #EXHAUSTED_COUNTER}, tagged by {@code operation} and {@code reason}. Client IDs would make the
+ * metrics unbounded, so hot clients are found through the log line written for each retry instead.
+ * </p>
+ */
+@Component
+@Slf4j
+public class ContentionRetryPolicy {
+
+    /**
+     * Counter of the retries caused by contention.
+     */
+    public static final String RETRIES_COUNTER = "fondos.contention.retries";
+
+    /**
+     * Counter of the operations that still conflicted after the last attempt.
+     */
+    public static final String EXHAUSTED_COUNTER = "fondos.contention.exhausted";
+
+    /**
+     * Reason of the conflicts detected by the {@code @Version} check.
+     */
+    public static final String VERSION_CONFLICT = "version-conflict";
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+
+    /**
+     * Constructs a new ContentionRetryPolicy.
+     *
+     * @param meterRegistry The registry the contention counters are published to.
+     * @param maxAttempts   The maximum number of times the work is run.
+     * @param baseBackoffMs The upper bound of the pause before the first retry, in milliseconds.
+     * @param maxBackoffMs  The cap of the pause before any retry, in milliseconds.
+     */
+    @Autowired
+    public ContentionRetryPolicy(
+            MeterRegistry meterRegistry,
+            @Value("${fondos.contention.max-attempts:5}") int maxAttempts,
+            @Value("${fondos.contention.base-backoff-ms:5}") long baseBackoffMs,
+            @Value("${fondos.contention.max-backoff-ms:200}") long maxBackoffMs) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    /**
+     * Classifies {@link OptimisticLockingFailureException}s as {@value #VERSION_CONFLICT}s.
+     *
+     * @param exception The exception thrown by the work.
+     * @return {@value #VERSION_CONFLICT}, or {@code null} if the exception is not a version conflict.
+     */
+    public static String versionConflict(RuntimeException exception) {
+        return exception instanceof OptimisticLockingFailureException ? VERSION_CONFLICT : null;
+    }
+
+    /**
+     * Runs the work, running it again after a jittered pause whenever it fails because of contention.
+     * Each attempt must re-read the state it modifies.
+     *
+     * @param operation The name of the operation, used as a metric tag.
+     * @param clientId  The client the work modifies, used in the log.
+     * @param conflict  Returns the reason of a contention failure, or {@code null} for any other failure.
+     * @param work      The work to run.
+     * @param <T>       The type of its result.
+     * @return The result of the work.
+     * @throws RuntimeException any failure that is not contention, or the last contention failure once the
+     * attempts are exhausted.
+     */
+    public <T> T execute(String operation, String clientId, Function<RuntimeException, String> conflict, Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return work.get();
+            } catch (RuntimeException e) {
+                String reason = conflict.apply(e);
+                if (reason == null) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    counter(EXHAUSTED_COUNTER, operation, reason).increment();
+                    log.warn("Contention on client {} during {}: {} still failing after {} attempts", clientId, operation, reason, attempt);
+                    throw e;
+                }
+                counter(RETRIES_COUNTER, operation, reason).increment();
+                log.info("Contention on client {} during {}: {}, retry {} of {}", clientId, operation, reason, attempt, maxAttempts - 1);
+                pause(attempt);
+            }
+        }
+    }
+
+    /**
+     * Returns a contention counter.
+     *
+     * @param name      The counter name.
+     * @param operation The operation tag.
+     * @param reason    The reason tag.
+     * @return The counter.
+     */
+    private Counter counter(String name, String operation, String reason) {
+        return Counter.builder(name)
+                .tag("operation", operation)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Draws the pause before a retry: a random time between 0 and {@code base-backoff-ms * 2^(attempt - 1)},
+     * capped at {@code max-backoff-ms}.
+     *
+     * @param attempt The number of the attempt that failed, starting at 1.
+     * @return The pause, in milliseconds.
+     */
+    public long backoffMs(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Sleeps for a random time before a retry.
+     *
+     * @param attempt The number of the attempt that failed, starting at 1.
+     */
+    private void pause(int attempt) {
+        long pause = backoffMs(attempt);
+        if (pause <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to retry", e);
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.fondosGFT.fondosGFT.service.revaluation;
+
+import com.fondosGFT.fondosGFT.model.fund.Fund;
+import com.fondosGFT.fondosGFT.model.investment.Investment;
+import com.fondosGFT.fondosGFT.model.revaluation.dto.RevaluationResultDTO;
+import com.fondosGFT.fondosGFT.service.client.ClientService;
+import com.fondosGFT.fondosGFT.service.fund.FundCatalog;
+import com.fondosGFT.fondosGFT.service.nav.NavService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Mark-to-market revaluation engine for {@link Investment#getCurrentAmount()}.
+ * Given a new unit price per fund, it recomputes the current amount of every investment in those funds
+ * as {@code units x unitPrice} and records the price on the fund, so later subscriptions buy units at it,
+ * and in the fund's NAV history for the valuation day.
+ * <p>
+ * The investments are split into {@code partitions} contiguous {@code _id} ranges of similar size with a
+ * {@code $bucketAuto} stage, and the partitions are revalued in parallel on a fixed pool. Each partition
+ * reads its investments from a cursor, projected to the fields needed for the valuation, and writes the
+ * new values with unordered bulk updates of {@code bulkSize} operations, so memory use stays bounded and
+ * the number of round trips is proportional to the number of investments divided by {@code bulkSize}.
+ * </p>
+ * <p>
+ * Progress, throughput, the number of revalued positions, the failed runs and the duration of each run are
+ * published as Micrometer metrics under {@code fondos.revaluation.*}. Only one revaluation runs at a time:
+ * a run is only reported finished once every partition has stopped, and the first failing partition makes
+ * the others stop at their next investment.
+ * </p>
+ * <p>
+ * {@link #submit(Map)} runs the revaluation in the background on its own thread, so an HTTP request does
+ * not have to wait for it; {@link #revalue(Map)} runs it on the calling thread.
+ * </p>
+ */
+@Service
+@Slf4j
+public class RevaluationService {
+
+    /**
+     * Decimal places of a revalued {@code currentAmount}.
+     */
+    private static final int AMOUNT_SCALE = 2;
+
+    private final MongoTemplate mongoTemplate;
+    private final FundCatalog fundCatalog;
+    private final NavService navService;
+    private final CacheManager cacheManager;
+    private final ExecutorService runExecutor;
+    private final ExecutorService partitionExecutor;
+    private final int partitions;
+    private final int bulkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong processedPositions = new AtomicLong();
+    private final AtomicLong totalPositions = new AtomicLong();
+    private volatile long runStartNanos;
+    private volatile double lastPositionsPerSecond;
+
+    private final Counter revaluedPositions;
+    private final Counter failedRuns;
+    private final Timer runDuration;
+
+    /**
+     * Constructs a new RevaluationService and registers its metrics.
+     *
+     * @param mongoTemplate The MongoTemplate used to read and update investments.
+     * @param fundCatalog   The in-memory catalog used to look up and refresh funds.
+     * @param navService    The NAV history the new unit prices are recorded in.
+     * @param cacheManager  The cache manager holding the clients cache, cleared after each run.
+     * @param meterRegistry The registry the revaluation metrics are published to.
+     * @param parallelism   The maximum number of partitions revalued at the same time.
+     * @param partitions    The number of partitions the investments are split into.
+     * @param bulkSize      The number of updates sent per bulk write.
+     */
+    @Autowired
+    public RevaluationService(
+            MongoTemplate mongoTemplate,
+            FundCatalog fundCatalog,
+            NavService navService,
+            CacheManager cacheManager,
+            MeterRegistry meterRegistry,
+            @Value("${fondos.revaluation.parallelism:4}") int parallelism,
+            @Value("${fondos.revaluation.partitions:16}") int partitions,
+            @Value("${fondos.revaluation.bulk-size:1000}") int bulkSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.fundCatalog = fundCatalog;
+        this.navService = navService;
+        this.cacheManager = cacheManager;
+        this.runExecutor = Executors.newSingleThreadExecutor();
+        this.partitionExecutor = Executors.newFixedThreadPool(parallelism);
+        this.partitions = partitions;
+        this.bulkSize = bulkSize;
+
+        this.revaluedPositions = Counter.builder("fondos.revaluation.positions")
+                .description("Investments revalued")
+                .register(meterRegistry);
+        this.failedRuns = Counter.builder("fondos.revaluation.failures")
+                .description("Revaluation runs that failed")
+                .register(meterRegistry);
+        this.runDuration = Timer.builder("fondos.revaluation.duration")
+                .description("Duration of complete revaluation runs")
+                .register(meterRegistry);
+        Gauge.builder("fondos.revaluation.progress", this, RevaluationService::progress)
+                .description("Fraction of the current revaluation run completed, 1 when idle")
+                .register(meterRegistry);
+        Gauge.builder("fondos.revaluation.throughput", this, RevaluationService::positionsPerSecond)
+                .description("Investments revalued per second by the current or last run")
+                .baseUnit("positions/s")
+                .register(meterRegistry);
+        Gauge.builder("fondos.revaluation.running", running, flag -> flag.get() ? 1 : 0)
+                .description("Whether a revaluation is running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Revalues every investment in the given funds at their new unit prices, on the calling thread.
+     * The clients cache is cleared afterwards, since it holds the clients' investments.
+     *
+     * @param unitPrices The new unit price of each fund to revalue, keyed by fund ID.
+     * @return A {@link RevaluationResultDTO} summarizing the run.
+     * @throws RuntimeException if no price is given, a fund does not exist, a price is not positive,
+     * another revaluation is running, or a partition fails.
+     */
+    public RevaluationResultDTO revalue(Map<String, BigDecimal> unitPrices) {
+        start(unitPrices);
+        try {
+            return run(unitPrices);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Starts revaluing every investment in the given funds at their new unit prices, in the background.
+     * The request is validated and the run claimed before returning, so a second revaluation is refused at once;
+     * the progress of the run is published through the {@code fondos.revaluation.*} metrics.
+     *
+     * @param unitPrices The new unit price of each fund to revalue, keyed by fund ID.
+     * @return A {@link CompletableFuture} completed with the {@link RevaluationResultDTO} of the run, or
+     * exceptionally if a partition fails.
+     * @throws RuntimeException if no price is given, a fund does not exist, a price is not positive,
+     * or another revaluation is running.
+     */
+    public CompletableFuture<RevaluationResultDTO> submit(Map<String, BigDecimal> unitPrices) {
+        start(unitPrices);
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return run(unitPrices);
+                } finally {
+                    running.set(false);
+                }
+            }, runExecutor);
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            throw new RuntimeException("The revaluation could not be started: the application is shutting down.", e);
+        }
+    }
+
+    /**
+     * Validates the unit prices of a revaluation and claims the single revaluation slot.
+     *
+     * @param unitPrices The new unit price of each fund to revalue, keyed by fund ID.
+     * @throws RuntimeException if no price is given, a fund does not exist, a price is not positive,
+     * or another revaluation is running.
+     */
+    private void start(Map<String, BigDecimal> unitPrices) {
+        if (unitPrices == null || unitPrices.isEmpty()) {
+            throw new RuntimeException("At least one fund unit price is required.");
+        }
+        unitPrices.forEach((fundId, price) -> {
+            fundCatalog.findById(fundId).orElseThrow(() -> new RuntimeException("Fund not found with ID: " + fundId));
+            if (price == null || price.signum() <= 0) {
+                throw new RuntimeException("The unit price of fund " + fundId + " must be positive.");
+            }
+        });
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("A revaluation is already running.");
+        }
+    }
+
+    /**
+     * Runs a claimed revaluation: revalues the partitions in parallel, waits for all of them, then records
+     * the unit prices and clears the clients cache.
+     *
+     * @param unitPrices The new unit price of each fund to revalue, keyed by fund ID.
+     * @return A {@link RevaluationResultDTO} summarizing the run.
+     * @throws RuntimeException if a partition fails.
+     */
+    private RevaluationResultDTO run(Map<String, BigDecimal> unitPrices) {
+        LocalDateTime valuationDate = LocalDateTime.now();
+        runStartNanos = System.nanoTime();
+        processedPositions.set(0);
+        List<Partition> ranges = partition(unitPrices);
+        totalPositions.set(ranges.stream().mapToLong(range -> range.expectedPositions).sum());
+        log.info("Revaluation of {} funds started: {} investments in {} partitions",
+                unitPrices.size(), totalPositions.get(), ranges.size());
+
+        AtomicBoolean aborted = new AtomicBoolean();
+        List<CompletableFuture<Long>> runs = ranges.stream()
+                .map(range -> CompletableFuture.supplyAsync(() -> revaluePartition(range, unitPrices, valuationDate, aborted), partitionExecutor)
+                        .whenComplete((revalued, failure) -> {
+                            if (failure != null) {
+                                aborted.set(true);
+                            }
+                        }))
+                .toList();
+        try {
+            // allOf completes once every partition has stopped, even when one of them failed early
+            CompletableFuture.allOf(runs.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            failedRuns.increment();
+            log.error("Revaluation failed after {} investments: {}", processedPositions.get(), e.getCause().getMessage());
+            throw new RuntimeException("The revaluation failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            Optional.ofNullable(cacheManager.getCache(ClientService.CLIENTS_CACHE)).ifPresent(Cache::clear);
+        }
+        long positions = runs.stream().mapToLong(CompletableFuture::join).sum();
+
+        recordUnitPrices(unitPrices);
+        unitPrices.forEach((fundId, price) -> navService.record(fundId, valuationDate.toLocalDate(), price));
+
+        long durationNanos = System.nanoTime() - runStartNanos;
+        runDuration.record(Duration.ofNanos(durationNanos));
+        lastPositionsPerSecond = ratePerSecond(positions, durationNanos);
+        log.info("Revaluation completed: {} investments in {} ms ({} positions/s)",
+                positions, durationNanos / 1_000_000, Math.round(lastPositionsPerSecond));
+        return new RevaluationResultDTO(valuationDate, unitPrices.size(), ranges.size(), positions,
+                durationNanos / 1_000_000, lastPositionsPerSecond);
+    }
+
+    /**
+     * Splits the investments of the given funds into contiguous {@code _id} ranges of similar size.
+     * The first and last ranges are open-ended, so investments created while the run is being
+     * prepared are still covered.
+     *
+     * @param unitPrices The unit prices of the funds to revalue, keyed by fund ID.
+     * @return The partitions, in {@code _id} order.
+     */
+    private List<Partition> partition(Map<String, BigDecimal> unitPrices) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("fundId").in(unitPrices.keySet())),
+                Aggregation.bucketAuto("_id", partitions));
+        List<Document> buckets = mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Investment.class), Document.class)
+                .getMappedResults();
+
+        List<Partition> ranges = new ArrayList<>(buckets.size());
+        for (int i = 0; i < buckets.size(); i++) {
+            Object lower = i == 0 ? null : buckets.get(i).get("_id", Document.class).get("min");
+            Object upper = i == buckets.size() - 1 ? null : buckets.get(i + 1).get("_id", Document.class).get("min");
+            ranges.add(new Partition(lower, upper, ((Number) buckets.get(i).get("count")).longValue()));
+        }
+        return ranges;
+    }
+
+    /**
+     * Revalues the investments of one partition, streaming them from a cursor and writing the new
+     * values with unordered bulk updates.
+     *
+     * @param range         The partition to revalue.
+     * @param unitPrices    The unit prices of the funds to revalue, keyed by fund ID.
+     * @param valuationDate The valuation date written to every revalued investment.
+     * @param aborted       Set when another partition has failed, which stops this one at its next investment.
+     * @return The number of investments revalued.
+     */
+    private long revaluePartition(Partition range, Map<String, BigDecimal> unitPrices, LocalDateTime valuationDate,
+                                  AtomicBoolean aborted) {
+        Query query = new Query(Criteria.where("fundId").in(unitPrices.keySet()));
+        if (range.lower != null || range.upper != null) {
+            Criteria idRange = Criteria.where("id");
+            if (range.lower != null) {
+                idRange.gte(range.lower);
+            }
+            if (range.upper != null) {
+                idRange.lt(range.upper);
+            }
+            query.addCriteria(idRange);
+        }
+        query.fields().include("fundId", "units", "initialAmountInvested");
+        query.cursorBatchSize(bulkSize);
+
+        long revalued = 0;
+        BulkOperations updates = null;
+        int pending = 0;
+        try (Stream<Investment> investments = mongoTemplate.stream(query, Investment.class)) {
+            Iterator<Investment> iterator = investments.iterator();
+            while (!aborted.get() && iterator.hasNext()) {
+                Investment investment = iterator.next();
+                if (updates == null) {
+                    updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Investment.class);
+                }
+                updates.updateOne(new Query(Criteria.where("id").is(investment.getId())), new Update()
+                        .set("currentAmount", new Decimal128(valueOf(investment, unitPrices.get(investment.getFundId()))))
+                        .set("lastValuationDate", valuationDate));
+                if (++pending == bulkSize) {
+                    revalued += flush(updates, pending);
+                    updates = null;
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            revalued += flush(updates, pending);
+        }
+        return revalued;
+    }
+
+    /**
+     * Executes one bulk write of a partition and publishes its progress.
+     *
+     * @param updates The bulk write to execute.
+     * @param count   The number of updates in the bulk write.
+     * @return The number of investments revalued.
+     */
+    private long flush(BulkOperations updates, int count) {
+        updates.execute();
+        long processed = processedPositions.addAndGet(count);
+        revaluedPositions.increment(count);
+        log.debug("Revaluation progress: {}/{} investments", processed, totalPositions.get());
+        return count;
+    }
+
+    /**
+     * Computes the market value of an investment at a unit price.
+     * Investments without units hold as many units as the amount invested, bought at the initial unit price.
+     *
+     * @param investment The investment, with its units and initial amount.
+     * @param unitPrice  The fund's unit price.
+     * @return The market value, rounded to {@value #AMOUNT_SCALE} decimal places.
+     */
+    private BigDecimal valueOf(Investment investment, BigDecimal unitPrice) {
+        BigDecimal units = investment.getUnits() != null
+                ? investment.getUnits()
+                : investment.getInitialAmountInvested().divide(Fund.INITIAL_UNIT_PRICE, Investment.UNITS_SCALE, RoundingMode.HALF_EVEN);
+        return units.multiply(unitPrice).setScale(AMOUNT_SCALE, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Stores the new unit prices on the funds and refreshes the fund catalog.
+     *
+     * @param unitPrices The new unit prices, keyed by fund ID.
+     */
+    private void recordUnitPrices(Map<String, BigDecimal> unitPrices) {
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Fund.class);
+        unitPrices.forEach((fundId, price) -> updates.updateOne(new Query(Criteria.where("id").is(fundId)),
+                new Update().set("unitPrice", new Decimal128(price))));
+        updates.execute();
+        fundCatalog.refresh();
+    }
+
+    /**
+     * Returns the fraction of the current run completed, or 1 when no run is in progress.
+     *
+     * @return The progress, between 0 and 1.
+     */
+    private double progress() {
+        long total = totalPositions.get();
+        if (!running.get() || total == 0) {
+            return 1.0;
+        }
+        return Math.min(1.0, (double) processedPositions.get() / total);
+    }
+
+    /**
+     * Returns the throughput of the current run, or of the last one when no run is in progress.
+     *
+     * @return The number of investments revalued per second.
+     */
+    private double positionsPerSecond() {
+        if (!running.get()) {
+            return lastPositionsPerSecond;
+        }
+        return ratePerSecond(processedPositions.get(), System.nanoTime() - runStartNanos);
+    }
+
+    /**
+     * Converts a count over an elapsed time into a rate per second.
+     *
+     * @param count        The number of items processed.
+     * @param elapsedNanos The elapsed time, in nanoseconds.
+     * @return The number of items per second.
+     */
+    private static double ratePerSecond(long count, long elapsedNanos) {
+        return elapsedNanos <= 0 ? 0 : count * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * Stops the run and partition pools when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        runExecutor.shutdown();
+        partitionExecutor.shutdown();
+    }
+
+    /**
+     * A contiguous range of investment IDs revalued by one task.
+     */
+    private static final class Partition {
+        private final Object lower;
+        private final Object upper;
+        private final long expectedPositions;
+
+        /**
+         * Constructs a new Partition.
+         *
+         * @param lower             The inclusive lower {@code _id} bound, or {@code null} if unbounded.
+         * @param upper             The exclusive upper {@code _id} bound, or {@code null} if unbounded.
+         * @param expectedPositions The number of investments in the range when the run started.
+         */
+        private Partition(Object lower, Object upper, long expectedPositions) {
+            this.lower = lower;
+            this.upper = upper;
+            this.expectedPositions = expectedPositions;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.fondosGFT.fondosGFT.service.transaction;
+
+import com.fondosGFT.fondosGFT.exception.PendingOperationsLimitException;
+import com.fondosGFT.fondosGFT.util.RequestTimings;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Optional executor running the operations of each client one at a time, in the order they arrive.
+ * <p>
+ * When {@code fondos.transactions.lanes.enabled} is set, {@code fondos.transactions.lanes.count} single-threaded
+ * lanes are started and every operation is routed to a lane by a hash of its client ID. Operations of one client
+ * therefore never run concurrently and so never contend for its documents, while different clients are spread
+ * over the lanes and proceed in parallel. The calling thread waits for its operation to complete, so callers
+ * see the same synchronous behaviour as without lanes.
+ * </p>
+ * <p>
+ * Ordering is per application instance: lanes suit single-node deployments, and several instances sharing a
+ * database still rely on the conditional writes of the {@link TransactionService}. Each lane queues at most
+ * {@code fondos.transactions.lanes.queue-capacity} operations; further operations are rejected with a
+ * {@link PendingOperationsLimitException}, answered with {@code 503} and a {@code Retry-After} of
+ * {@code fondos.transactions.lanes.retry-after-seconds}, rather than letting one hot client hold an unbounded
+ * backlog. The depth of every lane's queue is published as
+ * {@value #QUEUE_DEPTH_GAUGE}, tagged by {@code lane}, and the time spent queued is reported as the
+ * {@code tx-lane-wait} stage of the {@link RequestTimings}. The MongoDB commands sent on a lane are not counted
+ * in the per-request round trips of the {@code MongoRoundTripFilter}, which only sees the request thread.
+ * </p>
+ * When lanes are disabled (default), operations run directly on the calling thread.
+ */
+@Component
+@Slf4j
+public class ClientLaneExecutor {
+
+    /**
+     * Gauge of the number of operations waiting in each lane.
+     */
+    public static final String QUEUE_DEPTH_GAUGE = "fondos.transactions.lanes.queue-depth";
+
+    /**
+     * Whether the current thread is a lane thread.
+     */
+    private static final ThreadLocal<Boolean> IN_LANE = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final ThreadPoolExecutor[] lanes;
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new ClientLaneExecutor.
+     *
+     * @param meterRegistry The registry the queue-depth gauges are published to.
+     * @param enabled       Whether operations are routed to lanes.
+     * @param laneCount     The number of lanes.
+     * @param queueCapacity The maximum number of operations waiting in one lane.
+     * @param retryAfterSeconds The delay advised to callers whose operation was rejected by a full lane, in seconds.
+     */
+    @Autowired
+    public ClientLaneExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${fondos.transactions.lanes.enabled:false}") boolean enabled,
+            @Value("${fondos.transactions.lanes.count:16}") int laneCount,
+            @Value("${fondos.transactions.lanes.queue-capacity:1000}") int queueCapacity,
+            @Value("${fondos.transactions.lanes.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+        if (!enabled) {
+            this.lanes = null;
+            return;
+        }
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String threadName = "client-lane-" + i;
+            ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                        Thread thread = new Thread(() -> {
+                            IN_LANE.set(Boolean.TRUE);
+                            runnable.run();
+                        }, threadName);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            lane.prestartCoreThread();
+            Gauge.builder(QUEUE_DEPTH_GAUGE, lane, executor -> executor.getQueue().size())
+                    .description("Operations waiting in a client lane")
+                    .tag("lane", String.valueOf(i))
+                    .register(meterRegistry);
+            lanes[i] = lane;
+        }
+        log.info("Routing client operations to {} lanes of {} queued operations each", laneCount, queueCapacity);
+    }
+
+    /**
+     * Returns whether operations are routed to lanes.
+     *
+     * @return {@code true} if {@code fondos.transactions.lanes.enabled} is set.
+     */
+    public boolean isEnabled() {
+        return lanes != null;
+    }
+
+    /**
+     * Runs an operation on the lane of its client and waits for its result.
+     * Operations started from a lane thread run directly, so an operation never waits for another lane.
+     *
+     * @param clientId The client the operation modifies.
+     * @param work     The operation.
+     * @param <T>      The type of its result.
+     * @return The result of the operation.
+     * @throws PendingOperationsLimitException if the lane's queue is full.
+     * @throws RuntimeException the exception thrown by the operation.
+     */
+    public <T> T execute(String clientId, Supplier<T> work) {
+        if (lanes == null || IN_LANE.get()) {
+            return work.get();
+        }
+        int lane = laneOf(clientId, lanes.length);
+        long queuedAt = System.nanoTime();
+        Supplier<T> task = RequestTimings.inCurrentRequest(() -> {
+            RequestTimings.lap("tx-lane-wait", queuedAt);
+            return work.get();
+        });
+        CompletableFuture<T> result;
+        try {
+            result = CompletableFuture.supplyAsync(task, lanes[lane]);
+        } catch (RejectedExecutionException e) {
+            throw new PendingOperationsLimitException("Too many pending operations, please retry later", retryAfterSeconds, e);
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the lane of a client. The high bits of the hash are folded into the low ones, so they take part
+     * in the choice of lane.
+     *
+     * @param clientId  The client ID.
+     * @param laneCount The number of lanes.
+     * @return The lane index, between 0 and {@code laneCount - 1}.
+     */
+    static int laneOf(String clientId, int laneCount) {
+        int hash = clientId == null ? 0 : clientId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), laneCount);
+    }
+
+    /**
+     * Stops the lanes, giving the queued operations a short grace period to finish.
+     *
+     * @throws InterruptedException if interrupted while waiting for the lanes to terminate.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (lanes == null) {
+            return;
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            if (!lane.awaitTermination(10, TimeUnit.SECONDS)) {
+                lane.shutdownNow();
+            }
+        }
+    }
+}
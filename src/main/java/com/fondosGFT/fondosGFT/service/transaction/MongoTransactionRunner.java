@@ -0,0 +1,105 @@
+package com.fondosGFT.fondosGFT.service.transaction;
+
+import com.fondosGFT.fondosGFT.service.retry.ContentionRetryPolicy;
+import com.mongodb.MongoException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Runs the units of work of the {@link TransactionService} according to {@code fondos.transactions.mode}.
+ * <ul>
+ * <li>{@code atomic} (default): no {@link MongoTransactionManager} is defined and the work runs as is. Each of its
+ * writes is a single-document atomic operation and failures are undone by compensating writes.</li>
+ * <li>{@code multi-document}: the work runs in a MongoDB transaction. A transaction aborted with the
+ * {@code TransientTransactionError} label, such as a write conflict with a concurrent transaction on the same
+ * client or a primary election, or rejected by the client's {@code @Version} check, is run again from the start
+ * by the {@link ContentionRetryPolicy}. Commits with an unknown result are retried by the transaction manager
+ * itself.</li>
+ * </ul>
+ */
+@Component
+public class MongoTransactionRunner {
+
+    /**
+     * Retry reason of the transactions aborted with the {@code TransientTransactionError} label.
+     */
+    public static final String TRANSIENT_TRANSACTION = "transient-transaction";
+
+    private final TransactionTemplate transactionTemplate;
+    private final ContentionRetryPolicy retryPolicy;
+
+    /**
+     * Constructs a new MongoTransactionRunner.
+     *
+     * @param transactionManager The transaction manager, present only in {@code multi-document} mode.
+     * @param retryPolicy        The policy retrying the transactions that conflicted with a concurrent write.
+     */
+    @Autowired
+    public MongoTransactionRunner(Optional<MongoTransactionManager> transactionManager, ContentionRetryPolicy retryPolicy) {
+        this.transactionTemplate = transactionManager.map(TransactionTemplate::new).orElse(null);
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Returns whether the work runs in MongoDB transactions.
+     *
+     * @return {@code true} in {@code multi-document} mode.
+     */
+    public boolean isTransactional() {
+        return transactionTemplate != null;
+    }
+
+    /**
+     * Runs a unit of work, in a transaction in {@code multi-document} mode.
+     * The work may run several times, so it must not have side effects outside MongoDB.
+     *
+     * @param operation The name of the operation, used as a metric tag of the retries.
+     * @param clientId  The client the work modifies, used in the retry log.
+     * @param work      The unit of work.
+     * @param <T>       The type of its result.
+     * @return The result of the work.
+     * @throws RuntimeException the exception thrown by the work, or by the last attempt once the retries are exhausted.
+     */
+    public <T> T execute(String operation, String clientId, Supplier<T> work) {
+        if (transactionTemplate == null) {
+            return work.get();
+        }
+        return retryPolicy.execute(operation, clientId, MongoTransactionRunner::conflictReason,
+                () -> transactionTemplate.execute(status -> work.get()));
+    }
+
+    /**
+     * Classifies the failures of a transaction that are worth running it again for.
+     *
+     * @param exception The exception thrown by the transaction.
+     * @return The retry reason, or {@code null} if the transaction must not be run again.
+     */
+    private static String conflictReason(RuntimeException exception) {
+        if (hasErrorLabel(exception, MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+            return TRANSIENT_TRANSACTION;
+        }
+        return ContentionRetryPolicy.versionConflict(exception);
+    }
+
+    /**
+     * Returns whether an exception, or one of its causes, is a {@link MongoException} with the given error label.
+     * Spring translates driver exceptions, so the label is usually found on the cause.
+     *
+     * @param exception The exception.
+     * @param label     The error label.
+     * @return {@code true} if the label is present.
+     */
+    static boolean hasErrorLabel(Throwable exception, String label) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException && mongoException.hasErrorLabel(label)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
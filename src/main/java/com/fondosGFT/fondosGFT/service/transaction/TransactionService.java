@@ -3,31 +3,82 @@ package com.fondosGFT.fondosGFT.service.transaction;
 import com.fondosGFT.fondosGFT.model.client.Client;
 import com.fondosGFT.fondosGFT.model.fund.Fund;
 import com.fondosGFT.fondosGFT.model.investment.Investment;
+import com.fondosGFT.fondosGFT.model.suscription.dto.SubscriptionRequestDTO;
 import com.fondosGFT.fondosGFT.model.transaction.Transaction;
 import com.fondosGFT.fondosGFT.repository.client.ClientRepository;
-import com.fondosGFT.fondosGFT.repository.fund.FundRepository;
+import com.fondosGFT.fondosGFT.repository.investment.InvestmentRepository;
 import com.fondosGFT.fondosGFT.repository.transaction.TransactionRepository;
-import com.fondosGFT.fondosGFT.service.notification.NotificationService;
+import com.fondosGFT.fondosGFT.service.client.ClientService;
+import com.fondosGFT.fondosGFT.service.fund.FundCatalog;
+import com.fondosGFT.fondosGFT.service.fund.FundStatsService;
+import com.fondosGFT.fondosGFT.service.nav.LatestPriceCache;
+import com.fondosGFT.fondosGFT.service.notification.NotificationOutboxService;
 import com.fondosGFT.fondosGFT.util.NotificationRequest;
+import com.fondosGFT.fondosGFT.util.RequestTimings;
+import com.fondosGFT.fondosGFT.util.TransactionCursor;
 import com.fondosGFT.fondosGFT.util.enums.TransactionType;
 import com.pruebagft.gestionFondosGFT.util.enums.NotificationType;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.LiteralOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class responsible for managing financial transactions related to investment funds.
  * This includes handling fund subscriptions, cancellations, and retrieving transaction history.
- * It coordinates operations across client, fund, and transaction repositories, and also
- * integrates with the {@link NotificationService}.
+ * It coordinates operations across the client, investment and transaction repositories and the fund catalog,
+ * and also queues client notifications through the {@link NotificationOutboxService}.
+ * <p>
+ * Active investments are stored in their own "investments" collection. A subscription debits the balance with a
+ * conditional pipeline update on the client and then inserts one small investment document, whose unique
+ * {@code (clientId, fundId)} index rejects duplicate positions; a cancellation removes that document and
+ * credits the balance. A position is only written once it is paid for, so a cancellation can never refund it
+ * before its debit has been applied. The client document itself no longer grows with the client's positions.
+ * Every subscription and cancellation also applies its delta to the fund totals kept by the {@link FundStatsService}.
+ * </p>
  * <p>
  * {@code @Service} indicates that this class is a Spring service component.
  * {@code @Slf4j} provides a logger instance named 'log' for logging messages.
@@ -38,39 +89,124 @@ import java.util.UUID;
 public class TransactionService {
 
     private final ClientRepository clientRepository;
-    private final FundRepository fundRepository;
+    private final InvestmentRepository investmentRepository;
+    private final FundCatalog fundCatalog;
+    private final FundStatsService fundStatsService;
+    private final LatestPriceCache latestPriceCache;
     private final TransactionRepository transactionRepository;
-    private final NotificationService notificationService;
+    private final NotificationOutboxService notificationOutboxService;
     private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+    private final MongoTransactionRunner transactionRunner;
+    private final ClientLaneExecutor clientLanes;
+
+    /**
+     * Timer of {@link #subscribeFund(String, String, BigDecimal)}, tagged by fund and outcome.
+     */
+    public static final String SUBSCRIBE_TIMER = "fondos.transactions.subscribe";
+
+    /**
+     * Timer of {@link #cancelFund(String, String)}, tagged by fund and outcome.
+     */
+    public static final String CANCEL_TIMER = "fondos.transactions.cancel";
+
+    /**
+     * Timer of the transaction history reads, tagged by outcome.
+     */
+    public static final String HISTORY_TIMER = "fondos.transactions.history";
+
+    /**
+     * Fund tag of operations naming a fund that is not in the catalog, which keeps the tag's values bounded.
+     */
+    private static final String UNKNOWN_FUND = "unknown";
+
+    /**
+     * Number of documents fetched per round trip when streaming a transaction history export.
+     */
+    private static final int EXPORT_CURSOR_BATCH_SIZE = 500;
+
+    /**
+     * Client field holding the IDs of the last batches that debited the client.
+     */
+    private static final String RECENT_BATCHES_FIELD = "recentBatchIds";
+
+    /**
+     * Number of batch IDs kept in {@link #RECENT_BATCHES_FIELD}.
+     */
+    private static final int RECENT_BATCHES_KEPT = 20;
+
+    /**
+     * MongoDB error code reported when a write violates a unique index.
+     */
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
+    /**
+     * The client's balance converted to {@code Decimal128}. Balances written before {@code currentBalance} was mapped to
+     * {@code Decimal128} are strings, and a string never matches a numeric filter nor accepts an {@code $inc}; the balance
+     * writes compare and update this value instead, so they apply to both representations.
+     */
+    private static final AggregationExpression BALANCE = ConvertOperators.valueOf("currentBalance").convertToDecimal();
+
+    /**
+     * The maximum number of subscriptions accepted in a single batch, configured via application properties.
+     */
+    @Value("${fondos.transactions.batch.max-size:5000}")
+    private int maxBatchSize;
 
     /**
      * Constructs a new TransactionService with the required repositories and services.
      * Spring's dependency injection automatically provides these instances.
      *
      * @param clientRepository      The repository for managing client data.
-     * @param fundRepository        The repository for managing fund data.
+     * @param investmentRepository  The repository for managing the clients' active investments.
+     * @param fundCatalog           The in-memory catalog used to look up funds.
+     * @param fundStatsService      The service maintaining the per-fund totals.
+     * @param latestPriceCache      The cache of the latest unit price of every fund, at which subscriptions buy units.
      * @param transactionRepository The repository for managing transaction data.
-     * @param notificationService   The service for sending notifications.
+     * @param notificationOutboxService The service for queueing notifications in the outbox.
      * @param mongoTemplate         The MongoTemplate for advanced MongoDB operations.
+     * @param meterRegistry         The registry the operation timers are published to.
+     * @param transactionRunner     The runner applying the configured transaction mode.
+     * @param clientLanes           The executor ordering the operations of each client, when enabled.
      */
     @Autowired
     public TransactionService(
             ClientRepository clientRepository,
-            FundRepository fundRepository,
+            InvestmentRepository investmentRepository,
+            FundCatalog fundCatalog,
+            FundStatsService fundStatsService,
+            LatestPriceCache latestPriceCache,
             TransactionRepository transactionRepository,
-            NotificationService notificationService,
-            MongoTemplate mongoTemplate) {
+            NotificationOutboxService notificationOutboxService,
+            MongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry,
+            MongoTransactionRunner transactionRunner,
+            ClientLaneExecutor clientLanes) {
         this.clientRepository = clientRepository;
-        this.fundRepository = fundRepository;
+        this.investmentRepository = investmentRepository;
+        this.fundCatalog = fundCatalog;
+        this.fundStatsService = fundStatsService;
+        this.latestPriceCache = latestPriceCache;
         this.transactionRepository = transactionRepository;
-        this.notificationService = notificationService;
+        this.notificationOutboxService = notificationOutboxService;
         this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+        this.transactionRunner = transactionRunner;
+        this.clientLanes = clientLanes;
     }
 
     /**
      * Allows a client to subscribe to an investment fund with a specified amount.
      * This method performs necessary business validations, updates client balance and investments,
-     * records the transaction, and sends a notification.
+     * records the transaction, and queues a notification for asynchronous delivery.
+     * <p>
+     * The balance is debited first with a single conditional {@code findAndModify}, and the investment is
+     * inserted only once the debit has been applied. If the unique {@code (clientId, fundId)} index rejects the
+     * investment as a duplicate position, the debit is refunded, or rolled back with the transaction in
+     * {@code multi-document} mode.
+     * In {@code multi-document} mode these writes also run in one MongoDB transaction; see {@link MongoTransactionRunner}.
+     * When client lanes are enabled, the subscription runs on the lane of the client; see {@link ClientLaneExecutor}.
+     * </p>
      *
      * @param clientId The ID of the client initiating the subscription.
      * @param fundId   The ID of the fund to subscribe to.
@@ -79,14 +215,33 @@ public class TransactionService {
      * @throws RuntimeException if validation errors occur (e.g., client/fund not found,
      * insufficient balance, amount below minimum, or client already subscribed).
      */
-    @Transactional
+    @CacheEvict(cacheNames = ClientService.CLIENTS_CACHE, key = "#clientId")
     public Transaction subscribeFund(String clientId, String fundId, BigDecimal amount) {
+        return timed(SUBSCRIBE_TIMER, fundId, () -> clientLanes.execute(clientId, () -> {
+            Transaction transaction = transactionRunner.execute("subscribe", clientId, () -> subscribe(clientId, fundId, amount));
+            long stage = System.nanoTime();
+            fundStatsService.recordSubscription(transaction.getFundId(), transaction.getAmount());
+            RequestTimings.lap("tx-stats", stage);
+            return transaction;
+        }));
+    }
+
+    /**
+     * Performs the subscription of {@link #subscribeFund(String, String, BigDecimal)}, as one unit of work of the
+     * {@link MongoTransactionRunner}. The fund totals are updated once the work has completed, so a retried
+     * transaction does not count them twice.
+     *
+     * @param clientId The ID of the client initiating the subscription.
+     * @param fundId   The ID of the fund to subscribe to.
+     * @param amount   The amount to be subscribed.
+     * @return The created {@link Transaction} record.
+     */
+    private Transaction subscribe(String clientId, String fundId, BigDecimal amount) {
+        long stage = System.nanoTime();
         log.info("Initiating subscription: ClientID={}, FundID={}, Amount={}", clientId, fundId, amount);
 
-        // Retrieve Client and Fund
-        Client client = clientRepository.findById(clientId)
-                .orElseThrow(() -> new RuntimeException("Client not found with ID: " + clientId));
-        Fund fund = fundRepository.findById(fundId)
+        // Retrieve Fund from the in-memory catalog
+        Fund fund = fundCatalog.findById(fundId)
                 .orElseThrow(() -> new RuntimeException("Fund not found with ID: " + fundId));
 
         // Business Validations
@@ -95,35 +250,20 @@ public class TransactionService {
             log.warn(errorMessage);
             throw new RuntimeException(errorMessage);
         }
-        if (client.getCurrentBalance().compareTo(amount) < 0) {
-            String errorMessage = "Insufficient balance. Current balance: " + client.getCurrentBalance() + ", Subscription amount: " + amount;
-            log.warn(errorMessage);
-            throw new RuntimeException(errorMessage);
-        }
-        // Check if the client already has an active investment in this fund
-        boolean alreadySubscribed = client.getActiveInvestments().stream()
-                .anyMatch(inv -> inv.getFundId().equals(fundId));
-        if (alreadySubscribed) {
-            String errorMessage = "The client already has an active investment in fund " + fund.getName();
-            log.warn(errorMessage);
-            throw new RuntimeException(errorMessage);
-        }
 
         // Create Transaction Record
         Transaction transaction = new Transaction();
         transaction.setBusinessTransactionId(UUID.randomUUID().toString());
-        transaction.setClientId(client.getId());
+        transaction.setClientId(clientId);
         transaction.setFundId(fund.getId());
         transaction.setFundName(fund.getName());
         transaction.setType(TransactionType.SUSCRIPTION);
         transaction.setAmount(amount);
         transaction.setDate(LocalDateTime.now());
         transaction.setStatus("COMPLETED");
-        transaction.setClientBalanceBefore(client.getCurrentBalance());
 
-        // Update Client Balance and Add Investment
-        client.setCurrentBalance(client.getCurrentBalance().subtract(amount));
         Investment newInvestment = new Investment(
+                clientId,
                 fund.getId(),
                 fund.getName(),
                 amount,
@@ -131,46 +271,45 @@ public class TransactionService {
                 transaction.getDate(),
                 transaction.getBusinessTransactionId()
         );
-        client.getActiveInvestments().add(newInvestment);
-        clientRepository.save(client);
+        newInvestment.setUnits(unitsFor(fund, amount));
+        stage = RequestTimings.lap("tx-validate", stage);
+
+        // Debit the balance in a single conditional write. The balance check is part of the filter,
+        // so concurrent requests cannot lose an update or overdraw the client.
+        Client client = mongoTemplate.findAndModify(subscriptionQuery(clientId, amount), subscriptionUpdate(amount),
+                FindAndModifyOptions.options().returnNew(false), Client.class);
+        if (client == null) {
+            throw rejectedSubscription(clientId, fund, amount);
+        }
+        stage = RequestTimings.lap("tx-debit", stage);
+
+        // Record the paid position: the unique (clientId, fundId) index rejects a second active investment
+        try {
+            investmentRepository.insert(newInvestment);
+        } catch (DuplicateKeyException e) {
+            if (!transactionRunner.isTransactional()) { // A MongoDB transaction is aborted and rolls the debit back
+                mongoTemplate.updateFirst(new Query(Criteria.where("id").is(clientId)), creditUpdate(amount), Client.class);
+            }
+            String errorMessage = "The client already has an active investment in fund " + fund.getName();
+            log.warn(errorMessage);
+            throw new RuntimeException(errorMessage);
+        }
+        stage = RequestTimings.lap("tx-position", stage);
 
+        transaction.setClientBalanceBefore(client.getCurrentBalance());
+        client.setCurrentBalance(client.getCurrentBalance().subtract(amount));
         transaction.setClientBalanceAfter(client.getCurrentBalance());
         Transaction savedTransaction = transactionRepository.save(transaction);
+        stage = RequestTimings.lap("tx-ledger", stage);
 
-        // Prepare and Send Notification
-        String notificationMessage = String.format(
-                "Dear %s %s, your subscription to fund %s has been successful for an amount of COP %.2f. " +
-                        "Your new available balance is COP %.2f.",
-                client.getFirstName(), client.getLastName(), fund.getName(), amount, client.getCurrentBalance()
-        );
-        String emailSubject = "Fund Subscription Confirmation";
-
-        NotificationRequest notification = NotificationRequest.builder()
-                .subject(emailSubject)
-                .message(notificationMessage)
-                .type(client.getNotificationPreference())
-                .build();
-
-        // Assign addressee based on preference and send
-        if (client.getNotificationPreference() == NotificationType.EMAIL) {
-            if (client.getEmail() == null || client.getEmail().isEmpty()) {
-                log.warn("Client {} prefers email, but has no registered email address. No notification will be sent.", client.getId());
-            } else {
-                notification.setAddressee(client.getEmail());
-                notificationService.sendNotification(notification);
-            }
-        } else if (client.getNotificationPreference() == NotificationType.SMS) {
-            if (client.getPhoneNumber() == null || client.getPhoneNumber().isEmpty()) {
-                log.warn("Client {} prefers SMS, but has no registered phone number. No notification will be sent.", client.getId());
-            } else {
-                notification.setAddressee(client.getPhoneNumber());
-                notificationService.sendNotification(notification);
-            }
-        } else {
-            log.info("Client {} does not wish to receive notifications.", client.getId());
+        // Prepare and Queue Notification
+        NotificationRequest notification = prepareSubscriptionNotification(client, fund.getName(), amount);
+        if (notification != null) {
+            notificationOutboxService.enqueue(notification, savedTransaction.getBusinessTransactionId());
         }
+        RequestTimings.lap("tx-outbox", stage);
 
-        log.info("Subscription completed and notification sent for ClientID={}, FundID={}", clientId, fundId);
+        log.info("Subscription completed and notification queued for ClientID={}, FundID={}", clientId, fundId);
         return savedTransaction;
     }
 
@@ -178,7 +317,13 @@ public class TransactionService {
      * Allows a client to cancel their entire subscription to a specific fund.
      * This method validates the existence of the investment, reverses the amount,
      * updates client balance and removes the investment, records the cancellation transaction,
-     * and sends a notification.
+     * and queues a notification for asynchronous delivery.
+     * <p>
+     * The investment document is removed with a single {@code findAndRemove}, so only one of several concurrent
+     * cancellations can refund it, and the balance is then credited with a single pipeline update.
+     * In {@code multi-document} mode these writes also run in one MongoDB transaction; see {@link MongoTransactionRunner}.
+     * When client lanes are enabled, the cancellation runs on the lane of the client; see {@link ClientLaneExecutor}.
+     * </p>
      *
      * @param clientId The ID of the client initiating the cancellation.
      * @param fundId   The ID of the fund for which the subscription is to be cancelled.
@@ -186,28 +331,53 @@ public class TransactionService {
      * @throws RuntimeException if validation errors occur (e.g., client not found,
      * or no active investment found for the specified fund).
      */
-    @Transactional
+    @CacheEvict(cacheNames = ClientService.CLIENTS_CACHE, key = "#clientId")
     public Transaction cancelFund(String clientId, String fundId) {
-        log.info("Initiating cancellation: ClientID={}, FundID={}", clientId, fundId);
-
-        // Retrieve Client
-        Client client = clientRepository.findById(clientId)
-                .orElseThrow(() -> new RuntimeException("Client not found with ID: " + clientId));
+        return timed(CANCEL_TIMER, fundId, () -> clientLanes.execute(clientId, () -> {
+            Transaction transaction = transactionRunner.execute("cancel", clientId, () -> cancel(clientId, fundId));
+            long stage = System.nanoTime();
+            fundStatsService.recordCancellation(transaction.getFundId(), transaction.getAmount());
+            RequestTimings.lap("tx-stats", stage);
+            return transaction;
+        }));
+    }
 
-        // Find the client's active investment for this fund
-        Optional<Investment> investmentOptional = client.getActiveInvestments().stream()
-                .filter(inv -> inv.getFundId().equals(fundId))
-                .findFirst();
+    /**
+     * Performs the cancellation of {@link #cancelFund(String, String)}, as one unit of work of the
+     * {@link MongoTransactionRunner}.
+     *
+     * @param clientId The ID of the client initiating the cancellation.
+     * @param fundId   The ID of the fund for which the subscription is to be cancelled.
+     * @return The created {@link Transaction} record for the cancellation.
+     */
+    private Transaction cancel(String clientId, String fundId) {
+        long stage = System.nanoTime();
+        log.info("Initiating cancellation: ClientID={}, FundID={}", clientId, fundId);
 
-        if (investmentOptional.isEmpty()) {
+        // Remove the client's active investment for this fund; the (clientId, fundId) index serves the lookup
+        Investment investmentToCancel = mongoTemplate.findAndRemove(
+                new Query(Criteria.where("clientId").is(clientId).and("fundId").is(fundId)), Investment.class);
+        if (investmentToCancel == null) {
             String errorMessage = "Client does not have an active investment in fund with ID: " + fundId;
             log.warn(errorMessage);
             throw new RuntimeException(errorMessage);
         }
+        stage = RequestTimings.lap("tx-remove", stage);
 
-        Investment investmentToCancel = investmentOptional.get();
         BigDecimal amountToReturn = investmentToCancel.getInitialAmountInvested();
 
+        // Credit the balance in a single write; restore the investment if the client no longer exists
+        Client client = mongoTemplate.findAndModify(new Query(Criteria.where("id").is(clientId)),
+                creditUpdate(amountToReturn),
+                FindAndModifyOptions.options().returnNew(true), Client.class);
+        if (client == null) {
+            investmentRepository.insert(investmentToCancel);
+            String errorMessage = "Client not found with ID: " + clientId;
+            log.warn(errorMessage);
+            throw new RuntimeException(errorMessage);
+        }
+        stage = RequestTimings.lap("tx-credit", stage);
+
         // Create Cancellation Transaction Record
         Transaction transaction = new Transaction();
         transaction.setBusinessTransactionId(UUID.randomUUID().toString());
@@ -218,51 +388,490 @@ public class TransactionService {
         transaction.setAmount(amountToReturn);
         transaction.setDate(LocalDateTime.now());
         transaction.setStatus("COMPLETED");
-        transaction.setClientBalanceBefore(client.getCurrentBalance());
-
-        // Update Client Balance and Remove Investment
-        client.setCurrentBalance(client.getCurrentBalance().add(amountToReturn));
-        client.getActiveInvestments().remove(investmentToCancel);
-        clientRepository.save(client);
 
+        transaction.setClientBalanceBefore(client.getCurrentBalance().subtract(amountToReturn));
         transaction.setClientBalanceAfter(client.getCurrentBalance());
         Transaction savedTransaction = transactionRepository.save(transaction);
+        stage = RequestTimings.lap("tx-ledger", stage);
 
-        // Prepare and Send Notification
+        // Prepare and Queue Notification
         String notificationMessage = String.format(
                 "Dear %s %s, the cancellation of your subscription to fund %s has been successful. " +
                         "COP %.2f has been returned to your account. Your new available balance is COP %.2f.",
                 client.getFirstName(), client.getLastName(), investmentToCancel.getFundName(), amountToReturn, client.getCurrentBalance()
         );
-        String emailSubject = "Subscription Cancellation Confirmation";
+        NotificationRequest notification = prepareNotification(client, "Subscription Cancellation Confirmation", notificationMessage);
+        if (notification != null) {
+            notificationOutboxService.enqueue(notification, savedTransaction.getBusinessTransactionId());
+        }
+        RequestTimings.lap("tx-outbox", stage);
+
+        log.info("Cancellation completed and notification queued for ClientID={}, FundID={}", clientId, fundId);
+        return savedTransaction;
+    }
+
+    /**
+     * Subscribes a batch of clients to funds, as submitted by the back office at quarter-end.
+     * All clients involved and their current positions are prefetched with one query each, funds are read
+     * from the catalog, and every item is validated in memory against a running view of each client's
+     * balance and investments. The accepted items are then written with one unordered bulk update on
+     * clients (a single debit per client), one unordered bulk insert on investments for the debited items
+     * (duplicates are refunded with one more bulk update), one unordered bulk insert on transactions and one
+     * upsert per fund on the fund totals. The balances recorded on the transactions are replayed from the
+     * client balances read back after the debits. Notifications for the batch are queued with a single outbox write.
+     * <p>
+     * The unique {@code (clientId, fundId)} index and the conditional client debit keep the guarantees of
+     * {@link #subscribeFund}, so an item that conflicts with a concurrent update is rejected rather than
+     * applied twice or overdrawn. Each debit records the batch ID in the client's short
+     * {@code recentBatchIds} list, which tells which debits were applied when the bulk result reports fewer
+     * modifications than expected.
+     * </p>
+     *
+     * @param requests The subscriptions to apply, in submission order.
+     * @return One {@link Transaction} per request, in the same order. Accepted items have status
+     * "COMPLETED"; rejected items have status "REJECTED", an error message, and are not persisted.
+     * @throws RuntimeException if the batch is larger than the configured maximum size.
+     */
+    @CacheEvict(cacheNames = ClientService.CLIENTS_CACHE, allEntries = true)
+    public List<Transaction> subscribeFunds(List<SubscriptionRequestDTO> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new RuntimeException("The batch contains " + requests.size() + " subscriptions, the maximum allowed is " + maxBatchSize + ".");
+        }
+        log.info("Initiating batch subscription of {} items", requests.size());
+
+        // Prefetch every client involved and their positions; funds come from the in-memory catalog
+        Set<String> clientIds = requests.stream().map(SubscriptionRequestDTO::getClientId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<String> fundIds = requests.stream().map(SubscriptionRequestDTO::getFundId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<String, Client> clients = new HashMap<>();
+        clientRepository.findAllById(clientIds).forEach(client -> clients.put(client.getId(), client));
+        Map<String, Fund> funds = new HashMap<>();
+        fundIds.forEach(fundId -> fundCatalog.findById(fundId).ifPresent(fund -> funds.put(fundId, fund)));
+        Set<String> positions = new HashSet<>();
+        investmentRepository.findByClientIdIn(clients.keySet())
+                .forEach(inv -> positions.add(positionKey(inv.getClientId(), inv.getFundId())));
+
+        // Validate every item against the running state of its client
+        Map<String, BigDecimal> balances = new HashMap<>();
+        clients.values().forEach(client -> balances.put(client.getId(), client.getCurrentBalance()));
+        List<Transaction> results = new ArrayList<>(requests.size());
+        Map<String, Investment> accepted = new LinkedHashMap<>();
+        Map<String, Transaction> acceptedTransactions = new HashMap<>();
+        for (SubscriptionRequestDTO request : requests) {
+            Transaction transaction = new Transaction();
+            transaction.setClientId(request.getClientId());
+            transaction.setFundId(request.getFundId());
+            transaction.setType(TransactionType.SUSCRIPTION);
+            transaction.setAmount(request.getAmount());
+            transaction.setDate(LocalDateTime.now());
+            results.add(transaction);
+
+            Fund fund = funds.get(request.getFundId());
+            String errorMessage = validateBatchItem(request, clients.get(request.getClientId()), fund,
+                    balances.get(request.getClientId()), positions);
+            if (errorMessage != null) {
+                reject(transaction, errorMessage);
+                continue;
+            }
+
+            BigDecimal amount = request.getAmount();
+            transaction.setId(new ObjectId().toHexString());
+            transaction.setBusinessTransactionId(UUID.randomUUID().toString());
+            transaction.setFundName(fund.getName());
+            transaction.setStatus("COMPLETED");
+
+            balances.merge(request.getClientId(), amount.negate(), BigDecimal::add);
+            positions.add(positionKey(request.getClientId(), fund.getId()));
+            Investment newInvestment = new Investment(request.getClientId(), fund.getId(), fund.getName(),
+                    amount, amount, transaction.getDate(), transaction.getBusinessTransactionId());
+            newInvestment.setUnits(unitsFor(fund, amount));
+            accepted.put(transaction.getBusinessTransactionId(), newInvestment);
+            acceptedTransactions.put(transaction.getBusinessTransactionId(), transaction);
+        }
+
+        if (accepted.isEmpty()) {
+            return results;
+        }
+
+        // Debit each client once for all of its accepted items, then drop the items whose debit was not applied
+        for (String transactionId : debitBatchClients(accepted, UUID.randomUUID().toString())) {
+            accepted.remove(transactionId);
+            Transaction transaction = acceptedTransactions.remove(transactionId);
+            reject(transaction, "The subscription conflicted with a concurrent update for client " + transaction.getClientId() + ". Please retry.");
+        }
+
+        // Record the paid positions; an item racing a concurrent subscription to the same fund is rejected by the unique index
+        insertBatchPositions(accepted, acceptedTransactions);
+
+        // Record the accepted transactions with their running balances and queue their notifications
+        Map<String, BigDecimal> runningBalances = balancesBeforeBatch(accepted);
+        List<Transaction> recorded = new ArrayList<>();
+        Map<String, NotificationRequest> notifications = new LinkedHashMap<>();
+        for (Transaction transaction : results) {
+            if (!acceptedTransactions.containsKey(transaction.getBusinessTransactionId())) {
+                continue;
+            }
+            Client client = clients.get(transaction.getClientId());
+            BigDecimal balanceBefore = runningBalances.getOrDefault(client.getId(), client.getCurrentBalance());
+            transaction.setClientBalanceBefore(balanceBefore);
+            client.setCurrentBalance(balanceBefore.subtract(transaction.getAmount()));
+            runningBalances.put(client.getId(), client.getCurrentBalance());
+            transaction.setClientBalanceAfter(client.getCurrentBalance());
+            recorded.add(transaction);
+
+            NotificationRequest notification = prepareSubscriptionNotification(client, transaction.getFundName(), transaction.getAmount());
+            if (notification != null) {
+                notifications.put(transaction.getBusinessTransactionId(), notification);
+            }
+        }
+        if (!recorded.isEmpty()) {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class).insert(recorded).execute();
+        }
+        fundStatsService.recordSubscriptions(new ArrayList<>(accepted.values()));
+        notificationOutboxService.enqueueAll(notifications);
+
+        log.info("Batch subscription completed: {} accepted, {} rejected", recorded.size(), results.size() - recorded.size());
+        return results;
+    }
+
+    /**
+     * Validates one batch item against the prefetched client, fund and positions.
+     * On success the caller applies the item to the running state, so later items
+     * for the same client are validated against the balance and positions left by earlier ones.
+     *
+     * @param request   The subscription request to validate.
+     * @param client    The prefetched client, or {@code null} if it does not exist.
+     * @param fund      The prefetched fund, or {@code null} if it does not exist.
+     * @param balance   The client's running balance within the batch.
+     * @param positions The running set of {@code clientId:fundId} positions held.
+     * @return An error message if the item must be rejected, or {@code null} if it is valid.
+     */
+    private String validateBatchItem(SubscriptionRequestDTO request, Client client, Fund fund,
+                                     BigDecimal balance, Set<String> positions) {
+        BigDecimal amount = request.getAmount();
+        if (client == null) {
+            return "Client not found with ID: " + request.getClientId();
+        }
+        if (fund == null) {
+            return "Fund not found with ID: " + request.getFundId();
+        }
+        if (amount == null || amount.compareTo(fund.getMinimumSubscriptionAmount()) < 0) {
+            return "The subscription amount (" + amount + ") is less than the fund's minimum amount (" + fund.getMinimumSubscriptionAmount() + ").";
+        }
+        if (balance.compareTo(amount) < 0) {
+            return "Insufficient balance. Current balance: " + balance + ", Subscription amount: " + amount;
+        }
+        if (positions.contains(positionKey(client.getId(), fund.getId()))) {
+            return "The client already has an active investment in fund " + fund.getName();
+        }
+        return null;
+    }
+
+    /**
+     * Debits the clients of a batch with one unordered bulk update, a single conditional debit per client.
+     * When fewer clients than expected were modified, the clients holding the batch ID in
+     * {@code recentBatchIds} are read back once to tell which debits were applied. No investment has been
+     * written yet, so the items of the other clients are simply dropped.
+     *
+     * @param accepted The investments of the accepted items of the batch, keyed by business transaction ID.
+     * @param batchId  A unique ID for this batch.
+     * @return The business transaction IDs of the items whose client debit was not applied.
+     */
+    private List<String> debitBatchClients(Map<String, Investment> accepted, String batchId) {
+        Map<String, BigDecimal> debits = new LinkedHashMap<>();
+        accepted.values().forEach(inv -> debits.merge(inv.getClientId(), inv.getInitialAmountInvested(), BigDecimal::add));
+        if (debits.isEmpty()) {
+            return List.of();
+        }
+
+        BulkOperations clientUpdates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Client.class);
+        AggregationExpression recentBatches = ArrayOperators.arrayOf(
+                        ArrayOperators.arrayOf(ConditionalOperators.ifNull(RECENT_BATCHES_FIELD).then(List.of()))
+                                .concat(LiteralOperators.valueOf(List.of(batchId)).asLiteral()))
+                .slice().itemCount(-RECENT_BATCHES_KEPT);
+        debits.forEach((clientId, total) -> clientUpdates.updateOne(
+                subscriptionQuery(clientId, total).addCriteria(Criteria.where(RECENT_BATCHES_FIELD).ne(batchId)),
+                subscriptionUpdate(total).set(RECENT_BATCHES_FIELD).toValue(recentBatches)));
+        BulkWriteResult clientResult = clientUpdates.execute();
+        if (clientResult.getModifiedCount() == debits.size()) {
+            return List.of();
+        }
+
+        Query appliedQuery = new Query(Criteria.where("id").in(debits.keySet()).and(RECENT_BATCHES_FIELD).is(batchId));
+        appliedQuery.fields().include("id");
+        Set<String> applied = mongoTemplate.find(appliedQuery, Client.class).stream()
+                .map(Client::getId)
+                .collect(Collectors.toSet());
+        List<String> unapplied = accepted.values().stream()
+                .filter(inv -> !applied.contains(inv.getClientId()))
+                .map(Investment::getTransactionId)
+                .collect(Collectors.toList());
+        log.warn("Batch {}: {} subscriptions conflicted with concurrent client updates", batchId, unapplied.size());
+        return unapplied;
+    }
+
+    /**
+     * Inserts the positions of the debited items of a batch with one unordered bulk insert. The items whose
+     * insert failed, such as a duplicate position rejected by the unique {@code (clientId, fundId)} index, are
+     * rejected and their debits refunded with one unordered bulk update, a single credit per client.
+     *
+     * @param accepted             The investments of the debited items, keyed by business transaction ID.
+     * @param acceptedTransactions The transactions of the debited items, keyed by business transaction ID.
+     */
+    private void insertBatchPositions(Map<String, Investment> accepted, Map<String, Transaction> acceptedTransactions) {
+        if (accepted.isEmpty()) {
+            return;
+        }
+        List<Investment> investments = new ArrayList<>(accepted.values());
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Investment.class).insert(investments).execute();
+        } catch (BulkOperationException e) {
+            Map<String, BigDecimal> refunds = new LinkedHashMap<>();
+            for (BulkWriteError error : e.getErrors()) {
+                Investment investment = investments.get(error.getIndex());
+                accepted.remove(investment.getTransactionId());
+                refunds.merge(investment.getClientId(), investment.getInitialAmountInvested(), BigDecimal::add);
+                reject(acceptedTransactions.remove(investment.getTransactionId()), error.getCode() == DUPLICATE_KEY_ERROR
+                        ? "The client already has an active investment in fund " + investment.getFundName()
+                        : "The subscription could not be recorded: " + error.getMessage());
+            }
+            BulkOperations credits = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Client.class);
+            refunds.forEach((clientId, total) -> credits.updateOne(new Query(Criteria.where("id").is(clientId)), creditUpdate(total)));
+            credits.execute();
+        }
+    }
+
+    /**
+     * Reads back the balances of the clients debited by a batch, once all of its client writes are applied, and
+     * adds back each client's recorded items. The running balances of the transactions are replayed from there,
+     * rather than from the balances prefetched before the debits.
+     *
+     * @param accepted The investments of the recorded items, keyed by business transaction ID.
+     * @return The balance of each client before its first recorded item, keyed by client ID. Clients that could
+     * not be read back are left out.
+     */
+    private Map<String, BigDecimal> balancesBeforeBatch(Map<String, Investment> accepted) {
+        Map<String, BigDecimal> balances = new HashMap<>();
+        if (accepted.isEmpty()) {
+            return balances;
+        }
+        Query balanceQuery = new Query(Criteria.where("id").in(accepted.values().stream().map(Investment::getClientId).collect(Collectors.toSet())));
+        balanceQuery.fields().include("id").include("currentBalance");
+        mongoTemplate.find(balanceQuery, Client.class).forEach(client -> balances.put(client.getId(), client.getCurrentBalance()));
+        accepted.values().forEach(inv -> balances.computeIfPresent(inv.getClientId(), (clientId, balance) -> balance.add(inv.getInitialAmountInvested())));
+        return balances;
+    }
+
+    /**
+     * Marks a batch item as rejected and clears the identifiers assigned to it.
+     *
+     * @param transaction  The batch item.
+     * @param errorMessage The reason for the rejection.
+     */
+    private void reject(Transaction transaction, String errorMessage) {
+        if (transaction.getId() != null) { // Only items that had passed validation are worth a warning
+            log.warn("Batch subscription for ClientID={}, FundID={} rejected: {}", transaction.getClientId(), transaction.getFundId(), errorMessage);
+        }
+        transaction.setId(null);
+        transaction.setStatus("REJECTED");
+        transaction.setErrorMessage(errorMessage);
+    }
+
+    /**
+     * Computes the number of units bought by a subscription at the fund's latest unit price.
+     * The price is read from the {@link LatestPriceCache}, the same source portfolio valuations use, so a position is
+     * worth exactly its invested amount right after the subscription.
+     *
+     * @param fund   The subscribed fund.
+     * @param amount The subscribed amount.
+     * @return The number of units, with {@link Investment#UNITS_SCALE} decimal places.
+     */
+    private BigDecimal unitsFor(Fund fund, BigDecimal amount) {
+        BigDecimal unitPrice = latestPriceCache.getPrice(fund.getId());
+        return amount.divide(unitPrice, Investment.UNITS_SCALE, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Builds the key identifying a client's position in a fund.
+     *
+     * @param clientId The ID of the client.
+     * @param fundId   The ID of the fund.
+     * @return The position key.
+     */
+    private static String positionKey(String clientId, String fundId) {
+        return clientId + ":" + fundId;
+    }
+
+    /**
+     * Builds the conditional filter for a subscription debit: it only matches the client while the
+     * balance covers the amount.
+     * The balance is compared as {@link #BALANCE}, so a balance still stored as a string matches as well.
+     *
+     * @param clientId The ID of the subscribing client.
+     * @param amount   The amount to debit.
+     * @return The {@link Query} selecting the client only if the debit is still valid.
+     */
+    private Query subscriptionQuery(String clientId, BigDecimal amount) {
+        return new Query(Criteria.where("id").is(clientId)
+                .andOperator(Criteria.expr(ComparisonOperators.valueOf(BALANCE).greaterThanEqualToValue(new Decimal128(amount)))));
+    }
+
+    /**
+     * Builds the pipeline update that debits the balance.
+     *
+     * @param amount The amount to debit.
+     * @return The {@link AggregationUpdate} applying the debit.
+     */
+    private AggregationUpdate subscriptionUpdate(BigDecimal amount) {
+        return balanceUpdate(ArithmeticOperators.valueOf(BALANCE).subtract(new Decimal128(amount)));
+    }
+
+    /**
+     * Builds the pipeline update that credits the balance, for cancellations and refunded subscriptions.
+     *
+     * @param amount The amount to credit.
+     * @return The {@link AggregationUpdate} applying the credit.
+     */
+    private AggregationUpdate creditUpdate(BigDecimal amount) {
+        return balanceUpdate(ArithmeticOperators.valueOf(BALANCE).add(new Decimal128(amount)));
+    }
+
+    /**
+     * Builds a pipeline update that sets the balance to an expression computed from {@link #BALANCE}, storing it as
+     * {@code Decimal128} whatever its previous representation. The stage is rendered as is, since mapping it against
+     * {@link Client} would convert the expression itself to the {@code Decimal128} type of the field.
+     * <p>
+     * The update also increments the client's version. {@code MongoTemplate} adds that increment to its own updates,
+     * but not to the bulk updates of a batch, which would otherwise let a stale copy of the client be saved over them.
+     * </p>
+     *
+     * @param balance The expression computing the new balance.
+     * @return The {@link AggregationUpdate} setting the balance.
+     */
+    private static AggregationUpdate balanceUpdate(AggregationExpression balance) {
+        AggregationUpdate update = AggregationUpdate.from(List.of(context -> new Document("$set",
+                new Document("currentBalance", balance.toDocument(Aggregation.DEFAULT_CONTEXT)))));
+        update.inc("version");
+        return update;
+    }
+
+    /**
+     * Prepares the subscription confirmation for a client.
+     *
+     * @param client   The subscribed client, with its balance already updated.
+     * @param fundName The name of the subscribed fund.
+     * @param amount   The subscribed amount.
+     * @return The {@link NotificationRequest} to queue, or {@code null} if nothing must be sent.
+     */
+    private NotificationRequest prepareSubscriptionNotification(Client client, String fundName, BigDecimal amount) {
+        String notificationMessage = String.format(
+                "Dear %s %s, your subscription to fund %s has been successful for an amount of COP %.2f. " +
+                        "Your new available balance is COP %.2f.",
+                client.getFirstName(), client.getLastName(), fundName, amount, client.getCurrentBalance()
+        );
+        return prepareNotification(client, "Fund Subscription Confirmation", notificationMessage);
+    }
 
+    /**
+     * Resolves the addressee for the client's notification preference.
+     * The resulting request is queued in the outbox by the caller, so this never waits on AWS SES/SNS.
+     *
+     * @param client  The client to notify.
+     * @param subject The subject line, used for email notifications.
+     * @param message The notification body.
+     * @return The {@link NotificationRequest} with its addressee set, or {@code null} if the client
+     * does not want notifications or has no contact data for the preferred channel.
+     */
+    private NotificationRequest prepareNotification(Client client, String subject, String message) {
         NotificationRequest notification = NotificationRequest.builder()
-                .subject(emailSubject)
-                .message(notificationMessage)
+                .subject(subject)
+                .message(message)
                 .type(client.getNotificationPreference())
                 .build();
 
-        // Assign addressee based on preference and send
+        // Assign addressee based on preference
         if (client.getNotificationPreference() == NotificationType.EMAIL) {
             if (client.getEmail() == null || client.getEmail().isEmpty()) {
                 log.warn("Client {} prefers email, but has no registered email address. No notification will be sent.", client.getId());
-            } else {
-                notification.setAddressee(client.getEmail());
-                notificationService.sendNotification(notification);
+                return null;
             }
+            notification.setAddressee(client.getEmail());
         } else if (client.getNotificationPreference() == NotificationType.SMS) {
             if (client.getPhoneNumber() == null || client.getPhoneNumber().isEmpty()) {
                 log.warn("Client {} prefers SMS, but has no registered phone number. No notification will be sent.", client.getId());
-            } else {
-                notification.setAddressee(client.getPhoneNumber());
-                notificationService.sendNotification(notification);
+                return null;
             }
+            notification.setAddressee(client.getPhoneNumber());
         } else {
             log.info("Client {} does not wish to receive notifications.", client.getId());
+            return null;
         }
+        return notification;
+    }
 
-        log.info("Cancellation completed and notification sent for ClientID={}, FundID={}", clientId, fundId);
-        return savedTransaction;
+    /**
+     * Builds the exception for a subscription whose conditional debit matched no client.
+     * The client is re-read only on this failure path to report which condition was not met.
+     *
+     * @param clientId The ID of the client that attempted the subscription.
+     * @param fund     The fund the client attempted to subscribe to.
+     * @param amount   The requested subscription amount.
+     * @return A {@link RuntimeException} describing the rejected subscription.
+     */
+    private RuntimeException rejectedSubscription(String clientId, Fund fund, BigDecimal amount) {
+        Optional<Client> clientOptional = clientRepository.findById(clientId);
+        String errorMessage;
+        if (clientOptional.isEmpty()) {
+            errorMessage = "Client not found with ID: " + clientId;
+        } else if (clientOptional.get().getCurrentBalance().compareTo(amount) < 0) {
+            errorMessage = "Insufficient balance. Current balance: " + clientOptional.get().getCurrentBalance() + ", Subscription amount: " + amount;
+        } else {
+            errorMessage = "The subscription to fund " + fund.getName() + " conflicted with a concurrent update for client " + clientId + ". Please retry.";
+        }
+        log.warn(errorMessage);
+        return new RuntimeException(errorMessage);
+    }
+
+    /**
+     * Runs an operation and records its duration in the named timer.
+     * <p>
+     * The timer is tagged with the {@code outcome}: {@code success}, {@code rejected} for the business
+     * validation failures the service reports as {@link RuntimeException}s, or {@code error} for database
+     * failures. Operations on a fund are also tagged with the {@code fund}, so the latency of each fund can be
+     * compared. The tag is checked against the catalog snapshot only, so an unknown ID costs no database read.
+     * Every timer publishes a percentile histogram, from which the monitoring backend computes percentiles across
+     * instances, and the p50/p95/p99/p99.9 of this instance for {@code /actuator/metrics}.
+     * The duration is also reported as the {@code tx-<operation>} stage of the current {@link RequestTimings}.
+     * </p>
+     *
+     * @param timerName The name of the timer.
+     * @param fundId    The fund the operation acts on, or {@code null} if it is not about a single fund.
+     * @param operation The operation to run.
+     * @param <T>       The type of the operation's result.
+     * @return The result of the operation.
+     */
+    private <T> T timed(String timerName, String fundId, Supplier<T> operation) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = operation.get();
+            outcome = "success";
+            return result;
+        } catch (DataAccessException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            Timer.Builder timer = Timer.builder(timerName)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.95, 0.99, 0.999);
+            if (fundId != null) {
+                timer.tag("fund", fundCatalog.contains(fundId) ? fundId : UNKNOWN_FUND);
+            }
+            RequestTimings.record("tx-" + timerName.substring(timerName.lastIndexOf('.') + 1),
+                    sample.stop(timer.register(meterRegistry)));
+        }
     }
 
     /**
@@ -272,7 +881,59 @@ public class TransactionService {
      * @return A {@link List} of {@link Transaction} objects representing the client's historical transactions.
      */
     public List<Transaction> getTransactionsHistory(String clientId) {
-        return transactionRepository.findByClientIdOrderByDateDesc(clientId);
+        return timed(HISTORY_TIMER, null, () -> transactionRepository.findByClientIdOrderByDateDesc(clientId));
+    }
+
+    /**
+     * Retrieves one page of a client's transaction history using keyset pagination.
+     * The query seeks directly past the cursor on the {@code (clientId, date desc, _id desc)} index,
+     * so every page costs a single bounded index range scan regardless of how deep the cursor is.
+     *
+     * @param clientId The ID of the client whose transaction history is requested.
+     * @param cursor   The position after which the page starts, or {@code null} for the first page.
+     * @param limit    The maximum number of transactions to return.
+     * @return Up to {@code limit + 1} transactions, most recent first. The extra element, when present,
+     * only signals that another page exists and is not part of the page itself.
+     */
+    public List<Transaction> getTransactionsHistoryPage(String clientId, TransactionCursor cursor, int limit) {
+        return timed(HISTORY_TIMER, null, () -> findTransactionsHistoryPage(clientId, cursor, limit));
+    }
+
+    /**
+     * Runs the keyset-paginated history query of {@link #getTransactionsHistoryPage(String, TransactionCursor, int)}.
+     *
+     * @param clientId The ID of the client whose transaction history is requested.
+     * @param cursor   The position after which the page starts, or {@code null} for the first page.
+     * @param limit    The maximum number of transactions to return.
+     * @return Up to {@code limit + 1} transactions, most recent first.
+     */
+    private List<Transaction> findTransactionsHistoryPage(String clientId, TransactionCursor cursor, int limit) {
+        Criteria criteria = Criteria.where("clientId").is(clientId);
+        if (cursor != null) {
+            criteria = criteria.orOperator(
+                    Criteria.where("date").lt(cursor.getDate()),
+                    Criteria.where("date").is(cursor.getDate()).and("id").lt(new ObjectId(cursor.getId())));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "date").and(Sort.by(Sort.Direction.DESC, "id")))
+                .limit(limit + 1);
+        return mongoTemplate.find(query, Transaction.class);
+    }
+
+    /**
+     * Streams a client's complete transaction history from a MongoDB cursor, most recent first.
+     * Documents are fetched in batches as the stream is consumed, so memory use stays constant
+     * regardless of the size of the history. The returned stream must be closed by the caller
+     * to release the server-side cursor.
+     *
+     * @param clientId The ID of the client whose transaction history is requested.
+     * @return A {@link Stream} of the client's {@link Transaction}s backed by an open cursor.
+     */
+    public Stream<Transaction> streamTransactionsHistory(String clientId) {
+        Query query = new Query(Criteria.where("clientId").is(clientId))
+                .with(Sort.by(Sort.Direction.DESC, "date").and(Sort.by(Sort.Direction.DESC, "id")))
+                .cursorBatchSize(EXPORT_CURSOR_BATCH_SIZE);
+        return mongoTemplate.stream(query, Transaction.class);
     }
 
     /**
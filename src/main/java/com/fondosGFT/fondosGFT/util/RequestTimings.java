@@ -0,0 +1,196 @@
+package com.fondosGFT.fondosGFT.util;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Per-request timing recorder, breaking the time spent serving an HTTP request down into named stages.
+ * <p>
+ * The recorder is bound to the thread serving the request by the {@code ServerTimingFilter} and rendered as a
+ * {@code Server-Timing} response header. Code anywhere on the request path reports its stages through the
+ * static methods, which do nothing when no recorder is bound: when the header is disabled, or on threads that
+ * do not serve a request, such as the notification dispatcher. A stage reported several times is summed and
+ * its count is given in the header's {@code desc}.
+ * </p>
+ * <p>
+ * Stages nest rather than partition the request: {@code tx-subscribe} includes its {@code tx-debit} stage,
+ * which includes the {@code mongo} time of the {@code findAndModify} it sends.
+ * </p>
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, long[]> stages = new LinkedHashMap<>();
+    private long handlerStartNanos;
+    private long bodyWriteStartNanos;
+
+    private RequestTimings() {
+    }
+
+    /**
+     * Binds a new recorder to the current thread.
+     *
+     * @return The recorder.
+     */
+    public static RequestTimings begin() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    /**
+     * Unbinds the recorder of the current thread.
+     */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Returns the recorder bound to the current thread.
+     *
+     * @return The recorder, or {@code null} if none is bound.
+     */
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Wraps work handed to another thread so that the stages it reports are added to the current request.
+     * The caller must wait for the work to complete before the header is rendered, as the recorder is not
+     * thread-safe.
+     *
+     * @param work The work.
+     * @param <T>  The type of its result.
+     * @return The wrapped work, or {@code work} itself if no recorder is bound to the current thread.
+     */
+    public static <T> Supplier<T> inCurrentRequest(Supplier<T> work) {
+        RequestTimings timings = CURRENT.get();
+        if (timings == null) {
+            return work;
+        }
+        return () -> {
+            RequestTimings previous = CURRENT.get();
+            CURRENT.set(timings);
+            try {
+                return work.get();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * Adds a duration to a stage of the current request.
+     *
+     * @param stage The stage name, a token such as {@code mongo} or {@code tx-debit}.
+     * @param nanos The duration in nanoseconds.
+     */
+    public static void record(String stage, long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.add(stage, nanos);
+        }
+    }
+
+    /**
+     * Adds the time elapsed since {@code startNanos} to a stage of the current request, and returns the current
+     * time so consecutive stages can be chained:
+     * {@code stage = RequestTimings.lap("tx-debit", stage);}
+     *
+     * @param stage      The stage name.
+     * @param startNanos The {@link System#nanoTime()} at which the stage started.
+     * @return The {@link System#nanoTime()} at which the stage ended.
+     */
+    public static long lap(String stage, long startNanos) {
+        long now = System.nanoTime();
+        record(stage, now - startNanos);
+        return now;
+    }
+
+    /**
+     * Adds a duration to a stage.
+     *
+     * @param stage The stage name.
+     * @param nanos The duration in nanoseconds.
+     */
+    public void add(String stage, long nanos) {
+        long[] totals = stages.computeIfAbsent(stage, key -> new long[2]);
+        totals[0] += nanos;
+        totals[1]++;
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} at which the request started.
+     *
+     * @return The start time.
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Marks the start of the handler invocation.
+     */
+    public void handlerStarted() {
+        handlerStartNanos = System.nanoTime();
+        add("filters", handlerStartNanos - startNanos);
+    }
+
+    /**
+     * Marks the point where the handler returned a body and its serialization started.
+     */
+    public void bodyWriteStarted() {
+        if (handlerStartNanos != 0 && bodyWriteStartNanos == 0) {
+            bodyWriteStartNanos = System.nanoTime();
+            add("controller", bodyWriteStartNanos - handlerStartNanos);
+        }
+    }
+
+    /**
+     * Marks the end of the handler invocation, including the serialization of its body.
+     */
+    public void handlerCompleted() {
+        if (handlerStartNanos == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (bodyWriteStartNanos == 0) {
+            add("controller", now - handlerStartNanos);
+        } else {
+            add("serialization", now - bodyWriteStartNanos);
+        }
+    }
+
+    /**
+     * Renders the stages as a {@code Server-Timing} header value, with {@code total} first and durations in
+     * milliseconds. When the request never reached a handler, for example because the security filters rejected
+     * it, the whole request is reported as {@code filters}.
+     *
+     * @return The header value.
+     */
+    public String toHeader() {
+        long totalNanos = System.nanoTime() - startNanos;
+        if (handlerStartNanos == 0) {
+            add("filters", totalNanos);
+        }
+        StringBuilder header = new StringBuilder(32 * (stages.size() + 1));
+        appendMetric(header, "total", totalNanos, 1);
+        stages.forEach((stage, totals) -> appendMetric(header.append(", "), stage, totals[0], totals[1]));
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String stage, long nanos, long count) {
+        header.append(stage).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+        if (count > 1) {
+            header.append(";desc=\"").append(count).append(" calls\"");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.fondosGFT.fondosGFT.util;
+
+import com.fondosGFT.fondosGFT.model.transaction.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Represents a position in a client's transaction history, ordered by {@code date} descending
+ * and then by {@code id} descending. It is exchanged with API consumers as an opaque
+ * URL-safe string so that the next page can be fetched with a keyset (seek) query
+ * instead of an offset, keeping the cost of every page independent of its depth.
+ * <p>
+ * Lombok annotations are used to reduce boilerplate code:
+ * <ul>
+ * <li>{@code @Data}: Automatically generates getters, setters, {@code equals()},
+ * {@code hashCode()}, and {@code toString()} methods for all fields.</li>
+ * <li>{@code @AllArgsConstructor}: Generates a constructor with arguments for all fields.</li>
+ * </ul>
+ */
+@Data
+@AllArgsConstructor
+public class TransactionCursor {
+
+    /**
+     * The date of the last transaction returned on the previous page.
+     */
+    private LocalDateTime date;
+
+    /**
+     * The ID of the last transaction returned on the previous page, used to break ties on {@code date}.
+     */
+    private String id;
+
+    /**
+     * Builds the cursor pointing right after the given transaction.
+     *
+     * @param transaction The last {@link Transaction} of a page.
+     * @return The opaque cursor string.
+     */
+    public static String encode(Transaction transaction) {
+        String raw = transaction.getDate() + "|" + transaction.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses an opaque cursor string.
+     *
+     * @param cursor The cursor string received from an API consumer.
+     * @return The decoded {@link TransactionCursor}.
+     * @throws IllegalArgumentException if the cursor is malformed, or does not hold a MongoDB {@code ObjectId}.
+     */
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            String id = raw.substring(separator + 1);
+            if (!ObjectId.isValid(id)) {
+                throw new IllegalArgumentException("Invalid transaction ID in history cursor");
+            }
+            return new TransactionCursor(LocalDateTime.parse(raw.substring(0, separator)), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid history cursor: " + cursor, e);
+        }
+    }
+}
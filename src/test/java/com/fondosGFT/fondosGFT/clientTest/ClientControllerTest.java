@@ -2,13 +2,17 @@ package com.fondosGFT.fondosGFT.clientTest;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fondosGFT.fondosGFT.controller.client.ClientController;
+import com.fondosGFT.fondosGFT.mapper.client.ClientMapperImpl;
+import com.fondosGFT.fondosGFT.mapper.investment.InvestmentMapperImpl;
 import com.fondosGFT.fondosGFT.model.client.Client;
 import com.fondosGFT.fondosGFT.service.client.ClientService;
+import com.fondosGFT.fondosGFT.service.portfolio.PortfolioService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -26,9 +30,11 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Integration tests for the {@link ClientController}.
  * This class uses {@code @WebMvcTest} to focus on testing the web layer,
  * isolating the controller by mocking the service layer.
+ * The generated mappers are imported as they are, so the tests also cover the entity-to-DTO mapping.
  * It simulates HTTP requests and asserts on the controller's responses.
  */
 @WebMvcTest(ClientController.class) // Tests only the web layer for ClientController
+@Import({ClientMapperImpl.class, InvestmentMapperImpl.class})
 class ClientControllerTest {
 
     /**
@@ -44,6 +50,12 @@ class ClientControllerTest {
     @MockBean
     private ClientService clientService;
 
+    /**
+     * {@link MockBean} providing the {@link PortfolioService} the controller depends on.
+     */
+    @MockBean
+    private PortfolioService portfolioService;
+
     /**
      * {@link ObjectMapper} is used for converting Java objects to JSON and vice versa,
      * necessary for handling request and response bodies.
@@ -2,19 +2,34 @@ package com.fondosGFT.fondosGFT.clientTest;
 
 import com.fondosGFT.fondosGFT.model.client.Client;
 import com.fondosGFT.fondosGFT.repository.client.ClientRepository;
+import com.fondosGFT.fondosGFT.repository.investment.InvestmentRepository;
 import com.fondosGFT.fondosGFT.service.client.ClientService;
+import com.fondosGFT.fondosGFT.service.retry.ContentionRetryPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -35,6 +50,27 @@ class ClientServiceTest {
     @Mock
     private ClientRepository clientRepository;
 
+    /**
+     * {@code @Mock} creates a mock instance of {@link InvestmentRepository}, which supplies
+     * the clients' active investments.
+     */
+    @Mock
+    private InvestmentRepository investmentRepository;
+
+    /**
+     * {@code @Spy} provides a real {@link ContentionRetryPolicy}, which runs updates once
+     * unless they hit a version conflict.
+     */
+    @Spy
+    private ContentionRetryPolicy retryPolicy = new ContentionRetryPolicy(new SimpleMeterRegistry(), 3, 0, 0);
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link MongoTemplate}.
+     * This mock will simulate the field-level profile updates applied to client documents.
+     */
+    @Mock
+    private MongoTemplate mongoTemplate;
+
     /**
      * {@code @InjectMocks} injects the created mocks (like {@link ClientRepository})
      * into the {@link ClientService} instance under test.
@@ -145,8 +181,8 @@ class ClientServiceTest {
 
     /**
      * Tests the {@code updateCliente} method for a successful update.
-     * It mocks the repository's {@code findById()} (if used internally by update)
-     * and {@code save()} methods, and asserts that the client's information is updated.
+     * It asserts that only the given profile fields are set, conditioned on the version of the stored client,
+     * and that the client is never saved back in full.
      */
     @Test
     void testUpdateClientSuccess() {
@@ -154,16 +190,68 @@ class ClientServiceTest {
         updatedInfo.setId("client1"); // Important for the findById in the service logic
         updatedInfo.setFirstName("Alice Updated");
         updatedInfo.setEmail("alice.updated@example.com");
+        testClient1.setVersion(4L);
 
         when(clientRepository.findById("client1")).thenReturn(Optional.of(testClient1)); // Mock the initial retrieval
-        when(clientRepository.save(any(Client.class))).thenReturn(updatedInfo); // Simulate the saving of the update
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Client.class)))
+                .thenReturn(updatedInfo); // Simulate the applied update
 
         Client result = clientService.updateCliente(updatedInfo);
 
         assertNotNull(result);
         assertEquals("Alice Updated", result.getFirstName());
         assertEquals("alice.updated@example.com", result.getEmail());
-        verify(clientRepository, times(1)).save(any(Client.class)); // Verify that save was called
+        ArgumentCaptor<Query> filter = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(filter.capture(), update.capture(), any(FindAndModifyOptions.class), eq(Client.class));
+        assertEquals(4L, filter.getValue().getQueryObject().get("version"));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals(Set.of("firstName", "email"), set.keySet());
+        verify(clientRepository, never()).save(any(Client.class));
+    }
+
+    /**
+     * Tests that {@code updateCliente} reads the client again and retries the update when the version it was
+     * conditioned on was changed by a concurrent write, and that the balance is never part of the update.
+     */
+    @Test
+    void testUpdateClientRetriesOnVersionConflict() {
+        Client updatedInfo = new Client();
+        updatedInfo.setId("client1");
+        updatedInfo.setFirstName("Alice Updated");
+        updatedInfo.setCurrentBalance(new BigDecimal("1.00"));
+
+        when(clientRepository.findById("client1")).thenReturn(Optional.of(testClient1));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Client.class)))
+                .thenReturn(null)
+                .thenReturn(updatedInfo);
+
+        Client result = clientService.updateCliente(updatedInfo);
+
+        assertEquals("Alice Updated", result.getFirstName());
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(clientRepository, times(2)).findById("client1");
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(Client.class));
+        assertFalse(update.getValue().modifies("currentBalance"));
+        verify(clientRepository, never()).save(any(Client.class));
+    }
+
+    /**
+     * Tests that {@code updateCliente} gives up with an {@link OptimisticLockingFailureException} once the
+     * retry policy is exhausted.
+     */
+    @Test
+    void testUpdateClientFailsWhenConflictsPersist() {
+        Client updatedInfo = new Client();
+        updatedInfo.setId("client1");
+        updatedInfo.setCity("Cali");
+
+        when(clientRepository.findById("client1")).thenReturn(Optional.of(testClient1));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Client.class)))
+                .thenReturn(null);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> clientService.updateCliente(updatedInfo));
+        verify(mongoTemplate, times(3)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Client.class));
     }
 
     /**
@@ -182,7 +270,7 @@ class ClientServiceTest {
             clientService.updateCliente(updatedInfo);
         });
         verify(clientRepository, times(1)).findById("nonExistent");
-        verify(clientRepository, never()).save(any(Client.class)); // Ensure save was never called
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Client.class));
     }
 
 
@@ -0,0 +1,59 @@
+package com.fondosGFT.fondosGFT.exceptionTest;
+
+import com.fondosGFT.fondosGFT.exception.GlobalExceptionHandler;
+import com.fondosGFT.fondosGFT.exception.PendingOperationsLimitException;
+import com.fondosGFT.fondosGFT.model.error.ErrorResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link GlobalExceptionHandler}.
+ * This class checks the status, headers and body each kind of failure is answered with.
+ */
+class GlobalExceptionHandlerTest {
+
+    /**
+     * The handler under test.
+     */
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    /**
+     * Tests that an operation refused by a full lane is answered with {@code 503} and a {@code Retry-After} header,
+     * rather than with the {@code 400} of business errors.
+     */
+    @Test
+    void testPendingOperationsLimitIsServiceUnavailableWithRetryAfter() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/transactions/subscribe");
+
+        ResponseEntity<ErrorResponse> response = handler.handlePendingOperationsLimitException(
+                new PendingOperationsLimitException("Too many pending operations, please retry later", 3,
+                        new RejectedExecutionException()), request);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("3", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(503, response.getBody().getStatus());
+        assertEquals("/api/transactions/subscribe", response.getBody().getPath());
+    }
+
+    /**
+     * Tests that an export refused by a full export pool is answered with {@code 503}, not as a business error.
+     */
+    @Test
+    void testRejectedAsyncRequestIsServiceUnavailable() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/transactions/history/client1/export");
+
+        ResponseEntity<ErrorResponse> response = handler.handleAsyncRequestUnavailable(
+                new TaskRejectedException("Export pool is full"), request);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals(503, response.getBody().getStatus());
+    }
+}
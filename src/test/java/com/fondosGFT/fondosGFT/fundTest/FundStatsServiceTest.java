@@ -0,0 +1,343 @@
+package com.fondosGFT.fondosGFT.fundTest;
+
+import com.fondosGFT.fondosGFT.model.fund.FundStats;
+import com.fondosGFT.fondosGFT.model.fund.FundStatsShard;
+import com.fondosGFT.fondosGFT.model.investment.Investment;
+import com.fondosGFT.fondosGFT.repository.fund.FundStatsShardRepository;
+import com.fondosGFT.fondosGFT.service.fund.FundStatsService;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link FundStatsService}.
+ * This class uses Mockito to isolate the service from the "fund_stats_shards" collection,
+ * allowing for focused testing of how shards are merged and how buffered deltas are flushed.
+ * <p>
+ * {@code @ExtendWith(MockitoExtension.class)} enables Mockito annotations for JUnit 5.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class FundStatsServiceTest {
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link FundStatsShardRepository}.
+     * This mock will simulate reading the shards of the fund totals.
+     */
+    @Mock
+    private FundStatsShardRepository shardRepository;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link MongoTemplate}.
+     * This mock will simulate the upserts applied to the shards.
+     */
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link BulkOperations}.
+     * This mock will simulate the bulk write of a flush.
+     */
+    @Mock
+    private BulkOperations bulkOperations;
+
+    /**
+     * Tests that the shards of a fund are merged into its totals, keeping the latest update time.
+     */
+    @Test
+    void testGetFundStatsMergesShards() {
+        FundStatsService service = new FundStatsService(shardRepository, mongoTemplate, 4, false);
+        LocalDateTime earlier = LocalDateTime.now().minusMinutes(5);
+        LocalDateTime later = LocalDateTime.now();
+        when(shardRepository.findByFundId("1")).thenReturn(Arrays.asList(
+                new FundStatsShard("1:0", "1", 0, new BigDecimal("100000"), 2, earlier),
+                new FundStatsShard("1:3", "1", 3, new BigDecimal("75000"), 1, later)));
+
+        FundStats stats = service.getFundStats("1");
+
+        assertEquals(0, new BigDecimal("175000").compareTo(stats.getAssetsUnderManagement()));
+        assertEquals(3, stats.getActiveInvestors());
+        assertEquals(later, stats.getLastUpdated());
+    }
+
+    /**
+     * Tests that, when updates are not buffered, each one is upserted into one of the fund's shards.
+     */
+    @Test
+    void testRecordSubscriptionUpsertsShardWhenNotBuffered() {
+        FundStatsService service = new FundStatsService(shardRepository, mongoTemplate, 4, false);
+
+        service.recordSubscription("1", new BigDecimal("75000"));
+
+        ArgumentCaptor<Query> shard = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(shard.capture(), update.capture(), eq(FundStatsShard.class));
+        assertTrue(shard.getValue().getQueryObject().getString("id").matches("1:[0-3]"));
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertEquals(new Decimal128(new BigDecimal("75000")), inc.get("assetsUnderManagement"));
+        assertEquals(1L, inc.get("activeInvestors"));
+    }
+
+    /**
+     * Tests that buffered updates are flushed as a single upsert per fund holding their net change,
+     * and that a flush with nothing buffered writes nothing.
+     */
+    @Test
+    void testFlushWritesBufferedDeltasOncePerFund() {
+        FundStatsService service = new FundStatsService(shardRepository, mongoTemplate, 4, true);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(FundStatsShard.class))).thenReturn(bulkOperations);
+
+        service.recordSubscription("1", new BigDecimal("75000"));
+        service.recordSubscription("1", new BigDecimal("50000"));
+        service.recordCancellation("1", new BigDecimal("75000"));
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(FundStatsShard.class));
+        service.flush();
+        service.flush();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).upsert(any(Query.class), update.capture());
+        verify(bulkOperations).execute();
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertEquals(new Decimal128(new BigDecimal("50000.0000")), inc.get("assetsUnderManagement"));
+        assertEquals(1L, inc.get("activeInvestors"));
+    }
+
+    /**
+     * Tests that the deltas of a failed flush are put back, still visible to reads and written by the next flush.
+     */
+    @Test
+    void testFlushRebuffersDeltasWhenWriteFails() {
+        FundStatsService service = new FundStatsService(shardRepository, mongoTemplate, 4, true);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(FundStatsShard.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(new RuntimeException("Network error")).thenReturn(null);
+        when(shardRepository.findByFundId("1")).thenReturn(Collections.emptyList());
+
+        service.recordSubscription("1", new BigDecimal("75000"));
+        service.flush();
+
+        FundStats stats = service.getFundStats("1");
+        assertEquals(0, new BigDecimal("75000").compareTo(stats.getAssetsUnderManagement()));
+        assertEquals(1, stats.getActiveInvestors());
+
+        service.flush();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).upsert(any(Query.class), update.capture());
+        Document retried = (Document) update.getAllValues().get(1).getUpdateObject().get("$inc");
+        assertEquals(new Decimal128(new BigDecimal("75000.0000")), retried.get("assetsUnderManagement"));
+        assertEquals(1L, retried.get("activeInvestors"));
+    }
+
+    /**
+     * Tests that reads add the deltas not flushed yet to the stored shards, including for funds with no shard.
+     */
+    @Test
+    void testReadsAddPendingDeltas() {
+        FundStatsService service = new FundStatsService(shardRepository, mongoTemplate, 4, true);
+        FundStatsShard stored = new FundStatsShard("1:0", "1", 0, new BigDecimal("100000"), 2, LocalDateTime.now());
+        when(shardRepository.findByFundId("1")).thenReturn(Collections.singletonList(stored));
+        when(shardRepository.findAll()).thenReturn(Collections.singletonList(stored));
+
+        service.recordSubscription("1", new BigDecimal("50000"));
+        service.recordSubscription("2", new BigDecimal("125000.50"));
+
+        FundStats fund1 = service.getFundStats("1");
+        assertEquals(0, new BigDecimal("150000").compareTo(fund1.getAssetsUnderManagement()));
+        assertEquals(3, fund1.getActiveInvestors());
+
+        Map<String, FundStats> all = service.getAllFundStats();
+        assertEquals(2, all.size());
+        assertEquals(0, new BigDecimal("150000").compareTo(all.get("1").getAssetsUnderManagement()));
+        assertEquals(0, new BigDecimal("125000.50").compareTo(all.get("2").getAssetsUnderManagement()));
+        assertEquals(1, all.get("2").getActiveInvestors());
+    }
+
+    /**
+     * Tests that deltas recorded after a failed flush are added to the ones put back, and both are written
+     * by the next flush as a single upsert.
+     */
+    @Test
+    void testRebufferedDeltasMergeWithLaterOnes() {
+        FundStatsService service = new FundStatsService(shardRepository, mongoTemplate, 4, true);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(FundStatsShard.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(new RuntimeException("Network error")).thenReturn(null);
+
+        service.recordSubscription("1", new BigDecimal("75000"));
+        service.flush();
+        service.recordSubscription("1", new BigDecimal("50000"));
+        service.recordCancellation("2", new BigDecimal("10000"));
+        service.flush();
+
+        ArgumentCaptor<Query> shard = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(3)).upsert(shard.capture(), update.capture());
+        Map<String, Document> retried = new HashMap<>();
+        for (int i = 1; i < 3; i++) {
+            String fundId = shard.getAllValues().get(i).getQueryObject().getString("id").split(":")[0];
+            retried.put(fundId, (Document) update.getAllValues().get(i).getUpdateObject().get("$inc"));
+        }
+        assertEquals(new Decimal128(new BigDecimal("125000.0000")), retried.get("1").get("assetsUnderManagement"));
+        assertEquals(2L, retried.get("1").get("activeInvestors"));
+        assertEquals(new Decimal128(new BigDecimal("-10000.0000")), retried.get("2").get("assetsUnderManagement"));
+        assertEquals(-1L, retried.get("2").get("activeInvestors"));
+    }
+
+    /**
+     * Tests that the totals of every fund are merged from their shards, each shard counted in its own fund.
+     */
+    @Test
+    void testGetAllFundStatsMergesShardsPerFund() {
+        FundStatsService service = new FundStatsService(shardRepository, mongoTemplate, 4, false);
+        when(shardRepository.findAll()).thenReturn(Arrays.asList(
+                new FundStatsShard("1:0", "1", 0, new BigDecimal("100000"), 2, LocalDateTime.now()),
+                new FundStatsShard("2:1", "2", 1, new BigDecimal("50000"), 1, LocalDateTime.now()),
+                new FundStatsShard("1:2", "1", 2, new BigDecimal("-25000"), -1, LocalDateTime.now())));
+
+        Map<String, FundStats> all = service.getAllFundStats();
+
+        assertEquals(2, all.size());
+        assertEquals(0, new BigDecimal("75000").compareTo(all.get("1").getAssetsUnderManagement()));
+        assertEquals(1, all.get("1").getActiveInvestors());
+        assertEquals(0, new BigDecimal("50000").compareTo(all.get("2").getAssetsUnderManagement()));
+        assertEquals(1, all.get("2").getActiveInvestors());
+    }
+
+    /**
+     * Tests that, when updates are not buffered, the investments of a batch are written with one bulk write
+     * holding a single upsert per fund.
+     */
+    @Test
+    void testRecordSubscriptionsUpsertsOncePerFundWhenNotBuffered() {
+        FundStatsService service = new FundStatsService(shardRepository, mongoTemplate, 4, false);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(FundStatsShard.class))).thenReturn(bulkOperations);
+
+        service.recordSubscriptions(Arrays.asList(investment("1", "75000"), investment("2", "50000"), investment("1", "25000")));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).upsert(any(Query.class), update.capture());
+        verify(bulkOperations).execute();
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(FundStatsShard.class));
+        Document fund1 = (Document) update.getAllValues().get(0).getUpdateObject().get("$inc");
+        assertEquals(new Decimal128(new BigDecimal("100000")), fund1.get("assetsUnderManagement"));
+        assertEquals(2L, fund1.get("activeInvestors"));
+    }
+
+    /**
+     * Tests that a rebuild replaces the stored shards with the totals aggregated from the investments and
+     * discards the buffered deltas, which the aggregation already counts. The aggregation result is produced
+     * from the raw {@code $group} output, keyed by {@code _id}, through the pipeline's projection and a real
+     * {@link MappingMongoConverter}, so each fund keeps its ID.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRebuildReplacesShardsAndDiscardsBufferedDeltas() {
+        FundStatsService service = new FundStatsService(shardRepository, mongoTemplate, 4, true);
+        MappingMongoConverter converter = converter();
+        List<Document> grouped = List.of(
+                new Document("_id", "1").append("assetsUnderManagement", new Decimal128(new BigDecimal("175000"))).append("activeInvestors", 3),
+                new Document("_id", "2").append("assetsUnderManagement", new Decimal128(new BigDecimal("50000"))).append("activeInvestors", 1));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Investment.class), eq(FundStats.class))).thenAnswer(invocation -> {
+            List<Document> pipeline = invocation.<Aggregation>getArgument(0).toPipeline(Aggregation.DEFAULT_CONTEXT);
+            Document projection = (Document) pipeline.get(pipeline.size() - 1).get("$project");
+            List<FundStats> mapped = grouped.stream()
+                    .map(document -> converter.read(FundStats.class, projection == null ? document : project(document, projection)))
+                    .toList();
+            return new AggregationResults<>(mapped, new Document());
+        });
+        when(shardRepository.findByFundId("1")).thenReturn(Collections.emptyList());
+        service.recordSubscription("1", new BigDecimal("75000"));
+
+        assertEquals(2, service.rebuild());
+
+        verify(mongoTemplate).remove(any(Query.class), eq(FundStatsShard.class));
+        ArgumentCaptor<List<FundStatsShard>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(mongoTemplate).insertAll(inserted.capture());
+        assertEquals(List.of("1:0", "2:0"), inserted.getValue().stream().map(FundStatsShard::getId).toList());
+        assertEquals(List.of("1", "2"), inserted.getValue().stream().map(FundStatsShard::getFundId).toList());
+        assertEquals(0, new BigDecimal("175000").compareTo(inserted.getValue().get(0).getAssetsUnderManagement()));
+        assertEquals(3, inserted.getValue().get(0).getActiveInvestors());
+        assertEquals(0, BigDecimal.ZERO.compareTo(service.getFundStats("1").getAssetsUnderManagement()));
+        service.flush();
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(FundStatsShard.class));
+    }
+
+    /**
+     * Applies a {@code $project} stage made of included fields and field references to a document,
+     * as the server would.
+     *
+     * @param document   The input document.
+     * @param projection The projection of the stage.
+     * @return The projected document.
+     */
+    private static Document project(Document document, Document projection) {
+        Document projected = new Document();
+        if (!Integer.valueOf(0).equals(projection.get("_id")) && !Boolean.FALSE.equals(projection.get("_id"))) {
+            projected.put("_id", document.get("_id"));
+        }
+        projection.forEach((field, value) -> {
+            if (value instanceof String reference && reference.startsWith("$")) {
+                projected.put(field, document.get(reference.substring(1)));
+            } else if (!"_id".equals(field) && (Integer.valueOf(1).equals(value) || Boolean.TRUE.equals(value))) {
+                projected.put(field, document.get(field));
+            }
+        });
+        return projected;
+    }
+
+    /**
+     * Builds the converter Spring Data uses to read aggregation results, with the default conversions.
+     *
+     * @return The converter.
+     */
+    private static MappingMongoConverter converter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    /**
+     * Builds an investment created by a batch subscription.
+     *
+     * @param fundId The ID of the fund.
+     * @param amount The amount invested.
+     * @return The investment.
+     */
+    private static Investment investment(String fundId, String amount) {
+        Investment investment = new Investment();
+        investment.setFundId(fundId);
+        investment.setInitialAmountInvested(new BigDecimal(amount));
+        return investment;
+    }
+}
@@ -0,0 +1,252 @@
+package com.fondosGFT.fondosGFT.idempotencyTest;
+
+import com.fondosGFT.fondosGFT.model.idempotency.IdempotencyRecord;
+import com.fondosGFT.fondosGFT.model.transaction.dto.TransactionResponseDTO;
+import com.fondosGFT.fondosGFT.service.idempotency.IdempotencyService;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link IdempotencyService}.
+ * This class uses Mockito to isolate the service from the "idempotency_keys" collection,
+ * allowing for focused testing of key scoping and of the lease on in-progress claims.
+ * <p>
+ * {@code @ExtendWith(MockitoExtension.class)} enables Mockito annotations for JUnit 5.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link MongoTemplate}.
+     * This mock will simulate the claims, completions and releases of idempotency keys.
+     */
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * The service under test, with a 60 second lease on in-progress claims.
+     */
+    private IdempotencyService idempotencyService;
+
+    /**
+     * The response returned by the operation.
+     */
+    private TransactionResponseDTO response;
+
+    /**
+     * Sets up the service and a response before each test, and lets every claim renewal and completion match the claim.
+     */
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(mongoTemplate, 24, 100, 60);
+        response = new TransactionResponseDTO();
+        response.setId("tx1");
+        lenient().when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(IdempotencyRecord.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    }
+
+    /**
+     * Tests that the key is scoped by operation and caller, and that the response is stored once the
+     * operation completes.
+     */
+    @Test
+    void testExecuteScopesKeyByCaller() {
+        TransactionResponseDTO result = idempotencyService.execute("subscribe", "alice/client1", "key1", "fp", () -> response);
+
+        assertSame(response, result);
+        ArgumentCaptor<IdempotencyRecord> claim = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(mongoTemplate).insert(claim.capture());
+        assertEquals("subscribe:alice/client1:key1", claim.getValue().getId());
+        assertSame(response, claim.getValue().getResponse());
+        assertNotNull(claim.getValue().getClaimedAt());
+        verify(mongoTemplate).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(IdempotencyRecord.class));
+    }
+
+    /**
+     * Tests that a claim left behind by a request that never completed is taken over once its lease has expired,
+     * and that the operation then runs.
+     */
+    @Test
+    void testExecuteTakesOverExpiredClaim() {
+        LocalDateTime expired = LocalDateTime.now().minusHours(1);
+        IdempotencyRecord stale = new IdempotencyRecord("subscribe:alice/client1:key1", "fp",
+                IdempotencyRecord.STATUS_IN_PROGRESS, null, expired, expired, null);
+        IdempotencyRecord taken = new IdempotencyRecord(stale.getId(), "fp",
+                IdempotencyRecord.STATUS_IN_PROGRESS, null, expired, LocalDateTime.now(), null);
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("duplicate"));
+        when(mongoTemplate.findById(stale.getId(), IdempotencyRecord.class)).thenReturn(stale);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(IdempotencyRecord.class))).thenReturn(taken);
+        AtomicInteger runs = new AtomicInteger();
+
+        TransactionResponseDTO result = idempotencyService.execute("subscribe", "alice/client1", "key1", "fp", () -> {
+            runs.incrementAndGet();
+            return response;
+        });
+
+        assertSame(response, result);
+        assertEquals(1, runs.get());
+        ArgumentCaptor<Query> takeOver = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(takeOver.capture(), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(IdempotencyRecord.class));
+        assertEquals(expired, takeOver.getValue().getQueryObject().get("claimedAt"));
+        assertEquals(new Document("$exists", false), takeOver.getValue().getQueryObject().get("renewedAt"));
+        verify(mongoTemplate).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(IdempotencyRecord.class));
+    }
+
+    /**
+     * Tests that a claim still within its lease is not taken over, and that the operation does not run.
+     */
+    @Test
+    void testExecuteRejectsClaimWithinLease() {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord live = new IdempotencyRecord("subscribe:alice/client1:key1", "fp",
+                IdempotencyRecord.STATUS_IN_PROGRESS, null, now, now, null);
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("duplicate"));
+        when(mongoTemplate.findById(live.getId(), IdempotencyRecord.class)).thenReturn(live);
+        AtomicInteger runs = new AtomicInteger();
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> idempotencyService.execute("subscribe", "alice/client1", "key1", "fp", () -> {
+                    runs.incrementAndGet();
+                    return response;
+                }));
+
+        assertTrue(exception.getMessage().contains("already being processed"));
+        assertEquals(0, runs.get());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(IdempotencyRecord.class));
+    }
+
+    /**
+     * Tests that a claim taken long ago is not taken over while the request holding it keeps renewing it,
+     * and that the operation does not run.
+     */
+    @Test
+    void testExecuteRejectsTakeOverOfRenewedClaim() {
+        LocalDateTime claimed = LocalDateTime.now().minusHours(1);
+        IdempotencyRecord renewed = new IdempotencyRecord("subscribe:alice/client1:key1", "fp",
+                IdempotencyRecord.STATUS_IN_PROGRESS, null, claimed, claimed, LocalDateTime.now().minusSeconds(10));
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("duplicate"));
+        when(mongoTemplate.findById(renewed.getId(), IdempotencyRecord.class)).thenReturn(renewed);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> idempotencyService.execute("subscribe", "alice/client1", "key1", "fp",
+                        () -> fail("The operation must not run while the original request is alive")));
+
+        assertTrue(exception.getMessage().contains("already being processed"));
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(IdempotencyRecord.class));
+    }
+
+    /**
+     * Tests that the claim is renewed while the operation runs longer than a third of the lease, and that the
+     * renewals stop once the response is stored.
+     */
+    @Test
+    void testExecuteRenewsClaimWhileRunning() throws InterruptedException {
+        IdempotencyService shortLease = new IdempotencyService(mongoTemplate, 24, 100, 1);
+        try {
+            shortLease.execute("subscribe", "alice/client1", "key1", "fp", () -> {
+                try {
+                    Thread.sleep(900);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return response;
+            });
+            Thread.sleep(500);
+        } finally {
+            shortLease.shutdown();
+        }
+
+        ArgumentCaptor<UpdateDefinition> updates = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate, atLeast(2)).updateFirst(any(Query.class), updates.capture(), eq(IdempotencyRecord.class));
+        List<UpdateDefinition> written = updates.getAllValues();
+        assertTrue(written.subList(0, written.size() - 1).stream()
+                .allMatch(update -> update.getUpdateObject().get("$set", Document.class).containsKey("renewedAt")));
+        assertEquals(IdempotencyRecord.STATUS_COMPLETED,
+                written.get(written.size() - 1).getUpdateObject().get("$set", Document.class).get("status"));
+    }
+
+    /**
+     * Tests that an expired claim taken over first by another request is not run a second time.
+     */
+    @Test
+    void testExecuteRejectsClaimTakenOverByAnotherRequest() {
+        LocalDateTime expired = LocalDateTime.now().minusHours(1);
+        IdempotencyRecord stale = new IdempotencyRecord("subscribe:alice/client1:key1", "fp",
+                IdempotencyRecord.STATUS_IN_PROGRESS, null, expired, expired, null);
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("duplicate"));
+        when(mongoTemplate.findById(stale.getId(), IdempotencyRecord.class)).thenReturn(stale);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(IdempotencyRecord.class))).thenReturn(null);
+
+        assertThrows(RuntimeException.class,
+                () -> idempotencyService.execute("subscribe", "alice/client1", "key1", "fp", () -> response));
+
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(IdempotencyRecord.class));
+    }
+
+    /**
+     * Tests that a request whose claim was taken over while its operation ran still returns its response, but does
+     * not cache it: a retry is answered from the record held by the other request, not from memory.
+     */
+    @Test
+    void testExecuteDoesNotCacheResponseOfLostClaim() {
+        doReturn(UpdateResult.acknowledged(0, 0L, null))
+                .when(mongoTemplate).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(IdempotencyRecord.class));
+
+        TransactionResponseDTO result = idempotencyService.execute("subscribe", "alice/client1", "key1", "fp", () -> response);
+
+        assertSame(response, result);
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord takenOver = new IdempotencyRecord("subscribe:alice/client1:key1", "fp",
+                IdempotencyRecord.STATUS_IN_PROGRESS, null, now, now, null);
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("duplicate"));
+        when(mongoTemplate.findById(takenOver.getId(), IdempotencyRecord.class)).thenReturn(takenOver);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> idempotencyService.execute("subscribe", "alice/client1", "key1", "fp",
+                        () -> fail("The operation must not run while the other request holds the claim")));
+
+        assertTrue(exception.getMessage().contains("already being processed"));
+    }
+
+    /**
+     * Tests that a completed key is replayed without running the operation again.
+     */
+    @Test
+    void testExecuteReplaysCompletedKey() {
+        IdempotencyRecord completed = new IdempotencyRecord("subscribe:alice/client1:key1", "fp",
+                IdempotencyRecord.STATUS_COMPLETED, response, LocalDateTime.now(), LocalDateTime.now(), null);
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("duplicate"));
+        when(mongoTemplate.findById(completed.getId(), IdempotencyRecord.class)).thenReturn(completed);
+
+        TransactionResponseDTO result = idempotencyService.execute("subscribe", "alice/client1", "key1", "fp",
+                () -> fail("The operation must not run again"));
+
+        assertSame(response, result);
+    }
+}
@@ -0,0 +1,117 @@
+package com.fondosGFT.fondosGFT.mapperTest;
+
+import com.fondosGFT.fondosGFT.mapper.transaction.TransactionMapper;
+import com.fondosGFT.fondosGFT.mapper.transaction.TransactionMapperImpl;
+import com.fondosGFT.fondosGFT.model.transaction.Transaction;
+import com.fondosGFT.fondosGFT.model.transaction.dto.TransactionResponseDTO;
+import com.fondosGFT.fondosGFT.util.enums.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for the generated {@link TransactionMapper}.
+ * It checks that the generated mapper produces the same DTOs as the reflective
+ * {@link BeanUtils#copyProperties(Object, Object)} mapping it replaces. The per-element cost of both
+ * approaches is measured by the {@code SubscriptionStepsBenchmark} JMH benchmark.
+ */
+class TransactionMapperTest {
+
+    private final TransactionMapper transactionMapper = new TransactionMapperImpl();
+
+    /**
+     * Tests that the generated mapper copies every property the reflective mapping copied.
+     */
+    @Test
+    void testGeneratedMappingMatchesReflectiveMapping() {
+        for (Transaction transaction : historyPage(10)) {
+            assertEquals(reflectiveMapping(transaction), transactionMapper.toResponseDTO(transaction));
+        }
+    }
+
+    /**
+     * Tests field by field that the generated mapper copies each property as the reflective mapping does,
+     * including the error message and missing balances of a failed transaction, so a difference is reported
+     * on the field that caused it.
+     */
+    @Test
+    void testGeneratedMappingMatchesReflectiveMappingFieldByField() {
+        List<Transaction> transactions = new ArrayList<>(historyPage(3));
+        transactions.add(new Transaction("failed", "tx-failed", "client1", "1", "FPV_BTG_PACTUAL_RECAUDADORA",
+                TransactionType.CANCELATION, BigDecimal.TEN, LocalDateTime.of(2024, 1, 2, 9, 0),
+                null, null, "FAILED", "Insufficient balance"));
+
+        for (Transaction transaction : transactions) {
+            TransactionResponseDTO expected = reflectiveMapping(transaction);
+            TransactionResponseDTO actual = transactionMapper.toResponseDTO(transaction);
+
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getBusinessTransactionId(), actual.getBusinessTransactionId());
+            assertEquals(expected.getClientId(), actual.getClientId());
+            assertEquals(expected.getFundId(), actual.getFundId());
+            assertEquals(expected.getFundName(), actual.getFundName());
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getAmount(), actual.getAmount());
+            assertEquals(expected.getDate(), actual.getDate());
+            assertEquals(expected.getStatus(), actual.getStatus());
+            assertEquals(expected.getClientBalanceBefore(), actual.getClientBalanceBefore());
+            assertEquals(expected.getClientBalanceAfter(), actual.getClientBalanceAfter());
+            assertEquals(expected.getErrorMessage(), actual.getErrorMessage());
+        }
+        assertEquals("Insufficient balance", transactionMapper.toResponseDTO(transactions.get(3)).getErrorMessage());
+        assertNull(transactionMapper.toResponseDTO(transactions.get(3)).getClientBalanceBefore());
+    }
+
+    /**
+     * Tests that a page is mapped element by element, in order, as the reflective mapping of each element.
+     */
+    @Test
+    void testGeneratedListMappingKeepsOrder() {
+        List<Transaction> page = historyPage(5);
+
+        List<TransactionResponseDTO> dtos = transactionMapper.toResponseDTOs(page);
+
+        assertEquals(page.size(), dtos.size());
+        for (int i = 0; i < page.size(); i++) {
+            assertEquals(reflectiveMapping(page.get(i)), dtos.get(i));
+        }
+    }
+
+    /**
+     * The reflective mapping previously used by the {@code TransactionController}.
+     *
+     * @param transaction The transaction to map.
+     * @return The mapped DTO.
+     */
+    private static TransactionResponseDTO reflectiveMapping(Transaction transaction) {
+        TransactionResponseDTO dto = new TransactionResponseDTO();
+        BeanUtils.copyProperties(transaction, dto);
+        return dto;
+    }
+
+    /**
+     * Builds a history page of fully populated transactions.
+     *
+     * @param size The number of transactions.
+     * @return The transactions.
+     */
+    private static List<Transaction> historyPage(int size) {
+        List<Transaction> page = new ArrayList<>(size);
+        LocalDateTime date = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 0; i < size; i++) {
+            BigDecimal amount = BigDecimal.valueOf(75_000 + i);
+            page.add(new Transaction("id" + i, "tx" + i, "client1", "1", "FPV_BTG_PACTUAL_RECAUDADORA",
+                    TransactionType.SUSCRIPTION, amount, date.plusMinutes(i),
+                    BigDecimal.valueOf(500_000), BigDecimal.valueOf(500_000).subtract(amount),
+                    "COMPLETED", null));
+        }
+        return page;
+    }
+}
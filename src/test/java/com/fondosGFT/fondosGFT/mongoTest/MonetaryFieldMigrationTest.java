@@ -0,0 +1,358 @@
+package com.fondosGFT.fondosGFT.mongoTest;
+
+import com.fondosGFT.fondosGFT.config.mongo.MonetaryFieldMigration;
+import com.fondosGFT.fondosGFT.model.client.Client;
+import com.fondosGFT.fondosGFT.model.fund.Fund;
+import com.fondosGFT.fondosGFT.model.transaction.Transaction;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link MonetaryFieldMigration}.
+ * The collections are held in memory, and the filters and pipeline updates the migration sends are applied to them
+ * by a small evaluator of the operators it uses, so the tests check the converted documents rather than the shape
+ * of the commands.
+ * <p>
+ * {@code @ExtendWith(MockitoExtension.class)} enables Mockito annotations for JUnit 5.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class MonetaryFieldMigrationTest {
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link MongoTemplate}.
+     * This mock will hand out the in-memory collections.
+     */
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * The documents of each in-memory collection, by collection name.
+     */
+    private final Map<String, List<Document>> collections = new HashMap<>();
+
+    /**
+     * The in-memory collections handed out by the template, by collection name.
+     */
+    private final Map<String, MongoCollection<Document>> collectionMocks = new HashMap<>();
+
+    /**
+     * The number of documents modified by each update of a collection, by collection name.
+     */
+    private final Map<String, List<Long>> modifiedCounts = new HashMap<>();
+
+    /**
+     * Sets up the collections of clients, transactions and funds, with amounts stored as strings, doubles and
+     * {@code Decimal128}.
+     */
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.getCollectionName(Client.class)).thenReturn("clients");
+        when(mongoTemplate.getCollectionName(Transaction.class)).thenReturn("transactions");
+        when(mongoTemplate.getCollectionName(Fund.class)).thenReturn("funds");
+        when(mongoTemplate.getCollection(anyString())).thenAnswer(invocation -> collection(invocation.getArgument(0)));
+
+        collections.put("clients", new ArrayList<>(List.of(
+                new Document("_id", "client1").append("currentBalance", "500000")
+                        .append("activeInvestments", new ArrayList<>(List.of(new Document("fundId", "1")
+                                .append("initialAmountInvested", 75000.5).append("currentAmount", "75000.5")))),
+                new Document("_id", "client2").append("currentBalance", 123456.789),
+                new Document("_id", "client3").append("currentBalance", decimal("1000.00"))
+                        .append("activeInvestments", new ArrayList<>()))));
+        collections.put("transactions", new ArrayList<>(List.of(
+                new Document("_id", "tx1").append("amount", "150000").append("clientBalanceBefore", 0.1)
+                        .append("clientBalanceAfter", decimal("349999.90")))));
+        collections.put("funds", new ArrayList<>(List.of(
+                new Document("_id", "1").append("minimumSubscriptionAmount", 75000.0))));
+        collections.put("migrations", new ArrayList<>());
+    }
+
+    /**
+     * Tests that string and double amounts, top-level or in embedded investments, are converted to
+     * {@code Decimal128} with two decimal places, and that amounts already stored as {@code Decimal128} are kept.
+     */
+    @Test
+    void testStringAndDoubleAmountsBecomeDecimal128WithCents() {
+        new MonetaryFieldMigration(mongoTemplate, true).run();
+
+        Document client1 = document("clients", "client1");
+        assertAmount("500000.00", client1.get("currentBalance"));
+        Document investment = client1.getList("activeInvestments", Document.class).get(0);
+        assertAmount("75000.50", investment.get("initialAmountInvested"));
+        assertAmount("75000.50", investment.get("currentAmount"));
+        assertEquals("1", investment.get("fundId"));
+        assertAmount("123456.79", document("clients", "client2").get("currentBalance"));
+        assertAmount("1000.00", document("clients", "client3").get("currentBalance"));
+
+        Document transaction = document("transactions", "tx1");
+        assertAmount("150000.00", transaction.get("amount"));
+        assertAmount("0.10", transaction.get("clientBalanceBefore"));
+        assertAmount("349999.90", transaction.get("clientBalanceAfter"));
+        assertAmount("75000.00", document("funds", "1").get("minimumSubscriptionAmount"));
+
+        assertEquals(1, collections.get("migrations").size());
+    }
+
+    /**
+     * Tests that a second run finds the migration recorded and sends no update at all.
+     */
+    @Test
+    void testSecondRunIsSkipped() {
+        MonetaryFieldMigration migration = new MonetaryFieldMigration(mongoTemplate, true);
+        migration.run();
+        List<Document> migrated = copy("clients");
+
+        migration.run();
+
+        verify(collectionMocks.get("clients"), times(1)).updateMany(any(Document.class), anyList());
+        verify(collectionMocks.get("transactions"), times(1)).updateMany(any(Document.class), anyList());
+        verify(collectionMocks.get("funds"), times(1)).updateMany(any(Document.class), anyList());
+        assertEquals(migrated, collections.get("clients"));
+        assertEquals(1, collections.get("migrations").size());
+    }
+
+    /**
+     * Tests that the converted documents are not matched again, so even a run whose record was lost modifies nothing.
+     */
+    @Test
+    void testConvertedDocumentsAreNotMatchedAgain() {
+        new MonetaryFieldMigration(mongoTemplate, true).run();
+        List<Document> migrated = copy("clients");
+        collections.get("migrations").clear();
+
+        new MonetaryFieldMigration(mongoTemplate, true).run();
+
+        assertEquals(migrated, collections.get("clients"));
+        verify(collectionMocks.get("clients"), times(2)).updateMany(any(Document.class), anyList());
+        assertEquals(List.of(2L, 0L), modifiedCounts.get("clients"));
+    }
+
+    /**
+     * Returns the in-memory collection of a name, answering the operations the migration sends.
+     *
+     * @param name The collection name.
+     * @return The collection.
+     */
+    @SuppressWarnings("unchecked")
+    private MongoCollection<Document> collection(String name) {
+        return collectionMocks.computeIfAbsent(name, key -> {
+            MongoCollection<Document> collection = mock(MongoCollection.class);
+            List<Document> documents = collections.get(key);
+            lenient().when(collection.countDocuments(any(Document.class))).thenAnswer(invocation ->
+                    documents.stream().filter(document -> matches(document, invocation.getArgument(0))).count());
+            lenient().when(collection.insertOne(any(Document.class))).thenAnswer(invocation -> {
+                documents.add(invocation.getArgument(0));
+                return null;
+            });
+            lenient().when(collection.updateMany(any(Document.class), anyList())).thenAnswer(invocation -> {
+                Document filter = invocation.getArgument(0);
+                List<Document> pipeline = invocation.getArgument(1);
+                long matched = 0;
+                long modified = 0;
+                for (Document document : documents) {
+                    if (matches(document, filter)) {
+                        matched++;
+                        Document before = Document.parse(document.toJson());
+                        pipeline.forEach(stage -> stage.get("$set", Document.class)
+                                .forEach((field, expression) -> document.put(field, evaluate(expression, document, Map.of()))));
+                        modified += before.equals(Document.parse(document.toJson())) ? 0 : 1;
+                    }
+                }
+                modifiedCounts.computeIfAbsent(key, ignored -> new ArrayList<>()).add(modified);
+                return UpdateResult.acknowledged(matched, modified, null);
+            });
+            return collection;
+        });
+    }
+
+    /**
+     * Tells whether a document matches a filter made of equalities, {@code $or} and {@code $type} conditions.
+     *
+     * @param document The document.
+     * @param filter   The filter.
+     * @return {@code true} if the document matches.
+     */
+    private static boolean matches(Document document, Document filter) {
+        for (Map.Entry<String, Object> condition : filter.entrySet()) {
+            if ("$or".equals(condition.getKey())) {
+                if (((List<?>) condition.getValue()).stream().noneMatch(branch -> matches(document, (Document) branch))) {
+                    return false;
+                }
+            } else if (condition.getValue() instanceof Document operator && operator.containsKey("$type")) {
+                List<?> types = operator.get("$type") instanceof List<?> list ? list : List.of(operator.get("$type"));
+                if (values(document, condition.getKey()).stream().noneMatch(value -> types.contains(typeOf(value)))) {
+                    return false;
+                }
+            } else if (!condition.getValue().equals(document.get(condition.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the values at a dotted path, descending into arrays as MongoDB does.
+     *
+     * @param value The document or array to read.
+     * @param path  The dotted path.
+     * @return The values found.
+     */
+    private static List<Object> values(Object value, String path) {
+        if (value instanceof List<?> list) {
+            List<Object> found = new ArrayList<>();
+            list.forEach(element -> found.addAll(values(element, path)));
+            return found;
+        }
+        if (!(value instanceof Document document)) {
+            return List.of();
+        }
+        int dot = path.indexOf('.');
+        Object field = document.get(dot < 0 ? path : path.substring(0, dot));
+        if (field == null) {
+            return List.of();
+        }
+        return dot < 0 ? List.of(field) : values(field, path.substring(dot + 1));
+    }
+
+    /**
+     * Returns the BSON type alias of a value.
+     *
+     * @param value The value.
+     * @return The type alias, such as {@code string}.
+     */
+    private static String typeOf(Object value) {
+        if (value instanceof String) {
+            return "string";
+        }
+        if (value instanceof Double) {
+            return "double";
+        }
+        return value instanceof Decimal128 ? "decimal" : value.getClass().getSimpleName();
+    }
+
+    /**
+     * Evaluates an aggregation expression made of field paths, variables and the operators the migration uses.
+     *
+     * @param expression The expression.
+     * @param root       The document the field paths refer to.
+     * @param variables  The variables bound by {@code $map}.
+     * @return The value of the expression.
+     */
+    private static Object evaluate(Object expression, Document root, Map<String, Object> variables) {
+        if (expression instanceof String path && path.startsWith("$$")) {
+            String[] parts = path.substring(2).split("\\.", 2);
+            Object variable = variables.get(parts[0]);
+            return parts.length == 1 ? variable : ((Document) variable).get(parts[1]);
+        }
+        if (expression instanceof String path && path.startsWith("$")) {
+            return root.get(path.substring(1));
+        }
+        if (expression instanceof List<?> list) {
+            return list.stream().map(element -> evaluate(element, root, variables)).toList();
+        }
+        if (!(expression instanceof Document document)) {
+            return expression;
+        }
+        if (document.containsKey("$toDecimal")) {
+            Object value = evaluate(document.get("$toDecimal"), root, variables);
+            if (value instanceof String string) {
+                return new Decimal128(new BigDecimal(string));
+            }
+            // MongoDB converts a double to the decimal of its 15 significant digits
+            return value instanceof Double number ? new Decimal128(new BigDecimal(number, new MathContext(15))) : value;
+        }
+        if (document.containsKey("$round")) {
+            List<?> arguments = document.getList("$round", Object.class);
+            Decimal128 value = (Decimal128) evaluate(arguments.get(0), root, variables);
+            return new Decimal128(value.bigDecimalValue().setScale((Integer) arguments.get(1), RoundingMode.HALF_EVEN));
+        }
+        if (document.containsKey("$ifNull")) {
+            List<?> arguments = document.getList("$ifNull", Object.class);
+            Object value = evaluate(arguments.get(0), root, variables);
+            return value != null ? value : evaluate(arguments.get(1), root, variables);
+        }
+        if (document.containsKey("$map")) {
+            Document map = document.get("$map", Document.class);
+            List<Object> mapped = new ArrayList<>();
+            for (Object element : (List<?>) evaluate(map.get("input"), root, variables)) {
+                Map<String, Object> bound = new HashMap<>(variables);
+                bound.put(map.getString("as"), element);
+                mapped.add(evaluate(map.get("in"), root, bound));
+            }
+            return mapped;
+        }
+        if (document.containsKey("$mergeObjects")) {
+            Document merged = new Document();
+            document.getList("$mergeObjects", Object.class)
+                    .forEach(argument -> merged.putAll((Document) evaluate(argument, root, variables)));
+            return merged;
+        }
+        Document evaluated = new Document();
+        document.forEach((field, value) -> evaluated.put(field, evaluate(value, root, variables)));
+        return evaluated;
+    }
+
+    /**
+     * Asserts that an amount is a {@code Decimal128} with the expected value and scale.
+     *
+     * @param expected The expected amount, with its scale.
+     * @param actual   The stored value.
+     */
+    private static void assertAmount(String expected, Object actual) {
+        Decimal128 amount = assertInstanceOf(Decimal128.class, actual);
+        assertEquals(new BigDecimal(expected), amount.bigDecimalValue());
+    }
+
+    /**
+     * Builds a {@code Decimal128} amount.
+     *
+     * @param amount The amount.
+     * @return The {@code Decimal128} value.
+     */
+    private static Decimal128 decimal(String amount) {
+        return new Decimal128(new BigDecimal(amount));
+    }
+
+    /**
+     * Returns a document of an in-memory collection.
+     *
+     * @param collection The collection name.
+     * @param id         The {@code _id} of the document.
+     * @return The document.
+     */
+    private Document document(String collection, String id) {
+        return collections.get(collection).stream().filter(document -> id.equals(document.get("_id"))).findFirst().orElseThrow();
+    }
+
+    /**
+     * Returns a deep copy of the documents of an in-memory collection.
+     *
+     * @param collection The collection name.
+     * @return The copies.
+     */
+    private List<Document> copy(String collection) {
+        return collections.get(collection).stream().map(document -> Document.parse(document.toJson())).toList();
+    }
+}
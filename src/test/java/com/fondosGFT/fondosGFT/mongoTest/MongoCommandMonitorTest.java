@@ -0,0 +1,171 @@
+package com.fondosGFT.fondosGFT.mongoTest;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fondosGFT.fondosGFT.config.mongo.MongoCommandMonitor;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link MongoCommandMonitor}.
+ * This class feeds the monitor the driver events of hand-built commands, and checks the collection each command is
+ * timed under, the filter shapes of the slow-command log and the round trips counted for the current request.
+ */
+class MongoCommandMonitorTest {
+
+    /**
+     * The driver's description of the connection the commands are sent on.
+     */
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    private final AtomicInteger requestIds = new AtomicInteger();
+    private MeterRegistry meterRegistry;
+    private MongoCommandMonitor monitor;
+    private ListAppender<ILoggingEvent> logs;
+
+    /**
+     * Sets up a monitor logging the commands slower than 100 milliseconds, and captures its log.
+     */
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new MongoCommandMonitor(meterRegistry, 100);
+        logs = new ListAppender<>();
+        logs.start();
+        ((Logger) LoggerFactory.getLogger(MongoCommandMonitor.class)).addAppender(logs);
+    }
+
+    /**
+     * Detaches the captured log and ends any request left open by a test.
+     */
+    @AfterEach
+    void tearDown() {
+        ((Logger) LoggerFactory.getLogger(MongoCommandMonitor.class)).detachAppender(logs);
+        MongoCommandMonitor.endRequest();
+    }
+
+    /**
+     * Tests that a command is timed under the collection named by the command, that a {@code getMore} is timed under
+     * the collection of its {@code collection} field, and that a command without a collection is timed under
+     * {@code none}.
+     */
+    @Test
+    void testCommandsAreTimedByTargetCollection() {
+        send("find", "{find: 'clients', filter: {_id: 'client1'}}", 1);
+        send("getMore", "{getMore: {$numberLong: '42'}, collection: 'transactions'}", 1);
+        send("ping", "{ping: 1}", 1);
+
+        assertEquals(1, timer("find", "clients").count());
+        assertEquals(1, timer("getMore", "transactions").count());
+        assertEquals(1, timer("ping", "none").count());
+        assertTrue(logs.list.isEmpty());
+    }
+
+    /**
+     * Tests that a slow command is logged with the shape of its filter: field names and operators are kept, the
+     * branches of {@code $or} keep their own shapes, and every value, including the elements of an {@code $in},
+     * is replaced by {@code ?}.
+     */
+    @Test
+    void testSlowCommandLogsFilterShapeWithoutValues() {
+        send("find", "{find: 'transactions', filter: {clientId: 'client1', $or: [{status: 'COMPLETED'},"
+                + " {amount: {$gte: 50000}}], fundId: {$in: ['1', '2']}}}", 250);
+
+        String message = slowCommandLog();
+        assertTrue(message.contains("find on transactions took 250 ms (success)"), message);
+        assertTrue(message.endsWith("filter {clientId: ?, $or: [{status: ?}, {amount: {$gte: ?}}], fundId: {$in: [?]}}"), message);
+        assertFalse(message.contains("client1"), message);
+        assertFalse(message.contains("50000"), message);
+    }
+
+    /**
+     * Tests that the filter of a slow update is read from its first statement.
+     */
+    @Test
+    void testSlowUpdateLogsFilterShapeOfFirstStatement() {
+        send("update", "{update: 'clients', updates: [{q: {_id: 'client1', currentBalance: {$gte: 100}},"
+                + " u: {$inc: {currentBalance: -100}}}]}", 150);
+
+        String message = slowCommandLog();
+        assertTrue(message.contains("update on clients"), message);
+        assertTrue(message.endsWith("filter {_id: ?, currentBalance: {$gte: ?}}"), message);
+    }
+
+    /**
+     * Tests that the round trips of a request are counted only on the thread serving it, and that the count is
+     * reset once the request ends.
+     */
+    @Test
+    void testRoundTripsAreCountedForTheCurrentThread() {
+        MongoCommandMonitor.beginRequest("GET /api/clients/client1");
+        send("find", "{find: 'clients', filter: {_id: 'client1'}}", 1);
+        send("find", "{find: 'investments', filter: {clientId: 'client1'}}", 1);
+        CompletableFuture.runAsync(() -> send("find", "{find: 'funds', filter: {}}", 1)).join();
+
+        assertEquals(2, MongoCommandMonitor.endRequest());
+        assertEquals(0, MongoCommandMonitor.endRequest());
+    }
+
+    /**
+     * Sends the started and succeeded events of a command to the monitor.
+     *
+     * @param commandName The command name.
+     * @param command     The command document, in extended JSON.
+     * @param millis      The latency reported for the command.
+     */
+    private void send(String commandName, String command, long millis) {
+        int requestId = requestIds.incrementAndGet();
+        BsonDocument document = BsonDocument.parse(command);
+        monitor.commandStarted(new CommandStartedEvent(null, requestId, requestId, CONNECTION,
+                "fondos", commandName, document));
+        monitor.commandSucceeded(new CommandSucceededEvent(null, requestId, requestId, CONNECTION,
+                "fondos", commandName, new BsonDocument(), TimeUnit.MILLISECONDS.toNanos(millis)));
+    }
+
+    /**
+     * Returns the timer of the successful commands of a kind on a collection.
+     *
+     * @param command    The command name.
+     * @param collection The collection tag.
+     * @return The timer.
+     */
+    private Timer timer(String command, String collection) {
+        return meterRegistry.get(MongoCommandMonitor.COMMANDS_TIMER)
+                .tag("command", command)
+                .tag("collection", collection)
+                .tag("outcome", "success")
+                .timer();
+    }
+
+    /**
+     * Returns the single slow-command message logged by the monitor.
+     *
+     * @return The formatted message.
+     */
+    private String slowCommandLog() {
+        List<ILoggingEvent> events = logs.list;
+        assertEquals(1, events.size());
+        return events.get(0).getFormattedMessage();
+    }
+}
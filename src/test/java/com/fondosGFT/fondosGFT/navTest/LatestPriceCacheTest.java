@@ -0,0 +1,117 @@
+package com.fondosGFT.fondosGFT.navTest;
+
+import com.fondosGFT.fondosGFT.model.fund.Fund;
+import com.fondosGFT.fondosGFT.model.nav.NavBucket;
+import com.fondosGFT.fondosGFT.service.fund.FundCatalog;
+import com.fondosGFT.fondosGFT.service.nav.LatestPriceCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link LatestPriceCache}.
+ * This class uses Mockito to stub the fund catalog and the NAV buckets, and checks where each fund's latest
+ * price comes from and when a recorded NAV replaces it.
+ */
+@ExtendWith(MockitoExtension.class)
+class LatestPriceCacheTest {
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link MongoTemplate}.
+     */
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link FundCatalog}.
+     */
+    @Mock
+    private FundCatalog fundCatalog;
+
+    /**
+     * {@code @InjectMocks} injects the mocks into the {@link LatestPriceCache} under test.
+     */
+    @InjectMocks
+    private LatestPriceCache latestPriceCache;
+
+    /**
+     * Sets up a catalog of three funds: one with NAV history, one with a stored unit price and one with neither.
+     * The most recent bucket of the first fund has no price yet, so its price comes from the previous month.
+     */
+    @BeforeEach
+    void setUp() {
+        Fund priced = new Fund("2", "FDO-ACCIONES", "FIC", new BigDecimal("250000"));
+        priced.setUnitPrice(new BigDecimal("1.25"));
+        when(fundCatalog.findAll()).thenReturn(List.of(
+                new Fund("1", "FPV_BTG_PACTUAL_RECAUDADORA", "FPV", new BigDecimal("75000")),
+                priced,
+                new Fund("3", "DEUDAPRIVADA", "FIC", new BigDecimal("50000"))));
+        when(mongoTemplate.find(any(Query.class), eq(NavBucket.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            if (!"1".equals(query.getQueryObject().get("fundId"))) {
+                return List.of();
+            }
+            long[] february = new long[NavBucket.SLOTS];
+            february[9] = 1_050_000L;
+            february[19] = 1_080_000L;
+            return List.of(
+                    new NavBucket("1:2024-03", "1", LocalDate.of(2024, 3, 1), new long[NavBucket.SLOTS]),
+                    new NavBucket("1:2024-02", "1", LocalDate.of(2024, 2, 1), february));
+        });
+    }
+
+    /**
+     * Tests that each fund is priced at its most recent NAV, else at its stored unit price, else at the initial
+     * unit price, and that a fund outside the catalog is priced at the initial unit price.
+     */
+    @Test
+    void testRefreshPricesFundsFromLatestNavOrFund() {
+        latestPriceCache.refresh();
+
+        assertEquals(new BigDecimal("1.080000"), latestPriceCache.getPrice("1"));
+        assertEquals(new BigDecimal("1.25"), latestPriceCache.getPrice("2"));
+        assertEquals(Fund.INITIAL_UNIT_PRICE, latestPriceCache.getPrice("3"));
+        assertEquals(Fund.INITIAL_UNIT_PRICE, latestPriceCache.getPrice("9"));
+    }
+
+    /**
+     * Tests that a recorded NAV replaces the cached price unless the cache already holds a more recent one,
+     * and that a fund priced from the fund itself takes any recorded NAV.
+     */
+    @Test
+    void testUpdateKeepsMostRecentPrice() {
+        latestPriceCache.update("1", LocalDate.of(2024, 2, 1), new BigDecimal("0.990000"));
+        assertEquals(new BigDecimal("1.080000"), latestPriceCache.getPrice("1"));
+
+        latestPriceCache.update("1", LocalDate.of(2024, 3, 4), new BigDecimal("1.100000"));
+        assertEquals(new BigDecimal("1.100000"), latestPriceCache.getPrice("1"));
+
+        latestPriceCache.update("2", LocalDate.of(2020, 1, 1), new BigDecimal("1.300000"));
+        assertEquals(new BigDecimal("1.300000"), latestPriceCache.getPrice("2"));
+    }
+
+    /**
+     * Tests that the prices are loaded once, on first use, rather than on every lookup.
+     */
+    @Test
+    void testPricesLoadedOnFirstUseOnly() {
+        latestPriceCache.getPrice("1");
+        latestPriceCache.getPrice("2");
+
+        verify(fundCatalog, times(1)).findAll();
+    }
+}
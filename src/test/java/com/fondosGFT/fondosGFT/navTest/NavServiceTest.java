@@ -0,0 +1,183 @@
+package com.fondosGFT.fondosGFT.navTest;
+
+import com.fondosGFT.fondosGFT.model.fund.Fund;
+import com.fondosGFT.fondosGFT.model.nav.NavBucket;
+import com.fondosGFT.fondosGFT.model.nav.dto.NavHistoryDTO;
+import com.fondosGFT.fondosGFT.service.fund.FundCatalog;
+import com.fondosGFT.fondosGFT.service.nav.LatestPriceCache;
+import com.fondosGFT.fondosGFT.service.nav.NavService;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link NavService}.
+ * This class uses Mockito to stub the NAV buckets read from MongoDB, and checks how prices are recorded into
+ * their day slot and how a history range is cut at its boundaries and down-sampled.
+ */
+@ExtendWith(MockitoExtension.class)
+class NavServiceTest {
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link MongoTemplate}.
+     */
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link FundCatalog}.
+     */
+    @Mock
+    private FundCatalog fundCatalog;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link LatestPriceCache}.
+     */
+    @Mock
+    private LatestPriceCache latestPriceCache;
+
+    private NavService navService;
+
+    /**
+     * Builds the service with a limit of 100 points per response, for a known fund.
+     */
+    @BeforeEach
+    void setUp() {
+        navService = new NavService(mongoTemplate, fundCatalog, latestPriceCache, 100);
+        lenient().when(fundCatalog.findById("1"))
+                .thenReturn(Optional.of(new Fund("1", "FPV_BTG_PACTUAL_RECAUDADORA", "FPV", new BigDecimal("75000"))));
+    }
+
+    /**
+     * Tests that a NAV is rounded to six decimals and written to the slot of its day in the bucket of its month,
+     * once the bucket exists, and passed on to the latest price cache.
+     */
+    @Test
+    void testRecordSetsDaySlotOfMonthBucket() {
+        LocalDate date = LocalDate.of(2024, 2, 15);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+
+        navService.record("1", date, new BigDecimal("10.1234565"));
+
+        verify(mongoTemplate).upsert(query.capture(), any(Update.class), eq(NavBucket.class));
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(NavBucket.class));
+        assertEquals("1:2024-02", query.getValue().getQueryObject().get("id"));
+        assertEquals(new Document("navUnits.14", 10_123_456L), update.getValue().getUpdateObject().get("$set"));
+        verify(latestPriceCache).update("1", date, new BigDecimal("10.123456"));
+    }
+
+    /**
+     * Tests that invalid prices are rejected before anything is written.
+     */
+    @Test
+    void testRecordRejectsInvalidPrices() {
+        when(fundCatalog.findById("9")).thenReturn(Optional.empty());
+        LocalDate date = LocalDate.of(2024, 2, 15);
+
+        assertThrows(RuntimeException.class, () -> navService.record("9", date, BigDecimal.ONE));
+        assertThrows(RuntimeException.class, () -> navService.record("1", null, BigDecimal.ONE));
+        assertThrows(RuntimeException.class, () -> navService.record("1", date, BigDecimal.ZERO));
+
+        verifyNoInteractions(mongoTemplate, latestPriceCache);
+    }
+
+    /**
+     * Tests that a range within the limit returns every recorded day between both boundaries, inclusive,
+     * skipping the days without a price and the slots past the end of a short month.
+     */
+    @Test
+    void testHistoryReturnsRecordedDaysWithinBoundaries() {
+        when(mongoTemplate.find(any(Query.class), eq(NavBucket.class))).thenReturn(List.of(
+                bucket(LocalDate.of(2023, 1, 1), 31),
+                bucket(LocalDate.of(2023, 2, 1), 31)));
+
+        NavHistoryDTO history = navService.getHistory("1", LocalDate.of(2023, 1, 30), LocalDate.of(2023, 2, 28), 100);
+
+        assertFalse(history.isDownsampled());
+        assertEquals(30, history.getDates().size());
+        assertEquals(LocalDate.of(2023, 1, 30), history.getDates().get(0));
+        assertEquals(LocalDate.of(2023, 2, 28), history.getDates().get(29));
+        assertEquals(new BigDecimal("1.000030"), history.getNavs().get(0));
+        assertEquals(new BigDecimal("1.000028"), history.getNavs().get(29));
+    }
+
+    /**
+     * Tests that a range with more prices than requested keeps the last price of each equally sized interval,
+     * so the last point is always the most recent price of the range.
+     */
+    @Test
+    void testHistoryDownsamplesToLastPriceOfEachInterval() {
+        when(mongoTemplate.find(any(Query.class), eq(NavBucket.class))).thenReturn(List.of(bucket(LocalDate.of(2024, 3, 1), 10)));
+
+        NavHistoryDTO history = navService.getHistory("1", LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), 3);
+
+        assertTrue(history.isDownsampled());
+        assertEquals(List.of(LocalDate.of(2024, 3, 3), LocalDate.of(2024, 3, 6), LocalDate.of(2024, 3, 10)), history.getDates());
+        assertEquals(List.of(new BigDecimal("1.000003"), new BigDecimal("1.000006"), new BigDecimal("1.000010")), history.getNavs());
+    }
+
+    /**
+     * Tests that the number of points requested is capped by the configured limit.
+     */
+    @Test
+    void testHistoryCapsPointsAtConfiguredLimit() {
+        when(mongoTemplate.find(any(Query.class), eq(NavBucket.class))).thenReturn(IntStream.range(0, 12)
+                .mapToObj(month -> bucket(LocalDate.of(2024, 1, 1).plusMonths(month), 31))
+                .toList());
+
+        NavHistoryDTO history = navService.getHistory("1", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), 1_000);
+
+        assertTrue(history.isDownsampled());
+        assertEquals(100, history.getDates().size());
+        assertEquals(LocalDate.of(2024, 12, 31), history.getDates().get(99));
+    }
+
+    /**
+     * Tests that invalid ranges and point counts are rejected without querying the buckets.
+     */
+    @Test
+    void testHistoryRejectsInvalidRequests() {
+        LocalDate day = LocalDate.of(2024, 3, 1);
+
+        assertThrows(RuntimeException.class, () -> navService.getHistory("1", day, day.minusDays(1), 10));
+        assertThrows(RuntimeException.class, () -> navService.getHistory("1", null, day, 10));
+        assertThrows(RuntimeException.class, () -> navService.getHistory("1", day, day, 0));
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    /**
+     * Builds the bucket of a month whose first {@code days} slots hold a price of {@code 1 + day / 1,000,000},
+     * so each price tells its day apart. The other slots hold no price.
+     *
+     * @param month The first day of the month.
+     * @param days  The number of days with a price.
+     * @return The bucket.
+     */
+    private static NavBucket bucket(LocalDate month, int days) {
+        long[] navUnits = new long[NavBucket.SLOTS];
+        for (int slot = 0; slot < days; slot++) {
+            navUnits[slot] = 1_000_000L + slot + 1;
+        }
+        return new NavBucket("1:" + month, "1", month, navUnits);
+    }
+}
@@ -0,0 +1,254 @@
+package com.fondosGFT.fondosGFT.notificationTest;
+
+import com.fondosGFT.fondosGFT.model.notification.NotificationOutbox;
+import com.fondosGFT.fondosGFT.repository.notification.NotificationOutboxRepository;
+import com.fondosGFT.fondosGFT.service.notification.NotificationDispatcher;
+import com.fondosGFT.fondosGFT.service.notification.NotificationService;
+import com.fondosGFT.fondosGFT.util.NotificationRequest;
+import com.pruebagft.gestionFondosGFT.util.enums.NotificationType;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link NotificationDispatcher}.
+ * This class uses Mockito to provide the outbox entries and the delivery outcomes, and checks the claim of each
+ * entry and the outcome recorded for it.
+ * <p>
+ * {@code @ExtendWith(MockitoExtension.class)} enables Mockito annotations for JUnit 5.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationDispatcherTest {
+
+    /**
+     * The lease of a claimed entry, in seconds.
+     */
+    private static final long LEASE_SECONDS = 60;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link NotificationOutboxRepository}.
+     * This mock will provide the entries eligible for delivery.
+     */
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link NotificationService}.
+     * This mock will simulate the SES/SNS deliveries.
+     */
+    @Mock
+    private NotificationService notificationService;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link MongoTemplate}.
+     * This mock will simulate the claims and the recorded outcomes of the entries.
+     */
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * The dispatcher under test, giving up after 3 attempts.
+     */
+    private NotificationDispatcher dispatcher;
+
+    /**
+     * Sets up a dispatcher delivering on two threads, with a 60 second lease and at most 3 attempts.
+     */
+    @BeforeEach
+    void setUp() {
+        dispatcher = new NotificationDispatcher(outboxRepository, notificationService, mongoTemplate,
+                10, 2, 3, LEASE_SECONDS);
+    }
+
+    /**
+     * Stops the delivery pool of the dispatcher.
+     *
+     * @throws InterruptedException if interrupted while waiting for the pool to terminate.
+     */
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    /**
+     * Tests that a claimed entry is delivered with its addressee, subject, message and type, and marked as sent.
+     */
+    @Test
+    void testDeliveredEntryIsMarkedAsSent() {
+        NotificationOutbox entry = entry("n1", NotificationOutbox.STATUS_PENDING, 0, LocalDateTime.now().minusSeconds(5));
+        pending(entry);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(NotificationOutbox.class))).thenReturn(claimed(entry, 1));
+        when(notificationService.deliver(any(NotificationRequest.class))).thenReturn(true);
+
+        dispatcher.dispatchPending();
+
+        ArgumentCaptor<NotificationRequest> request = ArgumentCaptor.forClass(NotificationRequest.class);
+        verify(notificationService).deliver(request.capture());
+        assertEquals("alice@example.com", request.getValue().getAddressee());
+        assertEquals("Subscription confirmed", request.getValue().getSubject());
+        assertEquals("You subscribed to FPV_BTG_PACTUAL_RECAUDADORA", request.getValue().getMessage());
+        assertEquals(NotificationType.EMAIL, request.getValue().getType());
+
+        Document outcome = outcome("n1");
+        assertEquals(NotificationOutbox.STATUS_SENT, outcome.get("$set", Document.class).get("status"));
+        assertTrue(outcome.get("$unset", Document.class).containsKey("errorMessage"));
+    }
+
+    /**
+     * Tests that a failed delivery with attempts left is made pending again, after a backoff of one lease per attempt.
+     */
+    @Test
+    void testFailedDeliveryIsRescheduled() {
+        NotificationOutbox entry = entry("n1", NotificationOutbox.STATUS_PENDING, 1, LocalDateTime.now().minusSeconds(5));
+        pending(entry);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(NotificationOutbox.class))).thenReturn(claimed(entry, 2));
+        when(notificationService.deliver(any(NotificationRequest.class))).thenReturn(false);
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.dispatchPending();
+
+        Document set = outcome("n1").get("$set", Document.class);
+        assertEquals(NotificationOutbox.STATUS_PENDING, set.get("status"));
+        assertEquals("Delivery attempt 2 failed", set.get("errorMessage"));
+        LocalDateTime availableAt = (LocalDateTime) set.get("availableAt");
+        assertFalse(availableAt.isBefore(before.plusSeconds(2 * LEASE_SECONDS)));
+        assertFalse(availableAt.isAfter(LocalDateTime.now().plusSeconds(2 * LEASE_SECONDS)));
+    }
+
+    /**
+     * Tests that an entry left in {@code SENDING} by a dispatcher whose lease expired is claimed again, extending the
+     * lease and counting the attempt, and delivered.
+     */
+    @Test
+    void testExpiredLeaseIsReclaimed() {
+        NotificationOutbox abandoned = entry("n1", NotificationOutbox.STATUS_SENDING, 1, LocalDateTime.now().minusSeconds(1));
+        pending(abandoned);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(NotificationOutbox.class))).thenReturn(claimed(abandoned, 2));
+        when(notificationService.deliver(any(NotificationRequest.class))).thenReturn(true);
+
+        dispatcher.dispatchPending();
+
+        ArgumentCaptor<Query> claim = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> lease = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).findAndModify(claim.capture(), lease.capture(), any(FindAndModifyOptions.class),
+                eq(NotificationOutbox.class));
+        Document filter = claim.getValue().getQueryObject();
+        assertEquals("n1", filter.get("id"));
+        assertEquals(List.of(NotificationOutbox.STATUS_PENDING, NotificationOutbox.STATUS_SENDING),
+                filter.get("status", Document.class).get("$in"));
+        assertTrue(filter.get("availableAt", Document.class).containsKey("$lte"));
+        Document update = lease.getValue().getUpdateObject();
+        assertEquals(NotificationOutbox.STATUS_SENDING, update.get("$set", Document.class).get("status"));
+        assertEquals(1, update.get("$inc", Document.class).get("attempts"));
+        assertEquals(NotificationOutbox.STATUS_SENT, outcome("n1").get("$set", Document.class).get("status"));
+    }
+
+    /**
+     * Tests that an entry claimed first by another dispatcher is neither delivered nor updated.
+     */
+    @Test
+    void testEntryClaimedByAnotherDispatcherIsSkipped() {
+        pending(entry("n1", NotificationOutbox.STATUS_PENDING, 0, LocalDateTime.now().minusSeconds(5)));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(NotificationOutbox.class))).thenReturn(null);
+
+        dispatcher.dispatchPending();
+
+        verifyNoInteractions(notificationService);
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(NotificationOutbox.class));
+    }
+
+    /**
+     * Tests that a failed delivery on the last attempt marks the entry as failed instead of rescheduling it.
+     */
+    @Test
+    void testEntryOutOfAttemptsIsMarkedAsFailed() {
+        NotificationOutbox entry = entry("n1", NotificationOutbox.STATUS_PENDING, 2, LocalDateTime.now().minusSeconds(5));
+        pending(entry);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(NotificationOutbox.class))).thenReturn(claimed(entry, 3));
+        when(notificationService.deliver(any(NotificationRequest.class))).thenReturn(false);
+
+        dispatcher.dispatchPending();
+
+        Document set = outcome("n1").get("$set", Document.class);
+        assertEquals(NotificationOutbox.STATUS_FAILED, set.get("status"));
+        assertEquals("Delivery failed after 3 attempts", set.get("errorMessage"));
+        assertFalse(set.containsKey("availableAt"));
+    }
+
+    /**
+     * Makes the repository return the given entries as eligible for delivery.
+     *
+     * @param entries The eligible entries.
+     */
+    private void pending(NotificationOutbox... entries) {
+        when(outboxRepository.findByStatusInAndAvailableAtLessThanEqualOrderByAvailableAtAsc(anyCollection(),
+                any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(entries));
+    }
+
+    /**
+     * Builds an outbox entry for an email notification.
+     *
+     * @param id          The ID of the entry.
+     * @param status      The status of the entry.
+     * @param attempts    The delivery attempts already made.
+     * @param availableAt The time the entry becomes claimable.
+     * @return The entry.
+     */
+    private static NotificationOutbox entry(String id, String status, int attempts, LocalDateTime availableAt) {
+        return new NotificationOutbox(id, "tx-" + id, "alice@example.com", "Subscription confirmed",
+                "You subscribed to FPV_BTG_PACTUAL_RECAUDADORA", NotificationType.EMAIL, status, attempts,
+                availableAt.minusMinutes(1), availableAt, null);
+    }
+
+    /**
+     * Returns an entry as the claim returns it: sending, under a new lease, with the attempt counted.
+     *
+     * @param entry    The entry before the claim.
+     * @param attempts The attempts counted by the claim.
+     * @return The claimed entry.
+     */
+    private static NotificationOutbox claimed(NotificationOutbox entry, int attempts) {
+        return new NotificationOutbox(entry.getId(), entry.getTransactionId(), entry.getAddressee(), entry.getSubject(),
+                entry.getMessage(), entry.getType(), NotificationOutbox.STATUS_SENDING, attempts, entry.getCreatedAt(),
+                LocalDateTime.now().plusSeconds(LEASE_SECONDS), entry.getErrorMessage());
+    }
+
+    /**
+     * Returns the outcome recorded for an entry.
+     *
+     * @param id The ID of the entry.
+     * @return The update applied to the entry.
+     */
+    private Document outcome(String id) {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(NotificationOutbox.class));
+        assertEquals(id, query.getValue().getQueryObject().get("id"));
+        return update.getValue().getUpdateObject();
+    }
+}
@@ -0,0 +1,166 @@
+package com.fondosGFT.fondosGFT.portfolioTest;
+
+import com.fondosGFT.fondosGFT.model.client.Client;
+import com.fondosGFT.fondosGFT.model.investment.Investment;
+import com.fondosGFT.fondosGFT.model.portfolio.dto.PortfolioPositionDTO;
+import com.fondosGFT.fondosGFT.model.portfolio.dto.PortfolioResponseDTO;
+import com.fondosGFT.fondosGFT.service.client.ClientService;
+import com.fondosGFT.fondosGFT.service.nav.LatestPriceCache;
+import com.fondosGFT.fondosGFT.service.portfolio.PortfolioService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link PortfolioService}.
+ * This class uses Mockito to provide the client and the latest fund prices, and checks the profit and loss,
+ * the allocation and the totals of the valuation.
+ */
+@ExtendWith(MockitoExtension.class)
+class PortfolioServiceTest {
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link ClientService}.
+     */
+    @Mock
+    private ClientService clientService;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link LatestPriceCache}.
+     */
+    @Mock
+    private LatestPriceCache latestPriceCache;
+
+    /**
+     * {@code @InjectMocks} injects the mocks into the {@link PortfolioService} under test.
+     */
+    @InjectMocks
+    private PortfolioService portfolioService;
+
+    private Client client;
+
+    /**
+     * Sets up a client with a cash balance and no positions before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        client = new Client();
+        client.setId("client1");
+        client.setCurrentBalance(new BigDecimal("300000.00"));
+        client.setActiveInvestments(new ArrayList<>());
+    }
+
+    /**
+     * Tests the valuation of a position that gained and one that lost value, one of them recorded before units
+     * were tracked: each position reports its market value, profit and loss and share of the portfolio, and the
+     * totals add them up.
+     */
+    @Test
+    void testPortfolioValuesPositionsAtLatestPrices() {
+        client.getActiveInvestments().add(investment("1", "FPV_BTG_PACTUAL_RECAUDADORA", "100000", new BigDecimal("100000")));
+        client.getActiveInvestments().add(investment("2", "FDO-ACCIONES", "100000", null));
+        when(clientService.getClienteById("client1")).thenReturn(Optional.of(client));
+        when(latestPriceCache.getPrice("1")).thenReturn(new BigDecimal("1.10"));
+        when(latestPriceCache.getPrice("2")).thenReturn(new BigDecimal("0.90"));
+
+        PortfolioResponseDTO portfolio = portfolioService.getPortfolio("client1").orElseThrow();
+
+        assertEquals("client1", portfolio.getClientId());
+        assertEquals(new BigDecimal("300000.00"), portfolio.getCashBalance());
+        assertEquals(new BigDecimal("200000"), portfolio.getTotalInvested());
+        assertEquals(new BigDecimal("200000.00"), portfolio.getTotalMarketValue());
+        assertEquals(new BigDecimal("0.00"), portfolio.getTotalProfitAndLoss());
+
+        PortfolioPositionDTO gain = portfolio.getPositions().get(0);
+        assertEquals(new BigDecimal("110000.00"), gain.getMarketValue());
+        assertEquals(new BigDecimal("10000.00"), gain.getProfitAndLoss());
+        assertEquals(new BigDecimal("10.00"), gain.getProfitAndLossPercentage());
+        assertEquals(new BigDecimal("55.00"), gain.getAllocationPercentage());
+
+        PortfolioPositionDTO loss = portfolio.getPositions().get(1);
+        assertEquals(0, new BigDecimal("100000").compareTo(loss.getUnits()));
+        assertEquals(new BigDecimal("0.90"), loss.getUnitPrice());
+        assertEquals(new BigDecimal("90000.00"), loss.getMarketValue());
+        assertEquals(new BigDecimal("-10000.00"), loss.getProfitAndLoss());
+        assertEquals(new BigDecimal("-10.00"), loss.getProfitAndLossPercentage());
+        assertEquals(new BigDecimal("45.00"), loss.getAllocationPercentage());
+    }
+
+    /**
+     * Tests that a position whose fund is worth nothing reports a total loss, and that the allocation of a
+     * portfolio worth nothing is zero rather than a division by zero.
+     */
+    @Test
+    void testPortfolioWorthNothingHasZeroAllocation() {
+        client.getActiveInvestments().add(investment("1", "FPV_BTG_PACTUAL_RECAUDADORA", "50000", new BigDecimal("50000")));
+        when(clientService.getClienteById("client1")).thenReturn(Optional.of(client));
+        when(latestPriceCache.getPrice("1")).thenReturn(BigDecimal.ZERO);
+
+        PortfolioPositionDTO position = portfolioService.getPortfolio("client1").orElseThrow().getPositions().get(0);
+
+        assertEquals(new BigDecimal("-50000.00"), position.getProfitAndLoss());
+        assertEquals(new BigDecimal("-100.00"), position.getProfitAndLossPercentage());
+        assertEquals(new BigDecimal("0.00"), position.getAllocationPercentage());
+    }
+
+    /**
+     * Tests that a client without positions, whether their list is empty or missing, has a portfolio of cash only.
+     */
+    @Test
+    void testEmptyPortfolioHoldsOnlyCash() {
+        client.setActiveInvestments(null);
+        when(clientService.getClienteById("client1")).thenReturn(Optional.of(client));
+
+        PortfolioResponseDTO portfolio = portfolioService.getPortfolio("client1").orElseThrow();
+
+        assertTrue(portfolio.getPositions().isEmpty());
+        assertEquals(new BigDecimal("300000.00"), portfolio.getCashBalance());
+        assertEquals(0, BigDecimal.ZERO.compareTo(portfolio.getTotalInvested()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(portfolio.getTotalMarketValue()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(portfolio.getTotalProfitAndLoss()));
+        verifyNoInteractions(latestPriceCache);
+    }
+
+    /**
+     * Tests that no portfolio is returned for an unknown client.
+     */
+    @Test
+    void testPortfolioOfUnknownClientIsEmpty() {
+        when(clientService.getClienteById("missing")).thenReturn(Optional.empty());
+
+        assertTrue(portfolioService.getPortfolio("missing").isEmpty());
+        verify(latestPriceCache, never()).getPrice(anyString());
+    }
+
+    /**
+     * Builds an active investment.
+     *
+     * @param fundId   The ID of the fund.
+     * @param fundName The name of the fund.
+     * @param invested The amount invested.
+     * @param units    The units held, or {@code null} for an investment recorded before units were tracked.
+     * @return The investment.
+     */
+    private static Investment investment(String fundId, String fundName, String invested, BigDecimal units) {
+        Investment investment = new Investment();
+        investment.setClientId("client1");
+        investment.setFundId(fundId);
+        investment.setFundName(fundName);
+        investment.setInitialAmountInvested(new BigDecimal(invested));
+        investment.setCurrentAmount(new BigDecimal(invested));
+        investment.setUnits(units);
+        return investment;
+    }
+}
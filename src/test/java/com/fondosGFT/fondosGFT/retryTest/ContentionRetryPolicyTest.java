@@ -0,0 +1,145 @@
+package com.fondosGFT.fondosGFT.retryTest;
+
+import com.fondosGFT.fondosGFT.service.retry.ContentionRetryPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ContentionRetryPolicy}.
+ * This class checks the bounds of the jittered backoff, the retry budget, and the contention counters
+ * published to an in-memory registry.
+ */
+class ContentionRetryPolicyTest {
+
+    /**
+     * The in-memory registry the contention counters are published to.
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * Sets up a fresh registry before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    /**
+     * Tests that each pause lies between 0 and {@code base * 2^(attempt - 1)}, capped at the maximum backoff,
+     * and that it is actually drawn at random within those bounds.
+     */
+    @Test
+    void testBackoffStaysWithinJitterBounds() {
+        ContentionRetryPolicy retryPolicy = new ContentionRetryPolicy(meterRegistry, 5, 5, 200);
+        long[] ceilings = {5, 10, 20, 40, 80, 160, 200, 200};
+
+        for (int attempt = 1; attempt <= ceilings.length; attempt++) {
+            Set<Long> pauses = new HashSet<>();
+            for (int sample = 0; sample < 500; sample++) {
+                long pause = retryPolicy.backoffMs(attempt);
+                assertTrue(pause >= 0 && pause <= ceilings[attempt - 1],
+                        "Pause " + pause + " out of bounds for attempt " + attempt);
+                pauses.add(pause);
+            }
+            assertTrue(pauses.size() > 1, "Pauses of attempt " + attempt + " are not jittered");
+        }
+        assertTrue(retryPolicy.backoffMs(64) <= 200);
+    }
+
+    /**
+     * Tests that a zero base backoff retries without pausing.
+     */
+    @Test
+    void testZeroBackoffNeverPauses() {
+        ContentionRetryPolicy retryPolicy = new ContentionRetryPolicy(meterRegistry, 5, 0, 200);
+
+        assertEquals(0, retryPolicy.backoffMs(1));
+        assertEquals(0, retryPolicy.backoffMs(10));
+    }
+
+    /**
+     * Tests that work succeeding after a version conflict is run again, and that the retry is counted
+     * without counting an exhausted budget.
+     */
+    @Test
+    void testRetriesVersionConflictUntilSuccess() {
+        ContentionRetryPolicy retryPolicy = new ContentionRetryPolicy(meterRegistry, 3, 1, 2);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retryPolicy.execute("subscribe", "client1", ContentionRetryPolicy::versionConflict, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new OptimisticLockingFailureException("Version mismatch");
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(2, attempts.get());
+        assertEquals(1.0, count(ContentionRetryPolicy.RETRIES_COUNTER, "subscribe"));
+        assertEquals(0.0, count(ContentionRetryPolicy.EXHAUSTED_COUNTER, "subscribe"));
+    }
+
+    /**
+     * Tests that the last conflict is rethrown once the attempts are exhausted, with every retry and the
+     * exhausted budget counted.
+     */
+    @Test
+    void testRethrowsConflictOnceAttemptsAreExhausted() {
+        ContentionRetryPolicy retryPolicy = new ContentionRetryPolicy(meterRegistry, 3, 1, 2);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () ->
+                retryPolicy.execute("cancel", "client1", ContentionRetryPolicy::versionConflict, () -> {
+                    attempts.incrementAndGet();
+                    throw new OptimisticLockingFailureException("Version mismatch");
+                }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, count(ContentionRetryPolicy.RETRIES_COUNTER, "cancel"));
+        assertEquals(1.0, count(ContentionRetryPolicy.EXHAUSTED_COUNTER, "cancel"));
+    }
+
+    /**
+     * Tests that a failure that is not contention is thrown at once and not counted.
+     */
+    @Test
+    void testDoesNotRetryOtherFailures() {
+        ContentionRetryPolicy retryPolicy = new ContentionRetryPolicy(meterRegistry, 3, 1, 2);
+        AtomicInteger attempts = new AtomicInteger();
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                retryPolicy.execute("subscribe", "client1", ContentionRetryPolicy::versionConflict, () -> {
+                    attempts.incrementAndGet();
+                    throw new RuntimeException("Insufficient balance");
+                }));
+
+        assertEquals("Insufficient balance", exception.getMessage());
+        assertEquals(1, attempts.get());
+        assertNull(meterRegistry.find(ContentionRetryPolicy.RETRIES_COUNTER).counter());
+        assertNull(meterRegistry.find(ContentionRetryPolicy.EXHAUSTED_COUNTER).counter());
+    }
+
+    /**
+     * Returns the value of a contention counter for a version conflict.
+     *
+     * @param name      The counter name.
+     * @param operation The operation tag.
+     * @return The count, or 0 if the counter was never registered.
+     */
+    private double count(String name, String operation) {
+        Counter counter = meterRegistry.find(name)
+                .tag("operation", operation)
+                .tag("reason", ContentionRetryPolicy.VERSION_CONFLICT)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,283 @@
+package com.fondosGFT.fondosGFT.revaluationTest;
+
+import com.fondosGFT.fondosGFT.model.fund.Fund;
+import com.fondosGFT.fondosGFT.model.investment.Investment;
+import com.fondosGFT.fondosGFT.model.revaluation.dto.RevaluationResultDTO;
+import com.fondosGFT.fondosGFT.service.client.ClientService;
+import com.fondosGFT.fondosGFT.service.fund.FundCatalog;
+import com.fondosGFT.fondosGFT.service.nav.NavService;
+import com.fondosGFT.fondosGFT.service.revaluation.RevaluationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link RevaluationService}.
+ * This class uses Mockito to isolate the engine from the "investments" and "funds" collections,
+ * allowing for focused testing of how partitions are run, how a failed partition ends the run,
+ * and of the metrics following its progress.
+ * <p>
+ * {@code @ExtendWith(MockitoExtension.class)} enables Mockito annotations for JUnit 5.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class RevaluationServiceTest {
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link MongoTemplate}.
+     * This mock will simulate the partitioning, the investment cursors and the bulk updates.
+     */
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link FundCatalog}.
+     * This mock will simulate the in-memory fund lookups.
+     */
+    @Mock
+    private FundCatalog fundCatalog;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link NavService}.
+     * This mock will record the new unit prices in the NAV history.
+     */
+    @Mock
+    private NavService navService;
+
+    /**
+     * The in-memory registry the revaluation metrics are published to.
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * The cache manager holding the clients cache.
+     */
+    private ConcurrentMapCacheManager cacheManager;
+
+    /**
+     * The service under test, revaluing up to two partitions at a time in bulk writes of two updates.
+     */
+    private RevaluationService revaluationService;
+
+    /**
+     * Sets up the service before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new ConcurrentMapCacheManager(ClientService.CLIENTS_CACHE);
+        revaluationService = new RevaluationService(mongoTemplate, fundCatalog, navService, cacheManager, meterRegistry, 2, 2, 2);
+        lenient().when(fundCatalog.findById("1"))
+                .thenReturn(Optional.of(new Fund("1", "Fondo BTG Liquidez", "FPV", new BigDecimal("100000.00"))));
+        lenient().when(mongoTemplate.getCollectionName(Investment.class)).thenReturn("investments");
+    }
+
+    /**
+     * Stops the pools of the service after each test.
+     */
+    @AfterEach
+    void tearDown() {
+        revaluationService.shutdown();
+    }
+
+    /**
+     * Tests a complete run: every investment is revalued at {@code units x unitPrice} in bulk writes, the unit
+     * price is stored on the fund and in its NAV history, the clients cache is cleared and the metrics report
+     * the run as finished.
+     */
+    @Test
+    void testRevalueUpdatesEveryInvestment() {
+        stubPartitions(3);
+        when(mongoTemplate.stream(any(Query.class), eq(Investment.class))).thenAnswer(invocation -> Stream.of(
+                investment("a", "1000.000000"), investment("b", "2000.000000"), investment("c", "500.000000")));
+        BulkOperations updates = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Investment.class)).thenReturn(updates);
+        BulkOperations prices = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Fund.class)).thenReturn(prices);
+        cacheManager.getCache(ClientService.CLIENTS_CACHE).put("client1", "stale");
+
+        RevaluationResultDTO result = revaluationService.revalue(Map.of("1", new BigDecimal("12.50")));
+
+        assertEquals(3, result.getPositions());
+        assertEquals(1, result.getPartitions());
+        verify(updates, times(2)).execute(); // One full bulk write of two updates and one of the remainder
+        verify(updates).updateOne(any(Query.class), argThat((Update update) ->
+                new Decimal128(new BigDecimal("25000.00")).equals(update.getUpdateObject().get("$set", Document.class).get("currentAmount"))));
+        verify(prices).execute();
+        verify(fundCatalog).refresh();
+        verify(navService).record("1", LocalDate.now(), new BigDecimal("12.50"));
+        assertNull(cacheManager.getCache(ClientService.CLIENTS_CACHE).get("client1"));
+        assertEquals(3.0, meterRegistry.get("fondos.revaluation.positions").counter().count());
+        assertEquals(1.0, meterRegistry.get("fondos.revaluation.progress").gauge().value());
+        assertEquals(0.0, meterRegistry.get("fondos.revaluation.running").gauge().value());
+    }
+
+    /**
+     * Tests that a run submitted in the background reports its progress through the gauges while it runs,
+     * and that a second revaluation is refused until it has finished.
+     */
+    @Test
+    void testSubmitRunsInBackgroundAndRefusesConcurrentRuns() throws Exception {
+        stubPartitions(4);
+        CountDownLatch halfway = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(mongoTemplate.stream(any(Query.class), eq(Investment.class))).thenAnswer(invocation -> Stream.of(0, 1, 2, 3)
+                .map(i -> {
+                    if (i == 2) { // The first bulk write of two updates has been executed
+                        halfway.countDown();
+                        await(release);
+                    }
+                    return investment("id" + i, "100.000000");
+                }));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Investment.class)).thenReturn(mock(BulkOperations.class));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Fund.class)).thenReturn(mock(BulkOperations.class));
+
+        CompletableFuture<RevaluationResultDTO> run = revaluationService.submit(Map.of("1", new BigDecimal("11.00")));
+        assertTrue(halfway.await(5, TimeUnit.SECONDS));
+
+        assertEquals(1.0, meterRegistry.get("fondos.revaluation.running").gauge().value());
+        assertEquals(0.5, meterRegistry.get("fondos.revaluation.progress").gauge().value());
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> revaluationService.submit(Map.of("1", new BigDecimal("11.00"))));
+        assertEquals("A revaluation is already running.", exception.getMessage());
+
+        release.countDown();
+        assertEquals(4, run.get(5, TimeUnit.SECONDS).getPositions());
+        assertEquals(0.0, meterRegistry.get("fondos.revaluation.running").gauge().value());
+    }
+
+    /**
+     * Tests that when a partition fails the run is only reported finished once its sibling partitions have
+     * stopped, that the siblings stop at their next investment, and that the failure is counted.
+     */
+    @Test
+    void testFailedPartitionWaitsForSiblingsBeforeFinishing() throws Exception {
+        stubPartitions(2, 2);
+        CountDownLatch siblingStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger cursors = new AtomicInteger();
+        List<String> revalued = new ArrayList<>();
+        when(mongoTemplate.stream(any(Query.class), eq(Investment.class))).thenAnswer(invocation -> {
+            if (cursors.incrementAndGet() == 1) {
+                siblingStarted.countDown();
+                return Stream.of("x", "y").map(id -> {
+                    await(release);
+                    revalued.add(id);
+                    return investment(id, "100.000000");
+                });
+            }
+            assertTrue(siblingStarted.await(5, TimeUnit.SECONDS));
+            throw new IllegalStateException("cursor killed");
+        });
+        lenient().when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Investment.class)).thenReturn(mock(BulkOperations.class));
+
+        CompletableFuture<RevaluationResultDTO> run = revaluationService.submit(Map.of("1", new BigDecimal("11.00")));
+
+        assertThrows(TimeoutException.class, () -> run.get(300, TimeUnit.MILLISECONDS));
+        assertEquals(1.0, meterRegistry.get("fondos.revaluation.running").gauge().value());
+
+        release.countDown();
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> run.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause().getMessage().contains("cursor killed"));
+        assertEquals(List.of("x"), revalued); // The sibling stopped after the investment it was reading
+        assertEquals(0.0, meterRegistry.get("fondos.revaluation.running").gauge().value());
+        assertEquals(1.0, meterRegistry.get("fondos.revaluation.failures").counter().count());
+        verify(fundCatalog, never()).refresh();
+        verify(navService, never()).record(anyString(), any(LocalDate.class), any(BigDecimal.class));
+    }
+
+    /**
+     * Tests that an invalid request is refused before the run is claimed, so a valid one can still start.
+     */
+    @Test
+    void testInvalidRequestDoesNotClaimTheRun() {
+        when(fundCatalog.findById("9")).thenReturn(Optional.empty());
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> revaluationService.submit(Map.of("9", new BigDecimal("11.00"))));
+
+        assertEquals("Fund not found with ID: 9", exception.getMessage());
+        assertThrows(RuntimeException.class, () -> revaluationService.submit(Map.of("1", BigDecimal.ZERO)));
+        assertEquals(0.0, meterRegistry.get("fondos.revaluation.running").gauge().value());
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    /**
+     * Stubs the {@code $bucketAuto} partitioning of the investments.
+     *
+     * @param counts The number of investments in each partition.
+     */
+    private void stubPartitions(long... counts) {
+        List<Document> buckets = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            buckets.add(new Document("_id", new Document("min", "id" + i).append("max", "id" + (i + 1))).append("count", counts[i]));
+        }
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("investments"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(buckets, new Document()));
+    }
+
+    /**
+     * Builds an investment as read by a partition cursor.
+     *
+     * @param id    The investment ID.
+     * @param units The units held.
+     * @return The {@link Investment}.
+     */
+    private static Investment investment(String id, String units) {
+        Investment investment = new Investment("client1", "1", "Fondo BTG Liquidez", new BigDecimal("100000.00"),
+                new BigDecimal("100000.00"), LocalDateTime.now(), "tx-" + id);
+        investment.setId(id);
+        investment.setUnits(new BigDecimal(units));
+        return investment;
+    }
+
+    /**
+     * Waits for a latch on behalf of a partition, failing it if the test never releases the latch.
+     *
+     * @param latch The latch to wait for.
+     */
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("The test did not release the partition");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.fondosGFT.fondosGFT.serverTimingTest;
+
+import com.fondosGFT.fondosGFT.config.web.ServerTimingFilter;
+import com.fondosGFT.fondosGFT.controller.client.ClientController;
+import com.fondosGFT.fondosGFT.controller.transaction.TransactionController;
+import com.fondosGFT.fondosGFT.mapper.client.ClientMapperImpl;
+import com.fondosGFT.fondosGFT.mapper.investment.InvestmentMapperImpl;
+import com.fondosGFT.fondosGFT.mapper.transaction.TransactionMapperImpl;
+import com.fondosGFT.fondosGFT.model.client.Client;
+import com.fondosGFT.fondosGFT.model.transaction.Transaction;
+import com.fondosGFT.fondosGFT.service.client.ClientService;
+import com.fondosGFT.fondosGFT.service.idempotency.IdempotencyService;
+import com.fondosGFT.fondosGFT.service.portfolio.PortfolioService;
+import com.fondosGFT.fondosGFT.service.transaction.TransactionService;
+import com.fondosGFT.fondosGFT.util.enums.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.matchesRegex;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@code Server-Timing} header.
+ * This class uses {@code @WebMvcTest} with {@code fondos.server-timing.enabled} set, so the requests go through the
+ * {@link ServerTimingFilter}, the security filters and the handler interceptor and response advice that split the
+ * handler time, with the service layer mocked.
+ */
+@WebMvcTest(controllers = {ClientController.class, TransactionController.class},
+        properties = "fondos.server-timing.enabled=true")
+@Import({ClientMapperImpl.class, InvestmentMapperImpl.class, TransactionMapperImpl.class})
+class ServerTimingFilterTest {
+
+    /**
+     * A duration of the header, in milliseconds with three decimals.
+     */
+    private static final String DURATION = ";dur=\\d+\\.\\d{3}";
+
+    /**
+     * {@link MockMvc} is used to simulate HTTP requests through the filter chain.
+     */
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * {@link MockBean} providing the {@link ClientService} the client controller depends on.
+     */
+    @MockBean
+    private ClientService clientService;
+
+    /**
+     * {@link MockBean} providing the {@link PortfolioService} the client controller depends on.
+     */
+    @MockBean
+    private PortfolioService portfolioService;
+
+    /**
+     * {@link MockBean} providing the {@link TransactionService} the transaction controller depends on.
+     */
+    @MockBean
+    private TransactionService transactionService;
+
+    /**
+     * {@link MockBean} providing the {@link IdempotencyService} the transaction controller depends on.
+     */
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    /**
+     * Tests that a request served by a handler reports its total time, then the filters before the handler, the
+     * handler itself and the serialization of its body, in that order.
+     */
+    @Test
+    void testHandledRequestReportsEveryStage() throws Exception {
+        Client client = new Client();
+        client.setId("client1");
+        client.setFirstName("Alice");
+        when(clientService.getClienteById("client1")).thenReturn(Optional.of(client));
+
+        mockMvc.perform(get("/api/clients/client1").with(user("client1").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("client1"))
+                .andExpect(header().string(ServerTimingFilter.SERVER_TIMING_HEADER, matchesRegex(
+                        "total" + DURATION + ", filters" + DURATION + ", controller" + DURATION + ", serialization" + DURATION)));
+    }
+
+    /**
+     * Tests that a request rejected by the security filters, which never reaches a handler, still gets the header,
+     * with the whole request reported as {@code filters}.
+     */
+    @Test
+    void testRequestRejectedBySecurityReportsFiltersOnly() throws Exception {
+        mockMvc.perform(get("/api/clients/client1"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(ServerTimingFilter.SERVER_TIMING_HEADER,
+                        matchesRegex("total" + DURATION + ", filters" + DURATION)));
+    }
+
+    /**
+     * Tests that a streamed export is written straight through rather than buffered, and is therefore sent
+     * without the header.
+     */
+    @Test
+    void testStreamedExportIsNotBuffered() throws Exception {
+        LocalDateTime date = LocalDateTime.of(2024, 1, 1, 9, 0);
+        when(transactionService.streamTransactionsHistory("client1")).thenReturn(Stream.of(
+                new Transaction("id1", "tx1", "client1", "1", "FPV_BTG_PACTUAL_RECAUDADORA", TransactionType.SUSCRIPTION,
+                        BigDecimal.valueOf(75_000), date, BigDecimal.valueOf(500_000), BigDecimal.valueOf(425_000), "COMPLETED", null)));
+
+        MvcResult started = mockMvc.perform(get("/api/transactions/history/client1/export").with(user("client1").roles("USER")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ServerTimingFilter.SERVER_TIMING_HEADER))
+                .andExpect(content().string(matchesRegex("\\{\"id\":\"id1\".*\\}\n")));
+    }
+}
@@ -0,0 +1,221 @@
+package com.fondosGFT.fondosGFT.transactionTest;
+
+import com.fondosGFT.fondosGFT.exception.PendingOperationsLimitException;
+import com.fondosGFT.fondosGFT.service.transaction.ClientLaneExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ClientLaneExecutor}.
+ * This class runs real lanes to check how operations are routed by client, the order they run in,
+ * the queue-depth gauges and the rejection of operations beyond a lane's capacity.
+ */
+class ClientLaneExecutorTest {
+
+    /**
+     * The in-memory registry the queue-depth gauges are published to.
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * The executor under test, when a test starts lanes.
+     */
+    private ClientLaneExecutor clientLanes;
+
+    /**
+     * Releases the operations blocked by a test.
+     */
+    private CountDownLatch release;
+
+    /**
+     * The threads submitting operations concurrently, standing for concurrent requests.
+     */
+    private ExecutorService callers;
+
+    /**
+     * Sets up a fresh registry and latch before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        release = new CountDownLatch(1);
+        callers = Executors.newFixedThreadPool(3);
+    }
+
+    /**
+     * Releases any blocked operation and stops the lanes after each test.
+     *
+     * @throws InterruptedException if interrupted while waiting for the lanes to stop.
+     */
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        callers.shutdownNow();
+        if (clientLanes != null) {
+            clientLanes.shutdown();
+        }
+    }
+
+    /**
+     * Tests that with lanes disabled operations run on the calling thread and no gauge is published.
+     */
+    @Test
+    void testDisabledLanesRunOnCallingThread() {
+        clientLanes = new ClientLaneExecutor(meterRegistry, false, 4, 10, 1);
+
+        assertFalse(clientLanes.isEnabled());
+        assertEquals(Thread.currentThread().getName(), clientLanes.execute("client1", () -> Thread.currentThread().getName()));
+        assertTrue(meterRegistry.find(ClientLaneExecutor.QUEUE_DEPTH_GAUGE).gauges().isEmpty());
+    }
+
+    /**
+     * Tests that a client is always routed to the same lane, and that clients are spread over every lane.
+     */
+    @Test
+    void testClientsAreHashedToStableLanes() {
+        clientLanes = new ClientLaneExecutor(meterRegistry, true, 4, 10, 1);
+
+        String lane = clientLanes.execute("client1", () -> Thread.currentThread().getName());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(lane, clientLanes.execute("client1", () -> Thread.currentThread().getName()));
+        }
+        Set<String> lanesUsed = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            lanesUsed.add(clientLanes.execute("client" + i, () -> Thread.currentThread().getName()));
+        }
+        assertEquals(Set.of("client-lane-0", "client-lane-1", "client-lane-2", "client-lane-3"), lanesUsed);
+        assertEquals(4, meterRegistry.find(ClientLaneExecutor.QUEUE_DEPTH_GAUGE).gauges().size());
+    }
+
+    /**
+     * Tests that the operations of one client run one at a time, in the order they arrived, while the queue-depth
+     * gauge reports the operations waiting behind the running one.
+     */
+    @Test
+    void testOperationsOfOneClientRunInArrivalOrder() throws Exception {
+        clientLanes = new ClientLaneExecutor(meterRegistry, true, 4, 10, 1);
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch running = new CountDownLatch(1);
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> clientLanes.execute("client1", () -> {
+            running.countDown();
+            await(release);
+            order.add(1);
+            return 1;
+        }), callers);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() -> clientLanes.execute("client1", () -> {
+            order.add(2);
+            return 2;
+        }), callers);
+        awaitQueueDepth(1);
+        CompletableFuture<Integer> third = CompletableFuture.supplyAsync(() -> clientLanes.execute("client1", () -> {
+            order.add(3);
+            return 3;
+        }), callers);
+        awaitQueueDepth(2);
+
+        assertTrue(order.isEmpty());
+        release.countDown();
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        assertEquals(2, second.get(5, TimeUnit.SECONDS));
+        assertEquals(3, third.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2, 3), order);
+        awaitQueueDepth(0);
+    }
+
+    /**
+     * Tests that an operation arriving at a full lane is rejected with a {@link PendingOperationsLimitException}
+     * carrying the configured retry delay, without running.
+     */
+    @Test
+    void testFullLaneRejectsWithRetryAfter() throws Exception {
+        clientLanes = new ClientLaneExecutor(meterRegistry, true, 1, 1, 7);
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<String> blocked = CompletableFuture.supplyAsync(() -> clientLanes.execute("client1", () -> {
+            running.countDown();
+            await(release);
+            return "first";
+        }), callers);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> clientLanes.execute("client2", () -> "second"), callers);
+        awaitQueueDepth(1);
+
+        PendingOperationsLimitException exception = assertThrows(PendingOperationsLimitException.class,
+                () -> clientLanes.execute("client3", () -> fail("A rejected operation must not run")));
+
+        assertEquals(7, exception.getRetryAfterSeconds());
+        release.countDown();
+        assertEquals("first", blocked.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that an operation started from a lane runs directly on it, rather than waiting for another lane.
+     */
+    @Test
+    void testNestedOperationRunsOnCurrentLane() {
+        clientLanes = new ClientLaneExecutor(meterRegistry, true, 4, 10, 1);
+
+        String[] threads = clientLanes.execute("client1", () -> new String[]{
+                Thread.currentThread().getName(),
+                clientLanes.execute("client2", () -> Thread.currentThread().getName())});
+
+        assertEquals(threads[0], threads[1]);
+    }
+
+    /**
+     * Waits until the operations queued over all lanes reach the expected count.
+     *
+     * @param expected The expected number of queued operations.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private void awaitQueueDepth(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queueDepth() != expected) {
+            assertTrue(System.nanoTime() < deadline, "Queue depth stayed at " + queueDepth() + " instead of " + expected);
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Returns the number of operations queued over all lanes, as published by the gauges.
+     *
+     * @return The total queue depth.
+     */
+    private double queueDepth() {
+        return meterRegistry.find(ClientLaneExecutor.QUEUE_DEPTH_GAUGE).gauges().stream().mapToDouble(Gauge::value).sum();
+    }
+
+    /**
+     * Waits for a latch on behalf of an operation, failing it if the test never releases the latch.
+     *
+     * @param latch The latch to wait for.
+     */
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("The test did not release the operation");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
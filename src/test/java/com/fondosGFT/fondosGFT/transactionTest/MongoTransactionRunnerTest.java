@@ -0,0 +1,242 @@
+package com.fondosGFT.fondosGFT.transactionTest;
+
+import com.fondosGFT.fondosGFT.config.mongo.MongoTransactionConfig;
+import com.fondosGFT.fondosGFT.service.retry.ContentionRetryPolicy;
+import com.fondosGFT.fondosGFT.service.transaction.MongoTransactionRunner;
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.MongoException;
+import com.mongodb.client.ClientSession;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link MongoTransactionRunner} and the transaction manager of the {@code multi-document}
+ * mode.
+ * This class runs real transaction managers over a mocked MongoDB session, and checks which failures run the
+ * transaction again, which only retry its commit, and which are reported as they are.
+ */
+@ExtendWith(MockitoExtension.class)
+class MongoTransactionRunnerTest {
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link MongoDatabaseFactory}, which opens the sessions.
+     */
+    @Mock
+    private MongoDatabaseFactory databaseFactory;
+
+    /**
+     * {@code @Mock} creates a mock instance of the {@link ClientSession} the transactions run in.
+     */
+    @Mock
+    private ClientSession session;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * Opens the mocked session for every transaction.
+     */
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(databaseFactory.getSession(any(ClientSessionOptions.class))).thenReturn(session);
+    }
+
+    /**
+     * Tests that in {@code atomic} mode the work runs once, outside any transaction, and its failure is not retried.
+     */
+    @Test
+    void testAtomicModeRunsWorkOnce() {
+        MongoTransactionRunner runner = new MongoTransactionRunner(Optional.empty(), retryPolicy());
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertFalse(runner.isTransactional());
+        assertThrows(UncategorizedMongoDbException.class, () -> runner.execute("subscribe", "client1", () -> {
+            attempts.incrementAndGet();
+            throw transientError();
+        }));
+        assertEquals(1, attempts.get());
+        verifyNoInteractions(databaseFactory);
+    }
+
+    /**
+     * Tests that a transaction aborted with the {@code TransientTransactionError} label, found on the cause of the
+     * translated exception, is rolled back and run again from the start, and the retry is counted.
+     */
+    @Test
+    void testTransientTransactionErrorRunsTransactionAgain() {
+        MongoTransactionRunner runner = transactionalRunner(0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = runner.execute("subscribe", "client1", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw transientError();
+            }
+            return "committed";
+        });
+
+        assertEquals("committed", result);
+        assertEquals(2, attempts.get());
+        verify(session, times(2)).startTransaction();
+        verify(session, times(1)).abortTransaction();
+        verify(session, times(1)).commitTransaction();
+        assertEquals(1.0, count(ContentionRetryPolicy.RETRIES_COUNTER));
+    }
+
+    /**
+     * Tests that a transaction that keeps conflicting fails once the attempts are exhausted.
+     */
+    @Test
+    void testTransientTransactionErrorGivesUpAfterMaxAttempts() {
+        MongoTransactionRunner runner = transactionalRunner(0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(UncategorizedMongoDbException.class, () -> runner.execute("subscribe", "client1", () -> {
+            attempts.incrementAndGet();
+            throw transientError();
+        }));
+
+        assertEquals(3, attempts.get());
+        verify(session, never()).commitTransaction();
+        assertEquals(1.0, count(ContentionRetryPolicy.EXHAUSTED_COUNTER));
+    }
+
+    /**
+     * Tests that a failure without the transient label, such as a business error, rolls the transaction back
+     * and is not retried.
+     */
+    @Test
+    void testOtherFailuresAreNotRetried() {
+        MongoTransactionRunner runner = transactionalRunner(0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> runner.execute("subscribe", "client1", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("Insufficient balance");
+        }));
+
+        assertEquals(1, attempts.get());
+        verify(session).abortTransaction();
+        assertEquals(0.0, count(ContentionRetryPolicy.RETRIES_COUNTER));
+    }
+
+    /**
+     * Tests that a commit whose result is unknown is retried on its own, without running the work again.
+     */
+    @Test
+    void testUnknownCommitResultRetriesCommitOnly() {
+        MongoTransactionRunner runner = transactionalRunner(3);
+        doThrow(commitError(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL))
+                .doThrow(commitError(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL))
+                .doNothing()
+                .when(session).commitTransaction();
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertEquals(1, runner.execute("cancel", "client1", attempts::incrementAndGet));
+
+        assertEquals(1, attempts.get());
+        verify(session, times(1)).startTransaction();
+        verify(session, times(3)).commitTransaction();
+    }
+
+    /**
+     * Tests that the commit is retried at most the configured number of times.
+     */
+    @Test
+    void testUnknownCommitResultGivesUpAfterCommitRetries() {
+        MongoTransactionRunner runner = transactionalRunner(2);
+        doThrow(commitError(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL)).when(session).commitTransaction();
+
+        assertThrows(TransactionSystemException.class, () -> runner.execute("cancel", "client1", () -> "done"));
+
+        verify(session, times(3)).commitTransaction();
+    }
+
+    /**
+     * Tests that a commit failure without the unknown result label is not retried.
+     */
+    @Test
+    void testCommitFailureWithoutLabelIsNotRetried() {
+        MongoTransactionRunner runner = transactionalRunner(3);
+        doThrow(new MongoException(251, "NoSuchTransaction")).when(session).commitTransaction();
+
+        assertThrows(TransactionSystemException.class, () -> runner.execute("cancel", "client1", () -> "done"));
+
+        verify(session, times(1)).commitTransaction();
+    }
+
+    /**
+     * Builds a runner in {@code multi-document} mode, with the transaction manager of {@link MongoTransactionConfig}.
+     *
+     * @param commitRetries The number of additional commit attempts after an unknown commit result.
+     * @return The runner.
+     */
+    private MongoTransactionRunner transactionalRunner(int commitRetries) {
+        MongoTransactionManager transactionManager = new MongoTransactionConfig()
+                .mongoTransactionManager(databaseFactory, commitRetries, 0);
+        MongoTransactionRunner runner = new MongoTransactionRunner(Optional.of(transactionManager), retryPolicy());
+        assertTrue(runner.isTransactional());
+        return runner;
+    }
+
+    /**
+     * Builds a retry policy of three attempts without pauses.
+     *
+     * @return The retry policy.
+     */
+    private ContentionRetryPolicy retryPolicy() {
+        return new ContentionRetryPolicy(meterRegistry, 3, 0, 0);
+    }
+
+    /**
+     * Builds the exception Spring reports for a write conflict between transactions: a translated exception whose
+     * cause is the driver exception carrying the {@code TransientTransactionError} label.
+     *
+     * @return The exception.
+     */
+    private static RuntimeException transientError() {
+        MongoException conflict = new MongoException(112, "WriteConflict");
+        conflict.addLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+        return new UncategorizedMongoDbException("Write conflict", conflict);
+    }
+
+    /**
+     * Builds a commit failure carrying an error label.
+     *
+     * @param label The error label.
+     * @return The exception.
+     */
+    private static MongoException commitError(String label) {
+        MongoException exception = new MongoException(91, "ShutdownInProgress");
+        exception.addLabel(label);
+        return exception;
+    }
+
+    /**
+     * Returns the value of a contention counter for the transactions aborted with the transient label.
+     *
+     * @param name The counter name.
+     * @return The count, or 0 if the counter was never registered.
+     */
+    private double count(String name) {
+        Counter counter = meterRegistry.find(name)
+                .tag("reason", MongoTransactionRunner.TRANSIENT_TRANSACTION)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,167 @@
+package com.fondosGFT.fondosGFT.transactionTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fondosGFT.fondosGFT.config.web.AsyncRequestConfig;
+import com.fondosGFT.fondosGFT.controller.transaction.TransactionController;
+import com.fondosGFT.fondosGFT.mapper.transaction.TransactionMapperImpl;
+import com.fondosGFT.fondosGFT.model.transaction.Transaction;
+import com.fondosGFT.fondosGFT.model.transaction.dto.TransactionResponseDTO;
+import com.fondosGFT.fondosGFT.service.idempotency.IdempotencyService;
+import com.fondosGFT.fondosGFT.service.transaction.TransactionService;
+import com.fondosGFT.fondosGFT.util.enums.TransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the NDJSON history export of the {@link TransactionController} and the asynchronous request
+ * settings it runs under.
+ * The export body is written to memory, so the tests cover the streaming loop without a servlet container.
+ */
+@ExtendWith(MockitoExtension.class)
+class TransactionControllerExportTest {
+
+    /**
+     * The number of transactions exported, more than two cursor batches of 500.
+     */
+    private static final int HISTORY_SIZE = 1_201;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link TransactionService}.
+     */
+    @Mock
+    private TransactionService transactionService;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link IdempotencyService}.
+     */
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private TransactionController transactionController;
+
+    /**
+     * Builds the controller with the generated mapper before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        transactionController = new TransactionController(transactionService, idempotencyService, objectMapper,
+                new TransactionMapperImpl());
+    }
+
+    /**
+     * Clears the interrupt flag a cancelled export leaves on the test thread.
+     */
+    @AfterEach
+    void tearDown() {
+        Thread.interrupted();
+    }
+
+    /**
+     * Tests that an export spanning several cursor batches writes one line per transaction, in cursor order,
+     * and closes the cursor.
+     */
+    @Test
+    void testExportStreamsEveryCursorBatch() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(transactionService.streamTransactionsHistory("client1"))
+                .thenReturn(history(HISTORY_SIZE).onClose(() -> closed.set(true)));
+
+        List<String> lines = export("client1");
+
+        assertEquals(HISTORY_SIZE, lines.size());
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            TransactionResponseDTO dto = objectMapper.readValue(lines.get(i), TransactionResponseDTO.class);
+            assertEquals("id" + i, dto.getId());
+            assertEquals(BigDecimal.valueOf(1_000 + i), dto.getAmount());
+        }
+        assertTrue(closed.get());
+    }
+
+    /**
+     * Tests that an export cancelled by the timeout stops reading the cursor and closes it.
+     */
+    @Test
+    void testExportStopsWhenCancelled() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Transaction> history = history(HISTORY_SIZE).peek(transaction -> {
+            if ("id600".equals(transaction.getId())) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        when(transactionService.streamTransactionsHistory("client1")).thenReturn(history.onClose(() -> closed.set(true)));
+
+        List<String> lines = export("client1");
+
+        assertEquals(601, lines.size());
+        assertTrue(closed.get());
+    }
+
+    /**
+     * Tests that asynchronous requests run on the bounded export pool under the configured timeout.
+     */
+    @Test
+    void testAsyncSupportUsesExportPoolAndTimeout() {
+        AsyncRequestConfig config = new AsyncRequestConfig(2, 3, 1_234);
+        AsyncSupportConfigurer configurer = new AsyncSupportConfigurer();
+        try {
+            config.configureAsyncSupport(configurer);
+
+            assertEquals(1_234L, ReflectionTestUtils.getField(configurer, "timeout"));
+            ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) ReflectionTestUtils.getField(configurer, "taskExecutor");
+            assertEquals(2, executor.getMaxPoolSize());
+            assertEquals(3, executor.getQueueCapacity());
+            assertEquals("history-export-", executor.getThreadNamePrefix());
+        } finally {
+            config.shutdown();
+        }
+    }
+
+    /**
+     * Runs the export of a client and returns the lines it wrote.
+     *
+     * @param clientId The client whose history is exported.
+     * @return The NDJSON lines.
+     * @throws Exception if the export fails.
+     */
+    private List<String> export(String clientId) throws Exception {
+        ResponseEntity<StreamingResponseBody> response = transactionController.exportClientTransactionHistory(clientId);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    /**
+     * Builds a history of subscriptions, most recent first, as the cursor returns it.
+     *
+     * @param size The number of transactions.
+     * @return The transactions.
+     */
+    private static Stream<Transaction> history(int size) {
+        LocalDateTime date = LocalDateTime.of(2024, 1, 1, 9, 0);
+        return IntStream.range(0, size).mapToObj(i -> new Transaction("id" + i, "tx" + i, "client1", "1",
+                "FPV_BTG_PACTUAL_RECAUDADORA", TransactionType.SUSCRIPTION, BigDecimal.valueOf(1_000 + i),
+                date.minusMinutes(i), BigDecimal.valueOf(500_000), BigDecimal.valueOf(499_000 - i), "COMPLETED", null));
+    }
+}
@@ -0,0 +1,154 @@
+package com.fondosGFT.fondosGFT.transactionTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fondosGFT.fondosGFT.controller.transaction.TransactionController;
+import com.fondosGFT.fondosGFT.exception.GlobalExceptionHandler;
+import com.fondosGFT.fondosGFT.mapper.transaction.TransactionMapperImpl;
+import com.fondosGFT.fondosGFT.model.transaction.Transaction;
+import com.fondosGFT.fondosGFT.service.idempotency.IdempotencyService;
+import com.fondosGFT.fondosGFT.service.transaction.TransactionService;
+import com.fondosGFT.fondosGFT.util.TransactionCursor;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests for the paginated history endpoint of the {@link TransactionController}.
+ * The controller is set up standalone with the {@link GlobalExceptionHandler}, so the tests cover the page
+ * format and the error status without the security configuration.
+ */
+@ExtendWith(MockitoExtension.class)
+class TransactionControllerHistoryTest {
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link TransactionService}.
+     */
+    @Mock
+    private TransactionService transactionService;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link IdempotencyService}.
+     */
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    private MockMvc mockMvc;
+
+    /**
+     * Sets up the standalone {@link MockMvc} before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        TransactionController controller = new TransactionController(transactionService, idempotencyService,
+                new ObjectMapper().findAndRegisterModules(), new TransactionMapperImpl());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    /**
+     * Tests that a page followed by more transactions holds {@code limit} items and a cursor pointing right after
+     * the last one, where the extra transaction fetched by the service is not returned.
+     */
+    @Test
+    void testHistoryPageReturnsItemsAndNextCursor() throws Exception {
+        List<Transaction> transactions = transactions(3, LocalDateTime.of(2024, 3, 1, 10, 0));
+        when(transactionService.getTransactionsHistoryPage("client1", null, 2)).thenReturn(transactions);
+
+        mockMvc.perform(get("/api/transactions/history/client1").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id", is(transactions.get(0).getId())))
+                .andExpect(jsonPath("$.items[1].id", is(transactions.get(1).getId())))
+                .andExpect(jsonPath("$.nextCursor", is(TransactionCursor.encode(transactions.get(1)))));
+    }
+
+    /**
+     * Tests that the last page has no next cursor.
+     */
+    @Test
+    void testLastHistoryPageHasNoNextCursor() throws Exception {
+        when(transactionService.getTransactionsHistoryPage("client1", null, 50))
+                .thenReturn(transactions(1, LocalDateTime.of(2024, 3, 1, 10, 0)));
+
+        mockMvc.perform(get("/api/transactions/history/client1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    /**
+     * Tests that a cursor is passed on decoded, so the next page starts after the transaction it was taken from
+     * even when the following transactions share its date.
+     */
+    @Test
+    void testNextPageStartsAfterCursor() throws Exception {
+        Transaction last = transactions(1, LocalDateTime.of(2024, 3, 1, 10, 0)).get(0);
+        ArgumentCaptor<TransactionCursor> cursor = ArgumentCaptor.forClass(TransactionCursor.class);
+        when(transactionService.getTransactionsHistoryPage(eq("client1"), cursor.capture(), eq(50))).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/transactions/history/client1").param("cursor", TransactionCursor.encode(last)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)));
+
+        assertEquals(new TransactionCursor(last.getDate(), last.getId()), cursor.getValue());
+    }
+
+    /**
+     * Tests that a malformed cursor is answered with {@code 400 Bad Request} without querying the history.
+     */
+    @Test
+    void testMalformedCursorIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/transactions/history/client1").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is(400)))
+                .andExpect(jsonPath("$.message", startsWith("Invalid history cursor")));
+
+        verify(transactionService, never()).getTransactionsHistoryPage(anyString(), any(), anyInt());
+    }
+
+    /**
+     * Builds transactions sharing the same date, most recent ID first, as the history query returns them.
+     *
+     * @param size The number of transactions.
+     * @param date The date of every transaction.
+     * @return The transactions.
+     */
+    private static List<Transaction> transactions(int size, LocalDateTime date) {
+        List<Transaction> transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setId(new ObjectId().toHexString());
+            transaction.setClientId("client1");
+            transaction.setAmount(BigDecimal.valueOf(1_000));
+            transaction.setDate(date);
+            transactions.add(0, transaction);
+        }
+        return transactions;
+    }
+}
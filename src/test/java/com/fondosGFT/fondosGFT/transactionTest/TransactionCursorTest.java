@@ -0,0 +1,82 @@
+package com.fondosGFT.fondosGFT.transactionTest;
+
+import com.fondosGFT.fondosGFT.model.transaction.Transaction;
+import com.fondosGFT.fondosGFT.util.TransactionCursor;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link TransactionCursor} exchanged with API consumers to page through a history.
+ */
+class TransactionCursorTest {
+
+    /**
+     * Tests that a cursor decodes to the date and ID of the transaction it was encoded from, and is URL-safe.
+     */
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        Transaction transaction = new Transaction();
+        transaction.setId(new ObjectId().toHexString());
+        transaction.setDate(LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000));
+
+        String cursor = TransactionCursor.encode(transaction);
+
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"), "Cursor must be URL-safe: " + cursor);
+        assertEquals(new TransactionCursor(transaction.getDate(), transaction.getId()), TransactionCursor.decode(cursor));
+    }
+
+    /**
+     * Tests that two transactions recorded at the same instant get distinct cursors, told apart by their ID.
+     */
+    @Test
+    void testCursorsOfSameDateDifferById() {
+        LocalDateTime date = LocalDateTime.of(2024, 3, 1, 10, 15);
+        Transaction first = new Transaction();
+        first.setId(new ObjectId().toHexString());
+        first.setDate(date);
+        Transaction second = new Transaction();
+        second.setId(new ObjectId().toHexString());
+        second.setDate(date);
+
+        TransactionCursor firstCursor = TransactionCursor.decode(TransactionCursor.encode(first));
+        TransactionCursor secondCursor = TransactionCursor.decode(TransactionCursor.encode(second));
+
+        assertEquals(firstCursor.getDate(), secondCursor.getDate());
+        assertNotEquals(firstCursor.getId(), secondCursor.getId());
+    }
+
+    /**
+     * Tests that malformed cursors are rejected with an {@link IllegalArgumentException}, which the API reports
+     * as {@code 400 Bad Request}.
+     */
+    @Test
+    void testDecodeRejectsMalformedCursors() {
+        String id = new ObjectId().toHexString();
+        for (String cursor : new String[]{
+                "not base64!",
+                encodeRaw("2024-03-01T10:15"),
+                encodeRaw("yesterday|" + id),
+                encodeRaw("2024-03-01T10:15|not-an-object-id"),
+                ""}) {
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> TransactionCursor.decode(cursor), "Cursor should be rejected: " + cursor);
+            assertTrue(exception.getMessage().startsWith("Invalid history cursor"));
+        }
+    }
+
+    /**
+     * Encodes a raw cursor value as the API would.
+     *
+     * @param raw The raw value.
+     * @return The opaque cursor string.
+     */
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,26 +1,71 @@
 package com.fondosGFT.fondosGFT.transactionTest;
 import com.fondosGFT.fondosGFT.model.client.Client;
+import com.fondosGFT.fondosGFT.model.fund.Fund;
+import com.fondosGFT.fondosGFT.model.investment.Investment;
+import com.fondosGFT.fondosGFT.model.nav.NavBucket;
+import com.fondosGFT.fondosGFT.model.portfolio.dto.PortfolioResponseDTO;
+import com.fondosGFT.fondosGFT.model.suscription.dto.SubscriptionRequestDTO;
 import com.fondosGFT.fondosGFT.model.transaction.Transaction;
 import com.fondosGFT.fondosGFT.repository.client.ClientRepository;
+import com.fondosGFT.fondosGFT.repository.investment.InvestmentRepository;
 import com.fondosGFT.fondosGFT.repository.transaction.TransactionRepository;
+import com.fondosGFT.fondosGFT.service.client.ClientService;
+import com.fondosGFT.fondosGFT.service.fund.FundCatalog;
+import com.fondosGFT.fondosGFT.service.fund.FundStatsService;
+import com.fondosGFT.fondosGFT.service.nav.LatestPriceCache;
+import com.fondosGFT.fondosGFT.service.notification.NotificationOutboxService;
 import com.fondosGFT.fondosGFT.service.notification.NotificationService;
+import com.fondosGFT.fondosGFT.service.portfolio.PortfolioService;
+import com.fondosGFT.fondosGFT.service.retry.ContentionRetryPolicy;
+import com.fondosGFT.fondosGFT.service.transaction.ClientLaneExecutor;
+import com.fondosGFT.fondosGFT.service.transaction.MongoTransactionRunner;
 import com.fondosGFT.fondosGFT.service.transaction.TransactionService;
 import com.fondosGFT.fondosGFT.util.NotificationRequest;
+import com.fondosGFT.fondosGFT.util.TransactionCursor;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -56,6 +101,69 @@ class TransactionServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    /**
+     * {@code @Mock} creates a mock instance of {@link FundCatalog}.
+     * This mock will simulate the in-memory fund lookups.
+     */
+    @Mock
+    private FundCatalog fundCatalog;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link NotificationOutboxService}.
+     * This mock will simulate queueing notifications for asynchronous delivery.
+     */
+    @Mock
+    private NotificationOutboxService notificationOutboxService;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link InvestmentRepository}.
+     * This mock will simulate the "investments" collection holding the clients' positions.
+     */
+    @Mock
+    private InvestmentRepository investmentRepository;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link FundStatsService}.
+     * This mock will record the per-fund totals updated by subscriptions and cancellations.
+     */
+    @Mock
+    private FundStatsService fundStatsService;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link LatestPriceCache}.
+     * This mock will provide the unit price subscriptions buy units at.
+     */
+    @Mock
+    private LatestPriceCache latestPriceCache;
+
+    /**
+     * {@code @Mock} creates a mock instance of {@link MongoTemplate}.
+     * This mock will simulate the atomic conditional updates applied to client documents.
+     */
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * {@code @Spy} provides a real in-memory {@link MeterRegistry} for the operation timers.
+     */
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * {@code @Spy} provides a real {@link MongoTransactionRunner} in the default atomic mode,
+     * which runs the work without a MongoDB transaction.
+     */
+    @Spy
+    private MongoTransactionRunner transactionRunner = new MongoTransactionRunner(Optional.empty(),
+            new ContentionRetryPolicy(new SimpleMeterRegistry(), 1, 0, 0));
+
+    /**
+     * {@code @Spy} provides a real {@link ClientLaneExecutor} with lanes disabled,
+     * which runs the operations on the calling thread.
+     */
+    @Spy
+    private ClientLaneExecutor clientLanes = new ClientLaneExecutor(new SimpleMeterRegistry(), false, 1, 1, 1);
+
     /**
      * {@code @InjectMocks} injects the created mocks (like repositories and notification service)
      * into the {@link TransactionService} instance under test.
@@ -66,12 +174,19 @@ class TransactionServiceTest {
     private Client testClient;
     private Transaction testTransaction;
 
+    /**
+     * The bulk inserts stubbed for a batch test, by entity type.
+     */
+    private final Map<Class<?>, BulkOperations> batchInserts = new HashMap<>();
+
     /**
      * Sets up common test data before each test method execution.
-     * Initializes sample {@link Client} and {@link Transaction} objects.
+     * Initializes sample {@link Client} and {@link Transaction} objects, and prices every fund at its initial unit price.
      */
     @BeforeEach
     void setUp() {
+        lenient().when(latestPriceCache.getPrice(anyString())).thenReturn(Fund.INITIAL_UNIT_PRICE);
+
         testClient = new Client();
         testClient.setId("clientId123");
         testClient.setFirstName("Test Client");
@@ -158,5 +273,398 @@ class TransactionServiceTest {
         verify(notificationService, never()).sendNotification(any(NotificationRequest.class));
     }
 
-    // You could add more tests here for failure cases, amount validations, etc.
-}
\ No newline at end of file
+    /**
+     * Tests the {@code subscribeFund} method for a successful scenario.
+     * It asserts that the investment is inserted as its own document, and that the client is updated
+     * through a single conditional {@code findAndModify} and never loaded and saved back in full.
+     */
+    @Test
+    void testSubscribeFundAppliesAtomicUpdate() {
+        Fund fund = new Fund("1", "Fondo BTG Liquidez", "FPV", new BigDecimal("100000.00"));
+        testClient.setCurrentBalance(new BigDecimal("500000.00"));
+
+        when(fundCatalog.findById("1")).thenReturn(Optional.of(fund));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Client.class)))
+                .thenReturn(testClient);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Transaction transaction = transactionService.subscribeFund(testClient.getId(), "1", new BigDecimal("150000.00"));
+
+        assertEquals(new BigDecimal("500000.00"), transaction.getClientBalanceBefore());
+        assertEquals(new BigDecimal("350000.00"), transaction.getClientBalanceAfter());
+        verify(investmentRepository, times(1)).insert(any(Investment.class));
+        verify(fundStatsService, times(1)).recordSubscription("1", new BigDecimal("150000.00"));
+        verify(clientRepository, never()).findById(anyString());
+        verify(clientRepository, never()).save(any(Client.class));
+    }
+
+    /**
+     * Tests a subscription made after a NAV update that has not been applied to the fund itself: the units are bought
+     * at the NAV the portfolio valuation prices them at, so the new position shows no profit or loss.
+     */
+    @Test
+    void testSubscribeFundAfterNavUpdateHasNoProfitAndLoss() {
+        Fund fund = new Fund("1", "Fondo BTG Liquidez", "FPV", new BigDecimal("50.00"));
+        testClient.setCurrentBalance(new BigDecimal("500000.00"));
+        when(fundCatalog.findById("1")).thenReturn(Optional.of(fund));
+        when(fundCatalog.findAll()).thenReturn(List.of(fund));
+        when(mongoTemplate.find(any(Query.class), eq(NavBucket.class))).thenReturn(List.of());
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Client.class)))
+                .thenReturn(testClient);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // The NAV written through by NavService.record, while the fund keeps its previous unit price
+        LatestPriceCache prices = new LatestPriceCache(mongoTemplate, fundCatalog);
+        prices.update("1", LocalDate.now(), new BigDecimal("1.20000000"));
+        ReflectionTestUtils.setField(transactionService, "latestPriceCache", prices);
+
+        transactionService.subscribeFund(testClient.getId(), "1", new BigDecimal("100.00"));
+
+        ArgumentCaptor<Investment> investment = ArgumentCaptor.forClass(Investment.class);
+        verify(investmentRepository).insert(investment.capture());
+        assertEquals(new BigDecimal("83.33333333"), investment.getValue().getUnits());
+
+        Client subscribed = new Client();
+        subscribed.setId(testClient.getId());
+        subscribed.setCurrentBalance(new BigDecimal("499900.00"));
+        subscribed.setActiveInvestments(List.of(investment.getValue()));
+        ClientService clientService = mock(ClientService.class);
+        when(clientService.getClienteById(testClient.getId())).thenReturn(Optional.of(subscribed));
+
+        PortfolioResponseDTO portfolio = new PortfolioService(clientService, prices).getPortfolio(testClient.getId()).orElseThrow();
+
+        assertEquals(new BigDecimal("100.00"), portfolio.getTotalMarketValue());
+        assertEquals(0, BigDecimal.ZERO.compareTo(portfolio.getTotalProfitAndLoss()));
+    }
+
+    /**
+     * Tests the {@code subscribeFund} method when the conditional update matches no client
+     * because the balance is insufficient. It asserts that no investment is ever written
+     * and that no transaction is recorded.
+     */
+    @Test
+    void testSubscribeFundInsufficientBalance() {
+        Fund fund = new Fund("1", "Fondo BTG Liquidez", "FPV", new BigDecimal("100000.00"));
+        testClient.setCurrentBalance(new BigDecimal("120000.00"));
+
+        when(fundCatalog.findById("1")).thenReturn(Optional.of(fund));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Client.class)))
+                .thenReturn(null);
+        when(clientRepository.findById(testClient.getId())).thenReturn(Optional.of(testClient));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                transactionService.subscribeFund(testClient.getId(), "1", new BigDecimal("150000.00")));
+
+        assertTrue(exception.getMessage().startsWith("Insufficient balance"));
+        verify(investmentRepository, never()).insert(any(Investment.class));
+        verify(investmentRepository, never()).delete(any(Investment.class));
+        verify(fundStatsService, never()).recordSubscription(anyString(), any(BigDecimal.class));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    /**
+     * Tests that a history page seeks past its cursor on {@code (date, _id)}: transactions older than the cursor,
+     * or of the same date with a smaller ID, so ties on the date are neither skipped nor repeated across pages.
+     */
+    @Test
+    void testHistoryPageBreaksDateTiesById() {
+        LocalDateTime date = LocalDateTime.of(2024, 3, 1, 10, 0);
+        ObjectId lastId = new ObjectId();
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(Transaction.class))).thenReturn(List.of(testTransaction));
+
+        List<Transaction> page = transactionService.getTransactionsHistoryPage("clientId123",
+                new TransactionCursor(date, lastId.toHexString()), 20);
+
+        assertEquals(List.of(testTransaction), page);
+        Document expected = new Document("clientId", "clientId123").append("$or", List.of(
+                new Document("date", new Document("$lt", date)),
+                new Document("date", date).append("id", new Document("$lt", lastId))));
+        assertEquals(expected, query.getValue().getQueryObject());
+        assertEquals(new Document("date", -1).append("id", -1), query.getValue().getSortObject());
+        assertEquals(21, query.getValue().getLimit());
+    }
+
+    /**
+     * Tests that the history export reads the client's transactions, most recent first, through a cursor fetching
+     * them in batches of 500, so a history larger than one batch is never loaded at once.
+     */
+    @Test
+    void testStreamTransactionsHistoryUsesBatchedCursor() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.stream(query.capture(), eq(Transaction.class))).thenReturn(Stream.of(testTransaction));
+
+        try (Stream<Transaction> history = transactionService.streamTransactionsHistory("clientId123")) {
+            assertEquals(List.of(testTransaction), history.toList());
+        }
+
+        assertEquals("clientId123", query.getValue().getQueryObject().get("clientId"));
+        assertEquals(new Document("date", -1).append("id", -1), query.getValue().getSortObject());
+        assertEquals(500, query.getValue().getMeta().getCursorBatchSize());
+    }
+
+    /**
+     * Tests that a subscription to a fund missing from the catalog is timed under the {@code unknown} fund tag,
+     * and that labelling the timer checks the catalog snapshot only, without a second read-through lookup.
+     */
+    @Test
+    void testSubscribeFundUnknownFundIsTimedWithoutLookup() {
+        when(fundCatalog.findById("F9")).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () ->
+                transactionService.subscribeFund(testClient.getId(), "F9", new BigDecimal("150000.00")));
+
+        verify(fundCatalog, times(1)).findById("F9");
+        verify(fundCatalog).contains("F9");
+        assertEquals(1, meterRegistry.get(TransactionService.SUBSCRIBE_TIMER)
+                .tag("fund", "unknown").tag("outcome", "rejected").timer().count());
+    }
+
+    /**
+     * Tests that the subscription debit compares and writes the balance converted with {@code $toDecimal}, so a
+     * balance still stored as a string is debited as well instead of being reported as a concurrent update.
+     */
+    @Test
+    void testSubscribeFundDebitsLegacyStringBalance() {
+        Fund fund = new Fund("1", "Fondo BTG Liquidez", "FPV", new BigDecimal("100000.00"));
+        testClient.setCurrentBalance(new BigDecimal("500000.00"));
+
+        when(fundCatalog.findById("1")).thenReturn(Optional.of(fund));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Client.class)))
+                .thenReturn(testClient);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        transactionService.subscribeFund(testClient.getId(), "1", new BigDecimal("150000.00"));
+
+        ArgumentCaptor<Query> filter = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> debit = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).findAndModify(filter.capture(), debit.capture(), any(FindAndModifyOptions.class), eq(Client.class));
+        Document balanceCheck = (Document) ((List<?>) filter.getValue().getQueryObject().get("$and")).get(0);
+        assertTrue(((AggregationExpression) balanceCheck.get("$expr")).toDocument().toJson().contains("{\"$toDecimal\": \"$currentBalance\"}"));
+        String pipeline = ((AggregationUpdate) debit.getValue()).toPipeline(Aggregation.DEFAULT_CONTEXT).toString();
+        assertTrue(pipeline.contains("{$subtract=[Document{{$toDecimal=$currentBalance}}, 150000.00]}"));
+    }
+
+    /**
+     * Tests a cancellation interleaved with a subscription whose debit fails. The position is only written
+     * once the balance is debited, so the cancellation running between the failed debit and the end of the
+     * subscription finds no investment and refunds nothing.
+     */
+    @Test
+    void testCancelDuringFailedSubscriptionRefundsNothing() {
+        Fund fund = new Fund("1", "Fondo BTG Liquidez", "FPV", new BigDecimal("100000.00"));
+        testClient.setCurrentBalance(new BigDecimal("120000.00"));
+        List<Investment> positions = new ArrayList<>();
+        List<RuntimeException> cancellations = new ArrayList<>();
+
+        when(fundCatalog.findById("1")).thenReturn(Optional.of(fund));
+        // Records the positions a broken ordering would write before the debit
+        lenient().when(investmentRepository.insert(any(Investment.class))).thenAnswer(invocation -> {
+            positions.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Investment.class)))
+                .thenAnswer(invocation -> positions.isEmpty() ? null : positions.remove(0));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Client.class)))
+                .thenAnswer(invocation -> {
+                    cancellations.add(assertThrows(RuntimeException.class, () -> transactionService.cancelFund(testClient.getId(), "1")));
+                    return null;
+                });
+        when(clientRepository.findById(testClient.getId())).thenReturn(Optional.of(testClient));
+
+        assertThrows(RuntimeException.class, () ->
+                transactionService.subscribeFund(testClient.getId(), "1", new BigDecimal("150000.00")));
+
+        assertEquals(1, cancellations.size());
+        assertTrue(cancellations.get(0).getMessage().startsWith("Client does not have an active investment"));
+        assertTrue(positions.isEmpty());
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Client.class));
+        verify(fundStatsService, never()).recordCancellation(anyString(), any(BigDecimal.class));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    /**
+     * Tests the {@code subscribeFund} method when the client already holds a position in the fund. The debit has
+     * been applied by then, so it asserts that the amount is credited back and that no transaction is recorded.
+     */
+    @Test
+    void testSubscribeFundDuplicatePositionRefundsDebit() {
+        Fund fund = new Fund("1", "Fondo BTG Liquidez", "FPV", new BigDecimal("100000.00"));
+        testClient.setCurrentBalance(new BigDecimal("350000.00"));
+
+        when(fundCatalog.findById("1")).thenReturn(Optional.of(fund));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Client.class)))
+                .thenReturn(testClient);
+        when(investmentRepository.insert(any(Investment.class))).thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                transactionService.subscribeFund(testClient.getId(), "1", new BigDecimal("150000.00")));
+
+        assertTrue(exception.getMessage().startsWith("The client already has an active investment"));
+        ArgumentCaptor<UpdateDefinition> credit = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), credit.capture(), eq(Client.class));
+        String pipeline = ((AggregationUpdate) credit.getValue()).toPipeline(Aggregation.DEFAULT_CONTEXT).toString();
+        assertTrue(pipeline.contains("{$add=[Document{{$toDecimal=$currentBalance}}, 150000.00]}"));
+        verify(fundStatsService, never()).recordSubscription(anyString(), any(BigDecimal.class));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    /**
+     * Tests the {@code subscribeFunds} method with a batch mixing valid and invalid items. It asserts that the
+     * invalid items are rejected without being written, and that the recorded balances are replayed from the
+     * balance read back after the debit rather than from the prefetched, stale balance.
+     */
+    @Test
+    void testSubscribeFundsRejectsInvalidItemsAndRecordsTheRest() {
+        Fund fund = new Fund("1", "Fondo BTG Liquidez", "FPV", new BigDecimal("100000.00"));
+        testClient.setCurrentBalance(new BigDecimal("500000.00"));
+        BulkOperations clientUpdates = stubBatch(List.of(testClient), fund);
+        when(clientUpdates.execute()).thenReturn(modified(1));
+        when(mongoTemplate.find(any(Query.class), eq(Client.class)))
+                .thenReturn(List.of(balanceOf(testClient.getId(), "450000.00"))); // Credited 100000.00 after the prefetch
+
+        List<Transaction> results = transactionService.subscribeFunds(List.of(
+                new SubscriptionRequestDTO(testClient.getId(), "1", new BigDecimal("150000.00")),
+                new SubscriptionRequestDTO(testClient.getId(), "1", new BigDecimal("120000.00")),
+                new SubscriptionRequestDTO("unknownClient", "1", new BigDecimal("150000.00")),
+                new SubscriptionRequestDTO(testClient.getId(), "9", new BigDecimal("150000.00")),
+                new SubscriptionRequestDTO(testClient.getId(), "1", new BigDecimal("1000.00"))));
+
+        assertEquals(5, results.size());
+        assertEquals("COMPLETED", results.get(0).getStatus());
+        assertEquals(new BigDecimal("600000.00"), results.get(0).getClientBalanceBefore());
+        assertEquals(new BigDecimal("450000.00"), results.get(0).getClientBalanceAfter());
+        assertTrue(results.get(1).getErrorMessage().startsWith("The client already has an active investment"));
+        assertTrue(results.get(2).getErrorMessage().startsWith("Client not found"));
+        assertTrue(results.get(3).getErrorMessage().startsWith("Fund not found"));
+        assertTrue(results.get(4).getErrorMessage().contains("less than the fund's minimum amount"));
+        results.subList(1, 5).forEach(result -> {
+            assertEquals("REJECTED", result.getStatus());
+            assertNull(result.getId());
+        });
+        verify(clientUpdates, times(1)).updateOne(any(Query.class), any(UpdateDefinition.class));
+        verify(fundStatsService).recordSubscriptions(argThat(investments -> investments.size() == 1));
+    }
+
+    /**
+     * Tests the {@code subscribeFunds} method when the unique index rejects a position inserted by the batch,
+     * because of a concurrent subscription to the same fund. It asserts that the item is rejected and its
+     * debit credited back, while the other items of the client are recorded.
+     */
+    @Test
+    void testSubscribeFundsRefundsDuplicatePositions() {
+        Fund liquidity = new Fund("1", "Fondo BTG Liquidez", "FPV", new BigDecimal("100000.00"));
+        Fund equity = new Fund("2", "Fondo BTG Acciones", "FIC", new BigDecimal("50000.00"));
+        testClient.setCurrentBalance(new BigDecimal("500000.00"));
+        BulkOperations clientUpdates = stubBatch(List.of(testClient), liquidity, equity);
+        BulkOperations credits = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Client.class)).thenReturn(clientUpdates, credits);
+        when(clientUpdates.execute()).thenReturn(modified(1));
+        when(batchInserts.get(Investment.class).execute()).thenThrow(new BulkOperationException("E11000 duplicate key",
+                new MongoBulkWriteException(modified(0), List.of(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1)),
+                        null, new ServerAddress(), Set.of())));
+        when(mongoTemplate.find(any(Query.class), eq(Client.class)))
+                .thenReturn(List.of(balanceOf(testClient.getId(), "350000.00")));
+
+        List<Transaction> results = transactionService.subscribeFunds(List.of(
+                new SubscriptionRequestDTO(testClient.getId(), "1", new BigDecimal("150000.00")),
+                new SubscriptionRequestDTO(testClient.getId(), "2", new BigDecimal("60000.00"))));
+
+        assertEquals("COMPLETED", results.get(0).getStatus());
+        assertEquals(new BigDecimal("500000.00"), results.get(0).getClientBalanceBefore());
+        assertEquals(new BigDecimal("350000.00"), results.get(0).getClientBalanceAfter());
+        assertEquals("REJECTED", results.get(1).getStatus());
+        assertTrue(results.get(1).getErrorMessage().startsWith("The client already has an active investment in fund Fondo BTG Acciones"));
+        ArgumentCaptor<UpdateDefinition> credit = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(credits).updateOne(any(Query.class), credit.capture());
+        verify(credits).execute();
+        String pipeline = ((AggregationUpdate) credit.getValue()).toPipeline(Aggregation.DEFAULT_CONTEXT).toString();
+        assertTrue(pipeline.contains("{$add=[Document{{$toDecimal=$currentBalance}}, 60000.00]}"));
+        verify(batchInserts.get(Transaction.class)).insert(argThat((List<?> recorded) -> recorded.size() == 1));
+    }
+
+    /**
+     * Tests the {@code subscribeFunds} method when the bulk debit modifies fewer clients than expected because
+     * a client changed concurrently. It asserts that the clients holding the batch ID in {@code recentBatchIds}
+     * are read back, and that the items of the other client are rejected before any position is written.
+     */
+    @Test
+    void testSubscribeFundsRejectsItemsWhoseDebitWasNotApplied() {
+        Fund fund = new Fund("1", "Fondo BTG Liquidez", "FPV", new BigDecimal("100000.00"));
+        testClient.setCurrentBalance(new BigDecimal("500000.00"));
+        Client otherClient = new Client();
+        otherClient.setId("clientId456");
+        otherClient.setCurrentBalance(new BigDecimal("500000.00"));
+        BulkOperations clientUpdates = stubBatch(List.of(testClient, otherClient), fund);
+        when(clientUpdates.execute()).thenReturn(modified(1));
+        when(mongoTemplate.find(any(Query.class), eq(Client.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            return query.getQueryObject().containsKey("recentBatchIds")
+                    ? List.of(balanceOf(testClient.getId(), null))
+                    : List.of(balanceOf(testClient.getId(), "350000.00"));
+        });
+
+        List<Transaction> results = transactionService.subscribeFunds(List.of(
+                new SubscriptionRequestDTO(testClient.getId(), "1", new BigDecimal("150000.00")),
+                new SubscriptionRequestDTO(otherClient.getId(), "1", new BigDecimal("150000.00"))));
+
+        assertEquals("COMPLETED", results.get(0).getStatus());
+        assertEquals("REJECTED", results.get(1).getStatus());
+        assertTrue(results.get(1).getErrorMessage().startsWith("The subscription conflicted with a concurrent update for client clientId456"));
+        verify(clientUpdates, times(2)).updateOne(any(Query.class), any(UpdateDefinition.class));
+        verify(batchInserts.get(Investment.class)).insert(argThat((List<? extends Investment> positions) ->
+                positions.size() == 1 && positions.get(0).getClientId().equals(testClient.getId())));
+        verify(batchInserts.get(Transaction.class)).insert(argThat((List<?> recorded) -> recorded.size() == 1));
+    }
+
+    /**
+     * Stubs the prefetch and the bulk writes of a batch.
+     *
+     * @param clients The clients of the batch, with no position.
+     * @param funds   The funds of the catalog.
+     * @return The bulk operations debiting the clients.
+     */
+    private BulkOperations stubBatch(List<Client> clients, Fund... funds) {
+        ReflectionTestUtils.setField(transactionService, "maxBatchSize", 100);
+        lenient().when(clientRepository.findAllById(any())).thenReturn(clients);
+        lenient().when(investmentRepository.findByClientIdIn(any())).thenReturn(List.of());
+        lenient().when(fundCatalog.findById(anyString())).thenReturn(Optional.empty());
+        for (Fund fund : funds) {
+            lenient().when(fundCatalog.findById(fund.getId())).thenReturn(Optional.of(fund));
+        }
+        BulkOperations clientUpdates = mock(BulkOperations.class);
+        lenient().when(clientUpdates.updateOne(any(Query.class), any(UpdateDefinition.class))).thenReturn(clientUpdates);
+        lenient().when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Client.class)).thenReturn(clientUpdates);
+        for (Class<?> type : List.of(Investment.class, Transaction.class)) {
+            BulkOperations inserts = mock(BulkOperations.class);
+            lenient().when(inserts.insert(anyList())).thenReturn(inserts);
+            lenient().when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type)).thenReturn(inserts);
+            batchInserts.put(type, inserts);
+        }
+        return clientUpdates;
+    }
+
+    /**
+     * Builds the result of a bulk write that modified the given number of documents.
+     *
+     * @param modifiedCount The number of modified documents.
+     * @return The {@link BulkWriteResult}.
+     */
+    private static BulkWriteResult modified(int modifiedCount) {
+        return BulkWriteResult.acknowledged(0, modifiedCount, 0, modifiedCount, List.of(), List.of());
+    }
+
+    /**
+     * Builds a client as read back with only its ID and balance.
+     *
+     * @param clientId The ID of the client.
+     * @param balance  The balance of the client, or {@code null} if it was not read.
+     * @return The {@link Client}.
+     */
+    private static Client balanceOf(String clientId, String balance) {
+        Client client = new Client();
+        client.setId(clientId);
+        client.setCurrentBalance(balance == null ? null : new BigDecimal(balance));
+        return client;
+    }
+}